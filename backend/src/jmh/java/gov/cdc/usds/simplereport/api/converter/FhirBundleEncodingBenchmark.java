@@ -0,0 +1,53 @@
+package gov.cdc.usds.simplereport.api.converter;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares HAPI's parser with {@link FhirBundleJsonEncoder} on a full test event bundle. Run with
+ * {@code ./gradlew jmh}; the gc profiler reports allocation per encoded bundle as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FhirBundleEncodingBenchmark {
+  private IParser parser;
+  private FhirBundleJsonEncoder encoder;
+  private Bundle bundle;
+
+  @Setup
+  public void setUp() throws IOException {
+    FhirContext ctx = FhirContext.forR4();
+    parser = ctx.newJsonParser();
+    encoder = new FhirBundleJsonEncoder(ctx);
+    try (InputStream json =
+        Objects.requireNonNull(
+            getClass().getClassLoader().getResourceAsStream("fhir/bundle.json"))) {
+      String serialized = new String(json.readAllBytes(), StandardCharsets.UTF_8);
+      bundle = parser.parseResource(Bundle.class, serialized);
+    }
+  }
+
+  @Benchmark
+  public String hapiParser() {
+    return parser.encodeResourceToString(bundle);
+  }
+
+  @Benchmark
+  public String fastEncoder() {
+    return encoder.encodeToString(bundle);
+  }
+}
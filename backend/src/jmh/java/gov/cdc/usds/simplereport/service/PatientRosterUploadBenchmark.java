@@ -0,0 +1,140 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.test_util.TestDataBuilder.getAddress;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import gov.cdc.usds.simplereport.SimpleReportApplication;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.service.model.UnvalidatedAddress;
+import gov.cdc.usds.simplereport.test_util.DbTruncator;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.Role;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.filter.TestTypeExcludeFilter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Uploads a 10,000-patient roster through {@link PatientBulkUploadServiceAsync}, into an emptied
+ * organization each time. Runs the application with the test profile, so the test database has to
+ * be up; each upload takes the better part of a minute. Run with {@code ./gradlew jmh}; scores are
+ * patients saved per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PatientRosterUploadBenchmark {
+  private static final int ROSTER_SIZE = 10_000;
+
+  private ConfigurableApplicationContext context;
+  private PatientBulkUploadServiceAsync uploadService;
+  private OrganizationService organizationService;
+  private byte[] roster;
+  private UUID facilityId;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context =
+        new SpringApplicationBuilder(SimpleReportApplication.class, StubAddressValidation.class)
+            .profiles("test")
+            // leave out the configuration only some tests use, as the test runner does
+            .initializers(
+                ctx ->
+                    ctx.getBeanFactory()
+                        .registerSingleton(
+                            TestTypeExcludeFilter.class.getName(), new TestTypeExcludeFilter()))
+            .run("--server.port=0");
+    uploadService = context.getBean(PatientBulkUploadServiceAsync.class);
+    organizationService = context.getBean(OrganizationService.class);
+
+    StringBuilder csv =
+        new StringBuilder(
+            "last_name,first_name,date_of_birth,biological_sex,race,ethnicity,street,city,state,"
+                + "zip_code,phone_number,phone_number_type,employed_in_healthcare,"
+                + "resident_congregate_setting,role\n");
+    for (int i = 0; i < ROSTER_SIZE; i++) {
+      csv.append("Roster,Patient")
+          .append(i)
+          .append(",11/3/80,Female,white,not hispanic or latino,1234 Main Street,Anchorage,AK,")
+          .append("99501,410-867-5309,mobile,No,No,Staff\n");
+    }
+    roster = csv.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Setup(Level.Invocation)
+  public void emptyOrganization() {
+    context.getBean(DbTruncator.class).truncateAll();
+    context.getBean(DiseaseService.class).initDiseases();
+    TestUserIdentities.withStandardUser(
+        context.getBean(OrganizationInitializingService.class)::initAll);
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new TestingAuthenticationToken(
+                TestUserIdentities.STANDARD_USER,
+                null,
+                Role.DEFAULT_ORG_NO_ACCESS,
+                Role.DEFAULT_ORG_USER,
+                Role.DEFAULT_ORG_ALL_FACILITIES));
+    facilityId =
+        organizationService
+            .getFacilities(organizationService.getCurrentOrganization())
+            .get(0)
+            .getInternalId();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROSTER_SIZE)
+  public Set<Person> uploadRoster() throws ExecutionException, InterruptedException {
+    return uploadService.savePatients(roster, facilityId).get();
+  }
+
+  /** Takes every address as it is, rather than asking SmartyStreets. */
+  @Configuration
+  static class StubAddressValidation {
+    @Bean
+    @Primary
+    AddressValidationService stubAddressValidationService() {
+      AddressValidationService service =
+          mock(AddressValidationService.class, withSettings().stubOnly());
+      when(service.getValidatedAddresses(any()))
+          .thenAnswer(
+              invocation -> {
+                Collection<UnvalidatedAddress> addresses = invocation.getArgument(0);
+                return addresses.stream()
+                    .distinct()
+                    .collect(Collectors.toMap(Function.identity(), address -> getAddress()));
+              });
+      return service;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getIteratorForCsv;
+import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getNextRow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import gov.cdc.usds.simplereport.api.converter.FhirConverter;
+import gov.cdc.usds.simplereport.api.model.filerow.TestResultRow;
+import gov.cdc.usds.simplereport.service.ResultsUploaderCachingService;
+import gov.cdc.usds.simplereport.test_util.TestDataBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.info.GitProperties;
+
+/**
+ * Converts 1000 rows of the test result upload fixture to serialized FHIR bundles on one thread,
+ * either with one {@link FhirResourceMemo} across the rows, as an upload does, or rebuilding the
+ * shared resources for every row. Run with {@code ./gradlew jmh}; scores are rows converted per
+ * second, and the gc profiler reports allocation per row as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkUploadConversionBenchmark {
+  private static final int ROWS = 1000;
+
+  @Param({"true", "false"})
+  public boolean sharedMemo;
+
+  private final List<TestResultRow> rows = new ArrayList<>();
+  private final UUID orgId = UUID.fromString("12345000-0000-0000-0000-000000000000");
+  private FhirConversionExecutor conversionExecutor;
+  private BulkUploadResultsToFhir converter;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream csv =
+        Objects.requireNonNull(
+            getClass()
+                .getClassLoader()
+                .getResourceAsStream("testResultUpload/test-results-upload-valid-5000-rows.csv"))) {
+      var valueIterator = getIteratorForCsv(csv);
+      while (valueIterator.hasNext() && rows.size() < ROWS) {
+        rows.add(new TestResultRow(getNextRow(valueIterator)));
+      }
+    }
+
+    // stub-only mocks don't record invocations, which would otherwise dominate the measurement
+    var resultsUploaderCachingService =
+        mock(ResultsUploaderCachingService.class, withSettings().stubOnly());
+    when(resultsUploaderCachingService.getModelAndTestPerformedCodeToDeviceMap())
+        .thenReturn(Map.of("id now|94534-5", TestDataBuilder.createDeviceTypeForBulkUpload()));
+    when(resultsUploaderCachingService.getSpecimenTypeNameToSNOMEDMap())
+        .thenReturn(
+            Map.of(
+                "nasal swab", "445297001",
+                "anterior nares swab", "697989009"));
+    when(resultsUploaderCachingService.getSNOMEDToSpecimenTypeNameMap())
+        .thenReturn(
+            Map.of(
+                "445297001", "Nasal swab",
+                "697989009", "Anterior nares swab"));
+    when(resultsUploaderCachingService.getZoneIdByAddress(any()))
+        .thenReturn(ZoneId.of("US/Central"));
+    var gitProperties = mock(GitProperties.class, withSettings().stubOnly());
+    when(gitProperties.getCommitTime()).thenReturn(Instant.parse("2023-02-08T21:33:06Z"));
+    when(gitProperties.getShortCommitId()).thenReturn("short-commit-id");
+
+    var uuidGenerator = new UUIDGenerator();
+    var dateGenerator = new DateGenerator();
+    conversionExecutor = new FhirConversionExecutor(1, 1, new SimpleMeterRegistry());
+    converter =
+        new BulkUploadResultsToFhir(
+            resultsUploaderCachingService,
+            gitProperties,
+            uuidGenerator,
+            dateGenerator,
+            new FhirConverter(uuidGenerator, dateGenerator),
+            conversionExecutor);
+  }
+
+  @TearDown
+  public void tearDown() {
+    conversionExecutor.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void convertRows(Blackhole blackhole) {
+    var memo = converter.newResourceMemo();
+    for (TestResultRow row : rows) {
+      blackhole.consume(
+          converter.convertToSerializedFhirBundle(
+              row, orgId, sharedMemo ? memo : converter.newResourceMemo()));
+    }
+  }
+}
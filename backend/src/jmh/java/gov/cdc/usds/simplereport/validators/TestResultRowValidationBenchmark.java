@@ -0,0 +1,72 @@
+package gov.cdc.usds.simplereport.validators;
+
+import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getIteratorForCsv;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import gov.cdc.usds.simplereport.api.model.filerow.TestResultRow;
+import gov.cdc.usds.simplereport.config.FeatureFlagsConfig;
+import gov.cdc.usds.simplereport.service.ResultsUploaderCachingService;
+import gov.cdc.usds.simplereport.test_util.TestDataBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Validates every row of the 5000-row test result upload fixture, the way a bulk upload does. Run
+ * with {@code ./gradlew jmh}; scores are rows validated per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TestResultRowValidationBenchmark {
+  private static final int ROWS = 5000;
+
+  private final List<Map<String, String>> rows = new ArrayList<>();
+  private ResultsUploaderCachingService resultsUploaderCachingService;
+  private FeatureFlagsConfig featureFlagsConfig;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream csv =
+        Objects.requireNonNull(
+            getClass()
+                .getClassLoader()
+                .getResourceAsStream("testResultUpload/test-results-upload-valid-5000-rows.csv"))) {
+      getIteratorForCsv(csv).forEachRemaining(rows::add);
+    }
+    if (rows.size() != ROWS) {
+      throw new IllegalStateException("Expected " + ROWS + " rows but read " + rows.size());
+    }
+    // stub-only mocks don't record invocations, which would otherwise dominate the measurement
+    resultsUploaderCachingService =
+        mock(ResultsUploaderCachingService.class, withSettings().stubOnly());
+    when(resultsUploaderCachingService.getModelAndTestPerformedCodeToDeviceMap())
+        .thenReturn(Map.of("id now|94534-5", TestDataBuilder.createDeviceType()));
+    featureFlagsConfig = mock(FeatureFlagsConfig.class, withSettings().stubOnly());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void validateRows(Blackhole blackhole) {
+    for (var row : rows) {
+      var testResultRow = new TestResultRow(row, resultsUploaderCachingService, featureFlagsConfig);
+      blackhole.consume(testResultRow.validateRequiredFields());
+      blackhole.consume(testResultRow.validateIndividualValues());
+    }
+  }
+}
@@ -0,0 +1,767 @@
+package gov.cdc.usds.simplereport.api.converter;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Address;
+import org.hl7.fhir.r4.model.Annotation;
+import org.hl7.fhir.r4.model.BackboneElement;
+import org.hl7.fhir.r4.model.BooleanType;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.ContactPoint;
+import org.hl7.fhir.r4.model.DecimalType;
+import org.hl7.fhir.r4.model.Device;
+import org.hl7.fhir.r4.model.DiagnosticReport;
+import org.hl7.fhir.r4.model.DomainResource;
+import org.hl7.fhir.r4.model.Element;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.HumanName;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.IntegerType;
+import org.hl7.fhir.r4.model.MessageHeader;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Period;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.hl7.fhir.r4.model.PractitionerRole;
+import org.hl7.fhir.r4.model.PrimitiveType;
+import org.hl7.fhir.r4.model.Provenance;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ServiceRequest;
+import org.hl7.fhir.r4.model.Specimen;
+import org.hl7.fhir.r4.model.Type;
+
+/**
+ * Writes the bundles {@link FhirConverter} builds as one line of JSON without going through HAPI's
+ * reflective parser, which is most of the CPU time spent on a result upload. It knows the fixed set
+ * of resources those bundles are made of, and writes every element in the order HAPI does, so the
+ * output is the same as {@code IParser.encodeResourceToString} on a non-pretty-printing parser.
+ *
+ * <p>Bundles holding something it doesn't know how to write, like another kind of resource,
+ * narrative text, contained resources or one of the rarely used backbone elements, are encoded by
+ * HAPI instead. So are bundles with a primitive value that has extensions or an id, which HAPI
+ * writes into a separate {@code _name} property: {@link #checkPlain} finds those as the primitives
+ * are written and hands the whole bundle to HAPI.
+ */
+@Slf4j
+public class FhirBundleJsonEncoder {
+  private static final int INITIAL_CAPACITY = 16 * 1024;
+
+  private final JsonFactory jsonFactory =
+      JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+  // parsers are cheap to reuse but not safe to share between threads
+  private final ThreadLocal<IParser> parsers;
+
+  public FhirBundleJsonEncoder(FhirContext context) {
+    this.parsers = ThreadLocal.withInitial(context::newJsonParser);
+  }
+
+  /** Encodes the bundle, handing it to HAPI if it holds anything this encoder can't write. */
+  public String encodeToString(Bundle bundle) {
+    if (supports(bundle)) {
+      var writer = new StringWriter(INITIAL_CAPACITY);
+      try (JsonGenerator json = jsonFactory.createGenerator(writer)) {
+        writeBundle(json, bundle);
+      } catch (UnsupportedElementException e) {
+        log.debug("Encoding bundle with HAPI: {}", e.getMessage());
+        return parsers.get().encodeResourceToString(bundle);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return writer.toString();
+    }
+    return parsers.get().encodeResourceToString(bundle);
+  }
+
+  /**
+   * Writes the bundle straight to a stream as UTF-8, leaving the stream open. Only for bundles this
+   * encoder {@link #supports(Bundle) supports}.
+   *
+   * @throws IllegalArgumentException if the bundle holds something this encoder can't write, in
+   *     which case part of it may already have been written
+   */
+  public void encode(Bundle bundle, OutputStream out) throws IOException {
+    if (!supports(bundle)) {
+      throw new IllegalArgumentException("Bundle can't be written without HAPI");
+    }
+    try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+      writeBundle(json, bundle);
+    }
+  }
+
+  /**
+   * Whether every resource in the bundle is one this encoder knows, with no elements it would have
+   * to leave out.
+   */
+  public boolean supports(Bundle bundle) {
+    if (bundle.hasImplicitRules()
+        || bundle.hasLanguage()
+        || bundle.hasLink()
+        || bundle.hasSignature()
+        || bundle.hasTotal()) {
+      return false;
+    }
+    for (BundleEntryComponent entry : bundle.getEntry()) {
+      if (entry.hasLink() || entry.hasSearch() || entry.hasRequest() || entry.hasResponse()) {
+        return false;
+      }
+      if (entry.hasResource() && !supportsResource(entry.getResource())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean supportsResource(Resource resource) {
+    if (resource.hasImplicitRules() || resource.hasLanguage()) {
+      return false;
+    }
+    if (resource instanceof DomainResource domainResource
+        && (domainResource.hasText() || domainResource.hasContained())) {
+      return false;
+    }
+    return switch (resource.getResourceType()) {
+      case MessageHeader -> !((MessageHeader) resource).hasResponse();
+      case Provenance -> {
+        var provenance = (Provenance) resource;
+        yield !provenance.hasEntity() && !provenance.hasSignature();
+      }
+      case DiagnosticReport -> {
+        var report = (DiagnosticReport) resource;
+        yield !report.hasImagingStudy() && !report.hasMedia() && !report.hasPresentedForm();
+      }
+      case Patient -> {
+        var patient = (Patient) resource;
+        yield !patient.hasPhoto()
+            && !patient.hasContact()
+            && !patient.hasCommunication()
+            && !patient.hasLink();
+      }
+      case Organization -> !((Organization) resource).hasContact();
+      case Practitioner -> {
+        var practitioner = (Practitioner) resource;
+        yield !practitioner.hasPhoto() && !practitioner.hasQualification();
+      }
+      case Specimen -> {
+        var specimen = (Specimen) resource;
+        yield !specimen.hasProcessing()
+            && !specimen.hasContainer()
+            && (!specimen.hasCollection()
+                || (!specimen.getCollection().hasDuration()
+                    && !specimen.getCollection().hasQuantity()
+                    && !specimen.getCollection().hasFasting()));
+      }
+      case ServiceRequest -> {
+        var serviceRequest = (ServiceRequest) resource;
+        yield !serviceRequest.hasQuantity() && !serviceRequest.hasAsNeeded();
+      }
+      case Device -> {
+        var device = (Device) resource;
+        yield !device.hasUdiCarrier()
+            && !device.hasSpecialization()
+            && !device.hasVersion()
+            && !device.hasProperty();
+      }
+      case PractitionerRole -> {
+        var role = (PractitionerRole) resource;
+        yield !role.hasAvailableTime() && !role.hasNotAvailable();
+      }
+      case Observation -> {
+        var observation = (Observation) resource;
+        yield !observation.hasReferenceRange() && !observation.hasComponent();
+      }
+      default -> false;
+    };
+  }
+
+  private void writeBundle(JsonGenerator json, Bundle bundle) throws IOException {
+    json.writeStartObject();
+    writeResourceStart(json, bundle);
+    complex(json, "identifier", bundle.getIdentifier());
+    primitive(json, "type", bundle.getTypeElement());
+    primitive(json, "timestamp", bundle.getTimestampElement());
+    if (bundle.hasEntry()) {
+      json.writeArrayFieldStart("entry");
+      for (BundleEntryComponent entry : bundle.getEntry()) {
+        json.writeStartObject();
+        writeBackboneStart(json, entry);
+        primitive(json, "fullUrl", entry.getFullUrlElement());
+        if (entry.hasResource()) {
+          json.writeFieldName("resource");
+          writeResource(json, entry.getResource());
+        }
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+    }
+    json.writeEndObject();
+  }
+
+  private void writeResource(JsonGenerator json, Resource resource) throws IOException {
+    json.writeStartObject();
+    writeResourceStart(json, resource);
+    writeExtensions(json, (DomainResource) resource);
+    switch (resource.getResourceType()) {
+      case MessageHeader -> writeMessageHeader(json, (MessageHeader) resource);
+      case Provenance -> writeProvenance(json, (Provenance) resource);
+      case DiagnosticReport -> writeDiagnosticReport(json, (DiagnosticReport) resource);
+      case Patient -> writePatient(json, (Patient) resource);
+      case Organization -> writeOrganization(json, (Organization) resource);
+      case Practitioner -> writePractitioner(json, (Practitioner) resource);
+      case Specimen -> writeSpecimen(json, (Specimen) resource);
+      case ServiceRequest -> writeServiceRequest(json, (ServiceRequest) resource);
+      case Device -> writeDevice(json, (Device) resource);
+      case PractitionerRole -> writePractitionerRole(json, (PractitionerRole) resource);
+      case Observation -> writeObservation(json, (Observation) resource);
+      default -> throw new UnsupportedElementException(resource.fhirType());
+    }
+    json.writeEndObject();
+  }
+
+  private void writeResourceStart(JsonGenerator json, Resource resource) throws IOException {
+    json.writeStringField("resourceType", resource.fhirType());
+    // like HAPI, only the id part: no base URL, resource type or version
+    if (resource.hasIdElement() && resource.getIdElement().hasIdPart()) {
+      json.writeStringField("id", resource.getIdElement().getIdPart());
+    }
+    if (resource.hasMeta()) {
+      writeMeta(json, resource.getMeta());
+    }
+  }
+
+  private void writeMessageHeader(JsonGenerator json, MessageHeader header) throws IOException {
+    if (header.hasEvent()) {
+      value(json, "event", header.getEvent());
+    }
+    if (header.hasDestination()) {
+      json.writeArrayFieldStart("destination");
+      for (var destination : header.getDestination()) {
+        json.writeStartObject();
+        writeBackboneStart(json, destination);
+        primitive(json, "name", destination.getNameElement());
+        complex(json, "target", destination.getTarget());
+        primitive(json, "endpoint", destination.getEndpointElement());
+        complex(json, "receiver", destination.getReceiver());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+    }
+    complex(json, "sender", header.getSender());
+    complex(json, "enterer", header.getEnterer());
+    complex(json, "author", header.getAuthor());
+    if (header.hasSource()) {
+      var source = header.getSource();
+      json.writeObjectFieldStart("source");
+      writeBackboneStart(json, source);
+      primitive(json, "name", source.getNameElement());
+      primitive(json, "software", source.getSoftwareElement());
+      primitive(json, "version", source.getVersionElement());
+      complex(json, "contact", source.getContact());
+      primitive(json, "endpoint", source.getEndpointElement());
+      json.writeEndObject();
+    }
+    complex(json, "responsible", header.getResponsible());
+    complex(json, "reason", header.getReason());
+    complexList(json, "focus", header.getFocus());
+    primitive(json, "definition", header.getDefinitionElement());
+  }
+
+  private void writeProvenance(JsonGenerator json, Provenance provenance) throws IOException {
+    complexList(json, "target", provenance.getTarget());
+    if (provenance.hasOccurred()) {
+      value(json, "occurred", provenance.getOccurred());
+    }
+    primitive(json, "recorded", provenance.getRecordedElement());
+    primitiveList(json, "policy", provenance.getPolicy());
+    complex(json, "location", provenance.getLocation());
+    complexList(json, "reason", provenance.getReason());
+    complex(json, "activity", provenance.getActivity());
+    if (provenance.hasAgent()) {
+      json.writeArrayFieldStart("agent");
+      for (var agent : provenance.getAgent()) {
+        json.writeStartObject();
+        writeBackboneStart(json, agent);
+        complex(json, "type", agent.getType());
+        complexList(json, "role", agent.getRole());
+        complex(json, "who", agent.getWho());
+        complex(json, "onBehalfOf", agent.getOnBehalfOf());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+    }
+  }
+
+  private void writeDiagnosticReport(JsonGenerator json, DiagnosticReport report)
+      throws IOException {
+    complexList(json, "identifier", report.getIdentifier());
+    complexList(json, "basedOn", report.getBasedOn());
+    primitive(json, "status", report.getStatusElement());
+    complexList(json, "category", report.getCategory());
+    complex(json, "code", report.getCode());
+    complex(json, "subject", report.getSubject());
+    complex(json, "encounter", report.getEncounter());
+    if (report.hasEffective()) {
+      value(json, "effective", report.getEffective());
+    }
+    primitive(json, "issued", report.getIssuedElement());
+    complexList(json, "performer", report.getPerformer());
+    complexList(json, "resultsInterpreter", report.getResultsInterpreter());
+    complexList(json, "specimen", report.getSpecimen());
+    complexList(json, "result", report.getResult());
+    primitive(json, "conclusion", report.getConclusionElement());
+    complexList(json, "conclusionCode", report.getConclusionCode());
+  }
+
+  private void writePatient(JsonGenerator json, Patient patient) throws IOException {
+    complexList(json, "identifier", patient.getIdentifier());
+    primitive(json, "active", patient.getActiveElement());
+    complexList(json, "name", patient.getName());
+    complexList(json, "telecom", patient.getTelecom());
+    primitive(json, "gender", patient.getGenderElement());
+    primitive(json, "birthDate", patient.getBirthDateElement());
+    if (patient.hasDeceased()) {
+      value(json, "deceased", patient.getDeceased());
+    }
+    complexList(json, "address", patient.getAddress());
+    complex(json, "maritalStatus", patient.getMaritalStatus());
+    if (patient.hasMultipleBirth()) {
+      value(json, "multipleBirth", patient.getMultipleBirth());
+    }
+    complexList(json, "generalPractitioner", patient.getGeneralPractitioner());
+    complex(json, "managingOrganization", patient.getManagingOrganization());
+  }
+
+  private void writeOrganization(JsonGenerator json, Organization organization)
+      throws IOException {
+    complexList(json, "identifier", organization.getIdentifier());
+    primitive(json, "active", organization.getActiveElement());
+    complexList(json, "type", organization.getType());
+    primitive(json, "name", organization.getNameElement());
+    primitiveList(json, "alias", organization.getAlias());
+    complexList(json, "telecom", organization.getTelecom());
+    complexList(json, "address", organization.getAddress());
+    complex(json, "partOf", organization.getPartOf());
+    complexList(json, "endpoint", organization.getEndpoint());
+  }
+
+  private void writePractitioner(JsonGenerator json, Practitioner practitioner)
+      throws IOException {
+    complexList(json, "identifier", practitioner.getIdentifier());
+    primitive(json, "active", practitioner.getActiveElement());
+    complexList(json, "name", practitioner.getName());
+    complexList(json, "telecom", practitioner.getTelecom());
+    complexList(json, "address", practitioner.getAddress());
+    primitive(json, "gender", practitioner.getGenderElement());
+    primitive(json, "birthDate", practitioner.getBirthDateElement());
+    complexList(json, "communication", practitioner.getCommunication());
+  }
+
+  private void writeSpecimen(JsonGenerator json, Specimen specimen) throws IOException {
+    complexList(json, "identifier", specimen.getIdentifier());
+    complex(json, "accessionIdentifier", specimen.getAccessionIdentifier());
+    primitive(json, "status", specimen.getStatusElement());
+    complex(json, "type", specimen.getType());
+    complex(json, "subject", specimen.getSubject());
+    primitive(json, "receivedTime", specimen.getReceivedTimeElement());
+    complexList(json, "parent", specimen.getParent());
+    complexList(json, "request", specimen.getRequest());
+    if (specimen.hasCollection()) {
+      var collection = specimen.getCollection();
+      json.writeObjectFieldStart("collection");
+      writeBackboneStart(json, collection);
+      complex(json, "collector", collection.getCollector());
+      if (collection.hasCollected()) {
+        value(json, "collected", collection.getCollected());
+      }
+      complex(json, "method", collection.getMethod());
+      complex(json, "bodySite", collection.getBodySite());
+      json.writeEndObject();
+    }
+    complexList(json, "condition", specimen.getCondition());
+    complexList(json, "note", specimen.getNote());
+  }
+
+  private void writeServiceRequest(JsonGenerator json, ServiceRequest request)
+      throws IOException {
+    complexList(json, "identifier", request.getIdentifier());
+    primitiveList(json, "instantiatesCanonical", request.getInstantiatesCanonical());
+    primitiveList(json, "instantiatesUri", request.getInstantiatesUri());
+    complexList(json, "basedOn", request.getBasedOn());
+    complexList(json, "replaces", request.getReplaces());
+    complex(json, "requisition", request.getRequisition());
+    primitive(json, "status", request.getStatusElement());
+    primitive(json, "intent", request.getIntentElement());
+    complexList(json, "category", request.getCategory());
+    primitive(json, "priority", request.getPriorityElement());
+    primitive(json, "doNotPerform", request.getDoNotPerformElement());
+    complex(json, "code", request.getCode());
+    complexList(json, "orderDetail", request.getOrderDetail());
+    complex(json, "subject", request.getSubject());
+    complex(json, "encounter", request.getEncounter());
+    if (request.hasOccurrence()) {
+      value(json, "occurrence", request.getOccurrence());
+    }
+    primitive(json, "authoredOn", request.getAuthoredOnElement());
+    complex(json, "requester", request.getRequester());
+    complex(json, "performerType", request.getPerformerType());
+    complexList(json, "performer", request.getPerformer());
+    complexList(json, "locationCode", request.getLocationCode());
+    complexList(json, "locationReference", request.getLocationReference());
+    complexList(json, "reasonCode", request.getReasonCode());
+    complexList(json, "reasonReference", request.getReasonReference());
+    complexList(json, "insurance", request.getInsurance());
+    complexList(json, "supportingInfo", request.getSupportingInfo());
+    complexList(json, "specimen", request.getSpecimen());
+    complexList(json, "bodySite", request.getBodySite());
+    complexList(json, "note", request.getNote());
+    primitive(json, "patientInstruction", request.getPatientInstructionElement());
+    complexList(json, "relevantHistory", request.getRelevantHistory());
+  }
+
+  private void writeDevice(JsonGenerator json, Device device) throws IOException {
+    complexList(json, "identifier", device.getIdentifier());
+    complex(json, "definition", device.getDefinition());
+    primitive(json, "status", device.getStatusElement());
+    complexList(json, "statusReason", device.getStatusReason());
+    primitive(json, "distinctIdentifier", device.getDistinctIdentifierElement());
+    primitive(json, "manufacturer", device.getManufacturerElement());
+    primitive(json, "manufactureDate", device.getManufactureDateElement());
+    primitive(json, "expirationDate", device.getExpirationDateElement());
+    primitive(json, "lotNumber", device.getLotNumberElement());
+    primitive(json, "serialNumber", device.getSerialNumberElement());
+    if (device.hasDeviceName()) {
+      json.writeArrayFieldStart("deviceName");
+      for (var deviceName : device.getDeviceName()) {
+        json.writeStartObject();
+        writeBackboneStart(json, deviceName);
+        primitive(json, "name", deviceName.getNameElement());
+        primitive(json, "type", deviceName.getTypeElement());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+    }
+    primitive(json, "modelNumber", device.getModelNumberElement());
+    primitive(json, "partNumber", device.getPartNumberElement());
+    complex(json, "type", device.getType());
+    complex(json, "patient", device.getPatient());
+    complex(json, "owner", device.getOwner());
+    complexList(json, "contact", device.getContact());
+    complex(json, "location", device.getLocation());
+    primitive(json, "url", device.getUrlElement());
+    complexList(json, "note", device.getNote());
+    complexList(json, "safety", device.getSafety());
+    complex(json, "parent", device.getParent());
+  }
+
+  private void writePractitionerRole(JsonGenerator json, PractitionerRole role)
+      throws IOException {
+    complexList(json, "identifier", role.getIdentifier());
+    primitive(json, "active", role.getActiveElement());
+    complex(json, "period", role.getPeriod());
+    complex(json, "practitioner", role.getPractitioner());
+    complex(json, "organization", role.getOrganization());
+    complexList(json, "code", role.getCode());
+    complexList(json, "specialty", role.getSpecialty());
+    complexList(json, "location", role.getLocation());
+    complexList(json, "healthcareService", role.getHealthcareService());
+    complexList(json, "telecom", role.getTelecom());
+    primitive(json, "availabilityExceptions", role.getAvailabilityExceptionsElement());
+    complexList(json, "endpoint", role.getEndpoint());
+  }
+
+  private void writeObservation(JsonGenerator json, Observation observation) throws IOException {
+    complexList(json, "identifier", observation.getIdentifier());
+    complexList(json, "basedOn", observation.getBasedOn());
+    complexList(json, "partOf", observation.getPartOf());
+    primitive(json, "status", observation.getStatusElement());
+    complexList(json, "category", observation.getCategory());
+    complex(json, "code", observation.getCode());
+    complex(json, "subject", observation.getSubject());
+    complexList(json, "focus", observation.getFocus());
+    complex(json, "encounter", observation.getEncounter());
+    if (observation.hasEffective()) {
+      value(json, "effective", observation.getEffective());
+    }
+    primitive(json, "issued", observation.getIssuedElement());
+    complexList(json, "performer", observation.getPerformer());
+    if (observation.hasValue()) {
+      value(json, "value", observation.getValue());
+    }
+    complex(json, "dataAbsentReason", observation.getDataAbsentReason());
+    complexList(json, "interpretation", observation.getInterpretation());
+    complexList(json, "note", observation.getNote());
+    complex(json, "bodySite", observation.getBodySite());
+    complex(json, "method", observation.getMethod());
+    complex(json, "specimen", observation.getSpecimen());
+    complex(json, "device", observation.getDevice());
+    complexList(json, "hasMember", observation.getHasMember());
+    complexList(json, "derivedFrom", observation.getDerivedFrom());
+  }
+
+  private void writeMeta(JsonGenerator json, Meta meta) throws IOException {
+    if (meta.isEmpty()) {
+      return;
+    }
+    json.writeObjectFieldStart("meta");
+    writeElementStart(json, meta);
+    primitive(json, "versionId", meta.getVersionIdElement());
+    primitive(json, "lastUpdated", meta.getLastUpdatedElement());
+    primitive(json, "source", meta.getSourceElement());
+    primitiveList(json, "profile", meta.getProfile());
+    complexList(json, "security", meta.getSecurity());
+    complexList(json, "tag", meta.getTag());
+    json.writeEndObject();
+  }
+
+  /** A choice element such as {@code value[x]}, named for the type it holds. */
+  private void value(JsonGenerator json, String name, Type value) throws IOException {
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    String typeName = value.fhirType();
+    String fieldName = name + Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+    if (value instanceof PrimitiveType<?> primitive) {
+      primitive(json, fieldName, primitive);
+    } else {
+      complex(json, fieldName, value);
+    }
+  }
+
+  private void complexList(JsonGenerator json, String name, List<? extends Type> values)
+      throws IOException {
+    boolean started = false;
+    for (Type value : values) {
+      if (value == null || value.isEmpty()) {
+        continue;
+      }
+      if (!started) {
+        json.writeArrayFieldStart(name);
+        started = true;
+      }
+      writeComplex(json, value);
+    }
+    if (started) {
+      json.writeEndArray();
+    }
+  }
+
+  private void complex(JsonGenerator json, String name, Type value) throws IOException {
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    json.writeFieldName(name);
+    writeComplex(json, value);
+  }
+
+  private void writeComplex(JsonGenerator json, Type value) throws IOException {
+    json.writeStartObject();
+    writeElementStart(json, value);
+    if (value instanceof Reference reference) {
+      writeReference(json, reference);
+    } else if (value instanceof CodeableConcept concept) {
+      complexList(json, "coding", concept.getCoding());
+      primitive(json, "text", concept.getTextElement());
+    } else if (value instanceof Coding coding) {
+      primitive(json, "system", coding.getSystemElement());
+      primitive(json, "version", coding.getVersionElement());
+      primitive(json, "code", coding.getCodeElement());
+      primitive(json, "display", coding.getDisplayElement());
+      primitive(json, "userSelected", coding.getUserSelectedElement());
+    } else if (value instanceof Identifier identifier) {
+      primitive(json, "use", identifier.getUseElement());
+      complex(json, "type", identifier.getType());
+      primitive(json, "system", identifier.getSystemElement());
+      primitive(json, "value", identifier.getValueElement());
+      complex(json, "period", identifier.getPeriod());
+      complex(json, "assigner", identifier.getAssigner());
+    } else if (value instanceof HumanName humanName) {
+      primitive(json, "use", humanName.getUseElement());
+      primitive(json, "text", humanName.getTextElement());
+      primitive(json, "family", humanName.getFamilyElement());
+      primitiveList(json, "given", humanName.getGiven());
+      primitiveList(json, "prefix", humanName.getPrefix());
+      primitiveList(json, "suffix", humanName.getSuffix());
+      complex(json, "period", humanName.getPeriod());
+    } else if (value instanceof ContactPoint contactPoint) {
+      primitive(json, "system", contactPoint.getSystemElement());
+      primitive(json, "value", contactPoint.getValueElement());
+      primitive(json, "use", contactPoint.getUseElement());
+      primitive(json, "rank", contactPoint.getRankElement());
+      complex(json, "period", contactPoint.getPeriod());
+    } else if (value instanceof Address address) {
+      primitive(json, "use", address.getUseElement());
+      primitive(json, "type", address.getTypeElement());
+      primitive(json, "text", address.getTextElement());
+      primitiveList(json, "line", address.getLine());
+      primitive(json, "city", address.getCityElement());
+      primitive(json, "district", address.getDistrictElement());
+      primitive(json, "state", address.getStateElement());
+      primitive(json, "postalCode", address.getPostalCodeElement());
+      primitive(json, "country", address.getCountryElement());
+      complex(json, "period", address.getPeriod());
+    } else if (value instanceof Annotation annotation) {
+      if (annotation.hasAuthor()) {
+        value(json, "author", annotation.getAuthor());
+      }
+      primitive(json, "time", annotation.getTimeElement());
+      primitive(json, "text", annotation.getTextElement());
+    } else if (value instanceof Period period) {
+      primitive(json, "start", period.getStartElement());
+      primitive(json, "end", period.getEndElement());
+    } else {
+      throw new UnsupportedElementException(value.fhirType());
+    }
+    json.writeEndObject();
+  }
+
+  private void writeReference(JsonGenerator json, Reference reference) throws IOException {
+    if (reference.getResource() != null) {
+      // HAPI takes the reference from the resource, or contains it
+      throw new UnsupportedElementException("Reference with a resource");
+    }
+    if (reference.hasReference()) {
+      String target = reference.getReference();
+      // HAPI leaves versions out of references
+      if (target.contains("/_history/")) {
+        target = reference.getReferenceElement().toVersionless().getValue();
+      }
+      json.writeStringField("reference", target);
+    }
+    primitive(json, "type", reference.getTypeElement());
+    complex(json, "identifier", reference.getIdentifier());
+    primitive(json, "display", reference.getDisplayElement());
+  }
+
+  private void writeBackboneStart(JsonGenerator json, BackboneElement element) throws IOException {
+    writeElementStart(json, element);
+    writeExtensions(json, "modifierExtension", element.getModifierExtension());
+  }
+
+  private void writeElementStart(JsonGenerator json, Element element) throws IOException {
+    if (element.hasId()) {
+      json.writeStringField("id", element.getId());
+    }
+    writeExtensions(json, "extension", element.getExtension());
+  }
+
+  private void writeExtensions(JsonGenerator json, DomainResource resource) throws IOException {
+    writeExtensions(json, "extension", resource.getExtension());
+    writeExtensions(json, "modifierExtension", resource.getModifierExtension());
+  }
+
+  private void writeExtensions(JsonGenerator json, String name, List<Extension> extensions)
+      throws IOException {
+    boolean started = false;
+    for (Extension extension : extensions) {
+      // HAPI drops extensions with neither a value nor extensions of their own
+      if (extension == null
+          || ((extension.getValue() == null || extension.getValue().isEmpty())
+              && !extension.hasExtension())) {
+        continue;
+      }
+      if (!started) {
+        json.writeArrayFieldStart(name);
+        started = true;
+      }
+      writeExtension(json, extension);
+    }
+    if (started) {
+      json.writeEndArray();
+    }
+  }
+
+  private void writeExtension(JsonGenerator json, Extension extension) throws IOException {
+    json.writeStartObject();
+    if (extension.hasId()) {
+      json.writeStringField("id", extension.getId());
+    }
+    json.writeStringField("url", extension.getUrl());
+    // unlike top level extensions, nested ones are written even when they're empty
+    if (extension.hasExtension()) {
+      json.writeArrayFieldStart("extension");
+      for (Extension nested : extension.getExtension()) {
+        writeExtension(json, nested);
+      }
+      json.writeEndArray();
+    }
+    value(json, "value", extension.getValue());
+    json.writeEndObject();
+  }
+
+  private static void primitiveList(
+      JsonGenerator json, String name, List<? extends PrimitiveType<?>> values)
+      throws IOException {
+    boolean started = false;
+    for (PrimitiveType<?> value : values) {
+      checkPlain(value);
+      if (value == null || !value.hasValue()) {
+        continue;
+      }
+      if (!started) {
+        json.writeArrayFieldStart(name);
+        started = true;
+      }
+      writePrimitiveValue(json, value);
+    }
+    if (started) {
+      json.writeEndArray();
+    }
+  }
+
+  private static void primitive(JsonGenerator json, String name, PrimitiveType<?> value)
+      throws IOException {
+    checkPlain(value);
+    // like HAPI, blank values are left out
+    if (value == null || !value.hasValue()) {
+      return;
+    }
+    json.writeFieldName(name);
+    writePrimitiveValue(json, value);
+  }
+
+  /**
+   * HAPI writes a primitive's id and extensions into a separate {@code _name} property, even when
+   * the primitive has no value. This encoder doesn't, so it leaves such primitives to HAPI.
+   */
+  private static void checkPlain(PrimitiveType<?> value) {
+    if (value != null && (value.hasExtension() || value.hasId())) {
+      throw new UnsupportedElementException(value.fhirType() + " with an id or extensions");
+    }
+  }
+
+  private static void writePrimitiveValue(JsonGenerator json, PrimitiveType<?> value)
+      throws IOException {
+    if (value instanceof BooleanType booleanType) {
+      json.writeBoolean(booleanType.booleanValue());
+    } else if (value instanceof IntegerType integerType) {
+      json.writeNumber(integerType.getValue());
+    } else if (value instanceof DecimalType) {
+      // HAPI keeps the decimal exactly as it was given, which isn't worth copying here
+      throw new UnsupportedElementException("decimal");
+    } else {
+      json.writeString(value.getValueAsString());
+    }
+  }
+
+  /** Something this encoder can't write the way HAPI would. */
+  private static class UnsupportedElementException extends IllegalArgumentException {
+    UnsupportedElementException(String element) {
+      super("Can't encode " + element);
+    }
+  }
+}
@@ -13,6 +13,15 @@ import org.slf4j.Logger;
 public interface FileRow {
   Logger log = org.slf4j.LoggerFactory.getLogger(FileRow.class);
 
+  /** Looked up once per row class, since getDeclaredFields copies every field on each call. */
+  ClassValue<Field[]> DECLARED_FIELDS =
+      new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+          return type.getDeclaredFields();
+        }
+      };
+
   Boolean isRequired(String rowName);
 
   List<FeedbackMessage> validateRequiredFields();
@@ -23,7 +32,7 @@ public interface FileRow {
 
   default List<FeedbackMessage> getPossibleErrorsFromFields() {
     List<FeedbackMessage> errors = new ArrayList<>();
-    Arrays.stream(this.getClass().getDeclaredFields())
+    Arrays.stream(DECLARED_FIELDS.get(this.getClass()))
         .forEach(
             field -> {
               try {
@@ -22,6 +22,7 @@ import gov.cdc.usds.simplereport.validators.CsvValidatorUtils.ValueOrError;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 
 @Getter
@@ -81,6 +82,7 @@ public class PatientUploadRow implements FileRow {
           PHONE_NUMBER_TYPE,
           EMPLOYED_IN_HEALTHCARE,
           RESIDENT_CONGREGATE_SETTING);
+  private static final Set<String> requiredFieldSet = Set.copyOf(requiredFields);
 
   public PatientUploadRow(Map<String, String> rawRow) {
     firstName = getValue(rawRow, FIRST_NAME, isRequired(FIRST_NAME));
@@ -122,7 +124,7 @@ public class PatientUploadRow implements FileRow {
 
   @Override
   public Boolean isRequired(String rowName) {
-    return requiredFields.contains(rowName);
+    return requiredFieldSet.contains(rowName);
   }
 
   @Override
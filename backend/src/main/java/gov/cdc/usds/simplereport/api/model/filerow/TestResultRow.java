@@ -37,6 +37,7 @@ import gov.cdc.usds.simplereport.validators.CsvValidatorUtils.ValueOrError;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 
 @Getter
@@ -344,6 +345,7 @@ public class TestResultRow implements FileRow {
           TESTING_LAB_CITY,
           TESTING_LAB_STATE,
           TESTING_LAB_ZIP_CODE);
+  private static final Set<String> requiredFieldSet = Set.copyOf(requiredFields);
 
   public TestResultRow(
       Map<String, String> rawRow,
@@ -540,7 +542,7 @@ public class TestResultRow implements FileRow {
 
   @Override
   public Boolean isRequired(String rowName) {
-    return requiredFields.contains(rowName);
+    return requiredFieldSet.contains(rowName);
   }
 
   @Override
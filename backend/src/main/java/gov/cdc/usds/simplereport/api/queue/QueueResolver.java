@@ -1,7 +1,9 @@
 package gov.cdc.usds.simplereport.api.queue;
 
 import gov.cdc.usds.simplereport.api.model.ApiTestOrder;
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.service.TestOrderService;
+import gov.cdc.usds.simplereport.service.model.TestQueueChanges;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -28,4 +30,26 @@ public class QueueResolver {
     log.trace("getQueue({}): Returning {} items", facilityId, queue.size());
     return queue;
   }
+
+  @QueryMapping
+  public TestQueueChanges<ApiTestOrder> queueChanges(
+      @Argument("facilityId") UUID facilityId, @Argument("sinceVersion") String sinceVersion) {
+    Long since = null;
+    if (sinceVersion != null) {
+      try {
+        since = Long.valueOf(sinceVersion);
+      } catch (NumberFormatException e) {
+        throw IllegalGraphqlArgumentException.invalidInput(sinceVersion, "queue version");
+      }
+    }
+    var changes = _testOrderService.getQueueChanges(facilityId, since).map(ApiTestOrder::new);
+    log.trace(
+        "getQueueChanges({}, {}): Returning {} changed and {} removed items at version {}",
+        facilityId,
+        sinceVersion,
+        changes.getChanged().size(),
+        changes.getRemovedIds().size(),
+        changes.getVersion());
+    return changes;
+  }
 }
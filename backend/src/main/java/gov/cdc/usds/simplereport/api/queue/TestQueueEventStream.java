@@ -0,0 +1,100 @@
+package gov.cdc.usds.simplereport.api.queue;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One client's stream of test queue events. Events are written by a shared pool of sender threads
+ * rather than by the threads announcing changes and heartbeats, which never wait on a client that
+ * has stopped reading.
+ *
+ * <p>Each stream has at most one write in progress, and at most one version and one heartbeat
+ * waiting for it. Versions announced in the meantime replace each other, since the client only
+ * needs the newest one. So a stalled client holds up one sender thread, until the container gives
+ * up on the write, and its backlog can't grow.
+ */
+@Slf4j
+class TestQueueEventStream {
+  private static final long NO_VERSION = -1;
+
+  private final SseEmitter emitter;
+  private final Executor senders;
+  private final AtomicLong pendingVersion = new AtomicLong(NO_VERSION);
+  private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+  private final AtomicBoolean sending = new AtomicBoolean();
+
+  TestQueueEventStream(SseEmitter emitter, Executor senders) {
+    this.emitter = emitter;
+    this.senders = senders;
+  }
+
+  /**
+   * Sends the version the client's stream opened at. Until the request handler returns the emitter,
+   * its sends are only buffered, so this is done on the request thread.
+   */
+  void sendFirstVersion(long version) {
+    send(versionEvent(version));
+  }
+
+  /** Sends the queue's new version, unless a newer one is already waiting to be sent. */
+  void sendVersion(long version) {
+    pendingVersion.accumulateAndGet(version, Math::max);
+    scheduleSend();
+  }
+
+  void sendHeartbeat() {
+    heartbeatPending.set(true);
+    scheduleSend();
+  }
+
+  private void scheduleSend() {
+    if (sending.compareAndSet(false, true)) {
+      try {
+        senders.execute(this::sendPending);
+      } catch (RejectedExecutionException e) {
+        // shutting down
+        sending.set(false);
+      }
+    }
+  }
+
+  private void sendPending() {
+    do {
+      long version = pendingVersion.getAndSet(NO_VERSION);
+      if (version != NO_VERSION) {
+        send(versionEvent(version));
+      }
+      if (heartbeatPending.getAndSet(false)) {
+        // comments keep proxies from closing the connection while the queue is quiet
+        send(SseEmitter.event().comment("heartbeat"));
+      }
+      sending.set(false);
+      // an event that came in after it was checked for has no send scheduled, so pick it up here
+    } while (hasPending() && sending.compareAndSet(false, true));
+  }
+
+  private boolean hasPending() {
+    return pendingVersion.get() != NO_VERSION || heartbeatPending.get();
+  }
+
+  private static SseEmitter.SseEventBuilder versionEvent(long version) {
+    return SseEmitter.event()
+        .name(TestQueueEventsController.QUEUE_CHANGED_EVENT)
+        .id(String.valueOf(version))
+        .data(String.valueOf(version));
+  }
+
+  private void send(SseEmitter.SseEventBuilder event) {
+    try {
+      emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      // the client has gone; the container reports it and the stream is cleaned up then
+      log.debug("Could not send test queue event", e);
+    }
+  }
+}
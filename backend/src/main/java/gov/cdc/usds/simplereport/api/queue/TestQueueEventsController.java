@@ -0,0 +1,98 @@
+package gov.cdc.usds.simplereport.api.queue;
+
+import static gov.cdc.usds.simplereport.config.WebConfiguration.TEST_QUEUE_EVENTS;
+
+import gov.cdc.usds.simplereport.service.TestOrderService;
+import gov.cdc.usds.simplereport.service.TestQueueChangeListener;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams server-sent events announcing changes to a facility's test queue, so a client can keep
+ * its copy of the queue current without polling for it. Each event carries the queue's new
+ * version; the client then asks the {@code queueChanges} query for what changed since the version
+ * it has.
+ *
+ * <p>The first event is the version when the stream opened. Versions can arrive out of order or
+ * more than once, so clients should ignore any that aren't newer than the one they have. Streams
+ * end after a while, and clients reconnect.
+ *
+ * <p>Browsers' {@code EventSource} can't send the bearer token the API requires, so clients read
+ * the stream with {@code fetch} and an {@code Authorization} header, as for any other request.
+ */
+@RestController
+public class TestQueueEventsController {
+  static final String QUEUE_CHANGED_EVENT = "queue-changed";
+
+  private final TestOrderService testOrderService;
+  private final TestQueueChangeListener changeListener;
+  private final Duration streamTimeout;
+  private final Duration heartbeatInterval;
+  private final ScheduledExecutorService heartbeats =
+      Executors.newSingleThreadScheduledExecutor(
+          new CustomizableThreadFactory("test-queue-heartbeat-"));
+  // writes to the clients, so the listener and heartbeat threads never wait on one
+  private final ExecutorService senders;
+
+  public TestQueueEventsController(
+      TestOrderService testOrderService,
+      TestQueueChangeListener changeListener,
+      @Value("${simple-report.test-queue-events.stream-timeout:PT30M}") Duration streamTimeout,
+      @Value("${simple-report.test-queue-events.heartbeat-interval:PT30S}")
+          Duration heartbeatInterval,
+      @Value("${simple-report.test-queue-events.sender-threads:8}") int senderThreads) {
+    this.testOrderService = testOrderService;
+    this.changeListener = changeListener;
+    this.streamTimeout = streamTimeout;
+    this.heartbeatInterval = heartbeatInterval;
+    this.senders =
+        Executors.newFixedThreadPool(
+            senderThreads, new CustomizableThreadFactory("test-queue-events-"));
+  }
+
+  @GetMapping(path = TEST_QUEUE_EVENTS, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamQueueEvents(@RequestParam UUID facilityId) {
+    // also checks the user may see this facility's queue
+    long version = testOrderService.getQueueVersion(facilityId);
+
+    SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    var stream = new TestQueueEventStream(emitter, senders);
+    stream.sendFirstVersion(version);
+
+    Runnable unsubscribe = changeListener.subscribe(facilityId, stream::sendVersion);
+    ScheduledFuture<?> heartbeat =
+        heartbeats.scheduleAtFixedRate(
+            stream::sendHeartbeat,
+            heartbeatInterval.toMillis(),
+            heartbeatInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    Runnable cleanUp =
+        () -> {
+          unsubscribe.run();
+          heartbeat.cancel(false);
+        };
+    emitter.onCompletion(cleanUp);
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(e -> cleanUp.run());
+    return emitter;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    heartbeats.shutdown();
+    senders.shutdown();
+  }
+}
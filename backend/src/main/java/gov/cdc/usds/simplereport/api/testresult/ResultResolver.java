@@ -6,10 +6,11 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultsListItem;
 import gov.cdc.usds.simplereport.service.DiseaseService;
 import gov.cdc.usds.simplereport.service.ResultService;
 import gov.cdc.usds.simplereport.service.TestOrderService;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
 import java.util.Date;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
@@ -22,7 +23,7 @@ public class ResultResolver {
   private final DiseaseService diseaseService;
 
   @QueryMapping
-  public Page<TestResultsListItem> resultsPage(
+  public CursorPage<TestResultsListItem> resultsPage(
       @Argument UUID facilityId,
       @Argument UUID patientId,
       @Argument String result,
@@ -31,7 +32,8 @@ public class ResultResolver {
       @Argument Date startDate,
       @Argument Date endDate,
       @Argument int pageNumber,
-      @Argument int pageSize) {
+      @Argument int pageSize,
+      @Argument String after) {
 
     if (pageNumber < 0) {
       pageNumber = TestOrderService.DEFAULT_PAGINATION_PAGEOFFSET;
@@ -44,31 +46,62 @@ public class ResultResolver {
     SupportedDisease supportedDisease =
         disease != null ? diseaseService.getDiseaseByName(disease) : null;
 
-    if (facilityId == null) {
+    if (after != null) {
+      ResultsCursor cursor = ResultsCursor.decode(after);
+      if (facilityId == null) {
+        return service
+            .getOrganizationResultsAfter(
+                patientId,
+                Translators.parseTestResult(result),
+                Translators.parsePersonRole(role, true),
+                supportedDisease,
+                startDate,
+                endDate,
+                cursor,
+                pageSize)
+            .map(TestResultsListItem::new);
+      }
       return service
-          .getOrganizationResults(
+          .getFacilityResultsAfter(
+              facilityId,
               patientId,
               Translators.parseTestResult(result),
               Translators.parsePersonRole(role, true),
               supportedDisease,
               startDate,
               endDate,
-              pageNumber,
+              cursor,
               pageSize)
           .map(TestResultsListItem::new);
     }
 
-    return service
-        .getFacilityResults(
-            facilityId,
-            patientId,
-            Translators.parseTestResult(result),
-            Translators.parsePersonRole(role, true),
-            supportedDisease,
-            startDate,
-            endDate,
-            pageNumber,
-            pageSize)
+    if (facilityId == null) {
+      return CursorPage.of(
+              service.getOrganizationResults(
+                  patientId,
+                  Translators.parseTestResult(result),
+                  Translators.parsePersonRole(role, true),
+                  supportedDisease,
+                  startDate,
+                  endDate,
+                  pageNumber,
+                  pageSize),
+              ResultService::cursorOf)
+          .map(TestResultsListItem::new);
+    }
+
+    return CursorPage.of(
+            service.getFacilityResults(
+                facilityId,
+                patientId,
+                Translators.parseTestResult(result),
+                Translators.parsePersonRole(role, true),
+                supportedDisease,
+                startDate,
+                endDate,
+                pageNumber,
+                pageSize),
+            ResultService::cursorOf)
         .map(TestResultsListItem::new);
   }
 }
@@ -5,10 +5,15 @@ import gov.cdc.usds.simplereport.api.model.OrganizationLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.api.model.TopLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestResultUpload;
+import gov.cdc.usds.simplereport.db.model.UploadJob;
+import gov.cdc.usds.simplereport.service.ResultsCursorPager;
 import gov.cdc.usds.simplereport.service.TestOrderService;
 import gov.cdc.usds.simplereport.service.TestResultUploadService;
+import gov.cdc.usds.simplereport.service.UploadJobService;
 import gov.cdc.usds.simplereport.service.errors.InvalidBulkTestResultUploadException;
 import gov.cdc.usds.simplereport.service.errors.InvalidRSAPrivateKeyException;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
 import gov.cdc.usds.simplereport.service.model.reportstream.UploadResponse;
 import java.util.Date;
 import java.util.UUID;
@@ -25,9 +30,10 @@ public class TestResultResolver {
 
   private final TestOrderService tos;
   private final TestResultUploadService testResultUploadService;
+  private final UploadJobService uploadJobService;
 
   @QueryMapping
-  public Page<TestEvent> testResultsPage(
+  public CursorPage<TestEvent> testResultsPage(
       @Argument UUID facilityId,
       @Argument UUID patientId,
       @Argument String result,
@@ -35,7 +41,8 @@ public class TestResultResolver {
       @Argument Date startDate,
       @Argument Date endDate,
       @Argument int pageNumber,
-      @Argument int pageSize) {
+      @Argument int pageSize,
+      @Argument String after) {
     if (pageNumber < 0) {
       pageNumber = TestOrderService.DEFAULT_PAGINATION_PAGEOFFSET;
     }
@@ -43,25 +50,52 @@ public class TestResultResolver {
       pageSize = TestOrderService.DEFAULT_PAGINATION_PAGESIZE;
     }
 
-    if (facilityId == null) {
-      return tos.getOrganizationTestEventsResults(
+    if (after != null) {
+      ResultsCursor cursor = ResultsCursor.decode(after);
+      if (facilityId == null) {
+        return tos.getOrganizationTestEventsResultsAfter(
+            patientId,
+            Translators.parseTestResult(result),
+            Translators.parsePersonRole(role, true),
+            startDate,
+            endDate,
+            cursor,
+            pageSize);
+      }
+      return tos.getFacilityTestEventsResultsAfter(
+          facilityId,
           patientId,
           Translators.parseTestResult(result),
           Translators.parsePersonRole(role, true),
           startDate,
           endDate,
-          pageNumber,
+          cursor,
           pageSize);
     }
-    return tos.getFacilityTestEventsResults(
-        facilityId,
-        patientId,
-        Translators.parseTestResult(result),
-        Translators.parsePersonRole(role, true),
-        startDate,
-        endDate,
-        pageNumber,
-        pageSize);
+
+    if (facilityId == null) {
+      return CursorPage.of(
+          tos.getOrganizationTestEventsResults(
+              patientId,
+              Translators.parseTestResult(result),
+              Translators.parsePersonRole(role, true),
+              startDate,
+              endDate,
+              pageNumber,
+              pageSize),
+          ResultsCursorPager::cursorOf);
+    }
+    return CursorPage.of(
+        tos.getFacilityTestEventsResults(
+            facilityId,
+            patientId,
+            Translators.parseTestResult(result),
+            Translators.parsePersonRole(role, true),
+            startDate,
+            endDate,
+            pageNumber,
+            pageSize),
+        ResultsCursorPager::cursorOf);
   }
 
   @QueryMapping
@@ -127,4 +161,9 @@ public class TestResultResolver {
       @Argument int pageSize) {
     return testResultUploadService.getUploadSubmissions(startDate, endDate, pageNumber, pageSize);
   }
+
+  @QueryMapping
+  public UploadJob uploadJob(@Argument UUID id) {
+    return uploadJobService.getUploadJob(id);
+  }
 }
@@ -2,9 +2,11 @@ package gov.cdc.usds.simplereport.api.uploads;
 
 import static gov.cdc.usds.simplereport.api.Translators.parseUUID;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.CONDITION_AGNOSTIC_RESULT_UPLOAD;
+import static gov.cdc.usds.simplereport.config.WebConfiguration.CONDITION_AGNOSTIC_RESULT_UPLOAD_JOB;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.HIV_RESULT_UPLOAD;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.PATIENT_UPLOAD;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.RESULT_UPLOAD;
+import static gov.cdc.usds.simplereport.config.WebConfiguration.RESULT_UPLOAD_JOB;
 
 import gov.cdc.usds.simplereport.api.model.errors.BadRequestException;
 import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
@@ -12,6 +14,7 @@ import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentExceptio
 import gov.cdc.usds.simplereport.db.model.TestResultUpload;
 import gov.cdc.usds.simplereport.service.PatientBulkUploadService;
 import gov.cdc.usds.simplereport.service.TestResultUploadService;
+import gov.cdc.usds.simplereport.service.UploadJobService;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -30,6 +33,7 @@ public class FileUploadController {
   public static final String TEXT_CSV_CONTENT_TYPE = "text/csv";
   private final PatientBulkUploadService patientBulkUploadService;
   private final TestResultUploadService testResultUploadService;
+  private final UploadJobService uploadJobService;
 
   @PostMapping(PATIENT_UPLOAD)
   public PatientBulkUploadResponse handlePatientsUpload(
@@ -88,6 +92,38 @@ public class FileUploadController {
     }
   }
 
+  /**
+   * Accepts a results file for processing in the background and returns its job, whose progress can
+   * be followed through the uploadJob query.
+   */
+  @PostMapping(RESULT_UPLOAD_JOB)
+  public UploadJobResponse handleResultsUploadJob(@RequestParam("file") MultipartFile file) {
+    assertCsvFileType(file);
+
+    try (InputStream resultsUpload = file.getInputStream()) {
+      return UploadJobResponse.from(uploadJobService.submitResultsUpload(resultsUpload));
+    } catch (IOException e) {
+      log.error("Test result CSV encountered an unexpected error", e);
+      throw new CsvProcessingException("Unable to process test result CSV upload");
+    }
+  }
+
+  @PostMapping(CONDITION_AGNOSTIC_RESULT_UPLOAD_JOB)
+  @PreAuthorize("@featureFlagsConfig.isAgnosticBulkUploadEnabled()")
+  public UploadJobResponse handleConditionAgnosticResultsUploadJob(
+      @RequestParam("file") MultipartFile file) {
+    assertCsvFileType(file);
+
+    try (InputStream resultsUpload = file.getInputStream()) {
+      return UploadJobResponse.from(
+          uploadJobService.submitConditionAgnosticResultsUpload(resultsUpload));
+    } catch (IOException e) {
+      log.error("Condition agnostic test result CSV encountered an unexpected error", e);
+      throw new CsvProcessingException(
+          "Unable to process condition agnostic test result CSV upload");
+    }
+  }
+
   private static void assertCsvFileType(MultipartFile file) {
     if (!TEXT_CSV_CONTENT_TYPE.equals(file.getContentType())) {
       throw new CsvProcessingException("Only CSV files are supported");
@@ -0,0 +1,13 @@
+package gov.cdc.usds.simplereport.api.uploads;
+
+import gov.cdc.usds.simplereport.db.model.UploadJob;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobStatus;
+import java.util.UUID;
+
+/** Returned as soon as an upload has been accepted; the job itself is polled over GraphQL. */
+public record UploadJobResponse(UUID jobId, UploadJobStatus status, String failureMessage) {
+
+  public static UploadJobResponse from(UploadJob job) {
+    return new UploadJobResponse(job.getInternalId(), job.getStatus(), job.getFailureMessage());
+  }
+}
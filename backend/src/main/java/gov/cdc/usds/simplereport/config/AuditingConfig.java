@@ -1,6 +1,5 @@
 package gov.cdc.usds.simplereport.config;
 
-import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
@@ -9,8 +8,8 @@ import ch.qos.logback.core.ConsoleAppender;
 import gov.cdc.usds.simplereport.db.model.ApiUser;
 import gov.cdc.usds.simplereport.service.ApiUserService;
 import gov.cdc.usds.simplereport.service.AuditService;
+import gov.cdc.usds.simplereport.service.TransactionAuditor;
 import java.util.Optional;
-import lombok.extern.slf4j.Slf4j;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -20,24 +19,17 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @Configuration
 @EnableJpaAuditing
-@Slf4j
 public class AuditingConfig {
   private final ApiUserService _userService;
 
-  @Value("${logging.queueSize}")
-  private int queueSize;
-
   public AuditingConfig(ApiUserService userService) {
     this._userService = userService;
   }
 
+  /** Looks the current user up once per transaction; see {@link TransactionAuditor}. */
   @Bean
   public AuditorAware<ApiUser> getCurrentApiUserProvider() {
-    return () -> {
-      log.debug("Fetching current user for audit");
-      Optional<ApiUser> user = Optional.of(_userService.getCurrentApiUserInContainedTransaction());
-      return user;
-    };
+    return () -> Optional.of(TransactionAuditor.getAuditor(_userService));
   }
 
   @Bean
@@ -54,16 +46,9 @@ public class AuditingConfig {
     consoleAppender.setContext(loggerContext);
     consoleAppender.start();
 
-    AsyncAppender asyncAppender = new AsyncAppender();
-    // queueSize value chosen based on this:
-    // https://www.overops.com/blog/how-to-instantly-improve-your-java-logging-with-7-logback-tweaks/
-    asyncAppender.setQueueSize(queueSize);
-    asyncAppender.setContext(loggerContext);
-    asyncAppender.addAppender(consoleAppender);
-    asyncAppender.start();
-
+    // AuditLoggerService already writes from its own thread, so no async appender here
     Logger logger = (Logger) LoggerFactory.getLogger(AuditService.class);
-    logger.addAppender(asyncAppender);
+    logger.addAppender(consoleAppender);
     logger.setAdditive(false);
     return logger;
   }
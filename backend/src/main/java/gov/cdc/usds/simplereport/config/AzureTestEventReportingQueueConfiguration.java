@@ -14,11 +14,14 @@ import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.properties.AzureStorageQueueReportingProperties;
 import gov.cdc.usds.simplereport.service.AzureStorageQueueFhirReportingService;
 import gov.cdc.usds.simplereport.service.AzureStorageQueueTestEventReportingService;
+import gov.cdc.usds.simplereport.service.QueueMessageSender;
 import gov.cdc.usds.simplereport.service.TestEventReportingService;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.concurrent.CompletableFuture;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.info.GitProperties;
@@ -35,9 +38,12 @@ class AzureTestEventReportingQueueConfiguration {
       value = "simple-report.azure-reporting-queue.enabled",
       havingValue = "true")
   TestEventReportingService storageQueueReportingService(
-      ObjectMapper mapper, @Qualifier("csvQueue") QueueAsyncClient queueClient) {
+      ObjectMapper mapper,
+      @Qualifier("csvQueue") QueueAsyncClient queueClient,
+      MeterRegistry meterRegistry) {
     log.info("Configured for queue={}", queueClient.getQueueName());
-    return new AzureStorageQueueTestEventReportingService(mapper, queueClient);
+    return new AzureStorageQueueTestEventReportingService(
+        mapper, new QueueMessageSender(queueClient, meterRegistry));
   }
 
   @Bean("fhirQueueReportingService")
@@ -48,10 +54,16 @@ class AzureTestEventReportingQueueConfiguration {
       FhirContext context,
       @Qualifier("fhirQueueClient") QueueAsyncClient queueClient,
       GitProperties gitProperties,
-      FhirConverter fhirConverter) {
-    log.info("Configured for queue={}", queueClient.getQueueName());
+      FhirConverter fhirConverter,
+      @Value("${simple-report.azure-reporting-queue.fhir-encode-threads:0}") int encodeThreads,
+      MeterRegistry meterRegistry) {
+    log.info("Configured for queue={} encodeThreads={}", queueClient.getQueueName(), encodeThreads);
     return new AzureStorageQueueFhirReportingService(
-        context, queueClient, gitProperties, fhirConverter);
+        context,
+        new QueueMessageSender(queueClient, meterRegistry),
+        gitProperties,
+        fhirConverter,
+        encodeThreads);
   }
 
   @Bean
@@ -130,7 +142,8 @@ class AzureTestEventReportingQueueConfiguration {
     @Override
     public CompletableFuture<Void> reportAsync(TestEvent testEvent) {
       log.warn(
-          "No Covid TestEventReportingService configured; defaulting to no-op reporting for TestEvent [{}]",
+          "No Covid TestEventReportingService configured; defaulting to no-op reporting for"
+              + " TestEvent [{}]",
           testEvent.getInternalId());
 
       if (printSerializedTestEvent) {
@@ -161,7 +174,8 @@ class AzureTestEventReportingQueueConfiguration {
     @Override
     public CompletableFuture<Void> reportAsync(TestEvent testEvent) {
       log.warn(
-          "No FHIR TestEventReportingService configured; defaulting to no-op reporting for TestEvent [{}]",
+          "No FHIR TestEventReportingService configured; defaulting to no-op reporting for"
+              + " TestEvent [{}]",
           testEvent.getInternalId());
 
       if (printSerializedTestEvent) {
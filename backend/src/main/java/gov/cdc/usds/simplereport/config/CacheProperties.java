@@ -0,0 +1,31 @@
+package gov.cdc.usds.simplereport.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Size and expiry policy for each named cache in {@link CachingConfig}, keyed by cache name. Caches
+ * without an entry here fall back to {@link CacheSpec#DEFAULT}.
+ */
+@ConfigurationProperties(prefix = "simple-report.caches")
+public class CacheProperties {
+
+  private final Map<String, CacheSpec> specs;
+
+  public CacheProperties(Map<String, CacheSpec> specs) {
+    this.specs = specs == null ? Map.of() : specs;
+  }
+
+  public CacheSpec getSpec(String cacheName) {
+    return specs.getOrDefault(cacheName, CacheSpec.DEFAULT);
+  }
+
+  /**
+   * @param maximumSize number of entries kept before the least recently used ones are evicted
+   * @param timeToLive how long after being loaded an entry is dropped
+   */
+  public record CacheSpec(Long maximumSize, Duration timeToLive) {
+    public static final CacheSpec DEFAULT = new CacheSpec(1000L, Duration.ofDays(1));
+  }
+}
@@ -1,35 +1,102 @@
 package gov.cdc.usds.simplereport.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import gov.cdc.usds.simplereport.config.CacheProperties.CacheSpec;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CachingConfig {
 
-  public static final String COVID_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET =
-      "covidEquipmentModelAndTestPerformedCodeSet";
-  public static final String HIV_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET =
-      "hivEquipmentModelAndTestPerformedCodeSet";
-  public static final String DEVICE_MODEL_AND_TEST_PERFORMED_CODE_MAP =
-      "deviceModelAndTestPerformedCodeMap";
-  public static final String SPECIMEN_NAME_TO_SNOMED_MAP = "specimenTypeNameSNOMEDMap";
-  public static final String SNOMED_TO_SPECIMEN_NAME_MAP = "SNOMEDToSpecimenTypeNameMap";
   public static final String ADDRESS_TIMEZONE_LOOKUP_MAP = "addressTimezoneLookupMap";
+  public static final String ADDRESS_TIMEZONE_MISSES = "addressTimezoneMisses";
   public static final String SUPPORTED_DISEASE_ID_MAP = "supportedDiseaseIDMap";
+  public static final String CURRENT_API_USER_IDS = "currentApiUserIds";
+  public static final String CURRENT_ORGANIZATION_ROLES = "currentOrganizationRoles";
+  public static final String RESULT_LIST_COUNTS = "resultListCounts";
 
+  static final List<String> CACHE_NAMES =
+      List.of(
+          ADDRESS_TIMEZONE_LOOKUP_MAP,
+          ADDRESS_TIMEZONE_MISSES,
+          SUPPORTED_DISEASE_ID_MAP,
+          CURRENT_API_USER_IDS,
+          CURRENT_ORGANIZATION_ROLES,
+          RESULT_LIST_COUNTS);
+
+  /**
+   * Every cache is a bounded Caffeine cache with its own size and expiry policy. Statistics are
+   * recorded on all of them, so the actuator cache metrics (hits, misses, evictions, load time) are
+   * published for each cache name.
+   */
+  @Bean
+  public CacheManager cacheManager(CacheProperties cacheProperties) {
+    var cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(
+        CACHE_NAMES.stream().map(name -> buildCache(name, cacheProperties.getSpec(name))).toList());
+    return cacheManager;
+  }
+
+  /**
+   * Micrometer only publishes load counts and load time for Caffeine loading caches, and these are
+   * filled through Spring's cache abstraction instead, so the same meters are registered here.
+   */
   @Bean
-  public CacheManager cacheManager() {
-    return new ConcurrentMapCacheManager(
-        COVID_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET,
-        HIV_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET,
-        DEVICE_MODEL_AND_TEST_PERFORMED_CODE_MAP,
-        SPECIMEN_NAME_TO_SNOMED_MAP,
-        SNOMED_TO_SPECIMEN_NAME_MAP,
-        ADDRESS_TIMEZONE_LOOKUP_MAP,
-        SUPPORTED_DISEASE_ID_MAP);
+  public MeterBinder cacheLoadMetrics(CacheManager cacheManager) {
+    return registry ->
+        cacheManager.getCacheNames().stream()
+            .map(name -> (CaffeineCache) cacheManager.getCache(name))
+            .filter(cache -> !(cache.getNativeCache() instanceof LoadingCache))
+            .forEach(cache -> bindLoadMetrics(registry, cache));
+  }
+
+  private static void bindLoadMetrics(MeterRegistry registry, CaffeineCache cache) {
+    var nativeCache = cache.getNativeCache();
+    Tags tags = Tags.of("cache", cache.getName(), "cache.manager", "cacheManager");
+    FunctionCounter.builder("cache.load", nativeCache, c -> c.stats().loadSuccessCount())
+        .tags(tags)
+        .tag("result", "success")
+        .description(
+            "The number of times cache lookup methods have successfully loaded a new value")
+        .register(registry);
+    FunctionCounter.builder("cache.load", nativeCache, c -> c.stats().loadFailureCount())
+        .tags(tags)
+        .tag("result", "failure")
+        .description("The number of times cache lookup methods failed to load a new value")
+        .register(registry);
+    TimeGauge.builder(
+            "cache.load.duration",
+            nativeCache,
+            TimeUnit.NANOSECONDS,
+            c -> c.stats().totalLoadTime())
+        .tags(tags)
+        .description("The time the cache has spent loading new values")
+        .register(registry);
+  }
+
+  static CaffeineCache buildCache(String name, CacheSpec spec) {
+    Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+    if (spec.maximumSize() != null) {
+      builder.maximumSize(spec.maximumSize());
+    }
+    if (spec.timeToLive() != null) {
+      builder.expireAfterWrite(spec.timeToLive());
+    }
+    return new CaffeineCache(name, builder.build());
   }
 }
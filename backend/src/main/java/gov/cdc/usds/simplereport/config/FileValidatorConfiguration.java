@@ -4,6 +4,7 @@ import gov.cdc.usds.simplereport.api.model.filerow.ConditionAgnosticResultRow;
 import gov.cdc.usds.simplereport.api.model.filerow.PatientUploadRow;
 import gov.cdc.usds.simplereport.api.model.filerow.TestResultRow;
 import gov.cdc.usds.simplereport.service.ResultsUploaderCachingService;
+import gov.cdc.usds.simplereport.validators.FileValidationExecutor;
 import gov.cdc.usds.simplereport.validators.FileValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,18 +14,22 @@ public class FileValidatorConfiguration {
   @Bean
   public FileValidator<TestResultRow> testResultRowFileValidator(
       ResultsUploaderCachingService resultsUploaderCachingService,
-      FeatureFlagsConfig featureFlagsConfig) {
+      FeatureFlagsConfig featureFlagsConfig,
+      FileValidationExecutor fileValidationExecutor) {
     return new FileValidator<>(
-        row -> new TestResultRow(row, resultsUploaderCachingService, featureFlagsConfig));
+        row -> new TestResultRow(row, resultsUploaderCachingService, featureFlagsConfig),
+        fileValidationExecutor);
   }
 
   @Bean
-  public FileValidator<ConditionAgnosticResultRow> conditionAgnosticResultRowFileValidator() {
-    return new FileValidator<>(row -> new ConditionAgnosticResultRow(row));
+  public FileValidator<ConditionAgnosticResultRow> conditionAgnosticResultRowFileValidator(
+      FileValidationExecutor fileValidationExecutor) {
+    return new FileValidator<>(row -> new ConditionAgnosticResultRow(row), fileValidationExecutor);
   }
 
   @Bean
-  public FileValidator<PatientUploadRow> patientUploadRowFileValidator() {
-    return new FileValidator<>(PatientUploadRow::new);
+  public FileValidator<PatientUploadRow> patientUploadRowFileValidator(
+      FileValidationExecutor fileValidationExecutor) {
+    return new FileValidator<>(PatientUploadRow::new, fileValidationExecutor);
   }
 }
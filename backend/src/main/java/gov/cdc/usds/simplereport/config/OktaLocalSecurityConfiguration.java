@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.actuate.info.InfoEndpoint;
+import org.springframework.boot.actuate.metrics.MetricsEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,7 +40,8 @@ public class OktaLocalSecurityConfiguration {
   }
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(
+      HttpSecurity http, AuthorizationProperties authProperties) throws Exception {
     http.authorizeHttpRequests(
             authorizeRequest ->
                 authorizeRequest
@@ -51,6 +53,9 @@ public class OktaLocalSecurityConfiguration {
                     .permitAll()
                     .requestMatchers(EndpointRequest.to(InfoEndpoint.class))
                     .permitAll()
+                    // cache and executor metrics are internal, so only site admins can read them
+                    .requestMatchers(EndpointRequest.to(MetricsEndpoint.class))
+                    .hasAuthority(authProperties.getAdminGroupName())
                     // Patient experience authorization is handled in PatientExperienceController
                     // If this configuration changes, please update the documentation on both sides
                     .requestMatchers(HttpMethod.POST, WebConfiguration.PATIENT_EXPERIENCE)
@@ -1,6 +1,7 @@
 package gov.cdc.usds.simplereport.config;
 
 import gov.cdc.usds.simplereport.logging.RestLoggingInterceptor;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
@@ -23,11 +24,15 @@ public class WebConfiguration implements WebMvcConfigurer {
   public static final String FEATURE_FLAGS = "/feature-flags";
   public static final String PATIENT_UPLOAD = "/upload/patients";
   public static final String RESULT_UPLOAD = "/upload/results";
+  public static final String RESULT_UPLOAD_JOB = "/upload/results/jobs";
 
   public static final String HIV_RESULT_UPLOAD = "/upload/hiv-results";
 
   public static final String CONDITION_AGNOSTIC_RESULT_UPLOAD = "/upload/condition-agnostic";
+  public static final String CONDITION_AGNOSTIC_RESULT_UPLOAD_JOB =
+      "/upload/condition-agnostic/jobs";
   public static final String GRAPH_QL = "/graphql";
+  public static final String TEST_QUEUE_EVENTS = "/queue/events";
 
   @Autowired private RestLoggingInterceptor _loggingInterceptor;
 
@@ -47,6 +52,14 @@ public class WebConfiguration implements WebMvcConfigurer {
    */
   @Bean
   public FilterRegistrationBean<OpenEntityManagerInViewFilter> openInViewFilter() {
-    return new FilterRegistrationBean<>(new OpenEntityManagerInViewFilter());
+    return new FilterRegistrationBean<>(
+        new OpenEntityManagerInViewFilter() {
+          @Override
+          protected boolean shouldNotFilter(HttpServletRequest request) {
+            // event streams stay open for minutes, and the entity manager would hold on to a
+            // database connection for all that time
+            return TEST_QUEUE_EVENTS.equals(request.getServletPath());
+          }
+        });
   }
 }
@@ -1,29 +1,52 @@
 package gov.cdc.usds.simplereport.db.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.JsonNode;
 import gov.cdc.usds.simplereport.config.authorization.UserPermission;
 import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
 import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.http.HttpStatus;
 
 @Getter
+@JsonPropertyOrder({
+  "type",
+  "httpRequestDetails",
+  "graphqlQueryDetails",
+  "graphqlErrorPaths",
+  "userPermissions",
+  "organization",
+  "patientLink",
+  "requestId",
+  "responseCode",
+  "user",
+  "session",
+  "adminUser"
+})
 public class ConsoleApiAuditEvent {
   private final String type = "auditLog";
   private HttpRequestDetails httpRequestDetails;
   private GraphQlInputs graphqlQueryDetails;
   private List<String> graphqlErrorPaths;
   private List<String> userPermissions;
-  private Organization organization;
-  private PatientLink patientLink;
+  @JsonIgnore private Organization organization;
+  @JsonIgnore private PatientLink patientLink;
   private String requestId;
   private int responseCode;
   private boolean isAdminUser;
-  private ApiUser user;
+  @JsonIgnore private ApiUser user;
   private JsonNode session;
 
+  @JsonIgnore @Getter(AccessLevel.NONE) private JsonNode organizationSnapshot;
+  @JsonIgnore @Getter(AccessLevel.NONE) private JsonNode patientLinkSnapshot;
+  @JsonIgnore @Getter(AccessLevel.NONE) private JsonNode userSnapshot;
+
   public ConsoleApiAuditEvent() {}
 
   /** Constructor for graphql requests */
@@ -77,4 +100,30 @@ public class ConsoleApiAuditEvent {
     this.httpRequestDetails = httpRequestDetails;
     this.requestId = requestId;
   }
+
+  /**
+   * Renders the entities this event refers to while their persistence context is still open, so
+   * the event can be written out later on another thread. Lazy associations are loaded now, and
+   * later changes to the entities don't show up in the event.
+   */
+  public void snapshotEntities(Function<Object, JsonNode> toTree) {
+    organizationSnapshot = organization == null ? null : toTree.apply(organization);
+    patientLinkSnapshot = patientLink == null ? null : toTree.apply(patientLink);
+    userSnapshot = user == null ? null : toTree.apply(user);
+  }
+
+  @JsonProperty("organization")
+  private Object organizationForJson() {
+    return organizationSnapshot == null ? organization : organizationSnapshot;
+  }
+
+  @JsonProperty("patientLink")
+  private Object patientLinkForJson() {
+    return patientLinkSnapshot == null ? patientLink : patientLinkSnapshot;
+  }
+
+  @JsonProperty("user")
+  private Object userForJson() {
+    return userSnapshot == null ? user : userSnapshot;
+  }
 }
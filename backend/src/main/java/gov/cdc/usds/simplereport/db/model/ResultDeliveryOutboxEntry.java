@@ -0,0 +1,77 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.util.Date;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A text or email telling a patient their test result is ready, waiting to be sent. There is one
+ * entry per phone number or email address, written in the same transaction as the result, and
+ * deleted once the message has been handed to the provider or given up on.
+ */
+@Entity
+@Table(name = "result_delivery_outbox")
+@Getter
+@NoArgsConstructor
+public class ResultDeliveryOutboxEntry extends IdentifiedEntity {
+
+  public enum Channel {
+    SMS,
+    EMAIL
+  }
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "patient_link_id", nullable = false, updatable = false)
+  private PatientLink patientLink;
+
+  @Column(nullable = false, updatable = false)
+  @Enumerated(EnumType.STRING)
+  private Channel channel;
+
+  /** The phone number, in E.164 format, or the email address the message is sent to */
+  @Column(nullable = false, updatable = false)
+  private String recipient;
+
+  /** Who submitted the result; records written while sending are attributed to them */
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "requested_by", nullable = false, updatable = false)
+  private ApiUser requestedBy;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Setter
+  @Column(nullable = false)
+  private Date nextAttemptAt;
+
+  @Column private String lastError;
+
+  @Column(updatable = false)
+  @CreationTimestamp
+  private Date createdAt;
+
+  public ResultDeliveryOutboxEntry(
+      PatientLink patientLink, Channel channel, String recipient, ApiUser requestedBy) {
+    this.patientLink = patientLink;
+    this.channel = channel;
+    this.recipient = recipient;
+    this.requestedBy = requestedBy;
+    this.nextAttemptAt = new Date();
+  }
+
+  public void recordFailure(String error, Date nextAttemptAt) {
+    this.attempts++;
+    this.lastError = error;
+    this.nextAttemptAt = nextAttemptAt;
+  }
+}
@@ -0,0 +1,75 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.util.Date;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A test event waiting to be sent to one of the ReportStream queues. Entries are written in the
+ * same transaction as the test event, so a committed event is never lost, and are deleted once the
+ * queue has accepted the event. Entries that keep failing are eventually given up on, and kept so
+ * they can be looked into and sent again.
+ */
+@Entity
+@Table(name = "test_event_report_outbox")
+@Getter
+@NoArgsConstructor
+public class TestEventReportOutboxEntry extends IdentifiedEntity {
+
+  public enum Destination {
+    CSV_QUEUE,
+    FHIR_QUEUE
+  }
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "test_event_id", nullable = false, updatable = false)
+  private TestEvent testEvent;
+
+  @Column(nullable = false, updatable = false)
+  @Enumerated(EnumType.STRING)
+  private Destination destination;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Setter
+  @Column(nullable = false)
+  private Date nextAttemptAt;
+
+  @Column private String lastError;
+
+  /** When sending was given up on; such entries are no longer claimed */
+  @Column private Date givenUpAt;
+
+  @Column(updatable = false)
+  @CreationTimestamp
+  private Date createdAt;
+
+  public TestEventReportOutboxEntry(TestEvent testEvent, Destination destination) {
+    this.testEvent = testEvent;
+    this.destination = destination;
+    this.nextAttemptAt = new Date();
+  }
+
+  public void recordFailure(String error, Date nextAttemptAt) {
+    this.attempts++;
+    this.lastError = error;
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  public void giveUp(String error) {
+    this.attempts++;
+    this.lastError = error;
+    this.givenUpAt = new Date();
+  }
+}
@@ -49,6 +49,12 @@ public class TestOrder extends BaseTestInfo {
   @JoinColumn(name = "test_event_id")
   private TestEvent testEvent;
 
+  /**
+   * The facility's queue version when this order last changed, or null if it hasn't changed since
+   * queue versions were introduced
+   */
+  @Column private Long queueVersion;
+
   @JsonIgnore
   @OneToMany(mappedBy = "testOrder", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
   @Getter
@@ -138,4 +144,12 @@ public class TestOrder extends BaseTestInfo {
   public UUID getPatientAnswersId() {
     return patientAnswersId;
   }
+
+  public Long getQueueVersion() {
+    return queueVersion;
+  }
+
+  public void setQueueVersion(long queueVersion) {
+    this.queueVersion = queueVersion;
+  }
 }
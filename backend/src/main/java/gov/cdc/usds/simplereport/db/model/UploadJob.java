@@ -0,0 +1,118 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobResult;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobType;
+import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.util.Date;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * A results upload accepted by one of the asynchronous upload endpoints. The file is kept here
+ * until a worker picks the job up; while it runs, the worker saves its progress every so often, and
+ * the outcome is recorded once it's done.
+ *
+ * <p>The instance that accepted the job holds a lease on it until it's done, and keeps renewing it.
+ * A job whose lease has run out was left behind by an instance that went away, and is failed by
+ * whichever instance notices first.
+ */
+@Entity
+@Table(name = "upload_job")
+@Getter
+@NoArgsConstructor
+public class UploadJob extends IdentifiedEntity {
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "org_id", nullable = false, updatable = false)
+  private Organization organization;
+
+  @Column(nullable = false, updatable = false)
+  @Enumerated(EnumType.STRING)
+  private UploadJobType uploadType;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private UploadJobStatus status;
+
+  @Column private byte[] fileContent;
+
+  @Column(nullable = false, updatable = false)
+  private long fileSize;
+
+  @Column(nullable = false)
+  private int rowsValidated;
+
+  @Column(nullable = false)
+  private int rowsConverted;
+
+  @Column(nullable = false)
+  private long bytesSubmitted;
+
+  @Column
+  @Type(JsonBinaryType.class)
+  private UploadJobResult[] results;
+
+  @Column private String failureMessage;
+
+  // only ever renewed in bulk by the instance holding it, never by saving the job
+  @Column(updatable = false)
+  private Date leaseExpiresAt;
+
+  @Column(updatable = false)
+  @CreationTimestamp
+  private Date createdAt;
+
+  @Column @UpdateTimestamp private Date updatedAt;
+
+  public UploadJob(
+      Organization organization,
+      UploadJobType uploadType,
+      byte[] fileContent,
+      Date leaseExpiresAt) {
+    this.organization = organization;
+    this.uploadType = uploadType;
+    this.status = UploadJobStatus.QUEUED;
+    this.fileContent = fileContent;
+    this.fileSize = fileContent.length;
+    this.leaseExpiresAt = leaseExpiresAt;
+  }
+
+  /** Hands the file over to the worker, which is the only thing that needs it from now on. */
+  public byte[] start() {
+    byte[] content = fileContent;
+    this.status = UploadJobStatus.PROCESSING;
+    this.fileContent = null;
+    return content;
+  }
+
+  public void complete(List<UploadJobResult> results) {
+    this.status = UploadJobStatus.COMPLETE;
+    this.results = results.toArray(UploadJobResult[]::new);
+    this.fileContent = null;
+  }
+
+  public void fail(String failureMessage) {
+    this.status = UploadJobStatus.FAILED;
+    this.failureMessage = failureMessage;
+    this.fileContent = null;
+  }
+
+  public void setProgress(int rowsValidated, int rowsConverted, long bytesSubmitted) {
+    this.rowsValidated = rowsValidated;
+    this.rowsConverted = rowsConverted;
+    this.bytesSubmitted = bytesSubmitted;
+  }
+}
@@ -0,0 +1,25 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+import gov.cdc.usds.simplereport.db.model.TestResultUpload;
+import gov.cdc.usds.simplereport.service.model.reportstream.FeedbackMessage;
+import java.util.UUID;
+
+/** What an upload job sent to one pipeline, as returned by the synchronous upload endpoints. */
+public record UploadJobResult(
+    UUID reportId,
+    UploadStatus status,
+    int recordsCount,
+    Pipeline destination,
+    FeedbackMessage[] warnings,
+    FeedbackMessage[] errors) {
+
+  public static UploadJobResult from(TestResultUpload upload) {
+    return new UploadJobResult(
+        upload.getReportId(),
+        upload.getStatus(),
+        upload.getRecordsCount(),
+        upload.getDestination(),
+        upload.getWarnings(),
+        upload.getErrors());
+  }
+}
@@ -0,0 +1,8 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+public enum UploadJobStatus {
+  QUEUED,
+  PROCESSING,
+  COMPLETE,
+  FAILED
+}
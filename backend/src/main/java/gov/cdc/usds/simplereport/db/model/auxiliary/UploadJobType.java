@@ -0,0 +1,6 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+public enum UploadJobType {
+  RESULTS,
+  CONDITION_AGNOSTIC_RESULTS
+}
@@ -2,10 +2,13 @@ package gov.cdc.usds.simplereport.db.repository;
 
 import gov.cdc.usds.simplereport.db.model.ApiUser;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Interface specification for fetching and manipulating {@link ApiUser} entities */
 public interface ApiUserRepository extends EternalSystemManagedEntityRepository<ApiUser> {
@@ -22,6 +25,14 @@ public interface ApiUserRepository extends EternalSystemManagedEntityRepository<
   @Query("FROM #{#entityName} e WHERE internalId = :id")
   Optional<ApiUser> findByIdIncludeArchived(UUID id);
 
+  /** Moves last seen forward for the given users; a newer stored value is left alone. */
+  @Transactional
+  @Modifying
+  @Query(
+      "update ApiUser u set u.lastSeen = :seen"
+          + " where u.internalId in :ids and (u.lastSeen is null or u.lastSeen < :seen)")
+  int updateLastSeen(Collection<UUID> ids, Date seen);
+
   @Query(BASE_QUERY + " and loginEmail = :email")
   Optional<ApiUser> findByLoginEmail(String email);
 
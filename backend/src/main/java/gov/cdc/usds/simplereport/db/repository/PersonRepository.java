@@ -14,6 +14,8 @@ import org.springframework.data.jpa.repository.Query;
 /** Interface specification for fetching and manipulating {@link Person} entities */
 public interface PersonRepository extends EternalAuditedEntityRepository<Person> {
 
+  List<Person> findAll(Specification<Person> searchSpec);
+
   List<Person> findAll(Specification<Person> searchSpec, Pageable p);
 
   List<Person> findAllByInternalIdIn(Collection<UUID> ids);
@@ -0,0 +1,23 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ResultDeliveryOutboxRepository
+    extends CrudRepository<ResultDeliveryOutboxEntry, UUID> {
+
+  /**
+   * Locks entries that are due to be sent, skipping any another instance has already locked, so
+   * concurrent dispatchers never pick up the same entry.
+   */
+  @Query(
+      value =
+          "SELECT * FROM {h-schema}result_delivery_outbox WHERE next_attempt_at <= :now"
+              + " ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<ResultDeliveryOutboxEntry> findDueForUpdate(Date now, int limit);
+}
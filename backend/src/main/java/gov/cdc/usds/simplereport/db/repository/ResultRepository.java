@@ -14,6 +14,8 @@ public interface ResultRepository extends EternalAuditedEntityRepository<Result>
 
   Page<Result> findAll(Specification<Result> searchSpec, Pageable p);
 
+  long count(Specification<Result> searchSpec);
+
   List<Result> findAllByTestEvent(TestEvent testEvent);
 
   List<Result> findAllByTestOrder(TestOrder testOrder);
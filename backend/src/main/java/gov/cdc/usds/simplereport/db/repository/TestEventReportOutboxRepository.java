@@ -0,0 +1,25 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.TestEventReportOutboxEntry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+public interface TestEventReportOutboxRepository
+    extends CrudRepository<TestEventReportOutboxEntry, UUID> {
+
+  /**
+   * Locks entries that are due to be sent, skipping any another instance has already locked, so
+   * concurrent dispatchers never pick up the same entry. Entries that were given up on are never
+   * due.
+   */
+  @Query(
+      value =
+          "SELECT * FROM {h-schema}test_event_report_outbox WHERE next_attempt_at <= :now"
+              + " AND given_up_at IS NULL"
+              + " ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<TestEventReportOutboxEntry> findDueForUpdate(Date now, int limit);
+}
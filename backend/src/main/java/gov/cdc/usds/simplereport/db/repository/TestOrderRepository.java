@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 public interface TestOrderRepository
@@ -29,6 +30,52 @@ public interface TestOrderRepository
   @EntityGraph(attributePaths = {"patient", "deviceType", "specimenType", "results"})
   List<TestOrder> fetchQueue(Organization org, Facility facility);
 
+  /**
+   * Orders at the facility that changed after the given queue version, including any that have
+   * since left the queue. Unlike the other queue queries, deleted patients are included too.
+   */
+  @Query(
+      "from #{#entityName} q where q.organization = :org and q.facility = :facility"
+          + " and q.queueVersion > :sinceVersion"
+          + ORDER_CREATION_ORDER)
+  @EntityGraph(attributePaths = {"patient", "deviceType", "specimenType", "results"})
+  List<TestOrder> fetchQueueChanges(Organization org, Facility facility, long sinceVersion);
+
+  @Query("from #{#entityName} q where q.patient = :patient" + IS_PENDING)
+  List<TestOrder> fetchPendingOrdersIncludingDeletedPatient(Person patient);
+
+  /**
+   * Increments the facility's queue version. The row stays locked until the transaction ends, so
+   * versions become visible in the order they were handed out. Not {@link Modifying}, since the
+   * statement returns a row like a query does.
+   *
+   * @return the new version
+   */
+  @Query(
+      value =
+          "INSERT INTO {h-schema}test_queue_version AS v (facility_id, version)"
+              + " VALUES (:facilityId, 1)"
+              + " ON CONFLICT (facility_id) DO UPDATE SET version = v.version + 1"
+              + " RETURNING version",
+      nativeQuery = true)
+  long incrementQueueVersion(UUID facilityId);
+
+  @Query(
+      value =
+          "SELECT coalesce(max(version), 0) FROM {h-schema}test_queue_version"
+              + " WHERE facility_id = :facilityId",
+      nativeQuery = true)
+  long getQueueVersion(UUID facilityId);
+
+  /**
+   * Sends a Postgres notification on the given channel. Like any other write, it is only delivered
+   * if the transaction commits.
+   */
+  @Query(
+      value = "SELECT count(*) FROM (SELECT pg_notify(:channel, :payload)) AS notified",
+      nativeQuery = true)
+  long sendNotification(String channel, String payload);
+
   @Query(BASE_ORG_QUERY + IS_PENDING + " and q.patient = :patient")
   @EntityGraph(attributePaths = "patient")
   Optional<TestOrder> fetchQueueItem(Organization org, Person patient);
@@ -0,0 +1,47 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.UploadJob;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UploadJobRepository extends CrudRepository<UploadJob, UUID> {
+
+  Optional<UploadJob> findByInternalIdAndOrganization(UUID id, Organization org);
+
+  /** Saves a running job's progress without touching anything else the worker owns. */
+  @Transactional
+  @Modifying
+  @Query(
+      "update UploadJob j set j.rowsValidated = :rowsValidated, j.rowsConverted = :rowsConverted,"
+          + " j.bytesSubmitted = :bytesSubmitted, j.updatedAt = :now"
+          + " where j.internalId = :id and j.status = 'PROCESSING'")
+  void updateProgress(UUID id, int rowsValidated, int rowsConverted, long bytesSubmitted, Date now);
+
+  /** Extends this instance's leases on the jobs it hasn't finished yet. */
+  @Transactional
+  @Modifying
+  @Query(
+      "update UploadJob j set j.leaseExpiresAt = :leaseExpiresAt"
+          + " where j.internalId in :ids and j.status in ('QUEUED', 'PROCESSING')")
+  int renewLeases(Collection<UUID> ids, Date leaseExpiresAt);
+
+  /**
+   * Fails unfinished jobs whose lease ran out, because the instance running them went away. Safe to
+   * run on every instance at once: each job is only failed by whichever gets to it first.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update UploadJob j set j.status = 'FAILED', j.failureMessage = :failureMessage,"
+          + " j.fileContent = null, j.updatedAt = :now"
+          + " where j.status in ('QUEUED', 'PROCESSING')"
+          + " and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+  int failAbandonedJobs(String failureMessage, Date now);
+}
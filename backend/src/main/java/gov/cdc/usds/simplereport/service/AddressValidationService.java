@@ -5,6 +5,7 @@ import static gov.cdc.usds.simplereport.api.Translators.parseString;
 
 import com.smartystreets.api.ClientBuilder;
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
@@ -14,25 +15,64 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.properties.SmartyStreetsProperties;
 import gov.cdc.usds.simplereport.service.errors.InvalidAddressException;
 import gov.cdc.usds.simplereport.service.model.TimezoneInfo;
+import gov.cdc.usds.simplereport.service.model.UnvalidatedAddress;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 @Service
 @Slf4j
 public class AddressValidationService {
-  private Client _client;
+  private static final String LOOKUP_FAILED_MESSAGE =
+      "The server is unable to verify the address you entered. Please try again later";
+
+  private final Client _client;
+  // null when batches are sent one after another on the calling thread
+  private final ExecutorService _batchExecutor;
 
   public AddressValidationService(Client client) {
+    this(client, 1);
+  }
+
+  public AddressValidationService(Client client, int maxConcurrentBatches) {
     _client = client;
+    _batchExecutor =
+        maxConcurrentBatches > 1
+            ? Executors.newFixedThreadPool(
+                maxConcurrentBatches, new CustomizableThreadFactory("address-batch-"))
+            : null;
   }
 
   @Autowired
-  public AddressValidationService(SmartyStreetsProperties config) {
-    _client = new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient();
+  public AddressValidationService(
+      SmartyStreetsProperties config,
+      @Value("${smarty-streets.max-concurrent-batches:4}") int maxConcurrentBatches) {
+    this(
+        new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient(),
+        maxConcurrentBatches);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (_batchExecutor != null) {
+      _batchExecutor.shutdownNow();
+    }
   }
 
   private Lookup getStrictLookup(
@@ -56,8 +96,7 @@ public class AddressValidationService {
       _client.send(lookup);
     } catch (SmartyException | IOException ex) {
       log.error("SmartyStreets address lookup failed", ex);
-      throw new IllegalGraphqlArgumentException(
-          "The server is unable to verify the address you entered. Please try again later");
+      throw new IllegalGraphqlArgumentException(LOOKUP_FAILED_MESSAGE);
     } catch (InterruptedException ex) {
       log.error("SmartyStreets address lookup interrupted", ex);
       Thread.currentThread().interrupt();
@@ -67,9 +106,11 @@ public class AddressValidationService {
   }
 
   public StreetAddress getValidatedAddress(Lookup lookup) {
-    var results = getLookupResults(lookup);
+    return toValidatedAddress(lookup, getLookupResults(lookup));
+  }
 
-    if (results.isEmpty()) {
+  private StreetAddress toValidatedAddress(Lookup lookup, List<Candidate> results) {
+    if (results == null || results.isEmpty()) {
       return new StreetAddress(
           lookup.getStreet(),
           lookup.getSecondary(),
@@ -99,6 +140,81 @@ public class AddressValidationService {
     return getValidatedAddress(lookup);
   }
 
+  /**
+   * Validates many addresses the way {@link #getValidatedAddress(String, String, String, String,
+   * String)} validates one. Each distinct address is looked up once; see {@link #sendInBatches}.
+   */
+  public Map<UnvalidatedAddress, StreetAddress> getValidatedAddresses(
+      Collection<UnvalidatedAddress> addresses) {
+    Map<UnvalidatedAddress, Lookup> lookups = new LinkedHashMap<>();
+    for (UnvalidatedAddress address : addresses) {
+      if (!lookups.containsKey(address)) {
+        lookups.put(
+            address,
+            getStrictLookup(
+                address.street1(),
+                address.street2(),
+                address.city(),
+                address.state(),
+                address.postalCode()));
+      }
+    }
+
+    sendInBatches(lookups.values());
+
+    Map<UnvalidatedAddress, StreetAddress> validated = new HashMap<>();
+    lookups.forEach(
+        (address, lookup) ->
+            validated.put(address, toValidatedAddress(lookup, lookup.getResult())));
+    return validated;
+  }
+
+  /**
+   * Sends lookups up to {@link Batch#MAX_BATCH_SIZE} at a time, with several requests in flight at
+   * once when that is allowed. Throws if any request fails, and nothing from the others should be
+   * used then.
+   */
+  private void sendInBatches(Collection<Lookup> lookups) {
+    List<Lookup> pending = new ArrayList<>(lookups);
+    List<List<Lookup>> batches = new ArrayList<>();
+    for (int start = 0; start < pending.size(); start += Batch.MAX_BATCH_SIZE) {
+      batches.add(pending.subList(start, Math.min(start + Batch.MAX_BATCH_SIZE, pending.size())));
+    }
+    if (_batchExecutor == null || batches.size() < 2) {
+      batches.forEach(this::sendBatch);
+      return;
+    }
+    try {
+      CompletableFuture.allOf(
+              batches.stream()
+                  .map(batch -> CompletableFuture.runAsync(() -> sendBatch(batch), _batchExecutor))
+                  .toArray(CompletableFuture[]::new))
+          .join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private void sendBatch(List<Lookup> lookups) {
+    Batch batch = new Batch();
+    try {
+      for (Lookup lookup : lookups) {
+        batch.add(lookup);
+      }
+      _client.send(batch);
+    } catch (SmartyException | IOException ex) {
+      log.error("SmartyStreets batch address lookup failed", ex);
+      throw new IllegalGraphqlArgumentException(LOOKUP_FAILED_MESSAGE);
+    } catch (InterruptedException ex) {
+      log.error("SmartyStreets batch address lookup interrupted", ex);
+      Thread.currentThread().interrupt();
+      throw new IllegalGraphqlArgumentException(LOOKUP_FAILED_MESSAGE);
+    }
+  }
+
   public TimezoneInfo getTimezoneInfoByLookup(Lookup lookup) {
     var results = getLookupResults(lookup);
 
@@ -146,4 +262,53 @@ public class AddressValidationService {
 
     return ZoneId.of("US/" + timezoneInfo.timezoneCommonName);
   }
+
+  /**
+   * Looks up the timezone of many addresses at once; see {@link #sendInBatches}.
+   *
+   * @return the timezone of each address that was looked up, with a null value when SmartyStreets
+   *     has no match for it. Addresses SmartyStreets can't look up at all, such as those with an
+   *     invalid state, are left out.
+   */
+  public Map<StreetAddress, ZoneId> getZoneIdsByAddress(Collection<StreetAddress> addresses) {
+    Map<StreetAddress, ZoneId> zoneIds = new HashMap<>();
+    Map<StreetAddress, Lookup> lookups = new LinkedHashMap<>();
+    for (StreetAddress address : addresses) {
+      try {
+        lookups.put(
+            address,
+            getStrictLookup(
+                address.getStreetOne(),
+                address.getStreetTwo(),
+                address.getCity(),
+                address.getState(),
+                address.getPostalCode()));
+      } catch (IllegalGraphqlArgumentException e) {
+        // not something SmartyStreets can look up, leave it to the single address path
+        log.info("Skipping batch timezone lookup for address with invalid state");
+      }
+    }
+
+    sendInBatches(lookups.values());
+
+    lookups.forEach(
+        (address, lookup) -> {
+          List<Candidate> results = lookup.getResult();
+          zoneIds.put(
+              address,
+              results == null || results.isEmpty()
+                  ? null
+                  : getZoneIdByTimezoneName(results.get(0).getMetadata().getTimeZone()));
+        });
+    return zoneIds;
+  }
+
+  private ZoneId getZoneIdByTimezoneName(String timezoneCommonName) {
+    try {
+      return ZoneId.of("US/" + timezoneCommonName);
+    } catch (DateTimeException e) {
+      log.error("Unable to map SmartyStreets timezone {} to a zone id", timezoneCommonName);
+      return null;
+    }
+  }
 }
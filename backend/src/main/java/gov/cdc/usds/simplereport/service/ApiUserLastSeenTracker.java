@@ -0,0 +1,98 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.repository.ApiUserRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps users' last seen times up to date without writing to {@code api_user} on every request.
+ * Sightings are held in memory and written in bulk on a schedule, and a user whose stored last seen
+ * time is newer than the minimum change isn't written at all.
+ *
+ * <p>Stored times are rounded down to the minute so that everyone seen in the same minute is
+ * written by one statement. Sightings not yet written when an instance dies are lost, which only
+ * makes last seen a little older than it should be.
+ */
+@Slf4j
+@Component
+public class ApiUserLastSeenTracker {
+  private static final int UPDATE_BATCH_SIZE = 1000;
+
+  private final ApiUserRepository apiUserRepository;
+  private final Duration minimumChange;
+  private final Map<UUID, Date> pending = new ConcurrentHashMap<>();
+
+  public ApiUserLastSeenTracker(
+      ApiUserRepository apiUserRepository,
+      @Value("${simple-report.api-user-last-seen.minimum-change:PT5M}") Duration minimumChange) {
+    this.apiUserRepository = apiUserRepository;
+    this.minimumChange = minimumChange;
+  }
+
+  /** Notes that the user was seen just now, unless their stored last seen is recent enough. */
+  public void recordSeen(ApiUser user) {
+    Date now = new Date();
+    Date lastSeen = user.getLastSeen();
+    if (lastSeen != null && now.getTime() - lastSeen.getTime() < minimumChange.toMillis()) {
+      return;
+    }
+    pending.merge(user.getInternalId(), now, (a, b) -> a.after(b) ? a : b);
+  }
+
+  /**
+   * Writes every sighting noted so far. Sightings that fail to write are kept for the next flush.
+   *
+   * @return the number of users whose last seen time moved forward
+   */
+  @Scheduled(fixedDelayString = "${simple-report.api-user-last-seen.flush-interval:PT1M}")
+  public int flush() {
+    Map<Date, List<UUID>> usersByMinute = new HashMap<>();
+    for (UUID userId : pending.keySet()) {
+      Date seen = pending.remove(userId);
+      if (seen != null) {
+        Date minute = Date.from(seen.toInstant().truncatedTo(ChronoUnit.MINUTES));
+        usersByMinute.computeIfAbsent(minute, m -> new ArrayList<>()).add(userId);
+      }
+    }
+
+    int updated = 0;
+    for (var entry : usersByMinute.entrySet()) {
+      for (List<UUID> batch : ListUtils.partition(entry.getValue(), UPDATE_BATCH_SIZE)) {
+        try {
+          updated += apiUserRepository.updateLastSeen(batch, entry.getKey());
+        } catch (RuntimeException e) {
+          log.warn("Unable to save last seen for {} users; will retry", batch.size(), e);
+          batch.forEach(id -> pending.merge(id, entry.getKey(), (a, b) -> a.after(b) ? a : b));
+        }
+      }
+    }
+    return updated;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Unable to save last seen times on shutdown", e);
+    }
+  }
+
+  boolean isPending(UUID userId) {
+    return pending.containsKey(userId);
+  }
+}
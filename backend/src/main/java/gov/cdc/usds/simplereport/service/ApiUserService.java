@@ -75,6 +75,10 @@ public class ApiUserService {
 
   @Autowired private ApiUserContextHolder _apiUserContextHolder;
 
+  @Autowired private CurrentPrincipalCache _currentPrincipalCache;
+
+  @Autowired private ApiUserLastSeenTracker _lastSeenTracker;
+
   private void createUserUpdatedAuditLog(Object authorId, Object updatedUserId) {
     log.info("User with id={} updated by user with id={}", authorId, updatedUserId);
   }
@@ -245,6 +249,7 @@ public class ApiUserService {
     UserInfo user = new UserInfo(apiUser, orgRoles, false);
 
     apiUser.setFacilities(facilitiesFound);
+    _currentPrincipalCache.evictUser(username);
 
     createUserUpdatedAuditLog(apiUser.getInternalId(), getCurrentApiUser().getInternalId());
 
@@ -265,6 +270,7 @@ public class ApiUserService {
 
     apiUser.setLoginEmail(email);
     apiUser = _apiUserRepo.save(apiUser);
+    _currentPrincipalCache.evictUser(username);
 
     Optional<OrganizationRoleClaims> roleClaims = _oktaRepo.updateUserEmail(userIdentity, email);
     Optional<OrganizationRoles> orgRoles = roleClaims.map(_orgService::getOrganizationRoles);
@@ -309,6 +315,7 @@ public class ApiUserService {
     apiUser.setIsDeleted(deleted);
     apiUser = _apiUserRepo.save(apiUser);
     _oktaRepo.setUserIsActive(apiUser.getLoginEmail(), !deleted);
+    _currentPrincipalCache.evictUser(apiUser.getLoginEmail());
     return new UserInfo(apiUser, Optional.empty(), false);
   }
 
@@ -391,8 +398,7 @@ public class ApiUserService {
     if (found.isPresent()) {
       log.debug("Patient has logged in before: retrieving user record.");
       ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
+      _lastSeenTracker.recordSeen(user);
       return user;
     } else {
       log.info("Initial login for patient: creating user record.");
@@ -506,12 +512,23 @@ public class ApiUserService {
   }
 
   private ApiUser getCurrentApiUserFromIdentity(IdentityAttributes userIdentity) {
-    Optional<ApiUser> found = _apiUserRepo.findByLoginEmail(userIdentity.getUsername());
+    String username = userIdentity.getUsername();
+    Optional<ApiUser> recent =
+        _currentPrincipalCache
+            .getApiUserId(username)
+            .flatMap(_apiUserRepo::findById)
+            .filter(u -> u.getLoginEmail().equals(username));
+    if (recent.isPresent()) {
+      log.debug("User resolved on a recent request: retrieving user record by id.");
+      _lastSeenTracker.recordSeen(recent.get());
+      return recent.get();
+    }
+    Optional<ApiUser> found = _apiUserRepo.findByLoginEmail(username);
     if (found.isPresent()) {
       log.debug("User has logged in before: retrieving user record.");
       ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
+      _lastSeenTracker.recordSeen(user);
+      _currentPrincipalCache.putApiUserId(username, user.getInternalId());
       return user;
     } else {
       // Assumes user already has a corresponding Okta entity; otherwise, they couldn't log in :)
@@ -716,6 +733,7 @@ public class ApiUserService {
 
     _oktaRepo.updateUserPrivilegesAndGroupAccess(
         username, newOrg, facilitiesToGiveAccessTo, role.toOrganizationRole(), allFacilitiesAccess);
+    _currentPrincipalCache.evictUser(username);
   }
 
   /*
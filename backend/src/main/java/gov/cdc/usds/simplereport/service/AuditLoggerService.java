@@ -3,27 +3,163 @@ package gov.cdc.usds.simplereport.service;
 import ch.qos.logback.classic.Logger;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import gov.cdc.usds.simplereport.db.model.ConsoleApiAuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+/**
+ * Writes audit events to the JSON audit log, mostly from a background thread. The entities an event
+ * refers to are still rendered on the calling thread, since they may need its persistence context
+ * to load; the rest of the event is turned into JSON and written out in batches in the background.
+ *
+ * <p>No event is lost: if the queue is full, or the writer has stopped, the event is written on the
+ * calling thread instead, and counted. Events still queued at shutdown are written before the
+ * writer stops.
+ */
 @Component
 @Slf4j
 public class AuditLoggerService {
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
   private final ObjectMapper objectMapper;
+  private final ObjectWriter eventWriter;
   private final Logger jsonLogger;
+  private final BlockingQueue<PendingAuditEvent> queue;
+  private final int batchSize;
+  private final Counter overflowCounter;
+  private final ExecutorService writer;
+  private final AtomicLong accepted = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+
+  private record PendingAuditEvent(ConsoleApiAuditEvent event, Map<String, String> mdc) {}
 
-  public AuditLoggerService(ObjectMapper objectMapper, Logger jsonLogger) {
+  public AuditLoggerService(
+      ObjectMapper objectMapper,
+      Logger jsonLogger,
+      @Value("${logging.queueSize}") int queueSize,
+      @Value("${simple-report.audit-log.batch-size:100}") int batchSize,
+      MeterRegistry meterRegistry) {
     this.objectMapper = objectMapper;
+    this.eventWriter = objectMapper.writerFor(ConsoleApiAuditEvent.class);
     this.jsonLogger = jsonLogger;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.batchSize = batchSize;
+    this.overflowCounter =
+        Counter.builder("simplereport.audit.overflow")
+            .description("Audit events written on the calling thread because the queue was full")
+            .register(meterRegistry);
+    Gauge.builder("simplereport.audit.backlog", queue, BlockingQueue::size)
+        .description("Audit events waiting to be written")
+        .register(meterRegistry);
+    this.writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("audit-log-"));
+    writer.execute(this::writeUntilStopped);
   }
 
   public void logEvent(ConsoleApiAuditEvent apiAuditEvent) {
     try {
-      String auditJson = objectMapper.writeValueAsString(apiAuditEvent);
-      jsonLogger.info(auditJson);
+      apiAuditEvent.snapshotEntities(objectMapper::valueToTree);
+    } catch (IllegalArgumentException e) {
+      log.info("error transforming to json {}", e.toString());
+      return;
+    }
+    if (!writer.isShutdown()
+        && queue.offer(new PendingAuditEvent(apiAuditEvent, MDC.getCopyOfContextMap()))) {
+      accepted.incrementAndGet();
+    } else {
+      // holding up this request is better than losing the event
+      overflowCounter.increment();
+      writeJson(apiAuditEvent);
+    }
+  }
+
+  /**
+   * Waits for every event accepted so far to be written.
+   *
+   * @return false if the timeout ran out first
+   */
+  boolean awaitWritten(Duration timeout) throws InterruptedException {
+    long target = accepted.get();
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (completed.get() < target) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      Thread.sleep(5);
+    }
+    return true;
+  }
+
+  private void writeUntilStopped() {
+    List<PendingAuditEvent> batch = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      queue.drainTo(batch, batchSize - 1);
+      writeBatch(batch);
+      batch.clear();
+    }
+    // write whatever was queued before shutdown
+    queue.drainTo(batch);
+    writeBatch(batch);
+  }
+
+  private void writeBatch(List<PendingAuditEvent> batch) {
+    try {
+      for (PendingAuditEvent pending : batch) {
+        write(pending);
+      }
+    } finally {
+      MDC.clear();
+      completed.addAndGet(batch.size());
+    }
+  }
+
+  private void write(PendingAuditEvent pending) {
+    if (pending.mdc() == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(pending.mdc());
+    }
+    writeJson(pending.event());
+  }
+
+  private void writeJson(ConsoleApiAuditEvent event) {
+    try {
+      jsonLogger.info(eventWriter.writeValueAsString(event));
     } catch (JsonProcessingException e) {
       log.info("error transforming to json {}", e.toString());
+    } catch (RuntimeException e) {
+      log.error("Unable to write audit event for request {}", event.getRequestId(), e);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    writer.shutdownNow();
+    if (!writer.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.warn("Audit log writer did not finish; {} events not written", queue.size());
     }
   }
 }
@@ -35,7 +35,6 @@ public class AuditService {
     log.trace("Saving audit event for {}", requestId);
   }
 
-  @Transactional(readOnly = false)
   public void logGraphQlEvent(
       GraphqlQueryState state,
       List<String> errorPaths,
@@ -56,7 +55,6 @@ public class AuditService {
             organization));
   }
 
-  @Transactional(readOnly = false)
   public void logRestEvent(
       String requestId,
       HttpServletRequest request,
@@ -70,6 +68,7 @@ public class AuditService {
         new ConsoleApiAuditEvent(requestId, reqDetails, responseCode, userInfo, org, patientLink));
   }
 
+  // the anonymous and webhook users are created the first time they are needed
   @Transactional(readOnly = false)
   public void logAnonymousRestEvent(
       String requestId, HttpServletRequest request, int responseCode) {
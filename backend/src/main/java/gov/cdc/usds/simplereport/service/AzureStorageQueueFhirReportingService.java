@@ -1,37 +1,93 @@
 package gov.cdc.usds.simplereport.service;
 
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
 import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
 import com.azure.storage.queue.QueueAsyncClient;
+import gov.cdc.usds.simplereport.api.converter.FhirBundleJsonEncoder;
 import gov.cdc.usds.simplereport.api.converter.FhirConverter;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import java.util.concurrent.CompletableFuture;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Bundle;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 @Slf4j
-@RequiredArgsConstructor
 public final class AzureStorageQueueFhirReportingService implements TestEventReportingService {
 
   public static final String COVID_LOINC = "96741-4";
-  private final FhirContext context;
-  private final QueueAsyncClient queueClient;
   private final GitProperties gitProperties;
   private final FhirConverter fhirConverter;
+  private final QueueMessageSender queue;
+  // parsers are cheap to reuse but not safe to share between threads
+  private final ThreadLocal<IParser> parsers;
+  private final FhirBundleJsonEncoder fastEncoder;
+  private final ExecutorService encodeExecutor;
 
   @Value("${simple-report.processing-mode-code:P}")
   private String processingModeCode = "P";
 
+  @Value("${simple-report.fhir-fast-bundle-encoder:false}")
+  private boolean fastBundleEncoder = false;
+
+  /** Encodes on the calling thread. */
+  public AzureStorageQueueFhirReportingService(
+      FhirContext context,
+      QueueAsyncClient queueClient,
+      GitProperties gitProperties,
+      FhirConverter fhirConverter) {
+    this(context, new QueueMessageSender(queueClient), gitProperties, fhirConverter, 0);
+  }
+
+  /**
+   * @param encodeThreads threads encoding bundles to JSON, or 0 to encode on the calling thread
+   */
+  public AzureStorageQueueFhirReportingService(
+      FhirContext context,
+      QueueMessageSender queue,
+      GitProperties gitProperties,
+      FhirConverter fhirConverter,
+      int encodeThreads) {
+    this.gitProperties = gitProperties;
+    this.fhirConverter = fhirConverter;
+    this.queue = queue;
+    this.parsers = ThreadLocal.withInitial(context::newJsonParser);
+    this.fastEncoder = new FhirBundleJsonEncoder(context);
+    this.encodeExecutor =
+        encodeThreads > 0
+            ? Executors.newFixedThreadPool(
+                encodeThreads, new CustomizableThreadFactory("fhir-queue-encode-"))
+            : null;
+  }
+
   @Override
   public CompletableFuture<Void> reportAsync(TestEvent testEvent) {
     log.trace("Dispatching TestEvent [{}] to Azure storage queue", testEvent.getInternalId());
-    var parser = context.newJsonParser();
-    return queueClient
-        .sendMessage(
-            parser.encodeResourceToString(
-                fhirConverter.createFhirBundle(testEvent, gitProperties, processingModeCode)))
-        .toFuture()
-        .thenApply(result -> null);
+    // the bundle is read from the entity graph, so it has to be built in the caller's session;
+    // encoding it only touches FHIR resources and can happen anywhere
+    var bundle = fhirConverter.createFhirBundle(testEvent, gitProperties, processingModeCode);
+    if (encodeExecutor == null) {
+      return queue.send(encode(bundle));
+    }
+    return CompletableFuture.supplyAsync(withMDC(() -> encode(bundle)), encodeExecutor)
+        .thenCompose(queue::send);
+  }
+
+  private String encode(Bundle bundle) {
+    return fastBundleEncoder
+        ? fastEncoder.encodeToString(bundle)
+        : parsers.get().encodeResourceToString(bundle);
+  }
+
+  /** Stops the encoding threads; called when the context shuts down. */
+  public void shutdown() {
+    if (encodeExecutor != null) {
+      encodeExecutor.shutdown();
+    }
   }
 }
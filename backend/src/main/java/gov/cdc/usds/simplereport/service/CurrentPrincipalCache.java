@@ -0,0 +1,133 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.config.CachingConfig.CURRENT_API_USER_IDS;
+import static gov.cdc.usds.simplereport.config.CachingConfig.CURRENT_ORGANIZATION_ROLES;
+
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers who the caller resolved to on recent requests, so the next request from the same token
+ * can skip the login email and organization claim lookups. Only ids are kept: callers load the
+ * entities again by primary key, so nothing detached is ever shared between requests.
+ *
+ * <p>Organization roles are keyed by the token subject and a hash of the claims, so a token with
+ * different roles or facilities (including tenant data access) never sees another token's entry.
+ * Entries live for a short time, and are dropped straight away when a user is changed through
+ * {@link ApiUserService} or any organization or facility is saved.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentPrincipalCache {
+
+  private final CacheManager cacheManager;
+
+  /** The organization and facilities that a set of claims resolved to. */
+  public record CachedOrganizationRoles(UUID organizationId, Set<UUID> facilityIds) {}
+
+  record OrganizationRolesKey(String subject, String claimsHash) {}
+
+  public Optional<UUID> getApiUserId(String loginEmail) {
+    return Optional.ofNullable(apiUserIds().get(loginEmail, UUID.class));
+  }
+
+  public void putApiUserId(String loginEmail, UUID apiUserId) {
+    apiUserIds().put(loginEmail, apiUserId);
+  }
+
+  public Optional<CachedOrganizationRoles> getOrganizationRoles(
+      String subject, List<OrganizationRoleClaims> claims) {
+    return Optional.ofNullable(
+        organizationRoles()
+            .get(
+                new OrganizationRolesKey(subject, claimsHash(claims)),
+                CachedOrganizationRoles.class));
+  }
+
+  public void putOrganizationRoles(
+      String subject, List<OrganizationRoleClaims> claims, CachedOrganizationRoles roles) {
+    organizationRoles().put(new OrganizationRolesKey(subject, claimsHash(claims)), roles);
+  }
+
+  /** Forgets everything cached for one user, whatever token they presented. */
+  public void evictUser(String loginEmail) {
+    apiUserIds().evict(loginEmail);
+    ((CaffeineCache) organizationRoles())
+        .getNativeCache()
+        .asMap()
+        .keySet()
+        .removeIf(
+            key ->
+                key instanceof OrganizationRolesKey k && Objects.equals(k.subject(), loginEmail));
+  }
+
+  /**
+   * Forgets every cached organization role. If a transaction is running, this happens again once it
+   * commits, so a request that resolved roles from the old data in the meantime doesn't keep them.
+   */
+  public void evictAllOrganizationRoles() {
+    organizationRoles().clear();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              organizationRoles().clear();
+            }
+          });
+    }
+  }
+
+  static String claimsHash(List<OrganizationRoleClaims> claims) {
+    String canonical =
+        claims.stream()
+            .map(
+                c ->
+                    c.getOrganizationExternalId()
+                        + "|"
+                        + c.getGrantedRoles().stream()
+                            .map(Enum::name)
+                            .sorted()
+                            .collect(Collectors.joining(","))
+                        + "|"
+                        + c.getFacilities().stream()
+                            .map(UUID::toString)
+                            .sorted()
+                            .collect(Collectors.joining(",")))
+            .sorted(Comparator.naturalOrder())
+            .collect(Collectors.joining("\n"));
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(canonical.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private Cache apiUserIds() {
+    return Objects.requireNonNull(cacheManager.getCache(CURRENT_API_USER_IDS));
+  }
+
+  private Cache organizationRoles() {
+    return Objects.requireNonNull(cacheManager.getCache(CURRENT_ORGANIZATION_ROLES));
+  }
+}
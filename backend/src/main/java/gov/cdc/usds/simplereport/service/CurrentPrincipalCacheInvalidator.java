@@ -0,0 +1,26 @@
+package gov.cdc.usds.simplereport.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener for organizations and facilities. Any change to either can change which
+ * facilities a set of claims resolves to, so every cached organization role is dropped, whichever
+ * code path saved the entity. Contexts without the cache, such as repository test slices, skip
+ * this.
+ */
+@RequiredArgsConstructor
+public class CurrentPrincipalCacheInvalidator {
+
+  private final ObjectProvider<CurrentPrincipalCache> currentPrincipalCache;
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    currentPrincipalCache.ifAvailable(CurrentPrincipalCache::evictAllOrganizationRoles);
+  }
+}
@@ -25,7 +25,15 @@ public interface DataHubClient {
 
   @PostMapping(value = "/api/waters", consumes = "application/fhir+ndjson")
   UploadResponse uploadFhir(
-      @RequestBody() String fhirNDJson, @RequestHeader(value = "Authorization") String authHeader);
+      @RequestBody() byte[] fhirNDJson, @RequestHeader(value = "Authorization") String authHeader);
+
+  @PostMapping(
+      value = "/api/waters",
+      consumes = "application/fhir+ndjson",
+      headers = "Content-Encoding=gzip")
+  UploadResponse uploadGzippedFhir(
+      @RequestBody() byte[] gzippedFhirNDJson,
+      @RequestHeader(value = "Authorization") String authHeader);
 
   @PostMapping(value = "/api/token", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
   TokenResponse fetchAccessToken(@RequestBody() String parameterBody);
@@ -0,0 +1,88 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.service.model.reportstream.UploadResponse;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Uploads files that were spooled to disk to ReportStream. Feign builds every request body as a
+ * byte array, so instead of going through {@link DataHubClient} the file is copied straight into
+ * the connection, with the same headers {@link
+ * gov.cdc.usds.simplereport.config.DataHubClientConfiguration} adds to the Feign requests.
+ */
+@Component
+public class DataHubFileUploadClient {
+  private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+  private static final MediaType FHIR_NDJSON = MediaType.parseMediaType("application/fhir+ndjson");
+
+  private final RestTemplate restTemplate;
+  private final String url;
+  private final String apiKey;
+  private final String apiVersion;
+  private final String csvClientName;
+  private final String fhirClientName;
+
+  @Autowired
+  public DataHubFileUploadClient(
+      @Value("${datahub.url}") String url,
+      @Value("${datahub.api-key}") String apiKey,
+      @Value("${datahub.api-version}") String apiVersion,
+      @Value("${datahub.csv-upload-api-client}") String csvClientName,
+      @Value("${datahub.csv-upload-api-fhir-client}") String fhirClientName) {
+    this(streamingRestTemplate(), url, apiKey, apiVersion, csvClientName, fhirClientName);
+  }
+
+  DataHubFileUploadClient(
+      RestTemplate restTemplate,
+      String url,
+      String apiKey,
+      String apiVersion,
+      String csvClientName,
+      String fhirClientName) {
+    this.restTemplate = restTemplate;
+    this.url = url;
+    this.apiKey = apiKey;
+    this.apiVersion = apiVersion;
+    this.csvClientName = csvClientName;
+    this.fhirClientName = fhirClientName;
+  }
+
+  public UploadResponse uploadCSV(Path csv) {
+    return post("/api/reports?processing=async", csv, TEXT_CSV, csvClientName, new HttpHeaders());
+  }
+
+  public UploadResponse uploadFhir(Path fhirNDJson, boolean gzipped, String authHeader) {
+    var headers = new HttpHeaders();
+    headers.set(HttpHeaders.AUTHORIZATION, authHeader);
+    if (gzipped) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return post("/api/waters", fhirNDJson, FHIR_NDJSON, fhirClientName, headers);
+  }
+
+  private UploadResponse post(
+      String path, Path file, MediaType contentType, String clientName, HttpHeaders headers) {
+    headers.setContentType(contentType);
+    headers.set("client", clientName);
+    headers.set("x-api-version", apiVersion);
+    headers.set("x-functions-key", apiKey);
+    return restTemplate.postForObject(
+        url + path, new HttpEntity<>(new FileSystemResource(file), headers), UploadResponse.class);
+  }
+
+  private static RestTemplate streamingRestTemplate() {
+    var requestFactory = new SimpleClientHttpRequestFactory();
+    // with buffering off the file is written to the connection as it is read, and the file size
+    // is sent as the Content-Length
+    requestFactory.setBufferRequestBody(false);
+    return new RestTemplate(requestFactory);
+  }
+}
@@ -43,11 +43,13 @@ public class DeviceTypeService {
   private final SpecimenTypeRepository specimenTypeRepository;
   private final SupportedDiseaseRepository supportedDiseaseRepository;
   private final DeviceTypeDiseaseRepository deviceTypeDiseaseRepository;
+  private final ResultsUploaderCachingService resultsUploaderCachingService;
 
   @Transactional
   @AuthorizationConfiguration.RequireGlobalAdminUser
   public void removeDeviceType(DeviceType d) {
     deviceTypeRepository.delete(d);
+    resultsUploaderCachingService.refreshLookupIndexAfterCommit();
   }
 
   public List<DeviceType> fetchDeviceTypes() {
@@ -126,6 +128,7 @@ public class DeviceTypeService {
       device.getSupportedDiseaseTestPerformed().clear();
       device.getSupportedDiseaseTestPerformed().addAll(deviceTypeDiseaseList);
     }
+    resultsUploaderCachingService.refreshLookupIndexAfterCommit();
     return deviceTypeRepository.save(device);
   }
 
@@ -172,6 +175,7 @@ public class DeviceTypeService {
         createDeviceTypeDiseaseList(createDevice.getSupportedDiseaseTestPerformed(), dt);
     dt.getSupportedDiseaseTestPerformed().addAll(deviceTypeDiseaseList);
     deviceTypeRepository.save(dt);
+    resultsUploaderCachingService.refreshLookupIndexAfterCommit();
 
     return dt;
   }
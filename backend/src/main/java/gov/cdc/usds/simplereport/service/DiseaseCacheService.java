@@ -23,7 +23,7 @@ public class DiseaseCacheService {
 
   private final SupportedDiseaseRepository _supportedDiseaseRepo;
 
-  @Cacheable(SUPPORTED_DISEASE_ID_MAP)
+  @Cacheable(value = SUPPORTED_DISEASE_ID_MAP, sync = true)
   public Map<UUID, SupportedDisease> getKnownSupportedDiseasesMap() {
     log.info("generating " + SUPPORTED_DISEASE_ID_MAP + " cache");
     return _supportedDiseaseRepo.findAll().stream()
@@ -22,7 +22,10 @@ import gov.cdc.usds.simplereport.db.repository.OrganizationRepository;
 import gov.cdc.usds.simplereport.db.repository.PersonRepository;
 import gov.cdc.usds.simplereport.db.repository.ProviderRepository;
 import gov.cdc.usds.simplereport.idp.repository.OktaRepository;
+import gov.cdc.usds.simplereport.service.CurrentPrincipalCache.CachedOrganizationRoles;
 import gov.cdc.usds.simplereport.service.email.EmailService;
+import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import gov.cdc.usds.simplereport.service.model.IdentitySupplier;
 import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
 import gov.cdc.usds.simplereport.validators.OrderingProviderRequiredValidator;
 import java.util.ArrayList;
@@ -61,6 +64,8 @@ public class OrganizationService {
   private final PatientSelfRegistrationLinkService patientSelfRegistrationLinkService;
   private final DeviceTypeRepository deviceTypeRepository;
   private final EmailService emailService;
+  private final IdentitySupplier identitySupplier;
+  private final CurrentPrincipalCache currentPrincipalCache;
 
   public void resetOrganizationRolesContext() {
     organizationRolesContext.reset();
@@ -71,7 +76,7 @@ public class OrganizationService {
       if (organizationRolesContext.hasBeenPopulated()) {
         return organizationRolesContext.getOrganizationRoles();
       }
-      var result = fetchCurrentOrganizationRoles();
+      var result = fetchCurrentOrganizationRolesCached();
       organizationRolesContext.setOrganizationRoles(result);
       return result;
     } catch (ScopeNotActiveException e) {
@@ -79,8 +84,66 @@ public class OrganizationService {
     }
   }
 
-  private Optional<OrganizationRoles> fetchCurrentOrganizationRoles() {
+  /**
+   * Like {@link #fetchCurrentOrganizationRoles()}, but if the same token resolved its claims on a
+   * recent request, the organization and facilities it found are loaded again by id instead.
+   */
+  private Optional<OrganizationRoles> fetchCurrentOrganizationRolesCached() {
+    IdentityAttributes identity = identitySupplier.get();
+    if (identity == null) {
+      return fetchCurrentOrganizationRoles();
+    }
+    String subject = identity.getUsername();
     List<OrganizationRoleClaims> orgRoles = authorizationService.findAllOrganizationRoles();
+    Optional<OrganizationRoles> cached =
+        currentPrincipalCache
+            .getOrganizationRoles(subject, orgRoles)
+            .flatMap(c -> loadCachedOrganizationRoles(c, orgRoles));
+    if (cached.isPresent()) {
+      return cached;
+    }
+    Optional<OrganizationRoles> result = fetchCurrentOrganizationRoles(orgRoles);
+    result.ifPresent(
+        r ->
+            currentPrincipalCache.putOrganizationRoles(
+                subject,
+                orgRoles,
+                new CachedOrganizationRoles(
+                    r.getOrganization().getInternalId(),
+                    r.getFacilities().stream()
+                        .map(Facility::getInternalId)
+                        .collect(Collectors.toSet()))));
+    return result;
+  }
+
+  /** Empty if anything cached has since been deleted, so the claims are resolved from scratch. */
+  private Optional<OrganizationRoles> loadCachedOrganizationRoles(
+      CachedOrganizationRoles cached, List<OrganizationRoleClaims> orgRoles) {
+    Optional<Organization> org =
+        organizationRepository.findById(cached.organizationId()).filter(o -> !o.isDeleted());
+    if (org.isEmpty()) {
+      return Optional.empty();
+    }
+    Set<Facility> facilities =
+        cached.facilityIds().isEmpty()
+            ? Set.of()
+            : facilityRepository.findAllByOrganizationAndInternalId(
+                org.get(), cached.facilityIds());
+    if (facilities.size() != cached.facilityIds().size()) {
+      return Optional.empty();
+    }
+    return orgRoles.stream()
+        .filter(r -> r.getOrganizationExternalId().equals(org.get().getExternalId()))
+        .findFirst()
+        .map(r -> new OrganizationRoles(org.get(), facilities, r.getGrantedRoles()));
+  }
+
+  private Optional<OrganizationRoles> fetchCurrentOrganizationRoles() {
+    return fetchCurrentOrganizationRoles(authorizationService.findAllOrganizationRoles());
+  }
+
+  private Optional<OrganizationRoles> fetchCurrentOrganizationRoles(
+      List<OrganizationRoleClaims> orgRoles) {
     List<String> candidateExternalIds =
         orgRoles.stream()
             .map(OrganizationRoleClaims::getOrganizationExternalId)
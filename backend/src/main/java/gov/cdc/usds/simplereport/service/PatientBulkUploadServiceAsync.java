@@ -23,11 +23,14 @@ import gov.cdc.usds.simplereport.db.model.PhoneNumber;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.service.email.EmailProviderTemplate;
 import gov.cdc.usds.simplereport.service.email.EmailService;
+import gov.cdc.usds.simplereport.service.model.PatientMatchKey;
+import gov.cdc.usds.simplereport.service.model.UnvalidatedAddress;
 import gov.cdc.usds.simplereport.validators.CsvValidatorUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +88,13 @@ public class PatientBulkUploadServiceAsync {
     Set<Person> allPatients = new HashSet<>();
     int totalPatientCount = 0;
 
+    // rows are checked for existing patients a chunk at a time; a batch saved partway through a
+    // chunk isn't in that chunk's query results, so patients saved by this upload are tracked here
+    List<ParsedRow> pendingRows = new ArrayList<>();
+    Set<PatientMatchKey> savedPatientKeys = new HashSet<>();
+    // rosters often repeat the same address, so each one is only validated once per upload
+    Map<UnvalidatedAddress, StreetAddress> validatedAddresses = new HashMap<>();
+
     final MappingIterator<Map<String, String>> valueIterator =
         CsvValidatorUtils.getIteratorForCsv(new ByteArrayInputStream(content));
 
@@ -92,96 +102,73 @@ public class PatientBulkUploadServiceAsync {
       final Map<String, String> row = CsvValidatorUtils.getNextRow(valueIterator);
 
       try {
-
-        PatientUploadRow extractedData = new PatientUploadRow(row);
-
-        String street = extractedData.getStreet().getValue();
-        String state = extractedData.getState().getValue();
-        String zip = extractedData.getZipCode().getValue();
-
-        StreetAddress address = getUnknownStreetAddress();
-
-        if (!isAddressUnknown(state, zip, street)) {
-          // Fetch address information
-          address =
-              addressValidationService.getValidatedAddress(
-                  street,
-                  extractedData.getStreet2().getValue(),
-                  extractedData.getCity().getValue(),
-                  state,
-                  zip);
-        }
-
-        String country =
-            extractedData.getCountry().getValue() == null
-                ? "USA"
-                : extractedData.getCountry().getValue();
-
-        if (personService.isDuplicatePatient(
-            extractedData.getFirstName().getValue(),
-            extractedData.getLastName().getValue(),
-            parseUserShortDate(extractedData.getDateOfBirth().getValue()),
-            currentOrganization,
-            assignedFacility)) {
+        pendingRows.add(parseRow(row));
+        if (pendingRows.size() < batchSize && valueIterator.hasNext()) {
           continue;
         }
 
-        // create new person with current organization, then add to new patients list
-        Person newPatient =
-            Person.builder()
-                .organization(currentOrganization)
-                .facility(assignedFacility.orElse(null))
-                .birthDate(parseUserShortDate(extractedData.getDateOfBirth().getValue()))
-                .address(address)
-                .country(country)
-                .role(parsePersonRole(extractedData.getRole().getValue(), false))
-                .emails(
-                    StringUtils.isBlank(extractedData.getEmail().getValue())
-                        ? Collections.emptyList()
-                        : List.of(extractedData.getEmail().getValue()))
-                .race(convertRaceToDatabaseValue(extractedData.getRace().getValue()))
-                .ethnicity(convertEthnicityToDatabaseValue(extractedData.getEthnicity().getValue()))
-                .gender(convertSexToDatabaseValue(extractedData.getBiologicalSex().getValue()))
-                .genderIdentity(
-                    StringUtils.isBlank(extractedData.getGenderIdentity().getValue())
-                        ? null
-                        : convertGenderIdentityToDatabaseValue(
-                            extractedData.getGenderIdentity().getValue()))
-                .residentCongregateSetting(
-                    parseYesNoUnk(extractedData.getResidentCongregateSetting().getValue()))
-                .employedInHealthcare(
-                    parseYesNoUnk(extractedData.getEmployedInHealthcare().getValue()))
-                .firstName(extractedData.getFirstName().getValue())
-                .middleName(extractedData.getMiddleName().getValue())
-                .lastName(extractedData.getLastName().getValue())
-                .suffix(extractedData.getSuffix().getValue())
-                .notes(extractedData.getNotes().getValue())
-                .build();
-
-        if (!allPatients.contains(newPatient)) {
-          // collect phone numbers and associate them with the patient
-          // then add to phone numbers list and set primary phone, if exists
-          List<PhoneNumber> newPhoneNumbers =
-              personService.assignPhoneNumbersToPatient(
-                  newPatient,
-                  List.of(
-                      new PhoneNumber(
-                          parsePhoneType(extractedData.getPhoneNumberType().getValue()),
-                          extractedData.getPhoneNumber().getValue())));
-          phoneNumbersList.addAll(newPhoneNumbers);
-          newPhoneNumbers.stream().findFirst().ifPresent(newPatient::setPrimaryPhone);
-
-          patientsList.add(newPatient);
-          allPatients.add(newPatient);
-          totalPatientCount += 1;
+        List<UnvalidatedAddress> newAddresses =
+            pendingRows.stream()
+                .map(ParsedRow::address)
+                .filter(address -> address != null && !validatedAddresses.containsKey(address))
+                .distinct()
+                .toList();
+        if (!newAddresses.isEmpty()) {
+          validatedAddresses.putAll(addressValidationService.getValidatedAddresses(newAddresses));
         }
 
-        if (patientsList.size() >= batchSize) {
-          personService.addPatientsAndPhoneNumbers(patientsList, phoneNumbersList);
-          // clear lists after save, so we don't try to save duplicate records
-          patientsList.clear();
-          phoneNumbersList.clear();
+        Set<PatientMatchKey> existingPatients =
+            personService.findDuplicatePatients(
+                pendingRows.stream().map(ParsedRow::matchKey).toList(),
+                currentOrganization,
+                assignedFacility);
+
+        for (ParsedRow parsedRow : pendingRows) {
+          if (existingPatients.contains(parsedRow.matchKey())
+              || savedPatientKeys.contains(parsedRow.matchKey())) {
+            continue;
+          }
+
+          // create new person with current organization, then add to new patients list
+          StreetAddress address =
+              parsedRow.address() == null
+                  ? getUnknownStreetAddress()
+                  : copyOf(validatedAddresses.get(parsedRow.address()));
+          Person newPatient =
+              buildPatient(parsedRow, address, currentOrganization, assignedFacility.orElse(null));
+
+          if (!allPatients.contains(newPatient)) {
+            // collect phone numbers and associate them with the patient
+            // then add to phone numbers list and set primary phone, if exists
+            PatientUploadRow extractedData = parsedRow.data();
+            List<PhoneNumber> newPhoneNumbers =
+                personService.assignPhoneNumbersToPatient(
+                    newPatient,
+                    List.of(
+                        new PhoneNumber(
+                            parsePhoneType(extractedData.getPhoneNumberType().getValue()),
+                            extractedData.getPhoneNumber().getValue())));
+            phoneNumbersList.addAll(newPhoneNumbers);
+            newPhoneNumbers.stream().findFirst().ifPresent(newPatient::setPrimaryPhone);
+
+            patientsList.add(newPatient);
+            allPatients.add(newPatient);
+            totalPatientCount += 1;
+          }
+
+          if (patientsList.size() >= batchSize) {
+            personService.addPatientsAndPhoneNumbers(patientsList, phoneNumbersList);
+            patientsList.forEach(
+                saved ->
+                    savedPatientKeys.add(
+                        PatientMatchKey.of(
+                            saved.getFirstName(), saved.getLastName(), saved.getBirthDate())));
+            // clear lists after save, so we don't try to save duplicate records
+            patientsList.clear();
+            phoneNumbersList.clear();
+          }
         }
+        pendingRows.clear();
       } catch (IllegalArgumentException | NullPointerException e) {
         sendEmail(
             uploaderEmail,
@@ -224,6 +211,91 @@ public class PatientBulkUploadServiceAsync {
     return CompletableFuture.completedFuture(patientsList);
   }
 
+  /**
+   * @param address null when the row's address is unknown
+   */
+  private record ParsedRow(
+      PatientUploadRow data,
+      UnvalidatedAddress address,
+      String country,
+      PatientMatchKey matchKey) {}
+
+  private ParsedRow parseRow(Map<String, String> row) {
+    PatientUploadRow extractedData = new PatientUploadRow(row);
+
+    String street = extractedData.getStreet().getValue();
+    String state = extractedData.getState().getValue();
+    String zip = extractedData.getZipCode().getValue();
+
+    UnvalidatedAddress address = null;
+
+    if (!isAddressUnknown(state, zip, street)) {
+      address =
+          new UnvalidatedAddress(
+              street,
+              extractedData.getStreet2().getValue(),
+              extractedData.getCity().getValue(),
+              state,
+              zip);
+    }
+
+    String country =
+        extractedData.getCountry().getValue() == null
+            ? "USA"
+            : extractedData.getCountry().getValue();
+
+    PatientMatchKey matchKey =
+        PatientMatchKey.of(
+            extractedData.getFirstName().getValue(),
+            extractedData.getLastName().getValue(),
+            parseUserShortDate(extractedData.getDateOfBirth().getValue()));
+
+    return new ParsedRow(extractedData, address, country, matchKey);
+  }
+
+  // patients sharing an address each get their own copy
+  private static StreetAddress copyOf(StreetAddress address) {
+    return new StreetAddress(
+        address.getStreet(),
+        address.getCity(),
+        address.getState(),
+        address.getPostalCode(),
+        address.getCounty());
+  }
+
+  private Person buildPatient(
+      ParsedRow parsedRow, StreetAddress address, Organization organization, Facility facility) {
+    PatientUploadRow extractedData = parsedRow.data();
+    return Person.builder()
+        .organization(organization)
+        .facility(facility)
+        .birthDate(parseUserShortDate(extractedData.getDateOfBirth().getValue()))
+        .address(address)
+        .country(parsedRow.country())
+        .role(parsePersonRole(extractedData.getRole().getValue(), false))
+        .emails(
+            StringUtils.isBlank(extractedData.getEmail().getValue())
+                ? Collections.emptyList()
+                : List.of(extractedData.getEmail().getValue()))
+        .race(convertRaceToDatabaseValue(extractedData.getRace().getValue()))
+        .ethnicity(convertEthnicityToDatabaseValue(extractedData.getEthnicity().getValue()))
+        .gender(convertSexToDatabaseValue(extractedData.getBiologicalSex().getValue()))
+        .genderIdentity(
+            StringUtils.isBlank(extractedData.getGenderIdentity().getValue())
+                ? null
+                : convertGenderIdentityToDatabaseValue(
+                    extractedData.getGenderIdentity().getValue()))
+        .residentCongregateSetting(
+            parseYesNoUnk(extractedData.getResidentCongregateSetting().getValue()))
+        .employedInHealthcare(parseYesNoUnk(extractedData.getEmployedInHealthcare().getValue()))
+        .firstName(extractedData.getFirstName().getValue())
+        .middleName(extractedData.getMiddleName().getValue())
+        .lastName(extractedData.getLastName().getValue())
+        .suffix(extractedData.getSuffix().getValue())
+        .notes(extractedData.getNotes().getValue())
+        .build();
+  }
+
   private void sendEmail(
       String uploaderEmail,
       Organization currentOrganization,
@@ -15,9 +15,12 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
 import gov.cdc.usds.simplereport.db.repository.PersonRepository;
 import gov.cdc.usds.simplereport.db.repository.PhoneNumberRepository;
+import gov.cdc.usds.simplereport.service.model.PatientMatchKey;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +28,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -41,10 +45,14 @@ public class PersonService {
   private final OrganizationService _os;
   private final PersonRepository _repo;
   private final PhoneNumberRepository _phoneRepo;
+  private final EntityManager _entityManager;
+  private final TestQueueVersionService _queueVersions;
 
   public static final int DEFAULT_PAGINATION_PAGEOFFSET = 0;
   public static final int DEFAULT_PAGINATION_PAGESIZE = 5000; // this is high because the searchBar
   static final int MINIMUM_CHAR_FOR_SEARCH = 2;
+  // each key takes three bind parameters, and Postgres allows at most 32767 in one statement
+  static final int MAX_MATCH_KEYS_PER_QUERY = 5000;
 
   private static final Sort NAME_SORT =
       Sort.by("nameInfo.lastName", "nameInfo.firstName", "nameInfo.middleName", "nameInfo.suffix");
@@ -53,11 +61,15 @@ public class PersonService {
       OrganizationService os,
       PersonRepository repo,
       CurrentPatientContextHolder patientContext,
-      PhoneNumberRepository phoneRepo) {
+      PhoneNumberRepository phoneRepo,
+      EntityManager entityManager,
+      TestQueueVersionService queueVersions) {
     _patientContext = patientContext;
     _os = os;
     _repo = repo;
     _phoneRepo = phoneRepo;
+    _entityManager = entityManager;
+    _queueVersions = queueVersions;
   }
 
   private void updatePersonFacility(Person person, UUID facilityId) {
@@ -263,6 +275,66 @@ public class PersonService {
     return !patients.isEmpty();
   }
 
+  /**
+   * Set-based version of {@link #isDuplicatePatient}: checks a whole batch of patients with one
+   * query per {@link #MAX_MATCH_KEYS_PER_QUERY} keys and returns the keys of those that already
+   * exist.
+   */
+  public Set<PatientMatchKey> findDuplicatePatients(
+      Collection<PatientMatchKey> keys, Organization org, Optional<Facility> facility) {
+    Set<PatientMatchKey> existing = new HashSet<>();
+    for (List<PatientMatchKey> batch :
+        ListUtils.partition(keys.stream().distinct().toList(), MAX_MATCH_KEYS_PER_QUERY)) {
+      existing.addAll(findDuplicatePatientsInBatch(batch, org, facility));
+    }
+    return existing;
+  }
+
+  private Set<PatientMatchKey> findDuplicatePatientsInBatch(
+      List<PatientMatchKey> distinctKeys, Organization org, Optional<Facility> facility) {
+    // joins the patients against the keys as a VALUES list, so each key is matched as a whole, and
+    // only reads back which keys matched rather than loading the patients
+    StringBuilder sql = new StringBuilder("select distinct k.key_index from (values ");
+    for (int i = 0; i < distinctKeys.size(); i++) {
+      sql.append(i == 0 ? "(" : ", (")
+          .append(i)
+          .append(", cast(?")
+          .append(3 * i + 1)
+          .append(" as text), cast(?")
+          .append(3 * i + 2)
+          .append(" as text), cast(?")
+          .append(3 * i + 3)
+          .append(" as date))");
+    }
+    int orgParameter = 3 * distinctKeys.size() + 1;
+    sql.append(") as k(key_index, first_name, last_name, birth_date)")
+        .append(" join {h-schema}person p on lower(p.first_name) = k.first_name")
+        .append(" and lower(p.last_name) = k.last_name and p.birth_date = k.birth_date")
+        .append(" where p.organization_id = ?")
+        .append(orgParameter);
+    if (facility.isPresent()) {
+      sql.append(" and (p.facility_id is null or p.facility_id = ?")
+          .append(orgParameter + 1)
+          .append(")");
+    }
+
+    var query = _entityManager.createNativeQuery(sql.toString());
+    for (int i = 0; i < distinctKeys.size(); i++) {
+      PatientMatchKey key = distinctKeys.get(i);
+      query.setParameter(3 * i + 1, key.firstName());
+      query.setParameter(3 * i + 2, key.lastName());
+      query.setParameter(3 * i + 3, key.birthDate());
+    }
+    query.setParameter(orgParameter, org.getInternalId());
+    facility.ifPresent(f -> query.setParameter(orgParameter + 1, f.getInternalId()));
+
+    Set<PatientMatchKey> existing = new HashSet<>();
+    for (Object keyIndex : query.getResultList()) {
+      existing.add(distinctKeys.get(((Number) keyIndex).intValue()));
+    }
+    return existing;
+  }
+
   @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
   public long getPatientsCount(
       UUID facilityId,
@@ -311,6 +383,12 @@ public class PersonService {
             () -> new IllegalGraphqlArgumentException("No patient with that ID was found"));
   }
 
+  /**
+   * Saves one batch of a bulk patient upload. The batch is written out straight away (as JDBC
+   * batches, see hibernate.jdbc.batch_size) and then dropped from the persistence context, so later
+   * queries in the same upload don't have to dirty-check every patient saved before them. Entities
+   * loaded earlier in the transaction are detached by this.
+   */
   @AuthorizationConfiguration.RequirePermissionCreatePatientAtFacility
   public void addPatientsAndPhoneNumbers(Set<Person> patients, List<PhoneNumber> phoneNumbers) {
     if (!patients.isEmpty()) {
@@ -319,6 +397,8 @@ public class PersonService {
     if (!phoneNumbers.isEmpty()) {
       _phoneRepo.saveAll(phoneNumbers);
     }
+    _entityManager.flush();
+    _entityManager.clear();
   }
 
   @AuthorizationConfiguration.RequirePermissionCreatePatientAtFacility
@@ -484,6 +564,7 @@ public class PersonService {
     Person person = _repo.findById(patientId).orElseThrow();
     person.setTestResultDelivery(testResultDelivery);
     _repo.save(person);
+    _queueVersions.markPatientChanged(person);
   }
 
   // IMPLICIT AUTHORIZATION: this fetches the current patient after a patient link
@@ -493,6 +574,7 @@ public class PersonService {
     Person patient = _patientContext.getLinkedOrder().getPatient();
     patient.setTestResultDelivery(testResultDelivery);
     _repo.save(patient);
+    _queueVersions.markPatientChanged(patient);
   }
 
   @AuthorizationConfiguration.RequirePermissionEditPatientAtFacility
@@ -551,7 +633,9 @@ public class PersonService {
 
     updatePersonFacility(patientToUpdate, facilityId);
 
-    return _repo.save(patientToUpdate);
+    Person savedPatient = _repo.save(patientToUpdate);
+    _queueVersions.markPatientChanged(savedPatient);
+    return savedPatient;
   }
 
   @AuthorizationConfiguration.RequirePermissionArchiveTargetPatient
@@ -567,6 +651,8 @@ public class PersonService {
     // deleted = true are deleted = false currently, and vice versa
     Person person = this.getPatientNoPermissionsCheck(patientId, patientOrg, !deleted);
     person.setIsDeleted(deleted);
-    return _repo.save(person);
+    Person savedPerson = _repo.save(person);
+    _queueVersions.markPatientChanged(savedPerson);
+    return savedPerson;
   }
 }
@@ -0,0 +1,77 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.azure.storage.queue.QueueAsyncClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends messages to a storage queue as soon as they are handed in. Storage queues take one message
+ * per request, so there is nothing to gain from holding messages back to send them together;
+ * concurrent sends are simply concurrent requests, and each message completes or fails on its own.
+ *
+ * <p>Publishes per-queue send latency (from being handed in to being accepted by the queue) and
+ * send outcomes.
+ */
+public class QueueMessageSender {
+  static final String METRIC_NAME = "simplereport.reporting_queue";
+
+  private final QueueAsyncClient queueClient;
+  private final Timer sentTimer;
+  private final Timer failedTimer;
+
+  public QueueMessageSender(QueueAsyncClient queueClient) {
+    this(queueClient, Metrics.globalRegistry);
+  }
+
+  public QueueMessageSender(QueueAsyncClient queueClient, MeterRegistry meterRegistry) {
+    this.queueClient = queueClient;
+    String queue = Objects.requireNonNullElse(queueClient.getQueueName(), "unnamed");
+    this.sentTimer =
+        Timer.builder(METRIC_NAME + ".send")
+            .description("Time from a message being handed in to the queue accepting it")
+            .tag("queue", queue)
+            .tag("outcome", "success")
+            .register(meterRegistry);
+    this.failedTimer =
+        Timer.builder(METRIC_NAME + ".send")
+            .description("Time from a message being handed in to the queue accepting it")
+            .tag("queue", queue)
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Sends a message.
+   *
+   * @return a future that completes once the queue has accepted the message, or completes
+   *     exceptionally if sending it failed
+   */
+  public CompletableFuture<Void> send(String message) {
+    long handedInAt = System.nanoTime();
+    var sent = new CompletableFuture<Void>();
+    try {
+      queueClient
+          .sendMessage(message)
+          .toFuture()
+          .whenComplete((result, error) -> complete(sent, handedInAt, error));
+    } catch (RuntimeException e) {
+      complete(sent, handedInAt, e);
+    }
+    return sent;
+  }
+
+  private void complete(CompletableFuture<Void> sent, long handedInAt, Throwable error) {
+    long elapsed = System.nanoTime() - handedInAt;
+    if (error == null) {
+      sentTimer.record(elapsed, TimeUnit.NANOSECONDS);
+      sent.complete(null);
+    } else {
+      failedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+      sent.completeExceptionally(error);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import gov.cdc.usds.simplereport.service.errors.InvalidRSAPrivateKeyException;
+import gov.cdc.usds.simplereport.service.model.reportstream.TokenResponse;
+import gov.cdc.usds.simplereport.utils.DateGenerator;
+import gov.cdc.usds.simplereport.utils.TokenAuthentication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out the access token for ReportStream's waters API. Tokens are fetched with a signed JWT
+ * and kept until shortly before they expire, so bulk uploads and status checks share one token
+ * instead of fetching a new one every time. Once a token is close to expiring, the next request
+ * still gets it but triggers a refresh in the background. Only one fetch runs at a time; callers
+ * without a usable token wait for it rather than starting their own.
+ */
+@Slf4j
+@Component
+public class ReportStreamTokenManager {
+  static final String METRIC_NAME = "simplereport.reportstream.token";
+  // stop using a token a little before ReportStream does, to allow for clock skew and latency,
+  // but never more than half its lifetime, so a short-lived token isn't expired as it's cached
+  private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+  private static final long FIVE_MINUTES_MS = 300 * 1000;
+
+  private record CachedToken(String accessToken, Instant refreshAt, Instant expiresAt) {}
+
+  private final DataHubClient dataHubClient;
+  private final TokenAuthentication tokenAuth;
+  private final DateGenerator dateGenerator;
+  private final String dataHubUrl;
+  private final String clientName;
+  private final String signingKey;
+  private final String scope;
+  private final Duration defaultTimeToLive;
+  private final Duration refreshAhead;
+  private final AtomicReference<CachedToken> cachedToken = new AtomicReference<>();
+  private final ReentrantLock fetchLock = new ReentrantLock();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private final ExecutorService refreshExecutor;
+  private final Counter hits;
+  private final Counter misses;
+  private final Timer fetchTimer;
+
+  public ReportStreamTokenManager(
+      DataHubClient dataHubClient,
+      TokenAuthentication tokenAuth,
+      DateGenerator dateGenerator,
+      @Value("${data-hub.url}") String dataHubUrl,
+      @Value("${data-hub.csv-upload-api-client}") String clientName,
+      @Value("${data-hub.signing-key}") String signingKey,
+      @Value("${data-hub.jwt-scope}") String scope,
+      @Value("${data-hub.token.default-ttl:PT5M}") Duration defaultTimeToLive,
+      @Value("${data-hub.token.refresh-ahead:PT1M}") Duration refreshAhead,
+      MeterRegistry meterRegistry) {
+    this.dataHubClient = dataHubClient;
+    this.tokenAuth = tokenAuth;
+    this.dateGenerator = dateGenerator;
+    this.dataHubUrl = dataHubUrl;
+    this.clientName = clientName;
+    this.signingKey = signingKey;
+    this.scope = scope;
+    this.defaultTimeToLive = defaultTimeToLive;
+    this.refreshAhead = refreshAhead;
+    var threadFactory = new CustomizableThreadFactory("reportstream-token-refresh-");
+    threadFactory.setDaemon(true);
+    this.refreshExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    this.hits =
+        Counter.builder(METRIC_NAME + ".requests")
+            .description("Requests for a ReportStream access token")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    this.misses =
+        Counter.builder(METRIC_NAME + ".requests")
+            .description("Requests for a ReportStream access token")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    this.fetchTimer =
+        Timer.builder(METRIC_NAME + ".fetch")
+            .description("Time taken to fetch a new ReportStream access token")
+            .register(meterRegistry);
+  }
+
+  /**
+   * @return an access token that is valid for at least another {@link #EXPIRY_MARGIN}, or half its
+   *     lifetime if that is shorter
+   * @throws InvalidRSAPrivateKeyException if the signing key is invalid
+   * @throws feign.FeignException if ReportStream doesn't issue a token
+   */
+  public String getAccessToken() {
+    var token = cachedToken.get();
+    var now = dateGenerator.newDate().toInstant();
+    if (isUsable(token, now)) {
+      hits.increment();
+      if (!now.isBefore(token.refreshAt())) {
+        refreshInBackground();
+      }
+      return token.accessToken();
+    }
+
+    misses.increment();
+    fetchLock.lock();
+    try {
+      // another caller may have fetched one while we were waiting
+      token = cachedToken.get();
+      if (isUsable(token, dateGenerator.newDate().toInstant())) {
+        return token.accessToken();
+      }
+      return fetchToken().accessToken();
+    } finally {
+      fetchLock.unlock();
+    }
+  }
+
+  private static boolean isUsable(CachedToken token, Instant now) {
+    return token != null && now.isBefore(token.expiresAt());
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    CompletableFuture.supplyAsync(withMDC(this::refreshIfDue), refreshExecutor)
+        .whenComplete(
+            (token, e) -> {
+              refreshing.set(false);
+              if (e != null) {
+                // the current token is still usable; the next request will try again
+                log.warn("Refreshing the ReportStream access token failed", e);
+              }
+            });
+  }
+
+  private CachedToken refreshIfDue() {
+    fetchLock.lock();
+    try {
+      var token = cachedToken.get();
+      if (token != null && dateGenerator.newDate().toInstant().isBefore(token.refreshAt())) {
+        return token;
+      }
+      return fetchToken();
+    } finally {
+      fetchLock.unlock();
+    }
+  }
+
+  private CachedToken fetchToken() {
+    var fetchedAt = dateGenerator.newDate().toInstant();
+    TokenResponse response = fetchTimer.record(() -> dataHubClient.fetchAccessToken(requestBody()));
+    var timeToLive =
+        response.getExpiresIn() != null
+            ? Duration.ofSeconds(response.getExpiresIn())
+            : defaultTimeToLive;
+    var usableFor = timeToLive.minus(shorter(EXPIRY_MARGIN, timeToLive.dividedBy(2)));
+    var expiresAt = fetchedAt.plus(usableFor);
+    // likewise, don't start refreshing a short-lived token as soon as it has been fetched
+    var refreshAt = expiresAt.minus(shorter(refreshAhead, usableFor.dividedBy(2)));
+    var token = new CachedToken(response.getAccessToken(), refreshAt, expiresAt);
+    cachedToken.set(token);
+    return token;
+  }
+
+  private static Duration shorter(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  private String requestBody() {
+    Date inFiveMinutes = new Date(System.currentTimeMillis() + FIVE_MINUTES_MS);
+    String clientAssertion =
+        tokenAuth.createRSAJWT(clientName, dataHubUrl, inFiveMinutes, signingKey);
+    return "scope="
+        + scope
+        + "&grant_type=client_credentials"
+        + "&client_assertion_type=urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
+        + "&client_assertion="
+        + clientAssertion;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    refreshExecutor.shutdown();
+  }
+}
@@ -2,7 +2,6 @@ package gov.cdc.usds.simplereport.service;
 
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
@@ -10,29 +9,24 @@ import org.springframework.transaction.event.TransactionalEventListener;
 record ReportTestEventToRSEvent(TestEvent testEvent) {}
 
 /**
- * Allows a test event to be sent to ReportStream after a transaction successfully commits. This
- * ensures that if a failure occurs when sending the test event to ReportStream, any database
- * changes from the transaction are not rolled back.
+ * Records a test event in the outbox as part of the transaction that saves it, so it is reported to
+ * ReportStream if and only if the transaction commits. The actual sending happens after the commit,
+ * in {@link TestEventReportOutboxDispatcher}, so a failure to reach ReportStream neither rolls back
+ * the transaction nor loses the report.
  */
 @Component
 @RequiredArgsConstructor
 public class ReportTestEventToRSEventListener {
-  @Qualifier("csvQueueReportingService")
-  private final TestEventReportingService testEventReportingService;
+  private final TestEventReportOutboxService outboxService;
+  private final TestEventReportOutboxDispatcher outboxDispatcher;
 
-  @Qualifier("fhirQueueReportingService")
-  private final TestEventReportingService fhirQueueReportingService;
-
-  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
   public void handleEvent(ReportTestEventToRSEvent event) {
-    reportTestEventToRS(event.testEvent());
+    outboxService.enqueue(event.testEvent());
   }
 
-  private void reportTestEventToRS(TestEvent savedEvent) {
-    if (savedEvent.hasCovidResult()) {
-      testEventReportingService.report(savedEvent);
-    }
-
-    fhirQueueReportingService.report(savedEvent);
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void dispatchAfterCommit(ReportTestEventToRSEvent event) {
+    outboxDispatcher.requestDispatch();
   }
 }
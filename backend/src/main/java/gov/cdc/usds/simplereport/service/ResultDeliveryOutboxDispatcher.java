@@ -0,0 +1,189 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry.Channel;
+import gov.cdc.usds.simplereport.service.ResultDeliveryOutboxService.Claim;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+record ResultDeliveryQueuedEvent(Channel channel) {}
+
+/**
+ * Sends the texts and emails waiting in the result delivery outbox. Works like {@link
+ * TestEventReportOutboxDispatcher}: entries are claimed in batches and sent on a worker pool, on a
+ * schedule and after every commit that queues messages. Each message is built in one short
+ * transaction, sent with none open, and its outcome recorded in another.
+ *
+ * <p>Sends are also spaced out per channel, so a busy site or a backlog being retried can't push
+ * Twilio or SendGrid past their rate limits. A worker waiting for its turn holds no database
+ * connection.
+ */
+@Slf4j
+@Component
+public class ResultDeliveryOutboxDispatcher {
+  private final ResultDeliveryOutboxService outboxService;
+  private final ExecutorService executor;
+  private final ExecutorService requestedDispatchExecutor;
+  private final int batchSize;
+  private final boolean backgroundDispatchEnabled;
+  private final Map<Channel, SendRateLimiter> rateLimiters = new EnumMap<>(Channel.class);
+  private final AtomicBoolean dispatching = new AtomicBoolean();
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+  public ResultDeliveryOutboxDispatcher(
+      ResultDeliveryOutboxService outboxService,
+      @Value("${simple-report.result-delivery-outbox.parallelism:4}") int parallelism,
+      @Value("${simple-report.result-delivery-outbox.batch-size:50}") int batchSize,
+      @Value("${simple-report.result-delivery-outbox.background-dispatch-enabled:true}")
+          boolean backgroundDispatchEnabled,
+      @Value("${simple-report.result-delivery-outbox.sms-per-second:10}") double smsPerSecond,
+      @Value("${simple-report.result-delivery-outbox.emails-per-second:10}")
+          double emailsPerSecond,
+      MeterRegistry meterRegistry) {
+    this.outboxService = outboxService;
+    this.batchSize = batchSize;
+    this.backgroundDispatchEnabled = backgroundDispatchEnabled;
+    this.rateLimiters.put(Channel.SMS, new SendRateLimiter(smsPerSecond));
+    this.rateLimiters.put(Channel.EMAIL, new SendRateLimiter(emailsPerSecond));
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism, new CustomizableThreadFactory("result-delivery-outbox-"));
+    // requested dispatches get their own thread so they never wait on the workers they feed
+    this.requestedDispatchExecutor =
+        Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("result-delivery-outbox-dispatch-"));
+    new ExecutorServiceMetrics(executor, "result-delivery-outbox", Tags.empty())
+        .bindTo(meterRegistry);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void dispatchAfterCommit(ResultDeliveryQueuedEvent event) {
+    if (backgroundDispatchEnabled) {
+      CompletableFuture.supplyAsync(
+          withMDC(
+              () -> {
+                dispatchIfIdle();
+                return null;
+              }),
+          requestedDispatchExecutor);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${simple-report.result-delivery-outbox.poll-interval:PT10S}")
+  public void scheduledDispatch() {
+    if (backgroundDispatchEnabled) {
+      dispatchIfIdle();
+    }
+  }
+
+  private void dispatchIfIdle() {
+    dispatchRequested.set(true);
+    // if another thread is already dispatching, it goes round again for this request
+    while (dispatchRequested.get() && dispatching.compareAndSet(false, true)) {
+      try {
+        dispatchRequested.set(false);
+        dispatchPendingDeliveries();
+      } catch (RuntimeException e) {
+        log.error("Dispatching result deliveries failed", e);
+      } finally {
+        dispatching.set(false);
+      }
+    }
+  }
+
+  /**
+   * Sends every message that is currently due, blocking until they have all been attempted.
+   *
+   * @return the number of messages sent successfully
+   */
+  public int dispatchPendingDeliveries() {
+    int sent = 0;
+    List<Claim> claimed;
+    do {
+      claimed = outboxService.claimDueEntries(batchSize);
+      List<CompletableFuture<Boolean>> deliveries =
+          claimed.stream()
+              .map(
+                  claim ->
+                      CompletableFuture.supplyAsync(withMDC(() -> deliver(claim)), executor))
+              .toList();
+      for (var delivery : deliveries) {
+        if (Boolean.TRUE.equals(delivery.join())) {
+          sent++;
+        }
+      }
+    } while (claimed.size() == batchSize);
+    return sent;
+  }
+
+  private boolean deliver(Claim claim) {
+    rateLimiters.get(claim.channel()).acquire();
+    String messageId = null;
+    Exception failure = null;
+    try {
+      var delivery = outboxService.prepareDelivery(claim.entryId());
+      if (delivery.isEmpty()) {
+        return true;
+      }
+      messageId = outboxService.send(delivery.get());
+    } catch (IOException | RuntimeException e) {
+      failure = e;
+    }
+    return outboxService.recordOutcome(claim.entryId(), messageId, failure);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    requestedDispatchExecutor.shutdown();
+    executor.shutdown();
+  }
+
+  /** Hands out evenly spaced send slots, at most {@code perSecond} a second across all workers. */
+  static final class SendRateLimiter {
+    private final long intervalNanos;
+    private long nextSlotNanos = System.nanoTime();
+
+    SendRateLimiter(double perSecond) {
+      // zero or less means no limit
+      this.intervalNanos = perSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / perSecond) : 0;
+    }
+
+    /** Waits for the next free slot. */
+    void acquire() {
+      long waitNanos;
+      synchronized (this) {
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextSlotNanos);
+        nextSlotNanos = slot + intervalNanos;
+        waitNanos = slot - now;
+      }
+      if (waitNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+          // shutting down: send now rather than leave the claimed entry until its lease runs out
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,279 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat;
+import com.twilio.exception.ApiException;
+import com.twilio.type.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry;
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry.Channel;
+import gov.cdc.usds.simplereport.db.model.TextMessageSent;
+import gov.cdc.usds.simplereport.db.model.TextMessageStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneType;
+import gov.cdc.usds.simplereport.db.repository.ResultDeliveryOutboxRepository;
+import gov.cdc.usds.simplereport.db.repository.TextMessageSentRepository;
+import gov.cdc.usds.simplereport.db.repository.TextMessageStatusRepository;
+import gov.cdc.usds.simplereport.service.email.EmailProviderTemplate;
+import gov.cdc.usds.simplereport.service.email.EmailService;
+import gov.cdc.usds.simplereport.service.sms.SmsProviderWrapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads and writes the outbox of texts and emails telling patients their results are ready. Each
+ * method runs in its own transaction, or joins the caller's, except for {@link #send}, which calls
+ * the provider with no transaction open; {@link ResultDeliveryOutboxDispatcher} decides when the
+ * sends happen.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class ResultDeliveryOutboxService {
+  // Twilio's status for messages it couldn't send, so given-up texts read like any other failure
+  static final String GIVEN_UP_STATUS = "failed";
+
+  private final ResultDeliveryOutboxRepository outboxRepository;
+  private final TestResultsDeliveryService testResultsDeliveryService;
+  private final SmsProviderWrapper smsProvider;
+  private final EmailService emailService;
+  private final ApiUserService apiUserService;
+  private final TextMessageSentRepository textMessageSentRepository;
+  private final TextMessageStatusRepository textMessageStatusRepository;
+  private final ApplicationEventPublisher applicationEventPublisher;
+  private final PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
+
+  /** How long a claimed entry is hidden from other dispatchers while it's being sent */
+  @Value("${simple-report.result-delivery-outbox.lease:PT5M}")
+  private Duration lease = Duration.ofMinutes(5);
+
+  @Value("${simple-report.result-delivery-outbox.retry-backoff:PT30S}")
+  private Duration retryBackoff = Duration.ofSeconds(30);
+
+  @Value("${simple-report.result-delivery-outbox.max-retry-backoff:PT1H}")
+  private Duration maxRetryBackoff = Duration.ofHours(1);
+
+  @Value("${simple-report.result-delivery-outbox.max-attempts:10}")
+  private int maxAttempts = 10;
+
+  /** An entry that has been claimed for sending. */
+  public record Claim(UUID entryId, Channel channel) {}
+
+  /** A claimed entry's message: the text for a text, or the template variables for an email. */
+  public record Delivery(
+      UUID entryId,
+      Channel channel,
+      String recipient,
+      String text,
+      Map<String, Object> templateVariables) {}
+
+  /**
+   * Queues a text to each of the patient's mobile numbers.
+   *
+   * @return false if any of the numbers couldn't be texted at all
+   */
+  public boolean enqueueSms(PatientLink patientLink) {
+    var person = patientLink.getTestOrder().getPatient();
+    ApiUser requestedBy = null;
+    boolean allQueued = true;
+    for (var phoneNumber : person.getPhoneNumbers()) {
+      if (PhoneType.LANDLINE.equals(phoneNumber.getType())) {
+        continue;
+      }
+      String number;
+      try {
+        number = formatNumber(phoneNumber.getNumber());
+      } catch (NumberParseException e) {
+        log.warn("Failed to parse phone number for patient={}", person.getInternalId());
+        allQueued = false;
+        continue;
+      }
+      if (requestedBy == null) {
+        requestedBy = apiUserService.getCurrentApiUserInContainedTransaction();
+      }
+      save(new ResultDeliveryOutboxEntry(patientLink, Channel.SMS, number, requestedBy));
+    }
+    return allQueued;
+  }
+
+  /**
+   * Queues an email to each of the patient's email addresses.
+   *
+   * @return false if the patient has no email address
+   */
+  public boolean enqueueEmail(PatientLink patientLink) {
+    List<String> emails = patientLink.getTestOrder().getPatient().getEmails();
+    if (emails.isEmpty()) {
+      log.error("Patient missing email address");
+      return false;
+    }
+    ApiUser requestedBy = apiUserService.getCurrentApiUserInContainedTransaction();
+    for (String email : emails) {
+      save(new ResultDeliveryOutboxEntry(patientLink, Channel.EMAIL, email, requestedBy));
+    }
+    return true;
+  }
+
+  private void save(ResultDeliveryOutboxEntry entry) {
+    outboxRepository.save(entry);
+    applicationEventPublisher.publishEvent(new ResultDeliveryQueuedEvent(entry.getChannel()));
+  }
+
+  /**
+   * Claims up to {@code limit} entries that are due to be sent, pushing their next attempt back by
+   * the lease so no other dispatcher picks them up. If this instance dies before sending them, they
+   * become due again once the lease runs out.
+   */
+  public List<Claim> claimDueEntries(int limit) {
+    Instant now = Instant.now();
+    var entries = outboxRepository.findDueForUpdate(Date.from(now), limit);
+    entries.forEach(entry -> entry.setNextAttemptAt(Date.from(now.plus(lease))));
+    return entries.stream()
+        .map(entry -> new Claim(entry.getInternalId(), entry.getChannel()))
+        .toList();
+  }
+
+  /**
+   * Builds the message for a claimed entry, in a short read-only transaction, so that it can be
+   * {@link #send sent} with no transaction open. Pass the outcome to {@link #recordOutcome}.
+   *
+   * @return the message, or empty if the entry has already been dealt with
+   */
+  @Transactional(readOnly = true)
+  public Optional<Delivery> prepareDelivery(UUID entryId) {
+    return outboxRepository
+        .findById(entryId)
+        .map(
+            entry -> {
+              var patientLink = entry.getPatientLink();
+              return entry.getChannel() == Channel.SMS
+                  ? new Delivery(
+                      entryId,
+                      Channel.SMS,
+                      entry.getRecipient(),
+                      testResultsDeliveryService.getSmsMessage(patientLink),
+                      null)
+                  : new Delivery(
+                      entryId,
+                      Channel.EMAIL,
+                      entry.getRecipient(),
+                      null,
+                      testResultsDeliveryService.getEmailTemplateVariables(patientLink));
+            });
+  }
+
+  /**
+   * Hands a message to Twilio or SendGrid. Runs outside any transaction, so no connection is held
+   * while waiting on the provider.
+   *
+   * @return the provider's id for a text, or null for an email
+   * @throws ApiException if Twilio didn't accept the text
+   * @throws IOException if SendGrid didn't accept the email
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public String send(Delivery delivery) throws IOException {
+    if (delivery.channel() == Channel.SMS) {
+      String messageId = smsProvider.send(new PhoneNumber(delivery.recipient()), delivery.text());
+      log.debug("SMS send initiated {}", messageId);
+      return messageId;
+    }
+    emailService.sendWithDynamicTemplate(
+        List.of(delivery.recipient()),
+        EmailProviderTemplate.SIMPLE_REPORT_TEST_RESULT,
+        delivery.templateVariables());
+    return null;
+  }
+
+  /**
+   * Deletes an entry once the provider has accepted its message, recording sent texts so Twilio's
+   * status callbacks can be matched to them. If sending failed, the entry is kept and retried later
+   * with exponential backoff, unless the provider rejected the message outright or it has failed
+   * too many times already.
+   *
+   * @param messageId the provider's id for a sent text
+   * @param failure why preparing or sending the message failed, or null if it was sent
+   * @return whether the message was sent
+   */
+  public boolean recordOutcome(UUID entryId, String messageId, Exception failure) {
+    var entry = outboxRepository.findById(entryId).orElse(null);
+    if (entry == null) {
+      return failure == null;
+    }
+    // saved on behalf of whoever submitted the result
+    TransactionAuditor.attributeTransactionTo(entry.getRequestedBy());
+    var patientLink = entry.getPatientLink();
+    if (failure == null) {
+      if (entry.getChannel() == Channel.SMS) {
+        textMessageSentRepository.save(new TextMessageSent(patientLink, messageId));
+      }
+      outboxRepository.delete(entry);
+      return true;
+    }
+    int attempts = entry.getAttempts() + 1;
+    if (attempts >= maxAttempts || isRejected(failure)) {
+      log.error(
+          "Sending {} for patient link {} failed (attempt {}); giving up",
+          entry.getChannel(),
+          patientLink.getInternalId(),
+          attempts,
+          failure);
+      giveUp(entry);
+      return false;
+    }
+    var nextAttemptAt = Instant.now().plus(getRetryBackoff(attempts));
+    log.warn(
+        "Sending {} for patient link {} failed (attempt {}); retrying after {}",
+        entry.getChannel(),
+        patientLink.getInternalId(),
+        attempts,
+        nextAttemptAt,
+        failure);
+    entry.recordFailure(String.valueOf(failure.getMessage()), Date.from(nextAttemptAt));
+    return false;
+  }
+
+  private void giveUp(ResultDeliveryOutboxEntry entry) {
+    if (entry.getChannel() == Channel.SMS) {
+      // recorded alongside the statuses Twilio reports for the texts it did accept
+      var sent = textMessageSentRepository.save(new TextMessageSent(entry.getPatientLink(), null));
+      textMessageStatusRepository.save(new TextMessageStatus(sent, GIVEN_UP_STATUS));
+    }
+    outboxRepository.delete(entry);
+  }
+
+  private String formatNumber(String number) throws NumberParseException {
+    return phoneUtil.format(phoneUtil.parse(number, "US"), PhoneNumberFormat.E164);
+  }
+
+  /** Whether the provider turned the message down for good, rather than for the moment. */
+  private static boolean isRejected(Throwable e) {
+    if (e instanceof ApiException apiException && apiException.getStatusCode() != null) {
+      var status = HttpStatus.resolve(apiException.getStatusCode());
+      return status != null && status.is4xxClientError() && status != HttpStatus.TOO_MANY_REQUESTS;
+    }
+    return false;
+  }
+
+  Duration getRetryBackoff(int attempts) {
+    // doubles with every failure, without overflowing for large attempt counts
+    int doublings = Math.min(attempts - 1, 20);
+    Duration backoff = retryBackoff.multipliedBy(1L << doublings);
+    return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+  }
+}
@@ -1,7 +1,6 @@
 package gov.cdc.usds.simplereport.service;
 
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
-import gov.cdc.usds.simplereport.db.model.AuditedEntity_;
 import gov.cdc.usds.simplereport.db.model.BaseTestInfo_;
 import gov.cdc.usds.simplereport.db.model.IdentifiedEntity_;
 import gov.cdc.usds.simplereport.db.model.Person;
@@ -16,6 +15,9 @@ import gov.cdc.usds.simplereport.db.model.TestOrder_;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import gov.cdc.usds.simplereport.db.repository.ResultRepository;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -27,7 +29,6 @@ import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +39,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class ResultService {
   private final ResultRepository resultRepository;
   private final OrganizationService organizationService;
+  private final ResultsCursorPager resultsCursorPager;
 
   private Specification<Result> buildResultSearchFilter(
       UUID facilityId,
@@ -46,7 +48,8 @@ public class ResultService {
       PersonRole role,
       SupportedDisease disease,
       Date startDate,
-      Date endDate) {
+      Date endDate,
+      ResultsCursor after) {
     return (root, query, cb) -> {
       Join<Result, TestEvent> testEventJoin = root.join(Result_.testEvent);
       Join<TestEvent, TestOrder> testOrderJoin = testEventJoin.join(TestEvent_.order);
@@ -57,8 +60,18 @@ public class ResultService {
 
       p = cb.and(p, cb.equal(testEventJoin.get(IdentifiedEntity_.internalId), latestTestEventUUID));
 
-      query.orderBy(cb.desc(root.get(AuditedEntity_.createdAt)));
-      query.distinct(true);
+      // the date filters compare the effective test date once, rather than OR-ing over the
+      // backdate and the creation time, so the test_event indexes on that date can be used
+      Expression<Date> testDate = ResultsCursorPager.testDate(cb, testEventJoin);
+      query.orderBy(
+          ResultsCursorPager.newestFirst(cb, testDate, root.get(IdentifiedEntity_.internalId)));
+      if (after != null) {
+        p =
+            cb.and(
+                p,
+                ResultsCursorPager.after(
+                    cb, after, testDate, root.get(IdentifiedEntity_.internalId)));
+      }
 
       if (facilityId != null) {
         p =
@@ -100,33 +113,11 @@ public class ResultService {
       }
 
       if (startDate != null) {
-        p =
-            cb.and(
-                p,
-                cb.or(
-                    cb.and(
-                        cb.isNotNull(testEventJoin.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.greaterThanOrEqualTo(
-                            testEventJoin.get(BaseTestInfo_.dateTestedBackdate), startDate)),
-                    cb.and(
-                        cb.isNull(testEventJoin.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.greaterThanOrEqualTo(
-                            testEventJoin.get(AuditedEntity_.createdAt), startDate))));
+        p = cb.and(p, cb.greaterThanOrEqualTo(testDate, startDate));
       }
 
       if (endDate != null) {
-        p =
-            cb.and(
-                p,
-                cb.or(
-                    cb.and(
-                        cb.isNotNull(testEventJoin.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.lessThanOrEqualTo(
-                            testEventJoin.get(BaseTestInfo_.dateTestedBackdate), endDate)),
-                    cb.and(
-                        cb.isNull(testEventJoin.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.lessThanOrEqualTo(
-                            testEventJoin.get(AuditedEntity_.createdAt), endDate))));
+        p = cb.and(p, cb.lessThanOrEqualTo(testDate, endDate));
       }
 
       return p;
@@ -145,12 +136,12 @@ public class ResultService {
       int pageOffset,
       int pageSize) {
 
-    PageRequest pageRequest =
-        PageRequest.of(pageOffset, pageSize, Sort.by("createdAt").descending());
+    // unsorted, so the search filter's newest-first order applies
+    PageRequest pageRequest = PageRequest.of(pageOffset, pageSize);
 
     return resultRepository.findAll(
         buildResultSearchFilter(
-            null, patientId, result, role, supportedDisease, startDate, endDate),
+            null, patientId, result, role, supportedDisease, startDate, endDate, null),
         pageRequest);
   }
 
@@ -167,15 +158,90 @@ public class ResultService {
       int pageOffset,
       int pageSize) {
 
-    PageRequest pageRequest =
-        PageRequest.of(pageOffset, pageSize, Sort.by("createdAt").descending());
+    // unsorted, so the search filter's newest-first order applies
+    PageRequest pageRequest = PageRequest.of(pageOffset, pageSize);
 
     return resultRepository.findAll(
         buildResultSearchFilter(
-            facilityId, patientId, result, role, supportedDisease, startDate, endDate),
+            facilityId, patientId, result, role, supportedDisease, startDate, endDate, null),
         pageRequest);
   }
 
+  /** Like {@link #getOrganizationResults}, but reads the page after a cursor. */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionViewAllFacilityResults
+  public CursorPage<Result> getOrganizationResultsAfter(
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      SupportedDisease supportedDisease,
+      Date startDate,
+      Date endDate,
+      ResultsCursor after,
+      int pageSize) {
+    return resultsAfter(
+        null, patientId, result, role, supportedDisease, startDate, endDate, after, pageSize);
+  }
+
+  /** Like {@link #getFacilityResults}, but reads the page after a cursor. */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListAtFacility
+  public CursorPage<Result> getFacilityResultsAfter(
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      SupportedDisease supportedDisease,
+      Date startDate,
+      Date endDate,
+      ResultsCursor after,
+      int pageSize) {
+    return resultsAfter(
+        facilityId, patientId, result, role, supportedDisease, startDate, endDate, after, pageSize);
+  }
+
+  private CursorPage<Result> resultsAfter(
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      SupportedDisease supportedDisease,
+      Date startDate,
+      Date endDate,
+      ResultsCursor after,
+      int pageSize) {
+    Specification<Result> page =
+        buildResultSearchFilter(
+            facilityId, patientId, result, role, supportedDisease, startDate, endDate, after);
+    Specification<Result> all =
+        buildResultSearchFilter(
+            facilityId, patientId, result, role, supportedDisease, startDate, endDate, null);
+    var countKey =
+        new ResultsCursorPager.CountKey(
+            "results",
+            organizationService.getCurrentOrganization().getInternalId(),
+            facilityId,
+            patientId,
+            result,
+            role,
+            supportedDisease == null ? null : supportedDisease.getInternalId(),
+            startDate,
+            endDate);
+    return resultsCursorPager.page(
+        Result.class,
+        page,
+        ResultService::cursorOf,
+        pageSize,
+        countKey,
+        () -> resultRepository.count(all));
+  }
+
+  /** The cursor that points at a result, for lists of results. */
+  public static ResultsCursor cursorOf(Result result) {
+    ResultsCursor testEventCursor = ResultsCursorPager.cursorOf(result.getTestEvent());
+    return new ResultsCursor(testEventCursor.testDate(), result.getInternalId());
+  }
+
   public TestEvent addResultsToTestEvent(TestEvent testEvent, Collection<Result> results) {
     if (testEvent == null || results == null || results.isEmpty()) {
       return testEvent;
@@ -0,0 +1,119 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.config.CachingConfig.RESULT_LIST_COUNTS;
+
+import gov.cdc.usds.simplereport.db.model.AuditedEntity_;
+import gov.cdc.usds.simplereport.db.model.BaseTestInfo_;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads result lists a page at a time from a {@link ResultsCursor}, newest test first. Each page is
+ * one query that starts where the last one stopped, so deep pages cost no more than the first, and
+ * no count query runs unless the total is asked for. Totals are cached for a short time, keyed by
+ * the list and its filters.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResultsCursorPager {
+
+  private final EntityManager entityManager;
+  private final CacheManager cacheManager;
+
+  /** Identifies one filtered result list, for caching its total. */
+  public record CountKey(
+      String list,
+      UUID organizationId,
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      UUID diseaseId,
+      Date startDate,
+      Date endDate) {}
+
+  /**
+   * Reads one page of a list.
+   *
+   * @param search the list's filters; it must put rows in cursor order (see {@link #newestFirst})
+   *     and, past the first page, leave out rows up to the client's cursor (see {@link #after})
+   * @param count counts the whole list, if the total is asked for and isn't cached
+   */
+  public <T> CursorPage<T> page(
+      Class<T> type,
+      Specification<T> search,
+      Function<T, ResultsCursor> cursorOf,
+      int pageSize,
+      CountKey countKey,
+      Supplier<Long> count) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = cb.createQuery(type);
+    Root<T> root = query.from(type);
+    Predicate predicate = search.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    // one extra row tells us whether there is another page
+    List<T> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+
+    boolean hasNextPage = rows.size() > pageSize;
+    List<T> content = hasNextPage ? rows.subList(0, pageSize) : rows;
+    String endCursor =
+        content.isEmpty() ? null : cursorOf.apply(content.get(content.size() - 1)).encode();
+    return new CursorPage<>(content, endCursor, hasNextPage, () -> cachedCount(countKey, count));
+  }
+
+  private long cachedCount(CountKey key, Supplier<Long> count) {
+    return cacheManager.getCache(RESULT_LIST_COUNTS).get(key, count::get);
+  }
+
+  /** The date a test is listed under: its backdated test date if it has one. */
+  public static Expression<Date> testDate(CriteriaBuilder cb, Path<TestEvent> testEvent) {
+    return cb.coalesce(
+        testEvent.get(BaseTestInfo_.dateTestedBackdate), testEvent.get(AuditedEntity_.createdAt));
+  }
+
+  /** The order cursors walk in: newest test date first, then by id. */
+  public static List<Order> newestFirst(
+      CriteriaBuilder cb, Expression<Date> testDate, Path<UUID> internalId) {
+    return List.of(cb.desc(testDate), cb.desc(internalId));
+  }
+
+  /** Matches the rows that come after the cursor in {@link #newestFirst} order. */
+  public static Predicate after(
+      CriteriaBuilder cb, ResultsCursor cursor, Expression<Date> testDate, Path<UUID> internalId) {
+    Date cursorDate = cursor.testDateTimestamp();
+    return cb.or(
+        cb.lessThan(testDate, cursorDate),
+        cb.and(cb.equal(testDate, cursorDate), cb.lessThan(internalId, cursor.internalId())));
+  }
+
+  /** The cursor that points at a test event, for lists of test events. */
+  public static ResultsCursor cursorOf(TestEvent testEvent) {
+    Date testDate =
+        testEvent.getDateTestedBackdate() != null
+            ? testEvent.getDateTestedBackdate()
+            : testEvent.getCreatedAt();
+    return ResultsCursor.of(testDate, testEvent.getInternalId());
+  }
+}
@@ -1,32 +1,32 @@
 package gov.cdc.usds.simplereport.service;
 
 import static gov.cdc.usds.simplereport.config.CachingConfig.ADDRESS_TIMEZONE_LOOKUP_MAP;
-import static gov.cdc.usds.simplereport.config.CachingConfig.COVID_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET;
-import static gov.cdc.usds.simplereport.config.CachingConfig.DEVICE_MODEL_AND_TEST_PERFORMED_CODE_MAP;
-import static gov.cdc.usds.simplereport.config.CachingConfig.HIV_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET;
-import static gov.cdc.usds.simplereport.config.CachingConfig.SNOMED_TO_SPECIMEN_NAME_MAP;
-import static gov.cdc.usds.simplereport.config.CachingConfig.SPECIMEN_NAME_TO_SNOMED_MAP;
+import static gov.cdc.usds.simplereport.config.CachingConfig.ADDRESS_TIMEZONE_MISSES;
+import static gov.cdc.usds.simplereport.utils.ZipCodeTimezoneUtils.getZoneIdByZipCode;
 
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
-import gov.cdc.usds.simplereport.db.model.SpecimenType;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.repository.DeviceTypeRepository;
 import gov.cdc.usds.simplereport.db.repository.SpecimenTypeRepository;
+import gov.cdc.usds.simplereport.service.model.DeviceSpecimenLookupIndex;
 import java.time.ZoneId;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Service
@@ -35,6 +35,7 @@ public class ResultsUploaderCachingService {
   private final DeviceTypeRepository deviceTypeRepository;
   private final SpecimenTypeRepository specimenTypeRepository;
   private final AddressValidationService addressValidationService;
+  private final CacheManager cacheManager;
 
   private static final String NASAL_SWAB_SNOMED = "445297001";
   private static final String NASAL_THROAT_SWAB_SNOMED = "433801000124107";
@@ -86,145 +87,210 @@ public class ResultsUploaderCachingService {
           Map.entry("bronchoalveolar lavage fluid", BRONCHOALVEOLAR_LAVAGE),
           Map.entry("bronchoalveolar lavage", BRONCHOALVEOLAR_LAVAGE));
 
-  @Cacheable(DEVICE_MODEL_AND_TEST_PERFORMED_CODE_MAP)
+  private static final Object LOOKUP_INDEX_REFRESH_PENDING = new Object();
+
+  private final AtomicReference<DeviceSpecimenLookupIndex> lookupIndex = new AtomicReference<>();
+
+  /** The current device and specimen lookup index, built on first use. */
+  public DeviceSpecimenLookupIndex getLookupIndex() {
+    DeviceSpecimenLookupIndex index = lookupIndex.get();
+    if (index == null) {
+      refreshLookupIndex();
+      index = lookupIndex.get();
+    }
+    return index;
+  }
+
+  /**
+   * Rebuilds the lookup index and swaps it in, keeping the current one (and its version) if nothing
+   * in it has changed.
+   */
+  public synchronized void refreshLookupIndex() {
+    DeviceSpecimenLookupIndex current = lookupIndex.get();
+    // findAllRecords fetches each device's diseases in the same query
+    DeviceSpecimenLookupIndex next =
+        DeviceSpecimenLookupIndex.build(
+            current == null ? 1 : current.version() + 1,
+            deviceTypeRepository.findAllRecords(),
+            specimenTypeRepository.findAll(),
+            specimenSNOMEDMap);
+    if (!next.hasSameContentAs(current)) {
+      log.info("swapping in device and specimen lookup index version {}", next.version());
+      lookupIndex.set(next);
+    }
+  }
+
+  /**
+   * Refreshes the lookup index once the current transaction commits, however many times this is
+   * called during it. Nothing happens if the transaction rolls back, and without a transaction the
+   * index is refreshed right away.
+   */
+  public void refreshLookupIndexAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      refreshLookupIndex();
+      return;
+    }
+    if (TransactionSynchronizationManager.hasResource(LOOKUP_INDEX_REFRESH_PENDING)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(LOOKUP_INDEX_REFRESH_PENDING, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            refreshLookupIndex();
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(
+                LOOKUP_INDEX_REFRESH_PENDING);
+          }
+        });
+  }
+
+  /**
+   * Changes made through another instance of the application don't trigger a refresh here, so the
+   * index is also checked on a schedule. It is only replaced if something actually changed.
+   */
+  @Scheduled(
+      fixedRateString = "${simple-report.device-specimen-lookup-index.check-interval:PT1H}",
+      initialDelayString = "${simple-report.device-specimen-lookup-index.check-interval:PT1H}")
+  public void checkLookupIndexForChanges() {
+    if (lookupIndex.get() != null) {
+      refreshLookupIndex();
+    }
+  }
+
   public Map<String, DeviceType> getModelAndTestPerformedCodeToDeviceMap() {
-    log.info("generating ModelAndTestPerformedCodeToDeviceMap cache");
-
-    Map<String, DeviceType> resultMap = new HashMap<>();
-
-    deviceTypeRepository
-        .findAllRecords()
-        .forEach(
-            deviceType ->
-                deviceType
-                    .getSupportedDiseaseTestPerformed()
-                    .forEach(
-                        deviceTypeDisease -> {
-                          String model = deviceType.getModel();
-                          String testPerformedCode = deviceTypeDisease.getTestPerformedLoincCode();
-                          if (model != null && testPerformedCode != null) {
-                            resultMap.put(getKey(model, testPerformedCode), deviceType);
-                          }
-                        }));
-
-    return resultMap;
-  }
-
-  @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
-  @Caching(
-      evict = {@CacheEvict(value = DEVICE_MODEL_AND_TEST_PERFORMED_CODE_MAP, allEntries = true)})
-  public void cacheModelAndTestPerformedCodeToDeviceMap() {
-    log.info("clear and generate ModelAndTestPerformedCodeToDeviceMap cache");
-    getModelAndTestPerformedCodeToDeviceMap();
-  }
-
-  private Set<String> getDiseaseSpecificEquipmentModelAndTestPerformedCodeSet(String diseaseName) {
-    Set<String> resultSet = new HashSet<>();
-
-    deviceTypeRepository
-        .findAllRecords()
-        .forEach(
-            deviceType ->
-                deviceType
-                    .getSupportedDiseaseTestPerformed()
-                    .forEach(
-                        deviceTypeDisease -> {
-                          if (deviceTypeDisease
-                              .getSupportedDisease()
-                              .getName()
-                              .equals(diseaseName)) {
-                            String model = deviceType.getModel();
-                            String testPerformedCode =
-                                deviceTypeDisease.getTestPerformedLoincCode();
-                            if (model != null && testPerformedCode != null) {
-                              resultSet.add(getKey(model, testPerformedCode));
-                            }
-                          }
-                        }));
-    return resultSet;
-  }
-
-  @Cacheable(HIV_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET)
+    return getLookupIndex().devicesByModelAndTestPerformedCode();
+  }
+
   public Set<String> getHivEquipmentModelAndTestPerformedCodeSet() {
-    log.info("generating hivEquipmentModelAndTestPerformedCodeSet cache");
-    return getDiseaseSpecificEquipmentModelAndTestPerformedCodeSet(DiseaseService.HIV_NAME);
+    return getLookupIndex().getModelAndTestPerformedCodes(DiseaseService.HIV_NAME);
   }
 
-  @Cacheable(COVID_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET)
   public Set<String> getCovidEquipmentModelAndTestPerformedCodeSet() {
-    log.info("generating covidEquipmentModelAndTestPerformedCodeSet cache");
-    return getDiseaseSpecificEquipmentModelAndTestPerformedCodeSet(DiseaseService.COVID19_NAME);
+    return getLookupIndex().getModelAndTestPerformedCodes(DiseaseService.COVID19_NAME);
   }
 
-  @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
-  @Caching(
-      evict = {
-        @CacheEvict(value = COVID_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET, allEntries = true)
-      })
-  public void cacheCovidEquipmentModelAndTestPerformedCodeSet() {
-    log.info("clear and generate covidEquipmentModelAndTestPerformedCodeSet cache");
-    getCovidEquipmentModelAndTestPerformedCodeSet();
+  public Map<String, String> getSNOMEDToSpecimenTypeNameMap() {
+    return getLookupIndex().specimenNamesBySnomed();
   }
 
-  @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
-  @Caching(
-      evict = {
-        @CacheEvict(value = HIV_EQUIPMENT_MODEL_AND_TEST_PERFORMED_CODE_SET, allEntries = true)
-      })
-  public void cacheHivEquipmentModelAndTestPerformedCodeSet() {
-    log.info("clear and generate hivEquipmentModelAndTestPerformedCodeSet cache");
-    getHivEquipmentModelAndTestPerformedCodeSet();
+  public Map<String, String> getSpecimenTypeNameToSNOMEDMap() {
+    return getLookupIndex().snomedsBySpecimenName();
   }
 
-  @Cacheable(SNOMED_TO_SPECIMEN_NAME_MAP)
-  public Map<String, String> getSNOMEDToSpecimenTypeNameMap() {
-    log.info("generating SNOMEDToSpecimenTypeNameMap cache");
-    return specimenTypeRepository.findAll().stream()
-        .collect(Collectors.toMap(SpecimenType::getTypeCode, SpecimenType::getName));
+  public static String getKey(String model, String testPerformedCode) {
+    return model.toLowerCase() + "|" + testPerformedCode.toLowerCase();
   }
 
-  @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
-  @Caching(evict = {@CacheEvict(value = SNOMED_TO_SPECIMEN_NAME_MAP, allEntries = true)})
-  public void cacheSNOMEDToSpecimenTypeNameToMap() {
-    log.info("clear and generate SNOMEDToSpecimenTypeNameMap cache");
-    getSNOMEDToSpecimenTypeNameMap();
+  /**
+   * Returns the timezone of an address, checking the address timezone cache and then the ZIP code
+   * table before falling back to a SmartyStreets lookup. Addresses SmartyStreets can't give a
+   * timezone for are only remembered for a short time, so a failed lookup is retried soon after.
+   *
+   * @return the timezone, or null if it can't be determined
+   */
+  public ZoneId getZoneIdByAddress(StreetAddress address) {
+    if (address == null) {
+      return null;
+    }
+    Cache cache = getAddressTimezoneCache();
+    String key = getAddressKey(address);
+    Cache.ValueWrapper cached = cache.get(key);
+    if (cached != null) {
+      return (ZoneId) cached.get();
+    }
+    Cache misses = getAddressTimezoneMissCache();
+    if (misses.get(key) != null) {
+      return null;
+    }
+
+    ZoneId zoneId =
+        getZoneIdByZipCode(address.getPostalCode())
+            .orElseGet(() -> addressValidationService.getZoneIdByAddress(address));
+    if (zoneId != null) {
+      cache.put(key, zoneId);
+    } else {
+      misses.put(key, Boolean.TRUE);
+    }
+    return zoneId;
   }
 
-  @Cacheable(SPECIMEN_NAME_TO_SNOMED_MAP)
-  public Map<String, String> getSpecimenTypeNameToSNOMEDMap() {
-    log.info("generating getSpecimenTypeNameToSNOMEDMap cache");
+  /**
+   * Warms the address timezone cache for every distinct address in an upload, so the rows can be
+   * converted afterwards without a SmartyStreets call per address. Addresses that aren't covered by
+   * the cache or the ZIP code table are looked up in batches.
+   */
+  public void prefetchZoneIdsByAddress(Collection<StreetAddress> addresses) {
+    Cache cache = getAddressTimezoneCache();
+    Cache misses = getAddressTimezoneMissCache();
+    Map<String, StreetAddress> addressesToLookUp = new LinkedHashMap<>();
 
-    var dbSpecimens =
-        specimenTypeRepository.findAll().stream()
-            .collect(Collectors.toMap(SpecimenType::getName, SpecimenType::getTypeCode));
+    for (StreetAddress address : addresses) {
+      if (address == null) {
+        continue;
+      }
+      String key = getAddressKey(address);
+      if (addressesToLookUp.containsKey(key) || cache.get(key) != null || misses.get(key) != null) {
+        continue;
+      }
+      Optional<ZoneId> zipCodeZoneId = getZoneIdByZipCode(address.getPostalCode());
+      if (zipCodeZoneId.isPresent()) {
+        cache.put(key, zipCodeZoneId.get());
+      } else {
+        addressesToLookUp.put(key, address);
+      }
+    }
 
-    // Combine specimen name -> SNOMED maps from the database and those hardcoded in the service,
-    // favoring the DB result on conflicts
-    return Stream.of(dbSpecimens, specimenSNOMEDMap)
-        .flatMap(map -> map.entrySet().stream())
-        .collect(
-            Collectors.toMap(
-                o -> o.getKey().toLowerCase(), Map.Entry::getValue, (db, mem) -> db, HashMap::new));
+    if (addressesToLookUp.isEmpty()) {
+      return;
+    }
+    log.info("looking up timezones for {} addresses", addressesToLookUp.size());
+    Map<StreetAddress, ZoneId> zoneIds;
+    try {
+      zoneIds = addressValidationService.getZoneIdsByAddress(addressesToLookUp.values());
+    } catch (IllegalGraphqlArgumentException e) {
+      // nothing is cached, so each address gets a single lookup when it's converted
+      log.warn("Batch timezone lookup failed; addresses will be looked up one at a time");
+      return;
+    }
+    zoneIds.forEach(
+        (address, zoneId) -> {
+          if (zoneId != null) {
+            cache.put(getAddressKey(address), zoneId);
+          } else {
+            misses.put(getAddressKey(address), Boolean.TRUE);
+          }
+        });
   }
 
-  @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
-  @Caching(evict = {@CacheEvict(value = SPECIMEN_NAME_TO_SNOMED_MAP, allEntries = true)})
-  public void cacheSpecimenTypeNameToSNOMEDMap() {
-    log.info("clear and generate specimenTypeNameToSNOMEDMap cache");
-    getSpecimenTypeNameToSNOMEDMap();
+  /** Builds the address timezone cache key, ignoring case, extra whitespace and ZIP+4 suffixes. */
+  public static String getAddressKey(StreetAddress address) {
+    String postalCode = normalizeAddressPart(address.getPostalCode());
+    if (postalCode.length() > 5) {
+      postalCode = postalCode.substring(0, 5);
+    }
+    return String.join(
+        "|",
+        normalizeAddressPart(address.getStreetOne()),
+        normalizeAddressPart(address.getStreetTwo()),
+        normalizeAddressPart(address.getCity()),
+        normalizeAddressPart(address.getState()),
+        postalCode);
   }
 
-  public static String getKey(String model, String testPerformedCode) {
-    return model.toLowerCase() + "|" + testPerformedCode.toLowerCase();
+  private static String normalizeAddressPart(String value) {
+    return StringUtils.normalizeSpace(Objects.toString(value, "")).toLowerCase();
   }
 
-  @Cacheable(ADDRESS_TIMEZONE_LOOKUP_MAP)
-  public ZoneId getZoneIdByAddress(StreetAddress address) {
-    return addressValidationService.getZoneIdByAddress(address);
+  private Cache getAddressTimezoneCache() {
+    return Objects.requireNonNull(cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP));
   }
 
-  @CacheEvict(cacheNames = ADDRESS_TIMEZONE_LOOKUP_MAP, allEntries = true)
-  public void clearAddressTimezoneLookupCache() {
-    log.info("clear address timezone lookup cache");
+  private Cache getAddressTimezoneMissCache() {
+    return Objects.requireNonNull(cacheManager.getCache(ADDRESS_TIMEZONE_MISSES));
   }
 }
@@ -17,11 +17,15 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class SpecimenTypeService {
   private SpecimenTypeRepository _specimenTypeRepo;
+  private ResultsUploaderCachingService _resultsUploaderCachingService;
 
   private static final String NUMERIC_REGEX = "^[0-9]*$";
 
-  public SpecimenTypeService(SpecimenTypeRepository specimenTypeRepo) {
+  public SpecimenTypeService(
+      SpecimenTypeRepository specimenTypeRepo,
+      ResultsUploaderCachingService resultsUploaderCachingService) {
     _specimenTypeRepo = specimenTypeRepo;
+    _resultsUploaderCachingService = resultsUploaderCachingService;
   }
 
   public SpecimenType fetchByInternalId(UUID internalID) {
@@ -34,12 +38,15 @@ public class SpecimenTypeService {
 
   @AuthorizationConfiguration.RequireGlobalAdminUser
   public SpecimenType createSpecimenType(CreateSpecimenType input) {
-    return _specimenTypeRepo.save(
-        new SpecimenType(
-            input.getName(),
-            input.getTypeCode(),
-            input.getCollectionLocationName(),
-            input.getCollectionLocationCode()));
+    SpecimenType specimenType =
+        _specimenTypeRepo.save(
+            new SpecimenType(
+                input.getName(),
+                input.getTypeCode(),
+                input.getCollectionLocationName(),
+                input.getCollectionLocationCode()));
+    _resultsUploaderCachingService.refreshLookupIndexAfterCommit();
+    return specimenType;
   }
 
   @Transactional(readOnly = false)
@@ -63,6 +70,8 @@ public class SpecimenTypeService {
     specimenToUpdate.setCollectionLocationCode(input.getCollectionLocationCode());
     specimenToUpdate.setCollectionLocationName(input.getCollectionLocationName());
 
-    return _specimenTypeRepo.save(specimenToUpdate);
+    SpecimenType updatedSpecimenType = _specimenTypeRepo.save(specimenToUpdate);
+    _resultsUploaderCachingService.refreshLookupIndexAfterCommit();
+    return updatedSpecimenType;
   }
 }
@@ -0,0 +1,138 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the test events waiting in the outbox to the ReportStream queues. Entries are claimed in
+ * batches and sent on a small worker pool, so a slow or failing queue doesn't hold up the others.
+ * Each message is built in one short transaction and its outcome recorded in another; no
+ * transaction is open while waiting on the queue. Runs on a schedule, and is also nudged after
+ * every commit that adds entries.
+ *
+ * <p>Entries are claimed with {@code SKIP LOCKED} and leased for a while, so several instances can
+ * dispatch at once without sending the same entry twice under normal operation. An entry is only
+ * removed once its queue has accepted it, so delivery is at-least-once.
+ */
+@Slf4j
+@Component
+public class TestEventReportOutboxDispatcher {
+  private final TestEventReportOutboxService outboxService;
+  private final ExecutorService executor;
+  private final ExecutorService requestedDispatchExecutor;
+  private final int batchSize;
+  private final boolean backgroundDispatchEnabled;
+  private final AtomicBoolean dispatching = new AtomicBoolean();
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+  public TestEventReportOutboxDispatcher(
+      TestEventReportOutboxService outboxService,
+      @Value("${simple-report.test-event-report-outbox.parallelism:4}") int parallelism,
+      @Value("${simple-report.test-event-report-outbox.batch-size:50}") int batchSize,
+      @Value("${simple-report.test-event-report-outbox.background-dispatch-enabled:true}")
+          boolean backgroundDispatchEnabled,
+      MeterRegistry meterRegistry) {
+    this.outboxService = outboxService;
+    this.batchSize = batchSize;
+    this.backgroundDispatchEnabled = backgroundDispatchEnabled;
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism, new CustomizableThreadFactory("test-event-report-outbox-"));
+    // requested dispatches get their own thread so they never wait on the workers they feed
+    this.requestedDispatchExecutor =
+        Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("test-event-report-outbox-dispatch-"));
+    new ExecutorServiceMetrics(executor, "test-event-report-outbox", Tags.empty())
+        .bindTo(meterRegistry);
+  }
+
+  /** Called after a commit that added entries; starts a dispatch in the background if enabled. */
+  public void requestDispatch() {
+    if (backgroundDispatchEnabled) {
+      CompletableFuture.supplyAsync(
+          withMDC(
+              () -> {
+                dispatchIfIdle();
+                return null;
+              }),
+          requestedDispatchExecutor);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${simple-report.test-event-report-outbox.poll-interval:PT10S}")
+  public void scheduledDispatch() {
+    if (backgroundDispatchEnabled) {
+      dispatchIfIdle();
+    }
+  }
+
+  private void dispatchIfIdle() {
+    dispatchRequested.set(true);
+    // if another thread is already dispatching, it goes round again for this request
+    while (dispatchRequested.get() && dispatching.compareAndSet(false, true)) {
+      try {
+        dispatchRequested.set(false);
+        dispatchPendingReports();
+      } catch (RuntimeException e) {
+        log.error("Dispatching test event reports failed", e);
+      } finally {
+        dispatching.set(false);
+      }
+    }
+  }
+
+  /**
+   * Sends every entry that is currently due, blocking until they have all been attempted.
+   *
+   * @return the number of entries sent successfully
+   */
+  public int dispatchPendingReports() {
+    int sent = 0;
+    List<UUID> claimed;
+    do {
+      claimed = outboxService.claimDueEntries(batchSize);
+      List<CompletableFuture<Boolean>> deliveries =
+          claimed.stream()
+              .map(id -> CompletableFuture.supplyAsync(withMDC(() -> deliver(id)), executor))
+              .toList();
+      for (var delivery : deliveries) {
+        if (Boolean.TRUE.equals(delivery.join())) {
+          sent++;
+        }
+      }
+    } while (claimed.size() == batchSize);
+    return sent;
+  }
+
+  private boolean deliver(UUID entryId) {
+    Throwable failure = null;
+    try {
+      outboxService.startDelivery(entryId).join();
+    } catch (CompletionException e) {
+      failure = e.getCause();
+    }
+    return outboxService.recordOutcome(entryId, failure);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    requestedDispatchExecutor.shutdown();
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,148 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestEventReportOutboxEntry;
+import gov.cdc.usds.simplereport.db.model.TestEventReportOutboxEntry.Destination;
+import gov.cdc.usds.simplereport.db.repository.TestEventReportOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads and writes the outbox of test events waiting to be sent to the ReportStream queues. Each
+ * method runs in its own transaction, and none of them waits on a queue; {@link
+ * TestEventReportOutboxDispatcher} decides when they run.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class TestEventReportOutboxService {
+  private final TestEventReportOutboxRepository outboxRepository;
+
+  @Qualifier("csvQueueReportingService")
+  private final TestEventReportingService csvQueueReportingService;
+
+  @Qualifier("fhirQueueReportingService")
+  private final TestEventReportingService fhirQueueReportingService;
+
+  /** How long a claimed entry is hidden from other dispatchers while it's being sent */
+  @Value("${simple-report.test-event-report-outbox.lease:PT5M}")
+  private Duration lease = Duration.ofMinutes(5);
+
+  @Value("${simple-report.test-event-report-outbox.retry-backoff:PT30S}")
+  private Duration retryBackoff = Duration.ofSeconds(30);
+
+  @Value("${simple-report.test-event-report-outbox.max-retry-backoff:PT1H}")
+  private Duration maxRetryBackoff = Duration.ofHours(1);
+
+  @Value("${simple-report.test-event-report-outbox.max-attempts:20}")
+  private int maxAttempts = 20;
+
+  /** Queues the event for every destination it should be reported to. */
+  public void enqueue(TestEvent testEvent) {
+    if (testEvent.hasCovidResult()) {
+      outboxRepository.save(new TestEventReportOutboxEntry(testEvent, Destination.CSV_QUEUE));
+    }
+    outboxRepository.save(new TestEventReportOutboxEntry(testEvent, Destination.FHIR_QUEUE));
+  }
+
+  /**
+   * Claims up to {@code limit} entries that are due to be sent, pushing their next attempt back by
+   * the lease so no other dispatcher picks them up. If this instance dies before sending them, they
+   * become due again once the lease runs out.
+   *
+   * @return the ids of the claimed entries
+   */
+  public List<UUID> claimDueEntries(int limit) {
+    Instant now = Instant.now();
+    var entries = outboxRepository.findDueForUpdate(Date.from(now), limit);
+    entries.forEach(entry -> entry.setNextAttemptAt(Date.from(now.plus(lease))));
+    return entries.stream().map(TestEventReportOutboxEntry::getInternalId).toList();
+  }
+
+  /**
+   * Starts sending a claimed entry to its queue. The message is built from the test event here, in
+   * a short read-only transaction, and the returned future completes once the queue has accepted
+   * it, so no connection is held while waiting on the queue. Pass the outcome to {@link
+   * #recordOutcome(UUID, Throwable)}.
+   */
+  @Transactional(readOnly = true)
+  public CompletableFuture<Void> startDelivery(UUID entryId) {
+    var entry = outboxRepository.findById(entryId).orElse(null);
+    if (entry == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    var testEvent = Hibernate.unproxy(entry.getTestEvent(), TestEvent.class);
+    try {
+      return getReportingService(entry.getDestination()).reportAsync(testEvent);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Deletes an entry once its queue has accepted it. If sending failed, the entry is kept and
+   * retried later with exponential backoff, until it has failed {@code max-attempts} times; then
+   * it is set aside, and stays in the outbox until someone looks into it.
+   *
+   * @param failure why sending failed, or null if the entry was sent
+   * @return whether the entry was sent
+   */
+  public boolean recordOutcome(UUID entryId, Throwable failure) {
+    var entry = outboxRepository.findById(entryId).orElse(null);
+    if (entry == null) {
+      return failure == null;
+    }
+    if (failure == null) {
+      outboxRepository.delete(entry);
+      return true;
+    }
+    int attempts = entry.getAttempts() + 1;
+    String error = String.valueOf(failure.getMessage());
+    if (attempts >= maxAttempts) {
+      log.error(
+          "Sending TestEvent [{}] to {} failed (attempt {}); giving up",
+          entry.getTestEvent().getInternalId(),
+          entry.getDestination(),
+          attempts,
+          failure);
+      entry.giveUp(error);
+      return false;
+    }
+    var nextAttemptAt = Instant.now().plus(getRetryBackoff(attempts));
+    log.error(
+        "Sending TestEvent [{}] to {} failed (attempt {}); retrying after {}",
+        entry.getTestEvent().getInternalId(),
+        entry.getDestination(),
+        attempts,
+        nextAttemptAt,
+        failure);
+    entry.recordFailure(error, Date.from(nextAttemptAt));
+    return false;
+  }
+
+  Duration getRetryBackoff(int attempts) {
+    // doubles with every failure, without overflowing for large attempt counts
+    int doublings = Math.min(attempts - 1, 20);
+    Duration backoff = retryBackoff.multipliedBy(1L << doublings);
+    return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+  }
+
+  private TestEventReportingService getReportingService(Destination destination) {
+    return switch (destination) {
+      case CSV_QUEUE -> csvQueueReportingService;
+      case FHIR_QUEUE -> fhirQueueReportingService;
+    };
+  }
+}
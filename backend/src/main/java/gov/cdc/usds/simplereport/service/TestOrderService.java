@@ -6,7 +6,6 @@ import gov.cdc.usds.simplereport.api.model.OrganizationLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.api.model.TopLevelDashboardMetrics;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
-import gov.cdc.usds.simplereport.db.model.AuditedEntity_;
 import gov.cdc.usds.simplereport.db.model.BaseTestInfo_;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.Facility;
@@ -25,6 +24,7 @@ import gov.cdc.usds.simplereport.db.model.TestOrder;
 import gov.cdc.usds.simplereport.db.model.TestOrder_;
 import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
 import gov.cdc.usds.simplereport.db.model.auxiliary.MultiplexResultInput;
+import gov.cdc.usds.simplereport.db.model.auxiliary.OrderStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
@@ -34,8 +34,14 @@ import gov.cdc.usds.simplereport.db.repository.AdvisoryLockManager;
 import gov.cdc.usds.simplereport.db.repository.PatientAnswersRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
+import gov.cdc.usds.simplereport.service.model.TestQueueChanges;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
@@ -51,7 +57,6 @@ import org.hibernate.Hibernate;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -73,8 +78,10 @@ public class TestOrderService {
   private final TestEventRepository _testEventRepo;
   private final PatientLinkService _patientLinkService;
   private final ResultService resultService;
+  private final ResultsCursorPager resultsCursorPager;
+  private final TestQueueVersionService queueVersions;
 
-  private final TestResultsDeliveryService testResultsDeliveryService;
+  private final ResultDeliveryOutboxService resultDeliveryOutbox;
   private final DiseaseService _diseaseService;
 
   private final ApplicationEventPublisher applicationEventPublisher;
@@ -88,6 +95,46 @@ public class TestOrderService {
     return _testOrderRepo.fetchQueue(fac.getOrganization(), fac);
   }
 
+  /** The current version of a facility's queue, for a client about to listen for changes. */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
+  public long getQueueVersion(UUID facilityId) {
+    Facility fac = _organizationService.getFacilityInCurrentOrg(facilityId);
+    return queueVersions.getVersion(fac);
+  }
+
+  /**
+   * What changed in a facility's queue after the client's version of it. If the client has no
+   * version, or one newer than the server's (say, from before a database restore), the whole queue
+   * is returned instead.
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
+  public TestQueueChanges<TestOrder> getQueueChanges(UUID facilityId, Long sinceVersion) {
+    Facility fac = _organizationService.getFacilityInCurrentOrg(facilityId);
+    // read before the orders: a change committed in between is then sent again next time, rather
+    // than being missed
+    long version = queueVersions.getVersion(fac);
+    if (sinceVersion == null || sinceVersion > version) {
+      List<TestOrder> queue = _testOrderRepo.fetchQueue(fac.getOrganization(), fac);
+      return new TestQueueChanges<>(version, true, queue, List.of());
+    }
+    if (sinceVersion == version) {
+      return new TestQueueChanges<>(version, false, List.of(), List.of());
+    }
+    List<TestOrder> changed = new ArrayList<>();
+    List<UUID> removedIds = new ArrayList<>();
+    for (TestOrder order :
+        _testOrderRepo.fetchQueueChanges(fac.getOrganization(), fac, sinceVersion)) {
+      if (order.getOrderStatus() == OrderStatus.PENDING && !order.getPatient().isDeleted()) {
+        changed.add(order);
+      } else {
+        removedIds.add(order.getInternalId());
+      }
+    }
+    return new TestQueueChanges<>(version, false, changed, removedIds);
+  }
+
   // Specifications filters for queries
   private Specification<TestEvent> buildTestEventSearchFilter(
       UUID facilityId,
@@ -98,16 +145,28 @@ public class TestOrderService {
       Date endDate,
       UUID orgId) {
     return (root, query, cb) -> {
-      Join<TestEvent, Result> resultJoin = root.join(TestEvent_.results);
       Join<TestEvent, TestOrder> order = root.join(TestEvent_.order);
       order.on(
           cb.equal(
               root.get(IdentifiedEntity_.internalId),
               order.get(TestOrder_.testEvent).get(IdentifiedEntity_.internalId)));
-      query.orderBy(cb.desc(root.get(AuditedEntity_.createdAt)));
-      query.distinct(true);
+      // the date filters compare the effective test date once, rather than OR-ing over the
+      // backdate and the creation time, so the test_event indexes on that date can be used
+      Expression<Date> testDate = ResultsCursorPager.testDate(cb, root);
+      query.orderBy(
+          ResultsCursorPager.newestFirst(cb, testDate, root.get(IdentifiedEntity_.internalId)));
+
+      // an exists test rather than a join, so an event with several results is listed once
+      // without needing a distinct (which can't be combined with ordering by test date)
+      Subquery<UUID> results = query.subquery(UUID.class);
+      Root<Result> resultRoot = results.from(Result.class);
+      Predicate resultMatches = cb.equal(resultRoot.get(Result_.testEvent), root);
+      if (result != null) {
+        resultMatches = cb.and(resultMatches, cb.equal(resultRoot.get(Result_.testResult), result));
+      }
+      results.select(resultRoot.get(IdentifiedEntity_.internalId)).where(resultMatches);
 
-      Predicate p = cb.conjunction();
+      Predicate p = cb.exists(results);
       if (facilityId != null) {
         p =
             cb.and(
@@ -131,36 +190,14 @@ public class TestOrderService {
                 cb.equal(
                     root.get(BaseTestInfo_.patient).get(IdentifiedEntity_.internalId), patientId));
       }
-      if (result != null) {
-        p = cb.and(p, cb.equal(resultJoin.get(Result_.testResult), result));
-      }
       if (role != null) {
         p = cb.and(p, cb.equal(root.get(BaseTestInfo_.patient).get(Person_.role), role));
       }
       if (startDate != null) {
-        p =
-            cb.and(
-                p,
-                cb.or(
-                    cb.and(
-                        cb.isNotNull(root.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.greaterThanOrEqualTo(
-                            root.get(BaseTestInfo_.dateTestedBackdate), startDate)),
-                    cb.and(
-                        cb.isNull(root.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.greaterThanOrEqualTo(root.get(AuditedEntity_.createdAt), startDate))));
+        p = cb.and(p, cb.greaterThanOrEqualTo(testDate, startDate));
       }
       if (endDate != null) {
-        p =
-            cb.and(
-                p,
-                cb.or(
-                    cb.and(
-                        cb.isNotNull(root.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.lessThanOrEqualTo(root.get(BaseTestInfo_.dateTestedBackdate), endDate)),
-                    cb.and(
-                        cb.isNull(root.get(BaseTestInfo_.dateTestedBackdate)),
-                        cb.lessThanOrEqualTo(root.get(AuditedEntity_.createdAt), endDate))));
+        p = cb.and(p, cb.lessThanOrEqualTo(testDate, endDate));
       }
       return p;
     };
@@ -178,8 +215,8 @@ public class TestOrderService {
       int pageOffset,
       int pageSize) {
 
-    PageRequest pageRequest =
-        PageRequest.of(pageOffset, pageSize, Sort.by("createdAt").descending());
+    // unsorted, so the search filter's newest-first order applies
+    PageRequest pageRequest = PageRequest.of(pageOffset, pageSize);
 
     return _testEventRepo.findAll(
         buildTestEventSearchFilter(facilityId, patientId, result, role, startDate, endDate, null),
@@ -197,14 +234,84 @@ public class TestOrderService {
       int pageOffset,
       int pageSize) {
 
-    PageRequest pageRequest =
-        PageRequest.of(pageOffset, pageSize, Sort.by("createdAt").descending());
+    // unsorted, so the search filter's newest-first order applies
+    PageRequest pageRequest = PageRequest.of(pageOffset, pageSize);
 
     return _testEventRepo.findAll(
         buildTestEventSearchFilter(null, patientId, result, role, startDate, endDate, null),
         pageRequest);
   }
 
+  /** Like {@link #getFacilityTestEventsResults}, but reads the page after a cursor. */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListAtFacility
+  public CursorPage<TestEvent> getFacilityTestEventsResultsAfter(
+      UUID facilityId,
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      Date startDate,
+      Date endDate,
+      ResultsCursor after,
+      int pageSize) {
+    Specification<TestEvent> search =
+        buildTestEventSearchFilter(facilityId, patientId, result, role, startDate, endDate, null);
+    UUID orgId = _organizationService.getCurrentOrganization().getInternalId();
+    return testEventsAfter(
+        search,
+        new ResultsCursorPager.CountKey(
+            "testEvents", orgId, facilityId, patientId, result, role, null, startDate, endDate),
+        after,
+        pageSize);
+  }
+
+  /** Like {@link #getOrganizationTestEventsResults}, but reads the page after a cursor. */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionViewAllFacilityResults
+  public CursorPage<TestEvent> getOrganizationTestEventsResultsAfter(
+      UUID patientId,
+      TestResult result,
+      PersonRole role,
+      Date startDate,
+      Date endDate,
+      ResultsCursor after,
+      int pageSize) {
+    Specification<TestEvent> search =
+        buildTestEventSearchFilter(null, patientId, result, role, startDate, endDate, null);
+    UUID orgId = _organizationService.getCurrentOrganization().getInternalId();
+    return testEventsAfter(
+        search,
+        new ResultsCursorPager.CountKey(
+            "testEvents", orgId, null, patientId, result, role, null, startDate, endDate),
+        after,
+        pageSize);
+  }
+
+  private CursorPage<TestEvent> testEventsAfter(
+      Specification<TestEvent> search,
+      ResultsCursorPager.CountKey countKey,
+      ResultsCursor after,
+      int pageSize) {
+    Specification<TestEvent> page = search;
+    if (after != null) {
+      page =
+          search.and(
+              (root, query, cb) ->
+                  ResultsCursorPager.after(
+                      cb,
+                      after,
+                      ResultsCursorPager.testDate(cb, root),
+                      root.get(IdentifiedEntity_.internalId)));
+    }
+    return resultsCursorPager.page(
+        TestEvent.class,
+        page,
+        ResultsCursorPager::cursorOf,
+        pageSize,
+        countKey,
+        () -> _testEventRepo.count(search));
+  }
+
   @Transactional(readOnly = true)
   public int getTestResultsCount(
       UUID facilityId,
@@ -282,6 +389,7 @@ public class TestOrderService {
       editMultiplexResult(order, results);
 
       order.setDateTestedBackdate(dateTested);
+      queueVersions.markChanged(order);
       return _testOrderRepo.save(order);
     } finally {
       unlockOrder(testOrderId);
@@ -332,6 +440,7 @@ public class TestOrderService {
       savedEvent = resultService.addResultsToTestEvent(savedEvent, resultsForTestEvent);
 
       order.setTestEventRef(savedEvent);
+      queueVersions.markChanged(order);
       savedOrder = _testOrderRepo.save(order);
     } finally {
       unlockOrder(order.getInternalId());
@@ -341,14 +450,15 @@ public class TestOrderService {
 
     PatientLink patientLink = _patientLinkService.createPatientLink(savedOrder.getInternalId());
     if (patientHasDeliveryPreference(savedOrder)) {
-
+      // the messages are queued with the result and sent once it commits, so the status here is
+      // whether there was anywhere to send them
       if (smsDeliveryPreference(savedOrder) || smsAndEmailDeliveryPreference(savedOrder)) {
-        boolean smsDeliveryStatus = testResultsDeliveryService.smsTestResults(patientLink);
+        boolean smsDeliveryStatus = resultDeliveryOutbox.enqueueSms(patientLink);
         deliveryStatuses.add(smsDeliveryStatus);
       }
 
       if (emailDeliveryPreference(savedOrder) || smsAndEmailDeliveryPreference(savedOrder)) {
-        boolean emailDeliveryStatus = testResultsDeliveryService.emailTestResults(patientLink);
+        boolean emailDeliveryStatus = resultDeliveryOutbox.enqueueEmail(patientLink);
         deliveryStatuses.add(emailDeliveryStatus);
       }
     }
@@ -451,6 +561,7 @@ public class TestOrderService {
     PatientAnswers answers = new PatientAnswers(survey);
     _patientAnswersRepo.save(answers);
     newOrder.setAskOnEntrySurvey(answers);
+    queueVersions.markChanged(newOrder);
     return _testOrderRepo.save(newOrder);
   }
 
@@ -475,12 +586,15 @@ public class TestOrderService {
     survey.setGenderOfSexualPartners(genderOfSexualPartners);
     answers.setSurvey(survey);
     _patientAnswersRepo.save(answers);
+    queueVersions.markChanged(order);
+    _testOrderRepo.save(order);
   }
 
   @AuthorizationConfiguration.RequirePermissionUpdateTestForPatient
   public void removePatientFromQueue(UUID patientId) {
     TestOrder order = retrieveTestOrder(patientId);
     order.cancelOrder();
+    queueVersions.markChanged(order);
     _testOrderRepo.save(order);
   }
 
@@ -528,6 +642,8 @@ public class TestOrderService {
         if (order.getDateTestedBackdate() == null) {
           order.setDateTestedBackdate(event.getDateTested());
         }
+        // back in the queue
+        queueVersions.markChanged(order);
 
         return event;
       }
@@ -561,6 +677,7 @@ public class TestOrderService {
             .orElseThrow(() -> new IllegalGraphqlArgumentException("Facility not found."));
     List<TestOrder> orders = _testOrderRepo.fetchQueueItemsByFacilityId(facility);
     orders.stream().forEach(TestOrder::cancelOrder);
+    queueVersions.markChanged(facility, orders);
     _testOrderRepo.saveAll(orders);
   }
 
@@ -0,0 +1,205 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells subscribers when a facility's test queue changes, on whichever instance of the application
+ * the change was made. {@link TestQueueVersionService} announces each change on a Postgres channel
+ * as it commits, and every instance keeps a connection, outside the pool, listening on that
+ * channel.
+ *
+ * <p>Subscribers are only told the queue's new version. They fetch what changed themselves, with
+ * their own permissions. They are told on the listener's thread, so they have to hand the version
+ * off rather than act on it there.
+ */
+@Slf4j
+@Component
+public class TestQueueChangeListener {
+  private final DataSource dataSource;
+  private final TestOrderRepository testOrderRepository;
+  private final boolean enabled;
+  private final Duration pollInterval;
+  private final Duration reconnectDelay;
+  private final Map<UUID, Set<LongConsumer>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService listenerExecutor =
+      Executors.newSingleThreadExecutor(new CustomizableThreadFactory("test-queue-listener-"));
+  private volatile boolean running;
+  private volatile boolean listening;
+  private volatile Connection listenerConnection;
+
+  public TestQueueChangeListener(
+      DataSource dataSource,
+      TestOrderRepository testOrderRepository,
+      @Value("${simple-report.test-queue-events.enabled:true}") boolean enabled,
+      @Value("${simple-report.test-queue-events.poll-interval:PT10S}") Duration pollInterval,
+      @Value("${simple-report.test-queue-events.reconnect-delay:PT5S}") Duration reconnectDelay) {
+    this.dataSource = dataSource;
+    this.testOrderRepository = testOrderRepository;
+    this.enabled = enabled;
+    this.pollInterval = pollInterval;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @PostConstruct
+  void start() {
+    if (enabled) {
+      running = true;
+      listenerExecutor.execute(this::listen);
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    running = false;
+    // the driver doesn't give up waiting for notifications when its thread is interrupted
+    disconnect();
+    listenerExecutor.shutdownNow();
+  }
+
+  /**
+   * Calls {@code onChange} with the new version whenever the facility's queue changes. Versions can
+   * arrive out of order, and a change may be reported more than once. {@code onChange} must not
+   * block, since every other subscriber waits for it.
+   *
+   * @return a callback that ends the subscription
+   */
+  public Runnable subscribe(UUID facilityId, LongConsumer onChange) {
+    subscribers.computeIfAbsent(facilityId, id -> ConcurrentHashMap.newKeySet()).add(onChange);
+    return () ->
+        subscribers.computeIfPresent(
+            facilityId,
+            (id, listeners) -> {
+              listeners.remove(onChange);
+              return listeners.isEmpty() ? null : listeners;
+            });
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = connect()) {
+        listenerConnection = connection;
+        // stop() may have come before there was a connection for it to drop
+        if (!running) {
+          return;
+        }
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + TestQueueVersionService.CHANGES_CHANNEL);
+        }
+        listening = true;
+        log.info("Listening for test queue changes");
+        // anything that changed while we weren't listening has to be caught up on
+        catchUpSubscribers();
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications =
+              pgConnection.getNotifications((int) pollInterval.toMillis());
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              handle(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (running) {
+          log.error("Listening for test queue changes failed; reconnecting", e);
+        }
+      } finally {
+        listening = false;
+        listenerConnection = null;
+      }
+      if (running) {
+        try {
+          Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Opens a connection of its own, straight from the driver rather than from the pool, with the
+   * pool's settings. It stays open for as long as the application runs, since notifications are
+   * delivered to the session that asked for them, and would otherwise take a pooled connection away
+   * for good.
+   */
+  private Connection connect() throws SQLException {
+    HikariConfig pool = dataSource.unwrap(HikariConfig.class);
+    Properties properties = new Properties();
+    properties.putAll(pool.getDataSourceProperties());
+    if (pool.getUsername() != null) {
+      properties.setProperty("user", pool.getUsername());
+    }
+    if (pool.getPassword() != null) {
+      properties.setProperty("password", pool.getPassword());
+    }
+    return DriverManager.getConnection(pool.getJdbcUrl(), properties);
+  }
+
+  /** Drops the listening connection, which is the only way to end a wait for notifications. */
+  private void disconnect() {
+    Connection connection = listenerConnection;
+    if (connection != null) {
+      try {
+        connection.abort(Runnable::run);
+      } catch (SQLException e) {
+        log.warn("Closing the test queue listener connection failed", e);
+      }
+    }
+  }
+
+  boolean isListening() {
+    return listening;
+  }
+
+  private void catchUpSubscribers() {
+    for (UUID facilityId : subscribers.keySet()) {
+      publish(facilityId, testOrderRepository.getQueueVersion(facilityId));
+    }
+  }
+
+  private void handle(String payload) {
+    int separator = payload.indexOf(':');
+    try {
+      publish(
+          UUID.fromString(payload.substring(0, separator)),
+          Long.parseLong(payload.substring(separator + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      log.warn("Ignoring malformed test queue change notification [{}]", payload);
+    }
+  }
+
+  private void publish(UUID facilityId, long version) {
+    for (LongConsumer listener : subscribers.getOrDefault(facilityId, Set.of())) {
+      try {
+        listener.accept(version);
+      } catch (RuntimeException e) {
+        log.warn("Telling a subscriber about a test queue change failed", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps a version number for each facility's test queue, so clients polling the queue can ask for
+ * only what changed since they last looked. Every change to a queued order increments its
+ * facility's version and stamps the order with it.
+ *
+ * <p>Incrementing the version locks the facility's version row until the transaction ends, so a
+ * client that has seen a version has also seen every change stamped with an earlier one. The
+ * increment should come as late in the transaction as it can, to keep that lock short.
+ *
+ * <p>Each change is also announced to every instance of the application through Postgres, once
+ * the transaction commits, so they can tell the clients listening to that queue.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class TestQueueVersionService {
+  /**
+   * The Postgres channel announcing queue changes, with payloads of the form {@code
+   * <facility id>:<version>}. See {@link TestQueueChangeListener}.
+   */
+  static final String CHANGES_CHANNEL = "test_queue_changed";
+
+  private final TestOrderRepository testOrderRepository;
+
+  @Transactional(readOnly = true)
+  public long getVersion(Facility facility) {
+    return testOrderRepository.getQueueVersion(facility.getInternalId());
+  }
+
+  /** Records a change to an order. The caller still has to save it. */
+  public void markChanged(TestOrder order) {
+    markChanged(order.getFacility(), List.of(order));
+  }
+
+  /** Records a change to orders that are all queued at the same facility. */
+  public void markChanged(Facility facility, Collection<TestOrder> orders) {
+    if (orders.isEmpty()) {
+      return;
+    }
+    long version = testOrderRepository.incrementQueueVersion(facility.getInternalId());
+    orders.forEach(order -> order.setQueueVersion(version));
+    String payload = facility.getInternalId() + ":" + version;
+    testOrderRepository.sendNotification(CHANGES_CHANNEL, payload);
+  }
+
+  /**
+   * Records a change to a patient that shows in the queue, such as their name or whether they have
+   * been archived, if they are queued anywhere.
+   */
+  public void markPatientChanged(Person patient) {
+    // facilities are locked in id order, so two patients queued at the same facilities can't
+    // deadlock each other
+    Map<UUID, List<TestOrder>> ordersByFacility =
+        testOrderRepository.fetchPendingOrdersIncludingDeletedPatient(patient).stream()
+            .collect(
+                Collectors.groupingBy(
+                    order -> order.getFacility().getInternalId(),
+                    TreeMap::new,
+                    Collectors.toList()));
+    for (List<TestOrder> orders : ordersByFacility.values()) {
+      markChanged(orders.get(0).getFacility(), orders);
+      testOrderRepository.saveAll(orders);
+    }
+  }
+}
@@ -19,6 +19,7 @@ import static gov.cdc.usds.simplereport.api.model.filerow.TestResultRow.TESTING_
 import static gov.cdc.usds.simplereport.api.model.filerow.TestResultRow.TEST_PERFORMED_CODE;
 import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
 import static gov.cdc.usds.simplereport.utils.DateTimeUtils.convertToZonedDateTime;
+import static gov.cdc.usds.simplereport.utils.DateTimeUtils.hasTimezoneSubstring;
 import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getIteratorForCsv;
 import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getNextRow;
 
@@ -54,26 +55,38 @@ import gov.cdc.usds.simplereport.db.repository.UploadDiseaseDetailsRepository;
 import gov.cdc.usds.simplereport.service.errors.InvalidBulkTestResultUploadException;
 import gov.cdc.usds.simplereport.service.errors.InvalidRSAPrivateKeyException;
 import gov.cdc.usds.simplereport.service.model.reportstream.FeedbackMessage;
-import gov.cdc.usds.simplereport.service.model.reportstream.TokenResponse;
 import gov.cdc.usds.simplereport.service.model.reportstream.UploadResponse;
 import gov.cdc.usds.simplereport.utils.BulkUploadResultsToFhir;
-import gov.cdc.usds.simplereport.utils.TokenAuthentication;
+import gov.cdc.usds.simplereport.utils.CsvRowSpool;
+import gov.cdc.usds.simplereport.utils.FhirBundleSpool;
+import gov.cdc.usds.simplereport.utils.FhirResourceMemo;
+import gov.cdc.usds.simplereport.utils.NdjsonRequestBody;
+import gov.cdc.usds.simplereport.utils.NdjsonSpool;
 import gov.cdc.usds.simplereport.validators.FileValidator;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -84,6 +97,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 
 @Service
 @RequiredArgsConstructor
@@ -93,30 +107,27 @@ public class TestResultUploadService {
   private final ResultUploadErrorRepository errorRepository;
   private final UploadDiseaseDetailsRepository diseaseDetailsRepository;
   private final DataHubClient _client;
+  private final DataHubFileUploadClient fileUploadClient;
+  private final ReportStreamTokenManager reportStreamTokenManager;
   private final OrganizationService _orgService;
   private final ResultsUploaderCachingService resultsUploaderCachingService;
-  private final TokenAuthentication _tokenAuth;
   private final FileValidator<TestResultRow> testResultFileValidator;
   private final FileValidator<ConditionAgnosticResultRow> conditionAgnosticResultFileValidator;
   private final DiseaseService diseaseService;
   private final BulkUploadResultsToFhir fhirConverter;
 
-  @Value("${data-hub.url}")
-  private String dataHubUrl;
+  @Value("${simple-report.processing-mode-code:P}")
+  private String processingModeCodeValue;
 
-  @Value("${data-hub.csv-upload-api-client}")
-  private String simpleReportCsvUploadClientName;
+  @Value("${simple-report.bulk-upload.streaming-enabled:false}")
+  private boolean streamingUploadEnabled;
 
-  @Value("${data-hub.signing-key}")
-  private String signingKey;
+  @Value("${simple-report.bulk-upload.fhir-gzip-enabled:false}")
+  private boolean gzipFhirUploads;
 
-  @Value("${data-hub.jwt-scope}")
-  private String scope;
+  @Value("${simple-report.bulk-upload.fhir-bundles-per-report:0}")
+  private int fhirBundlesPerReport;
 
-  @Value("${simple-report.processing-mode-code:P}")
-  private String processingModeCodeValue;
-
-  private static final int FIVE_MINUTES_MS = 300 * 1000;
   public static final String PROCESSING_MODE_CODE_COLUMN_NAME = "processing_mode_code";
   private static final String ORDER_TEST_DATE_COLUMN_NAME = "order_test_date";
   private static final String SPECIMEN_COLLECTION_DATE_COLUMN_NAME = "specimen_collection_date";
@@ -127,29 +138,33 @@ public class TestResultUploadService {
 
   public static final String SPECIMEN_TYPE_COLUMN_NAME = "specimen_type";
 
-  private static final String ALPHABET_REGEX = "^[a-zA-Z\\s]+$";
-
-  public String createDataHubSenderToken(String privateKey) throws InvalidRSAPrivateKeyException {
-    Date inFiveMinutes = new Date(System.currentTimeMillis() + FIVE_MINUTES_MS);
-
-    return _tokenAuth.createRSAJWT(
-        simpleReportCsvUploadClientName, dataHubUrl, inFiveMinutes, privateKey);
-  }
+  private static final Pattern ALPHABET_PATTERN = Pattern.compile("^[a-zA-Z\\s]+$");
 
   private static final ObjectMapper mapper =
       new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
   @AuthorizationConfiguration.RequirePermissionCSVUpload
   public List<TestResultUpload> processResultCSV(InputStream csvStream) {
+    return processResultCSV(csvStream, UploadProgressListener.NONE);
+  }
+
+  @AuthorizationConfiguration.RequirePermissionCSVUpload
+  public List<TestResultUpload> processResultCSV(
+      InputStream csvStream, UploadProgressListener progress) {
     List<TestResultUpload> uploadSummary = new ArrayList<>();
     var submissionId = UUID.randomUUID();
     Organization org = _orgService.getCurrentOrganization();
 
+    if (streamingUploadEnabled) {
+      return processResultCSVInSinglePass(csvStream, org, submissionId, progress);
+    }
+
     try {
       byte[] content = csvStream.readAllBytes();
 
+      Set<StreetAddress> providerAddresses = new HashSet<>();
       Optional<TestResultUpload> dataValidationErrors =
-          performDataValidations(content, org, submissionId);
+          performDataValidations(content, org, submissionId, progress, providerAddresses);
 
       if (dataValidationErrors.isPresent()) {
         uploadSummary.add(dataValidationErrors.get());
@@ -157,10 +172,16 @@ public class TestResultUploadService {
       }
 
       if (content.length > 0) {
+        // resolve every ordering provider's timezone up front, so both pipelines find them in the
+        // cache instead of looking them up one row at a time
+        resultsUploaderCachingService.prefetchZoneIdsByAddress(providerAddresses);
+
         CompletableFuture<CovidSubmissionSummary> covidSubmission =
-            submitResultsToCovidPipeline(content, org, submissionId);
+            submitResultsToCovidPipeline(
+                () -> inMemoryCsv(transformCsvContent(content)), org, submissionId, progress);
         CompletableFuture<UniversalSubmissionSummary> universalSubmission =
-            submitResultsToUniversalPipeline(new ByteArrayInputStream(content), org, submissionId);
+            submitResultsToUniversalPipeline(
+                new ByteArrayInputStream(content), org, submissionId, progress);
 
         processCovidPipelineResponse(covidSubmission).ifPresent(uploadSummary::add);
         processUniversalPipelineResponse(universalSubmission).ifPresent(uploadSummary::add);
@@ -173,23 +194,166 @@ public class TestResultUploadService {
     return uploadSummary;
   }
 
+  /**
+   * Parses the upload exactly once: every row is validated and then immediately converted for both
+   * the COVID and the universal pipeline. The converted output is spooled to temporary files rather
+   * than kept in memory, and is only submitted once the whole file has passed validation. Large
+   * uploads can be split into several universal pipeline reports.
+   */
+  private List<TestResultUpload> processResultCSVInSinglePass(
+      InputStream csvStream, Organization org, UUID submissionId, UploadProgressListener progress) {
+    List<TestResultUpload> uploadSummary = new ArrayList<>();
+    AtomicBoolean fhirConversionFailed = new AtomicBoolean(false);
+    FhirResourceMemo fhirResources = fhirConverter.newResourceMemo();
+
+    try (var covidRows = new CsvRowSpool();
+        var fhirBundles = new FhirBundleSpool(fhirBundlesPerReport)) {
+      List<FeedbackMessage> errors =
+          testResultFileValidator.validate(
+              csvStream,
+              (row, fileRow) -> {
+                progress.rowValidated();
+                if (!fhirConversionFailed.get()) {
+                  try {
+                    fhirBundles.append(
+                        fhirConverter.convertToSerializedFhirBundle(
+                            fileRow, org.getInternalId(), fhirResources),
+                        fhirConverter.getDiseaseFromDeviceSpecs(
+                            fileRow.getEquipmentModelName().getValue(),
+                            fileRow.getTestPerformedCode().getValue()));
+                    progress.rowsConverted(1);
+                  } catch (RuntimeException e) {
+                    // a FHIR failure shouldn't keep the results from going through the CSV pipeline
+                    log.error("Bulk upload failure to convert to fhir.", e);
+                    fhirConversionFailed.set(true);
+                  }
+                }
+
+                if (isCovidResult(row)) {
+                  covidRows.write(transformCsvRow(row));
+                }
+              });
+
+      if (!errors.isEmpty()) {
+        uploadSummary.add(saveValidationErrors(errors, org, submissionId));
+        return uploadSummary;
+      }
+
+      CompletableFuture<CovidSubmissionSummary> covidSubmission =
+          submitResultsToCovidPipeline(() -> spooledCsv(covidRows), org, submissionId, progress);
+      var chunks =
+          fhirConversionFailed.get() ? List.<FhirBundleSpool.Chunk>of() : fhirBundles.getChunks();
+      if (chunks.size() > 1) {
+        log.info(
+            "Submission {} split into {} FHIR reports, the rest saved as submissions {}",
+            submissionId,
+            chunks.size(),
+            IntStream.range(1, chunks.size())
+                .mapToObj(chunk -> chunkSubmissionId(submissionId, chunk))
+                .toList());
+      }
+      List<CompletableFuture<UniversalSubmissionSummary>> universalSubmissions =
+          IntStream.range(0, chunks.size())
+              .mapToObj(
+                  chunk ->
+                      submitSpooledResultsToUniversalPipeline(
+                          chunks.get(chunk),
+                          org,
+                          chunkSubmissionId(submissionId, chunk),
+                          progress))
+              .toList();
+
+      try {
+        processCovidPipelineResponse(covidSubmission).ifPresent(uploadSummary::add);
+        universalSubmissions.forEach(
+            submission ->
+                processUniversalPipelineResponse(submission).ifPresent(uploadSummary::add));
+      } finally {
+        // the submissions read from the spooled files, so they have to finish before cleanup
+        CompletableFuture.allOf(
+                Stream.concat(Stream.of(covidSubmission), universalSubmissions.stream())
+                    .toArray(CompletableFuture[]::new))
+            .exceptionally(e -> null)
+            .join();
+      }
+    }
+
+    return uploadSummary;
+  }
+
+  /**
+   * The submission id the upload row for one report of a chunked FHIR submission is saved under.
+   * The first report keeps the upload's own submission id, shared with its COVID pipeline row as
+   * for an unchunked upload. Every later report gets its own, so each row and the ReportStream
+   * errors saved with it describe exactly one report. Those ids are derived from the upload's
+   * submission id and the report's position, so the rest of a file's reports can always be found
+   * from the first.
+   */
+  static UUID chunkSubmissionId(UUID submissionId, int chunk) {
+    if (chunk == 0) {
+      return submissionId;
+    }
+    return UUID.nameUUIDFromBytes((submissionId + "/" + chunk).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Validates the upload, collecting the ordering provider addresses that rows need a timezone for
+   * into {@code providerAddresses} along the way.
+   */
   private Optional<TestResultUpload> performDataValidations(
-      byte[] content, Organization org, UUID submissionId) {
+      byte[] content,
+      Organization org,
+      UUID submissionId,
+      UploadProgressListener progress,
+      Set<StreetAddress> providerAddresses) {
 
     List<FeedbackMessage> errors =
-        testResultFileValidator.validate(new ByteArrayInputStream(content));
+        testResultFileValidator.validate(
+            new ByteArrayInputStream(content),
+            (row, fileRow) -> {
+              progress.rowValidated();
+              if (needsAddressTimezone(row)) {
+                providerAddresses.add(getOrderingProviderAddress(row));
+              }
+            });
 
     if (!errors.isEmpty()) {
-      TestResultUpload validationErrorResult = new TestResultUpload(UploadStatus.FAILURE);
-      validationErrorResult.setErrors(errors.toArray(FeedbackMessage[]::new));
-      errorRepository.saveAll(
-          errors.stream().map(error -> new ResultUploadError(org, error, submissionId)).toList());
-      return Optional.of(validationErrorResult);
+      return Optional.of(saveValidationErrors(errors, org, submissionId));
     }
 
     return Optional.empty();
   }
 
+  private static boolean needsAddressTimezone(Map<String, String> row) {
+    return Stream.of(
+            TEST_RESULT_DATE_COLUMN_NAME,
+            ORDER_TEST_DATE_COLUMN_NAME,
+            SPECIMEN_COLLECTION_DATE_COLUMN_NAME,
+            TESTING_LAB_SPECIMEN_RECEIVED_DATE_COLUMN_NAME,
+            DATE_RESULT_RELEASED_COLUMN_NAME)
+        .map(row::get)
+        .anyMatch(date -> StringUtils.isNotBlank(date) && !hasTimezoneSubstring(date));
+  }
+
+  private static StreetAddress getOrderingProviderAddress(Map<String, String> row) {
+    return new StreetAddress(
+        row.get("ordering_provider_street"),
+        row.get("ordering_provider_street2"),
+        row.get("ordering_provider_city"),
+        row.get("ordering_provider_state"),
+        row.get("ordering_provider_zip_code"),
+        null);
+  }
+
+  private TestResultUpload saveValidationErrors(
+      List<FeedbackMessage> errors, Organization org, UUID submissionId) {
+    TestResultUpload validationErrorResult = new TestResultUpload(UploadStatus.FAILURE);
+    validationErrorResult.setErrors(errors.toArray(FeedbackMessage[]::new));
+    errorRepository.saveAll(
+        errors.stream().map(error -> new ResultUploadError(org, error, submissionId)).toList());
+    return validationErrorResult;
+  }
+
   private byte[] transformCsvContent(byte[] content) {
     List<Map<String, String>> updatedRows = new ArrayList<>();
     final MappingIterator<Map<String, String>> valueIterator =
@@ -251,14 +415,7 @@ public class TestResultUploadService {
     var updatedSpecimenType =
         modifyRowSpecimenNameToSNOMED(row.get(SPECIMEN_TYPE_COLUMN_NAME).toLowerCase());
 
-    var providerAddress =
-        new StreetAddress(
-            row.get("ordering_provider_street"),
-            row.get("ordering_provider_street2"),
-            row.get("ordering_provider_city"),
-            row.get("ordering_provider_state"),
-            row.get("ordering_provider_zip_code"),
-            null);
+    var providerAddress = getOrderingProviderAddress(row);
 
     var testResultDate =
         convertToZonedDateTime(
@@ -311,7 +468,7 @@ public class TestResultUploadService {
 
   private String modifyRowSpecimenNameToSNOMED(String specimenTypeName) {
     var snomedMap = resultsUploaderCachingService.getSpecimenTypeNameToSNOMEDMap();
-    if (specimenTypeName.matches(ALPHABET_REGEX)) {
+    if (ALPHABET_PATTERN.matcher(specimenTypeName).matches()) {
       return snomedMap.get(specimenTypeName);
     }
     return specimenTypeName;
@@ -353,36 +510,14 @@ public class TestResultUploadService {
             .findByInternalIdAndOrganization(id, org)
             .orElseThrow(InvalidBulkTestResultUploadException::new);
 
-    return _client.getSubmission(result.getReportId(), getRSAuthToken().getAccessToken());
-  }
-
-  public TokenResponse getRSAuthToken() {
-
-    String scopeParam = "scope=" + scope;
-    String grantTypeParam = "grant_type=client_credentials";
-    String clientAssertionTypeParam =
-        "client_assertion_type=urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
-    String clientAssertionParam = "client_assertion=" + createDataHubSenderToken(signingKey);
-    String ampersandDelimChar = "&";
-
-    StringBuilder requestBuilder = new StringBuilder();
-
-    String requestBody =
-        requestBuilder
-            .append(scopeParam)
-            .append(ampersandDelimChar)
-            .append(grantTypeParam)
-            .append(ampersandDelimChar)
-            .append(clientAssertionTypeParam)
-            .append(ampersandDelimChar)
-            .append(clientAssertionParam)
-            .toString();
-
-    return _client.fetchAccessToken(requestBody);
+    return _client.getSubmission(result.getReportId(), reportStreamTokenManager.getAccessToken());
   }
 
   private CompletableFuture<UniversalSubmissionSummary> submitResultsToUniversalPipeline(
-      ByteArrayInputStream content, Organization org, UUID submissionId)
+      ByteArrayInputStream content,
+      Organization org,
+      UUID submissionId,
+      UploadProgressListener progress)
       throws CsvProcessingException {
     // send to report stream
     return CompletableFuture.supplyAsync(
@@ -392,7 +527,9 @@ public class TestResultUploadService {
               // convert csv to fhir and serialize to json
               FHIRBundleRecord fhirBundleWithMeta =
                   fhirConverter.convertToFhirBundles(content, org.getInternalId());
-              UploadResponse response = uploadBundleAsFhir(fhirBundleWithMeta.serializedBundle());
+              progress.rowsConverted(fhirBundleWithMeta.serializedBundle().size());
+              UploadResponse response =
+                  uploadBundleAsFhir(fhirBundleWithMeta.serializedBundle(), progress);
               log.info(
                   "FHIR submitted in " + (System.currentTimeMillis() - start) + " milliseconds");
 
@@ -401,6 +538,24 @@ public class TestResultUploadService {
             }));
   }
 
+  private CompletableFuture<UniversalSubmissionSummary> submitSpooledResultsToUniversalPipeline(
+      FhirBundleSpool.Chunk chunk,
+      Organization org,
+      UUID submissionId,
+      UploadProgressListener progress) {
+    return CompletableFuture.supplyAsync(
+        withMDC(
+            () -> {
+              long start = System.currentTimeMillis();
+              UploadResponse response = uploadSpooledFhir(chunk.bundles(), progress);
+              log.info(
+                  "FHIR submitted in " + (System.currentTimeMillis() - start) + " milliseconds");
+
+              return new UniversalSubmissionSummary(
+                  submissionId, org, response, chunk.diseasesReported());
+            }));
+  }
+
   private Optional<TestResultUpload> processUniversalPipelineResponse(
       CompletableFuture<UniversalSubmissionSummary> futureSubmissionSummary) {
     try {
@@ -421,39 +576,56 @@ public class TestResultUploadService {
     return Optional.empty();
   }
 
+  /** A csv ready for the COVID pipeline: how large it is, and how to send it. */
+  private record CsvSubmission(long size, Supplier<UploadResponse> upload) {}
+
+  private Optional<CsvSubmission> inMemoryCsv(byte[] csvContent) {
+    if (csvContent.length == 0) {
+      return Optional.empty();
+    }
+    return Optional.of(new CsvSubmission(csvContent.length, () -> _client.uploadCSV(csvContent)));
+  }
+
+  private Optional<CsvSubmission> spooledCsv(CsvRowSpool rows) {
+    return rows.finish()
+        .map(file -> new CsvSubmission(fileSize(file), () -> fileUploadClient.uploadCSV(file)));
+  }
+
+  private static long fileSize(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      throw new CsvProcessingException("Unable to read spooled upload");
+    }
+  }
+
   private CompletableFuture<CovidSubmissionSummary> submitResultsToCovidPipeline(
-      byte[] content, Organization org, UUID submissionId) {
+      Supplier<Optional<CsvSubmission>> csvSupplier,
+      Organization org,
+      UUID submissionId,
+      UploadProgressListener progress) {
     return CompletableFuture.supplyAsync(
         withMDC(
             () -> {
               long start = System.currentTimeMillis();
               FutureResult<UploadResponse, Exception> result;
-              var csvContent = transformCsvContent(content);
-              if (csvContent.length == 0) {
+              var csv = csvSupplier.get();
+              if (csv.isEmpty()) {
                 return new CovidSubmissionSummary(
                     submissionId, org, null, new EmptyCsvException(), null);
               }
               try {
                 result =
                     FutureResult.<UploadResponse, Exception>builder()
-                        .value(_client.uploadCSV(csvContent))
+                        .value(csv.get().upload().get())
                         .build();
               } catch (FeignException e) {
-                log.info("RS CSV API Error " + e.status() + " Response: " + e.contentUTF8());
-                try {
-                  UploadResponse value = mapper.readValue(e.contentUTF8(), UploadResponse.class);
-                  result = FutureResult.<UploadResponse, Exception>builder().value(value).build();
-
-                } catch (JsonProcessingException ex) {
-                  log.error("Unable to parse Report Stream response.", ex);
-                  result =
-                      FutureResult.<UploadResponse, Exception>builder()
-                          .error(
-                              new DependencyFailureException(
-                                  "Unable to parse Report Stream response."))
-                          .build();
-                }
+                result = parseCsvErrorResponse(e.status(), e.contentUTF8());
+              } catch (RestClientResponseException e) {
+                result =
+                    parseCsvErrorResponse(e.getStatusCode().value(), e.getResponseBodyAsString());
               }
+              progress.bytesSubmitted(csv.get().size());
               log.info(
                   "CSV submitted in " + (System.currentTimeMillis() - start) + " milliseconds");
 
@@ -468,6 +640,19 @@ public class TestResultUploadService {
             }));
   }
 
+  private FutureResult<UploadResponse, Exception> parseCsvErrorResponse(int status, String body) {
+    log.info("RS CSV API Error " + status + " Response: " + body);
+    try {
+      UploadResponse value = mapper.readValue(body, UploadResponse.class);
+      return FutureResult.<UploadResponse, Exception>builder().value(value).build();
+    } catch (JsonProcessingException ex) {
+      log.error("Unable to parse Report Stream response.", ex);
+      return FutureResult.<UploadResponse, Exception>builder()
+          .error(new DependencyFailureException("Unable to parse Report Stream response."))
+          .build();
+    }
+  }
+
   private Optional<TestResultUpload> processCovidPipelineResponse(
       CompletableFuture<CovidSubmissionSummary> futureSubmissionSummary)
       throws DependencyFailureException {
@@ -493,9 +678,9 @@ public class TestResultUploadService {
     return Optional.empty();
   }
 
-  private UploadResponse parseFeignException(FeignException e) {
+  private UploadResponse parseErrorResponse(String body) {
     try {
-      return mapper.readValue(e.contentUTF8(), UploadResponse.class);
+      return mapper.readValue(body, UploadResponse.class);
     } catch (JsonProcessingException ex) {
       log.error("Unable to parse Report Stream response.", ex);
       return null;
@@ -577,6 +762,12 @@ public class TestResultUploadService {
 
   @AuthorizationConfiguration.RequirePermissionCSVUpload
   public TestResultUpload processConditionAgnosticResultCSV(InputStream csvStream) {
+    return processConditionAgnosticResultCSV(csvStream, UploadProgressListener.NONE);
+  }
+
+  @AuthorizationConfiguration.RequirePermissionCSVUpload
+  public TestResultUpload processConditionAgnosticResultCSV(
+      InputStream csvStream, UploadProgressListener progress) {
     var submissionId = UUID.randomUUID();
     Organization org = _orgService.getCurrentOrganization();
     byte[] content;
@@ -588,7 +779,8 @@ public class TestResultUploadService {
     }
 
     List<FeedbackMessage> errors =
-        conditionAgnosticResultFileValidator.validate(new ByteArrayInputStream(content));
+        conditionAgnosticResultFileValidator.validate(
+            new ByteArrayInputStream(content), (row, fileRow) -> progress.rowValidated());
     if (!errors.isEmpty()) {
       TestResultUpload validationErrorResult = new TestResultUpload(UploadStatus.FAILURE);
       validationErrorResult.setErrors(errors.toArray(FeedbackMessage[]::new));
@@ -601,7 +793,7 @@ public class TestResultUploadService {
     Future<UploadResponse> fhirResponse;
     TestResultUpload fhirResult = null;
     if (content.length > 0) {
-      fhirResponse = submitConditionAgnosticAsFhir(new ByteArrayInputStream(content));
+      fhirResponse = submitConditionAgnosticAsFhir(new ByteArrayInputStream(content), progress);
       try {
         if (fhirResponse.get() != null) {
           fhirResult = mapFhirResponseToUploadResponse(fhirResponse.get(), org, submissionId);
@@ -615,7 +807,8 @@ public class TestResultUploadService {
     return fhirResult;
   }
 
-  private Future<UploadResponse> submitConditionAgnosticAsFhir(ByteArrayInputStream content) {
+  private Future<UploadResponse> submitConditionAgnosticAsFhir(
+      ByteArrayInputStream content, UploadProgressListener progress) {
     // send to report stream
     return CompletableFuture.supplyAsync(
         withMDC(
@@ -624,27 +817,52 @@ public class TestResultUploadService {
               // convert csv to fhir and serialize to json
               List<String> serializedFhirBundles =
                   fhirConverter.convertToConditionAgnosticFhirBundles(content);
-              UploadResponse response = uploadBundleAsFhir(serializedFhirBundles);
+              progress.rowsConverted(serializedFhirBundles.size());
+              UploadResponse response = uploadBundleAsFhir(serializedFhirBundles, progress);
               log.info(
                   "FHIR submitted in " + (System.currentTimeMillis() - start) + " milliseconds");
               return response;
             }));
   }
 
-  private UploadResponse uploadBundleAsFhir(List<String> serializedFhirBundles) {
-    // build the ndjson request body
-    var ndJson = new StringBuilder();
-    for (String bundle : serializedFhirBundles) {
-      ndJson.append(bundle).append(System.lineSeparator());
-    }
+  private UploadResponse uploadBundleAsFhir(
+      List<String> serializedFhirBundles, UploadProgressListener progress) {
+    return uploadNdjsonAsFhir(
+        NdjsonRequestBody.fromLines(serializedFhirBundles, gzipFhirUploads), progress);
+  }
 
+  private UploadResponse uploadNdjsonAsFhir(byte[] ndJsonBody, UploadProgressListener progress) {
     UploadResponse response;
     try {
-      response = _client.uploadFhir(ndJson.toString().trim(), getRSAuthToken().getAccessToken());
+      String accessToken = reportStreamTokenManager.getAccessToken();
+      response =
+          gzipFhirUploads
+              ? _client.uploadGzippedFhir(ndJsonBody, accessToken)
+              : _client.uploadFhir(ndJsonBody, accessToken);
     } catch (FeignException e) {
       log.info("RS Fhir API Error " + e.status() + " Response: " + e.contentUTF8());
-      response = parseFeignException(e);
+      response = parseErrorResponse(e.contentUTF8());
+    }
+    progress.bytesSubmitted(ndJsonBody.length);
+    return response;
+  }
+
+  private UploadResponse uploadSpooledFhir(NdjsonSpool bundles, UploadProgressListener progress) {
+    Path body = bundles.finish(gzipFhirUploads);
+    UploadResponse response;
+    try {
+      response =
+          fileUploadClient.uploadFhir(
+              body, gzipFhirUploads, reportStreamTokenManager.getAccessToken());
+    } catch (RestClientResponseException e) {
+      log.info(
+          "RS Fhir API Error "
+              + e.getStatusCode().value()
+              + " Response: "
+              + e.getResponseBodyAsString());
+      response = parseErrorResponse(e.getResponseBodyAsString());
     }
+    progress.bytesSubmitted(fileSize(body));
     return response;
   }
 
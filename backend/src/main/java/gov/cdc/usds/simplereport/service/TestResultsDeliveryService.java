@@ -41,18 +41,11 @@ public class TestResultsDeliveryService {
       return false;
     }
 
-    Map<String, Object> templateVariables =
-        Map.of(
-            "facility_name", patientLink.getTestOrder().getFacility().getFacilityName(),
-            "organization_name", patientLink.getTestOrder().getOrganization().getOrganizationName(),
-            "expiration_duration", getExpirationDuration(patientLink),
-            "test_result_url", patientLinkUrl + patientLink.getInternalId());
-
     try {
       emailService.sendWithDynamicTemplate(
           recipientEmailAddresses,
           EmailProviderTemplate.SIMPLE_REPORT_TEST_RESULT,
-          templateVariables);
+          getEmailTemplateVariables(patientLink));
     } catch (IOException e) {
       log.error(
           "failed to send email for patient link {}, exception: {}",
@@ -64,6 +57,22 @@ public class TestResultsDeliveryService {
     return true;
   }
 
+  /** The dynamic template data for the email telling a patient their result is ready. */
+  Map<String, Object> getEmailTemplateVariables(PatientLink patientLink) {
+    return Map.of(
+        "facility_name", patientLink.getTestOrder().getFacility().getFacilityName(),
+        "organization_name", patientLink.getTestOrder().getOrganization().getOrganizationName(),
+        "expiration_duration", getExpirationDuration(patientLink),
+        "test_result_url", patientLinkUrl + patientLink.getInternalId());
+  }
+
+  /** The text telling a patient their result is ready. */
+  String getSmsMessage(PatientLink patientLink) {
+    return format(
+        "Your test result is ready to view. This link will expire after {0}: {1}",
+        getExpirationDuration(patientLink), patientLinkUrl + patientLink.getInternalId());
+  }
+
   private String getExpirationDuration(PatientLink patientLink) {
     return format(
         "{0} day{1}", patientLink.getShelfLife(), patientLink.getShelfLife() > 1 ? "s" : "");
@@ -75,11 +84,8 @@ public class TestResultsDeliveryService {
   }
 
   public boolean smsTestResults(PatientLink patientLink) {
-    String message =
-        format(
-            "Your test result is ready to view. This link will expire after {0}: {1}",
-            getExpirationDuration(patientLink), patientLinkUrl + patientLink.getInternalId());
-    List<SmsAPICallResult> smsSendResults = smsService.sendToPatientLink(patientLink, message);
+    List<SmsAPICallResult> smsSendResults =
+        smsService.sendToPatientLink(patientLink, getSmsMessage(patientLink));
     return smsSendResults.stream().allMatch(SmsAPICallResult::isSuccessful);
   }
 
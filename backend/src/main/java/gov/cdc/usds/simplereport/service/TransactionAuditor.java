@@ -0,0 +1,64 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the user that entities saved in a transaction are attributed to, so it is only looked up
+ * once per transaction. Without this, bulk saves (patient roster uploads, for one) look the user up
+ * and bump their last-seen time for each row, and the resulting flushes break up the JDBC insert
+ * batches.
+ */
+@Slf4j
+public final class TransactionAuditor {
+  private static final Object AUDITOR_RESOURCE_KEY = TransactionAuditor.class.getName();
+
+  private TransactionAuditor() {}
+
+  /**
+   * The user the current transaction's saves are attributed to: the current user, unless a service
+   * in this package has {@link #attributeTransactionTo attributed} the transaction to someone else.
+   */
+  public static ApiUser getAuditor(ApiUserService userService) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      log.debug("Fetching current user for audit");
+      return userService.getCurrentApiUserInContainedTransaction();
+    }
+    ApiUser user = (ApiUser) TransactionSynchronizationManager.getResource(AUDITOR_RESOURCE_KEY);
+    if (user == null) {
+      log.debug("Fetching current user for audit");
+      user = userService.getCurrentApiUserInContainedTransaction();
+      bind(user);
+    }
+    return user;
+  }
+
+  /**
+   * Attributes everything saved in the rest of the current transaction to {@code user}, in place of
+   * the current user. Only for background work finishing something {@code user} asked for earlier
+   * and recorded at the time, such as sending a result delivery they queued; never for a user taken
+   * from a request. The attribution ends with the transaction.
+   *
+   * @throws IllegalStateException if there is no transaction to attribute
+   */
+  static void attributeTransactionTo(ApiUser user) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("Saves can only be attributed within a transaction");
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(AUDITOR_RESOURCE_KEY);
+    bind(user);
+  }
+
+  private static void bind(ApiUser user) {
+    TransactionSynchronizationManager.bindResource(AUDITOR_RESOURCE_KEY, user);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AUDITOR_RESOURCE_KEY);
+          }
+        });
+  }
+}
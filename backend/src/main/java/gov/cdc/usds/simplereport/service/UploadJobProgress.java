@@ -0,0 +1,75 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.repository.UploadJobRepository;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts a running upload job's progress in memory and saves it to the job at most once per save
+ * interval, so pollers see it move without every row costing a database write.
+ */
+@Slf4j
+class UploadJobProgress implements UploadProgressListener {
+  private final UUID jobId;
+  private final UploadJobRepository repo;
+  private final long saveIntervalNanos;
+  private final AtomicInteger rowsValidated = new AtomicInteger();
+  private final AtomicInteger rowsConverted = new AtomicInteger();
+  private final AtomicLong bytesSubmitted = new AtomicLong();
+  private final AtomicLong lastSavedAt = new AtomicLong(System.nanoTime());
+
+  UploadJobProgress(UUID jobId, UploadJobRepository repo, Duration saveInterval) {
+    this.jobId = jobId;
+    this.repo = repo;
+    this.saveIntervalNanos = saveInterval.toNanos();
+  }
+
+  @Override
+  public void rowValidated() {
+    rowsValidated.incrementAndGet();
+    saveIfDue();
+  }
+
+  @Override
+  public void rowsConverted(int count) {
+    rowsConverted.addAndGet(count);
+    saveIfDue();
+  }
+
+  @Override
+  public void bytesSubmitted(long count) {
+    bytesSubmitted.addAndGet(count);
+    saveIfDue();
+  }
+
+  int getRowsValidated() {
+    return rowsValidated.get();
+  }
+
+  int getRowsConverted() {
+    return rowsConverted.get();
+  }
+
+  long getBytesSubmitted() {
+    return bytesSubmitted.get();
+  }
+
+  private void saveIfDue() {
+    long now = System.nanoTime();
+    long last = lastSavedAt.get();
+    // only one of the threads reporting progress at the same moment gets to save it
+    if (now - last >= saveIntervalNanos && lastSavedAt.compareAndSet(last, now)) {
+      try {
+        repo.updateProgress(
+            jobId, rowsValidated.get(), rowsConverted.get(), bytesSubmitted.get(), new Date());
+      } catch (RuntimeException e) {
+        // progress is only informational, so losing an update mustn't fail the upload
+        log.warn("Unable to save progress for upload job {}", jobId, e);
+      }
+    }
+  }
+}
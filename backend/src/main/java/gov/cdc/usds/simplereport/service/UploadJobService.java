@@ -0,0 +1,241 @@
+package gov.cdc.usds.simplereport.service;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
+import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
+import gov.cdc.usds.simplereport.db.model.UploadJob;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobResult;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobType;
+import gov.cdc.usds.simplereport.db.repository.UploadJobRepository;
+import gov.cdc.usds.simplereport.service.errors.InvalidBulkTestResultUploadException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Processes result uploads in the background. The file is saved as a job and the caller gets the
+ * job back straight away; a bounded worker pool then runs the same validation and submission as the
+ * synchronous endpoints, saving progress as it goes, and records the outcome on the job.
+ *
+ * <p>Workers run as the user who uploaded the file. Uploads that arrive while every worker is busy
+ * and the queue is full are failed immediately rather than left waiting.
+ *
+ * <p>Each instance keeps renewing its lease on the jobs it hasn't finished. Jobs whose lease runs
+ * out were left behind by an instance that crashed, and are failed so the uploader can try again;
+ * they can't be picked up where they left off, since the worker would no longer have the uploader's
+ * permissions and part of the file may already have been submitted.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+  static final String QUEUE_FULL_MESSAGE =
+      "Too many uploads are being processed right now. Please try again later.";
+  static final String PROCESSING_FAILED_MESSAGE = "Unable to process test result CSV upload";
+  static final String INTERRUPTED_MESSAGE =
+      "Processing was interrupted by a server restart. Please upload the file again.";
+
+  private final UploadJobRepository repo;
+  private final OrganizationService orgService;
+  private final TestResultUploadService testResultUploadService;
+  private final Duration progressInterval;
+  private final Duration shutdownGracePeriod;
+  private final Duration leaseDuration;
+  private final ExecutorService workers;
+  private final Set<UUID> unfinishedJobs = ConcurrentHashMap.newKeySet();
+
+  public UploadJobService(
+      UploadJobRepository repo,
+      OrganizationService orgService,
+      TestResultUploadService testResultUploadService,
+      @Value("${simple-report.upload-jobs.worker-threads:2}") int workerThreads,
+      @Value("${simple-report.upload-jobs.queue-capacity:20}") int queueCapacity,
+      @Value("${simple-report.upload-jobs.progress-interval:PT1S}") Duration progressInterval,
+      @Value("${simple-report.upload-jobs.shutdown-grace-period:PT30S}")
+          Duration shutdownGracePeriod,
+      @Value("${simple-report.upload-jobs.lease-duration:PT5M}") Duration leaseDuration,
+      MeterRegistry meterRegistry) {
+    this.repo = repo;
+    this.orgService = orgService;
+    this.testResultUploadService = testResultUploadService;
+    this.progressInterval = progressInterval;
+    this.shutdownGracePeriod = shutdownGracePeriod;
+    this.leaseDuration = leaseDuration;
+    var pool =
+        new ThreadPoolExecutor(
+            workerThreads,
+            workerThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("upload-job-"));
+    new ExecutorServiceMetrics(pool, "upload-job", Tags.empty()).bindTo(meterRegistry);
+    // each job picks up the security context of the request that submitted it
+    this.workers = new DelegatingSecurityContextExecutorService(pool);
+  }
+
+  @AuthorizationConfiguration.RequirePermissionCSVUpload
+  public UploadJob submitResultsUpload(InputStream csvStream) {
+    return submit(csvStream, UploadJobType.RESULTS);
+  }
+
+  @AuthorizationConfiguration.RequirePermissionCSVUpload
+  public UploadJob submitConditionAgnosticResultsUpload(InputStream csvStream) {
+    return submit(csvStream, UploadJobType.CONDITION_AGNOSTIC_RESULTS);
+  }
+
+  @AuthorizationConfiguration.RequirePermissionCSVUpload
+  public UploadJob getUploadJob(UUID id) {
+    return repo.findByInternalIdAndOrganization(id, orgService.getCurrentOrganization())
+        .orElseThrow(InvalidBulkTestResultUploadException::new);
+  }
+
+  private UploadJob submit(InputStream csvStream, UploadJobType uploadType) {
+    byte[] content;
+    try {
+      content = csvStream.readAllBytes();
+    } catch (IOException e) {
+      log.error("Error reading test result upload CSV", e);
+      throw new CsvProcessingException("Unable to read csv");
+    }
+
+    UploadJob job =
+        repo.save(
+            new UploadJob(
+                orgService.getCurrentOrganization(), uploadType, content, leaseExpiresAt()));
+    UUID jobId = job.getInternalId();
+    unfinishedJobs.add(jobId);
+    try {
+      CompletableFuture.supplyAsync(
+              withMDC(
+                  () -> {
+                    process(jobId);
+                    return null;
+                  }),
+              workers)
+          .exceptionally(
+              e -> {
+                log.error("Upload job {} could not be processed", jobId, e);
+                return null;
+              });
+    } catch (RejectedExecutionException e) {
+      log.warn("Upload job {} rejected; no worker is free", jobId);
+      unfinishedJobs.remove(jobId);
+      job.fail(QUEUE_FULL_MESSAGE);
+      job = repo.save(job);
+    }
+    return job;
+  }
+
+  private void process(UUID jobId) {
+    try {
+      UploadJob job = repo.findById(jobId).orElseThrow(InvalidBulkTestResultUploadException::new);
+      byte[] content = job.start();
+      job = repo.save(job);
+
+      var progress = new UploadJobProgress(jobId, repo, progressInterval);
+      try {
+        job.complete(processUpload(job.getUploadType(), content, progress));
+      } catch (RuntimeException e) {
+        log.error("Upload job {} failed", jobId, e);
+        job.fail(e instanceof CsvProcessingException ? e.getMessage() : PROCESSING_FAILED_MESSAGE);
+      }
+      job.setProgress(
+          progress.getRowsValidated(), progress.getRowsConverted(), progress.getBytesSubmitted());
+      repo.save(job);
+    } finally {
+      unfinishedJobs.remove(jobId);
+    }
+  }
+
+  private List<UploadJobResult> processUpload(
+      UploadJobType uploadType, byte[] content, UploadProgressListener progress) {
+    var csvStream = new ByteArrayInputStream(content);
+    return switch (uploadType) {
+      case RESULTS ->
+          testResultUploadService.processResultCSV(csvStream, progress).stream()
+              .map(UploadJobResult::from)
+              .toList();
+      case CONDITION_AGNOSTIC_RESULTS ->
+          Stream.ofNullable(
+                  testResultUploadService.processConditionAgnosticResultCSV(csvStream, progress))
+              .map(UploadJobResult::from)
+              .toList();
+    };
+  }
+
+  /** Keeps this instance's jobs from being taken for abandoned while they wait or run. */
+  @Scheduled(fixedDelayString = "${simple-report.upload-jobs.lease-renewal-interval:PT1M}")
+  void renewLeases() {
+    if (!unfinishedJobs.isEmpty()) {
+      repo.renewLeases(Set.copyOf(unfinishedJobs), leaseExpiresAt());
+    }
+  }
+
+  /**
+   * Fails jobs left unfinished by an instance that went away, including this one before a restart.
+   */
+  @Scheduled(fixedDelayString = "${simple-report.upload-jobs.abandoned-job-sweep-interval:PT5M}")
+  void failAbandonedJobs() {
+    int failed = repo.failAbandonedJobs(INTERRUPTED_MESSAGE, new Date());
+    if (failed > 0) {
+      log.warn("Failed {} upload jobs abandoned by an instance that went away", failed);
+    }
+  }
+
+  private Date leaseExpiresAt() {
+    return new Date(System.currentTimeMillis() + leaseDuration.toMillis());
+  }
+
+  /**
+   * Gives running jobs a little while to finish, then fails whatever is left so nobody polls a job
+   * that will never complete.
+   */
+  @PreDestroy
+  void shutdown() {
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+        workers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    for (UUID jobId : unfinishedJobs) {
+      try {
+        repo.findById(jobId)
+            .ifPresent(
+                job -> {
+                  job.fail(INTERRUPTED_MESSAGE);
+                  repo.save(job);
+                });
+      } catch (RuntimeException e) {
+        log.warn("Unable to mark interrupted upload job {} as failed", jobId, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package gov.cdc.usds.simplereport.service;
+
+/**
+ * Told how far a results upload has got while it's being processed. Calls can come from more than
+ * one thread at once, since the pipelines are submitted concurrently.
+ */
+public interface UploadProgressListener {
+  UploadProgressListener NONE = new UploadProgressListener() {};
+
+  /** Called once for every row that passes validation. */
+  default void rowValidated() {}
+
+  default void rowsConverted(int count) {}
+
+  default void bytesSubmitted(long count) {}
+}
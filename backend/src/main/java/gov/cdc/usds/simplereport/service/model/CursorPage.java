@@ -0,0 +1,60 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Page;
+
+/**
+ * One page of a list read with a {@link ResultsCursor}. Pass {@link #getEndCursor()} back to get
+ * the page after this one.
+ *
+ * <p>The total is only counted if someone asks for it, since it costs a query of its own.
+ */
+public class CursorPage<T> {
+  private final List<T> content;
+  private final String endCursor;
+  private final boolean hasNextPage;
+  private final Supplier<Long> totalElements;
+  private Long total;
+
+  public CursorPage(
+      List<T> content, String endCursor, boolean hasNextPage, Supplier<Long> totalElements) {
+    this.content = content;
+    this.endCursor = endCursor;
+    this.hasNextPage = hasNextPage;
+    this.totalElements = totalElements;
+  }
+
+  /** Wraps a page read by offset, whose rows are in the same order a cursor would give. */
+  public static <T> CursorPage<T> of(Page<T> page, Function<T, ResultsCursor> cursorOf) {
+    List<T> content = page.getContent();
+    String endCursor =
+        content.isEmpty() ? null : cursorOf.apply(content.get(content.size() - 1)).encode();
+    return new CursorPage<>(content, endCursor, page.hasNext(), page::getTotalElements);
+  }
+
+  public <U> CursorPage<U> map(Function<T, U> converter) {
+    return new CursorPage<>(
+        content.stream().map(converter).toList(), endCursor, hasNextPage, this::getTotalElements);
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getEndCursor() {
+    return endCursor;
+  }
+
+  public boolean getHasNextPage() {
+    return hasNextPage;
+  }
+
+  public long getTotalElements() {
+    if (total == null) {
+      total = totalElements.get();
+    }
+    return total;
+  }
+}
@@ -0,0 +1,128 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import static gov.cdc.usds.simplereport.service.ResultsUploaderCachingService.getKey;
+
+import gov.cdc.usds.simplereport.db.model.DeviceType;
+import gov.cdc.usds.simplereport.db.model.DeviceTypeDisease;
+import gov.cdc.usds.simplereport.db.model.SpecimenType;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of the device and specimen reference data used to validate and convert bulk
+ * result uploads. A new snapshot is built whenever that data changes and replaces the old one as a
+ * whole, so readers never see a partially rebuilt index.
+ *
+ * @param version increases by one every time the index is rebuilt with different content
+ * @param devicesByModelAndTestPerformedCode keyed by {@link
+ *     gov.cdc.usds.simplereport.service.ResultsUploaderCachingService#getKey}
+ * @param modelAndTestPerformedCodesByDisease the same keys, grouped by supported disease name
+ * @param specimenNamesBySnomed specimen type name by SNOMED code
+ * @param snomedsBySpecimenName SNOMED code by lowercased specimen type name
+ */
+public record DeviceSpecimenLookupIndex(
+    long version,
+    Map<String, DeviceType> devicesByModelAndTestPerformedCode,
+    Map<String, Set<String>> modelAndTestPerformedCodesByDisease,
+    Map<String, String> specimenNamesBySnomed,
+    Map<String, String> snomedsBySpecimenName) {
+
+  /**
+   * @param deviceTypes every device, with its supported diseases already fetched
+   * @param specimenTypes every specimen type
+   * @param additionalSnomedsBySpecimenName specimen names that aren't in the database; database
+   *     entries win on conflicts
+   */
+  public static DeviceSpecimenLookupIndex build(
+      long version,
+      Collection<DeviceType> deviceTypes,
+      Collection<SpecimenType> specimenTypes,
+      Map<String, String> additionalSnomedsBySpecimenName) {
+    Map<String, DeviceType> devices = new HashMap<>();
+    Map<String, Set<String>> codesByDisease = new HashMap<>();
+
+    deviceTypes.forEach(
+        deviceType ->
+            deviceType
+                .getSupportedDiseaseTestPerformed()
+                .forEach(
+                    deviceTypeDisease -> {
+                      String model = deviceType.getModel();
+                      String testPerformedCode = deviceTypeDisease.getTestPerformedLoincCode();
+                      if (model != null && testPerformedCode != null) {
+                        String key = getKey(model, testPerformedCode);
+                        devices.put(key, deviceType);
+                        codesByDisease
+                            .computeIfAbsent(
+                                deviceTypeDisease.getSupportedDisease().getName(),
+                                name -> new HashSet<>())
+                            .add(key);
+                      }
+                    }));
+
+    Map<String, String> specimenNamesBySnomed =
+        specimenTypes.stream()
+            .collect(Collectors.toMap(SpecimenType::getTypeCode, SpecimenType::getName));
+    Map<String, String> dbSnomedsBySpecimenName =
+        specimenTypes.stream()
+            .collect(Collectors.toMap(SpecimenType::getName, SpecimenType::getTypeCode));
+    Map<String, String> snomedsBySpecimenName =
+        Stream.of(dbSnomedsBySpecimenName, additionalSnomedsBySpecimenName)
+            .flatMap(map -> map.entrySet().stream())
+            .collect(
+                Collectors.toMap(
+                    entry -> entry.getKey().toLowerCase(),
+                    Map.Entry::getValue,
+                    (db, additional) -> db));
+
+    return new DeviceSpecimenLookupIndex(
+        version,
+        Map.copyOf(devices),
+        codesByDisease.entrySet().stream()
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    Map.Entry::getKey, entry -> Set.copyOf(entry.getValue()))),
+        Map.copyOf(specimenNamesBySnomed),
+        Map.copyOf(snomedsBySpecimenName));
+  }
+
+  public Set<String> getModelAndTestPerformedCodes(String diseaseName) {
+    return modelAndTestPerformedCodesByDisease.getOrDefault(diseaseName, Set.of());
+  }
+
+  /**
+   * Whether both indexes would give the same answer to every lookup, ignoring their versions.
+   * Device types are compared on their fields and supported diseases, not just their ids.
+   */
+  public boolean hasSameContentAs(DeviceSpecimenLookupIndex other) {
+    return other != null
+        && modelAndTestPerformedCodesByDisease.equals(other.modelAndTestPerformedCodesByDisease)
+        && specimenNamesBySnomed.equals(other.specimenNamesBySnomed)
+        && snomedsBySpecimenName.equals(other.snomedsBySpecimenName)
+        && devicesByModelAndTestPerformedCode
+            .keySet()
+            .equals(other.devicesByModelAndTestPerformedCode.keySet())
+        && devicesByModelAndTestPerformedCode.entrySet().stream()
+            .allMatch(
+                entry ->
+                    isSameDevice(
+                        entry.getValue(),
+                        other.devicesByModelAndTestPerformedCode.get(entry.getKey())));
+  }
+
+  private static boolean isSameDevice(DeviceType device, DeviceType otherDevice) {
+    return Objects.equals(device.getInternalId(), otherDevice.getInternalId())
+        && device.equals(otherDevice)
+        && getDiseases(device).equals(getDiseases(otherDevice));
+  }
+
+  private static Set<DeviceTypeDisease> getDiseases(DeviceType device) {
+    return new HashSet<>(device.getSupportedDiseaseTestPerformed());
+  }
+}
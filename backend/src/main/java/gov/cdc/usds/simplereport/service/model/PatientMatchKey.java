@@ -0,0 +1,14 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import java.time.LocalDate;
+
+/**
+ * The fields two patients must share to count as duplicates: first and last name (ignoring case)
+ * and birth date. Build keys with {@link #of} so the names are normalized the same way everywhere.
+ */
+public record PatientMatchKey(String firstName, String lastName, LocalDate birthDate) {
+
+  public static PatientMatchKey of(String firstName, String lastName, LocalDate birthDate) {
+    return new PatientMatchKey(firstName.toLowerCase(), lastName.toLowerCase(), birthDate);
+  }
+}
@@ -0,0 +1,61 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A position in a list of results sorted newest first by test date (the backdated test date if
+ * there is one, otherwise when the test was recorded), then by id. The next page holds the rows
+ * that sort after it.
+ *
+ * <p>Clients only see the opaque form from {@link #encode()}. The test date keeps the database's
+ * full precision, so rows recorded within the same millisecond are neither skipped nor repeated.
+ */
+public record ResultsCursor(Instant testDate, UUID internalId) {
+
+  private static final String SEPARATOR = "|";
+
+  public static ResultsCursor of(Date testDate, UUID internalId) {
+    // loaded dates are Timestamps, which carry the microseconds a plain Date would drop
+    Instant instant = testDate instanceof Timestamp ts ? ts.toInstant() : testDate.toInstant();
+    return new ResultsCursor(instant, internalId);
+  }
+
+  /** The test date as a bind parameter for a criteria query, without losing precision. */
+  public Timestamp testDateTimestamp() {
+    return Timestamp.from(testDate);
+  }
+
+  public String encode() {
+    String raw = testDate + SEPARATOR + internalId;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ResultsCursor decode(String cursor) {
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw IllegalGraphqlArgumentException.invalidInput(cursor, "cursor");
+    }
+    int separator = raw.indexOf(SEPARATOR);
+    if (separator < 0) {
+      throw IllegalGraphqlArgumentException.invalidInput(cursor, "cursor");
+    }
+    try {
+      return new ResultsCursor(
+          Instant.parse(raw.substring(0, separator)),
+          UUID.fromString(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw IllegalGraphqlArgumentException.invalidInput(cursor, "cursor");
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * What changed in a facility's test queue since a client's last version of it. Pass {@link
+ * #getVersion()} back next time to get only the changes after this.
+ *
+ * <p>If {@link #getComplete()} is true, {@link #getChanged()} is the whole queue and replaces
+ * whatever the client had. Otherwise the client updates the changed orders, adds any it doesn't
+ * have, and drops the removed ones.
+ */
+public class TestQueueChanges<T> {
+  private final long version;
+  private final boolean complete;
+  private final List<T> changed;
+  private final List<UUID> removedIds;
+
+  public TestQueueChanges(long version, boolean complete, List<T> changed, List<UUID> removedIds) {
+    this.version = version;
+    this.complete = complete;
+    this.changed = changed;
+    this.removedIds = removedIds;
+  }
+
+  public <U> TestQueueChanges<U> map(Function<T, U> converter) {
+    return new TestQueueChanges<>(
+        version, complete, changed.stream().map(converter).toList(), removedIds);
+  }
+
+  public String getVersion() {
+    return String.valueOf(version);
+  }
+
+  /** False if nothing changed since the client's version, so it can skip re-rendering. */
+  public boolean getModified() {
+    return complete || !changed.isEmpty() || !removedIds.isEmpty();
+  }
+
+  public boolean getComplete() {
+    return complete;
+  }
+
+  public List<T> getChanged() {
+    return changed;
+  }
+
+  public List<UUID> getRemovedIds() {
+    return removedIds;
+  }
+}
@@ -0,0 +1,5 @@
+package gov.cdc.usds.simplereport.service.model;
+
+/** An address exactly as it was entered, before it has been looked up with SmartyStreets. */
+public record UnvalidatedAddress(
+    String street1, String street2, String city, String state, String postalCode) {}
@@ -9,4 +9,8 @@ import lombok.Setter;
 public class TokenResponse {
   @JsonProperty("access_token")
   private String accessToken;
+
+  /** Seconds until the token expires, if ReportStream says */
+  @JsonProperty("expires_in")
+  private Long expiresIn;
 }
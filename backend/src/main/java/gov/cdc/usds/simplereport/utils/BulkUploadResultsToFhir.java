@@ -28,6 +28,7 @@ import gov.cdc.usds.simplereport.api.converter.ConvertToObservationProps;
 import gov.cdc.usds.simplereport.api.converter.ConvertToPatientProps;
 import gov.cdc.usds.simplereport.api.converter.ConvertToSpecimenProps;
 import gov.cdc.usds.simplereport.api.converter.CreateFhirBundleProps;
+import gov.cdc.usds.simplereport.api.converter.FhirBundleJsonEncoder;
 import gov.cdc.usds.simplereport.api.converter.FhirConverter;
 import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
 import gov.cdc.usds.simplereport.api.model.filerow.ConditionAgnosticResultRow;
@@ -54,8 +55,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -76,19 +78,24 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class BulkUploadResultsToFhir {
 
-  private static final String ALPHABET_REGEX = "^[a-zA-Z\\s]+$";
-  private static final String SNOMED_REGEX = "(^\\d{9}$)|(^\\d{15}$)";
+  private static final Pattern ALPHABET_PATTERN = Pattern.compile("^[a-zA-Z\\s]+$");
+  private static final Pattern SNOMED_PATTERN = Pattern.compile("(^\\d{9}$)|(^\\d{15}$)");
   private final ResultsUploaderCachingService resultsUploaderCachingService;
   private final GitProperties gitProperties;
   private final UUIDGenerator uuidGenerator;
   private final DateGenerator dateGenerator;
   private final FhirConverter fhirConverter;
+  private final FhirConversionExecutor conversionExecutor;
 
   @Value("${simple-report.processing-mode-code:P}")
   private String processingModeCode = "P";
 
+  @Value("${simple-report.fhir-fast-bundle-encoder:false}")
+  private boolean fastBundleEncoder = false;
+
   final FhirContext ctx = FhirContext.forR4();
   final IParser parser = ctx.newJsonParser();
+  final FhirBundleJsonEncoder fastEncoder = new FhirBundleJsonEncoder(ctx);
 
   private final Map<String, String> testResultToSnomedMap =
       Map.of(
@@ -114,7 +121,8 @@ public class BulkUploadResultsToFhir {
   public FHIRBundleRecord convertToFhirBundles(InputStream csvStream, UUID orgId) {
     // create bundle meta
     HashMap<String, Integer> diseasesReported = new HashMap<>();
-    var futureTestEvents = new ArrayList<CompletableFuture<String>>();
+    FhirConversionExecutor.Batch<String> conversions = conversionExecutor.newBatch();
+    FhirResourceMemo resources = newResourceMemo();
     final MappingIterator<Map<String, String>> valueIterator = getIteratorForCsv(csvStream);
     while (valueIterator.hasNext()) {
       final Map<String, String> row;
@@ -135,34 +143,39 @@ public class BulkUploadResultsToFhir {
         diseasesReported.put(disease.get(), diseasesReported.getOrDefault(disease.get(), 0) + 1);
       }
 
-      var future =
-          CompletableFuture.supplyAsync(() -> convertRowToFhirBundle(fileRow, orgId))
-              .thenApply(parser::encodeResourceToString);
-      futureTestEvents.add(future);
+      submitConversion(conversions, () -> convertRowToFhirBundle(fileRow, orgId, resources));
     }
 
-    List<String> bundles =
-        futureTestEvents.stream()
-            .map(
-                future -> {
-                  try {
-                    return future.get();
-                  } catch (InterruptedException | ExecutionException e) {
-                    log.error("Bulk upload failure to convert to fhir.", e);
-                    Thread.currentThread().interrupt();
-                    throw new CsvProcessingException("Unable to process file.");
-                  }
-                })
-            .map(line -> line.replace(System.getProperty("line.separator"), " "))
-            .toList();
-
-    // Clear cache to free memory
-    resultsUploaderCachingService.clearAddressTimezoneLookupCache();
-    return new FHIRBundleRecord(bundles, diseasesReported);
+    return new FHIRBundleRecord(joinConversions(conversions), diseasesReported);
+  }
+
+  /** Converts a single validated row into a FHIR bundle serialized as one line of ndjson. */
+  public String convertToSerializedFhirBundle(TestResultRow fileRow, UUID orgId) {
+    return convertToSerializedFhirBundle(fileRow, orgId, newResourceMemo());
+  }
+
+  /**
+   * Converts a single validated row into a FHIR bundle serialized as one line of ndjson, reusing
+   * the resources already built for earlier rows of the same upload.
+   */
+  public String convertToSerializedFhirBundle(
+      TestResultRow fileRow, UUID orgId, FhirResourceMemo resources) {
+    return encode(convertRowToFhirBundle(fileRow, orgId, resources));
+  }
+
+  /** Starts an empty memo of FHIR resources, for converting the rows of one upload. */
+  public FhirResourceMemo newResourceMemo() {
+    return new FhirResourceMemo(fhirConverter);
+  }
+
+  private String encode(Bundle bundle) {
+    return fastBundleEncoder
+        ? fastEncoder.encodeToString(bundle)
+        : parser.encodeResourceToString(bundle);
   }
 
   public List<String> convertToConditionAgnosticFhirBundles(InputStream csvStream) {
-    var futureTestEvents = new ArrayList<CompletableFuture<String>>();
+    FhirConversionExecutor.Batch<String> conversions = conversionExecutor.newBatch();
     final MappingIterator<Map<String, String>> valueIterator = getIteratorForCsv(csvStream);
 
     while (valueIterator.hasNext()) {
@@ -176,28 +189,33 @@ public class BulkUploadResultsToFhir {
       }
       var fileRow = new ConditionAgnosticResultRow(row);
 
-      var future =
-          CompletableFuture.supplyAsync(() -> convertConditionAgnosticRowToFhirBundle(fileRow))
-              .thenApply(parser::encodeResourceToString);
-      futureTestEvents.add(future);
+      submitConversion(conversions, () -> convertConditionAgnosticRowToFhirBundle(fileRow));
     }
 
-    return futureTestEvents.stream()
-        .map(
-            future -> {
-              try {
-                return future.get();
-              } catch (InterruptedException | ExecutionException e) {
-                log.error("Bulk upload failure to convert to fhir.", e);
-                Thread.currentThread().interrupt();
-                throw new CsvProcessingException("Unable to process file.");
-              }
-            })
-        .map(line -> line.replace(System.getProperty("line.separator"), " "))
-        .toList();
+    return joinConversions(conversions);
+  }
+
+  private void submitConversion(
+      FhirConversionExecutor.Batch<String> conversions, Supplier<Bundle> bundleSupplier) {
+    try {
+      // neither encoder pretty prints, so each encoded bundle is already a single line
+      conversions.submit(() -> encode(bundleSupplier.get()));
+    } catch (CompletionException e) {
+      log.error("Bulk upload failure to convert to fhir.", e);
+      throw new CsvProcessingException("Unable to process file.");
+    }
+  }
+
+  private List<String> joinConversions(FhirConversionExecutor.Batch<String> conversions) {
+    try {
+      return conversions.join();
+    } catch (CompletionException e) {
+      log.error("Bulk upload failure to convert to fhir.", e);
+      throw new CsvProcessingException("Unable to process file.");
+    }
   }
 
-  private Bundle convertRowToFhirBundle(TestResultRow row, UUID orgId) {
+  private Bundle convertRowToFhirBundle(TestResultRow row, UUID orgId, FhirResourceMemo resources) {
     var testEventId = row.getAccessionNumber().getValue();
 
     var patientAddr =
@@ -291,7 +309,7 @@ public class BulkUploadResultsToFhir {
                 .build());
 
     var testingLabOrg =
-        fhirConverter.convertToOrganization(
+        resources.organization(
             orgId.toString(),
             row.getTestingLabName().getValue(),
             row.getTestingLabClia().getValue(),
@@ -300,10 +318,10 @@ public class BulkUploadResultsToFhir {
             testingLabAddr,
             DEFAULT_COUNTRY);
 
-    Organization orderingFacility = getOrderingFacilityOrgResource(row);
+    Organization orderingFacility = getOrderingFacilityOrgResource(row, resources);
 
     var practitioner =
-        fhirConverter.convertToPractitioner(
+        resources.practitioner(
             row.getOrderingProviderId().getValue(),
             new PersonName(
                 row.getOrderingProviderFirstName().getValue(),
@@ -397,7 +415,7 @@ public class BulkUploadResultsToFhir {
     testOrderedCode = StringUtils.isEmpty(testOrderedCode) ? testPerformedCode : testOrderedCode;
 
     var device =
-        fhirConverter.convertToDevice(
+        resources.device(
             manufacturer, modelName, deviceId.toString(), equipmentUid, equipmentUidType);
 
     String specimenCode = getSpecimenTypeSnomed(row.getSpecimenType().getValue());
@@ -592,21 +610,21 @@ public class BulkUploadResultsToFhir {
   }
 
   private String getPregnancyStatusSnomed(String input) {
-    if (input != null && input.matches(ALPHABET_REGEX)) {
+    if (input != null && ALPHABET_PATTERN.matcher(input).matches()) {
       return PersonUtils.pregnancyStatusSnomedMap.get(input.toLowerCase());
     }
     return null;
   }
 
   private String getResidenceTypeSnomed(String input) {
-    if (input != null && input.matches(ALPHABET_REGEX)) {
+    if (input != null && ALPHABET_PATTERN.matcher(input).matches()) {
       return getResidenceTypeMap().get(input.toLowerCase());
     }
     return input;
   }
 
   private String getEthnicityLiteral(String input) {
-    if (input != null && !input.matches(ALPHABET_REGEX)) {
+    if (input != null && !ALPHABET_PATTERN.matcher(input).matches()) {
       List<String> ethnicityList = PersonUtils.ETHNICITY_MAP.get(input);
       return ethnicityList != null ? ethnicityList.get(1) : input;
     }
@@ -614,25 +632,25 @@ public class BulkUploadResultsToFhir {
   }
 
   private String getRaceLiteral(String input) {
-    if (input != null && !input.matches(ALPHABET_REGEX)) {
+    if (input != null && !ALPHABET_PATTERN.matcher(input).matches()) {
       return PersonUtils.raceMap.get(input);
     }
     return input;
   }
 
   private String getTestResultSnomed(String input) {
-    if (input != null && input.matches(ALPHABET_REGEX)) {
+    if (input != null && ALPHABET_PATTERN.matcher(input).matches()) {
       return testResultToSnomedMap.get(input.toLowerCase());
     }
     return input;
   }
 
   private String getSpecimenTypeSnomed(String input) {
-    if (input != null && input.matches(ALPHABET_REGEX)) {
+    if (input != null && ALPHABET_PATTERN.matcher(input).matches()) {
       return resultsUploaderCachingService
           .getSpecimenTypeNameToSNOMEDMap()
           .get(input.toLowerCase());
-    } else if (input != null && input.matches(SNOMED_REGEX)) {
+    } else if (input != null && SNOMED_PATTERN.matcher(input).matches()) {
       return input;
     }
     return null;
@@ -689,7 +707,8 @@ public class BulkUploadResultsToFhir {
     return StringUtils.isNotEmpty(orderingFacilityVal) ? orderingFacilityVal : testingLabDefaultVal;
   }
 
-  private Organization getOrderingFacilityOrgResource(TestResultRow row) {
+  private Organization getOrderingFacilityOrgResource(
+      TestResultRow row, FhirResourceMemo resources) {
     String orderingFacilityStreet =
         getOrderingFacilityValOrDefault(
             row.getOrderingFacilityStreet().getValue(), row.getTestingLabStreet().getValue());
@@ -723,7 +742,7 @@ public class BulkUploadResultsToFhir {
             row.getOrderingFacilityPhoneNumber().getValue(),
             row.getTestingLabPhoneNumber().getValue());
 
-    return fhirConverter.convertToOrganization(
+    return resources.organization(
         uuidGenerator.randomUUID().toString(),
         orderingFacilityName,
         row.getTestingLabClia().getValue(),
@@ -0,0 +1,85 @@
+package gov.cdc.usds.simplereport.utils;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes csv rows to a temporary file as they are produced so that large uploads don't have to be
+ * held in memory. The header is taken from the keys of the first row written, and every string
+ * value is quoted to match what ReportStream receives from the in-memory transform.
+ */
+@Slf4j
+public class CsvRowSpool implements Closeable {
+  private static final CsvMapper csvMapper =
+      new CsvMapper().enable(CsvGenerator.Feature.ALWAYS_QUOTE_STRINGS);
+
+  private final Path file;
+  private OutputStream outputStream;
+  private SequenceWriter writer;
+  @Getter private int rowCount;
+
+  public CsvRowSpool() {
+    try {
+      file = Files.createTempFile("sr-upload-", ".csv");
+    } catch (IOException e) {
+      throw new CsvProcessingException("Unable to create temporary csv file");
+    }
+  }
+
+  public void write(Map<String, String> row) {
+    try {
+      if (writer == null) {
+        var schema =
+            CsvSchema.builder()
+                .setUseHeader(true)
+                .addColumns(new ArrayList<>(row.keySet()), CsvSchema.ColumnType.STRING)
+                .build();
+        outputStream = new BufferedOutputStream(Files.newOutputStream(file));
+        writer = csvMapper.writerFor(Map.class).with(schema).writeValues(outputStream);
+      }
+      writer.write(row);
+      rowCount++;
+    } catch (IOException e) {
+      throw new CsvProcessingException("Error writing transformed csv rows");
+    }
+  }
+
+  /** Finishes writing and returns the spooled csv file, or empty if no rows were written. */
+  public Optional<Path> finish() {
+    if (writer == null) {
+      return Optional.empty();
+    }
+    try {
+      writer.close();
+      return Optional.of(file);
+    } catch (IOException e) {
+      throw new CsvProcessingException("Error writing transformed csv rows");
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (writer != null) {
+        writer.close();
+      }
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.error("Unable to clean up temporary csv file", e);
+    }
+  }
+}
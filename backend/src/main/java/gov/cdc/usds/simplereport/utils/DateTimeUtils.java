@@ -10,6 +10,7 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.regex.Pattern;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -26,6 +27,7 @@ public class DateTimeUtils {
 
   public static final String TIMEZONE_SUFFIX_REGEX =
       "^(0?[1-9]|1[0-2])/(0?[1-9]|1\\d|2\\d|3[01])/\\d{4}( ([0-1]?\\d|2[0-3]):[0-5]\\d)( \\S+)$";
+  private static final Pattern TIMEZONE_SUFFIX_PATTERN = Pattern.compile(TIMEZONE_SUFFIX_REGEX);
 
   public static final ZoneId FALLBACK_TIMEZONE_ID = ZoneId.of("US/Eastern");
 
@@ -107,7 +109,7 @@ public class DateTimeUtils {
   }
 
   public static boolean hasTimezoneSubstring(String value) {
-    return value.matches(TIMEZONE_SUFFIX_REGEX);
+    return TIMEZONE_SUFFIX_PATTERN.matcher(value).matches();
   }
 
   public static ZoneId parseZoneId(String timezoneCode) {
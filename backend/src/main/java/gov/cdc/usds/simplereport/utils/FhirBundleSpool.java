@@ -0,0 +1,48 @@
+package gov.cdc.usds.simplereport.utils;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spools serialized FHIR bundles for a single upload, split into chunks that are each submitted to
+ * ReportStream as a separate report. Every chunk keeps its own tally of reported diseases so the
+ * upload record for that report matches what was actually in it.
+ */
+public class FhirBundleSpool implements Closeable {
+  private final int maxBundlesPerChunk;
+  private final List<Chunk> chunks = new ArrayList<>();
+
+  public record Chunk(NdjsonSpool bundles, HashMap<String, Integer> diseasesReported) {}
+
+  /**
+   * @param maxBundlesPerChunk largest number of bundles in a single report, or 0 to put every
+   *     bundle in one report
+   */
+  public FhirBundleSpool(int maxBundlesPerChunk) {
+    this.maxBundlesPerChunk = maxBundlesPerChunk;
+  }
+
+  public void append(String serializedBundle, Optional<String> disease) {
+    if (chunks.isEmpty()
+        || (maxBundlesPerChunk > 0
+            && chunks.get(chunks.size() - 1).bundles().getLineCount() >= maxBundlesPerChunk)) {
+      chunks.add(new Chunk(new NdjsonSpool(), new HashMap<>()));
+    }
+    var chunk = chunks.get(chunks.size() - 1);
+    chunk.bundles().append(serializedBundle);
+    disease.ifPresent(name -> chunk.diseasesReported().merge(name, 1, Integer::sum));
+  }
+
+  public List<Chunk> getChunks() {
+    return Collections.unmodifiableList(chunks);
+  }
+
+  @Override
+  public void close() {
+    chunks.forEach(chunk -> chunk.bundles().close());
+  }
+}
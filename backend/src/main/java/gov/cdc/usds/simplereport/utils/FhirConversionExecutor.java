@@ -0,0 +1,109 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dedicated, bounded pool for turning bulk upload rows into FHIR. Conversions used to run on the
+ * common ForkJoinPool with one future per row held until the end of the file; this pool has a fixed
+ * number of threads and each upload only keeps a limited window of conversions in flight, blocking
+ * the reading thread until the oldest one finishes when that window is full.
+ */
+@Component
+public class FhirConversionExecutor {
+  static final String METRIC_NAME = "simplereport.bulk_upload.fhir_conversion";
+
+  private final ThreadPoolExecutor executor;
+  private final int maxInFlightPerUpload;
+  private final Timer rowConversionTimer;
+
+  public FhirConversionExecutor(
+      @Value("${simple-report.bulk-upload.fhir-conversion.pool-size:4}") int poolSize,
+      @Value("${simple-report.bulk-upload.fhir-conversion.queue-capacity:1000}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    // once the queue is full the submitting thread runs the conversion itself, which is the
+    // backpressure for several large uploads arriving at the same time
+    this.executor =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("fhir-conversion-"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    this.maxInFlightPerUpload = poolSize + queueCapacity;
+    this.rowConversionTimer =
+        Timer.builder(METRIC_NAME + ".row")
+            .description("Time taken to convert a single bulk upload row to serialized FHIR")
+            .register(meterRegistry);
+
+    // publishes queued/active/completed task counts for the pool
+    new ExecutorServiceMetrics(executor, "fhir-conversion", Tags.empty()).bindTo(meterRegistry);
+  }
+
+  /** Starts a new ordered batch of conversions, typically one per uploaded file. */
+  public <T> Batch<T> newBatch() {
+    return new Batch<>();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Conversions submitted for a single upload. Results are returned in submission order, and at
+   * most {@code pool size + queue capacity} of them are pending at any time.
+   */
+  public class Batch<T> {
+    private final Deque<CompletableFuture<T>> inFlight = new ArrayDeque<>();
+    private final List<T> results = new ArrayList<>();
+
+    private Batch() {}
+
+    /**
+     * Queues a conversion, first waiting for the oldest pending one if the window is full.
+     *
+     * @throws java.util.concurrent.CompletionException if an earlier conversion failed
+     */
+    public void submit(Supplier<T> conversion) {
+      if (inFlight.size() >= maxInFlightPerUpload) {
+        results.add(inFlight.removeFirst().join());
+      }
+      inFlight.addLast(
+          CompletableFuture.supplyAsync(
+              withMDC(() -> rowConversionTimer.record(conversion)), executor));
+    }
+
+    /**
+     * Waits for all pending conversions to finish.
+     *
+     * @return every result, in the order the conversions were submitted
+     * @throws java.util.concurrent.CompletionException if any conversion failed
+     */
+    public List<T> join() {
+      while (!inFlight.isEmpty()) {
+        results.add(inFlight.removeFirst().join());
+      }
+      return results;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package gov.cdc.usds.simplereport.utils;
+
+import gov.cdc.usds.simplereport.api.converter.FhirConverter;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.hl7.fhir.r4.model.Device;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * The organizations, practitioners and devices already built for one bulk upload. Nearly every row
+ * of a file names the same testing lab, ordering facility and provider, and one of a few devices,
+ * so each distinct one is only built (phone number formatting, NPI check and all) the first time it
+ * is seen. Every bundle still gets its own copy carrying the id it would have had anyway, so the
+ * encoded bundles are exactly what building from scratch produces, and bundles being encoded on
+ * different threads never share a resource.
+ *
+ * <p>Entries are keyed on every value the resource is built from except its id. One memo can be
+ * shared by all the threads converting an upload, and is meant to be dropped with the upload.
+ */
+public class FhirResourceMemo {
+  // a file with a different provider on every row shouldn't hold all of them in memory
+  static final int MAX_ENTRIES_PER_TYPE = 1000;
+
+  private final FhirConverter fhirConverter;
+  private final Map<OrganizationKey, Organization> organizations = new ConcurrentHashMap<>();
+  private final Map<PractitionerKey, Practitioner> practitioners = new ConcurrentHashMap<>();
+  private final Map<DeviceKey, Device> devices = new ConcurrentHashMap<>();
+
+  FhirResourceMemo(FhirConverter fhirConverter) {
+    this.fhirConverter = fhirConverter;
+  }
+
+  private record OrganizationKey(
+      String name,
+      String clia,
+      String telephone,
+      String email,
+      StreetAddress address,
+      String country) {}
+
+  private record PractitionerKey(
+      PersonName name, String telephone, StreetAddress address, String country, String npi) {}
+
+  private record DeviceKey(
+      String manufacturer, String model, String equipmentUid, String equipmentUidType) {}
+
+  /** The organization {@link FhirConverter#convertToOrganization} would build. */
+  public Organization organization(
+      String id,
+      String name,
+      String clia,
+      String telephone,
+      String email,
+      StreetAddress addr,
+      String country) {
+    Organization org =
+        reuse(
+            organizations,
+            new OrganizationKey(name, clia, telephone, email, addr, country),
+            key ->
+                fhirConverter.convertToOrganization(
+                    id,
+                    key.name(),
+                    key.clia(),
+                    key.telephone(),
+                    key.email(),
+                    key.address(),
+                    key.country()),
+            Organization::copy);
+    org.setId(id);
+    return org;
+  }
+
+  /** The practitioner {@link FhirConverter#convertToPractitioner} would build. */
+  public Practitioner practitioner(
+      String id,
+      PersonName name,
+      String telephone,
+      StreetAddress addr,
+      String country,
+      String npi) {
+    Practitioner practitioner =
+        reuse(
+            practitioners,
+            new PractitionerKey(name, telephone, addr, country, npi),
+            key ->
+                fhirConverter.convertToPractitioner(
+                    id, key.name(), key.telephone(), key.address(), key.country(), key.npi()),
+            Practitioner::copy);
+    practitioner.setId(id);
+    return practitioner;
+  }
+
+  /** The device {@link FhirConverter#convertToDevice} would build. */
+  public Device device(
+      String manufacturer, String model, String id, String equipmentUid, String equipmentUidType) {
+    Device device =
+        reuse(
+            devices,
+            new DeviceKey(manufacturer, model, equipmentUid, equipmentUidType),
+            key ->
+                fhirConverter.convertToDevice(
+                    key.manufacturer(),
+                    key.model(),
+                    id,
+                    key.equipmentUid(),
+                    key.equipmentUidType()),
+            Device::copy);
+    device.setId(id);
+    return device;
+  }
+
+  int size() {
+    return organizations.size() + practitioners.size() + devices.size();
+  }
+
+  private static <K, R extends Resource> R reuse(
+      Map<K, R> built, K key, Function<K, R> build, UnaryOperator<R> copy) {
+    R template = built.get(key);
+    if (template != null) {
+      return copy.apply(template);
+    }
+    R resource = build.apply(key);
+    if (built.size() < MAX_ENTRIES_PER_TYPE && built.putIfAbsent(key, resource) == null) {
+      // the stored resource has to stay as built, so the caller gets a copy of it too
+      return copy.apply(resource);
+    }
+    return resource;
+  }
+}
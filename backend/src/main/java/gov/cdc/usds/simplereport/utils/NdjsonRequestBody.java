@@ -0,0 +1,47 @@
+package gov.cdc.usds.simplereport.utils;
+
+import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds newline delimited json request bodies for ReportStream. Lines are written straight into
+ * the byte array that is sent, optionally gzip compressed on the way, so an upload never has to
+ * exist as one large String as well.
+ */
+public final class NdjsonRequestBody {
+  private NdjsonRequestBody() {}
+
+  public static byte[] fromLines(Iterable<String> lines, boolean gzip) {
+    return encode(
+        gzip,
+        out -> {
+          boolean first = true;
+          for (String line : lines) {
+            if (!first) {
+              out.write('\n');
+            }
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            first = false;
+          }
+        });
+  }
+
+  private static byte[] encode(boolean gzip, BodyWriter bodyWriter) {
+    var body = new ByteArrayOutputStream();
+    try (OutputStream out = gzip ? new GZIPOutputStream(body) : body) {
+      bodyWriter.writeTo(out);
+    } catch (IOException e) {
+      throw new CsvProcessingException("Unable to build fhir request body");
+    }
+    return body.toByteArray();
+  }
+
+  @FunctionalInterface
+  private interface BodyWriter {
+    void writeTo(OutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,80 @@
+package gov.cdc.usds.simplereport.utils;
+
+import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects serialized FHIR bundles in a temporary newline delimited json file, one bundle per line,
+ * so a whole upload's worth of bundles never has to sit in memory at the same time.
+ */
+@Slf4j
+public class NdjsonSpool implements Closeable {
+  private final Path file;
+  private final BufferedWriter writer;
+  private Path gzippedFile;
+  @Getter private int lineCount;
+
+  public NdjsonSpool() {
+    try {
+      file = Files.createTempFile("sr-upload-", ".ndjson");
+      writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new CsvProcessingException("Unable to create temporary fhir file");
+    }
+  }
+
+  public synchronized void append(String line) {
+    try {
+      if (lineCount > 0) {
+        writer.write('\n');
+      }
+      writer.write(line);
+      lineCount++;
+    } catch (IOException e) {
+      throw new CsvProcessingException("Error writing fhir bundle");
+    }
+  }
+
+  /**
+   * Finishes writing and returns the file holding the spooled bundles, gzip compressed into a
+   * second temporary file if asked for. Both files are removed when the spool is closed.
+   */
+  public synchronized Path finish(boolean gzip) {
+    try {
+      writer.flush();
+      if (!gzip) {
+        return file;
+      }
+      if (gzippedFile == null) {
+        gzippedFile = Files.createTempFile("sr-upload-", ".ndjson.gz");
+        try (var out = new GZIPOutputStream(Files.newOutputStream(gzippedFile))) {
+          Files.copy(file, out);
+        }
+      }
+      return gzippedFile;
+    } catch (IOException e) {
+      throw new CsvProcessingException("Error writing fhir bundles");
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      writer.close();
+      Files.deleteIfExists(file);
+      if (gzippedFile != null) {
+        Files.deleteIfExists(gzippedFile);
+      }
+    } catch (IOException e) {
+      log.error("Unable to clean up temporary fhir file", e);
+    }
+  }
+}
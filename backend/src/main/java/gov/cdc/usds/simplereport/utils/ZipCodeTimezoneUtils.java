@@ -0,0 +1,85 @@
+package gov.cdc.usds.simplereport.utils;
+
+import java.time.ZoneId;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resolves the timezone of an address from the first three digits of its ZIP code, without a call
+ * to SmartyStreets. Only ZIP prefixes that fall entirely inside a single timezone are listed, so
+ * anything near a timezone boundary (e.g. the Florida panhandle, Tennessee, Texas, Indiana) or
+ * outside the contiguous states still gets a real address lookup.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ZipCodeTimezoneUtils {
+  private static final ZoneId EASTERN = ZoneId.of("US/Eastern");
+  private static final ZoneId CENTRAL = ZoneId.of("US/Central");
+  private static final ZoneId MOUNTAIN = ZoneId.of("US/Mountain");
+  private static final ZoneId PACIFIC = ZoneId.of("US/Pacific");
+  private static final ZoneId HAWAII = ZoneId.of("US/Hawaii");
+
+  private static final ZoneId[] zoneIdByZipPrefix = new ZoneId[1000];
+
+  static {
+    // New England, NY, NJ
+    put(5, 5, EASTERN);
+    put(10, 89, EASTERN);
+    // NY, PA, DE, DC, MD, VA, WV, NC, SC, GA
+    put(100, 319, EASTERN);
+    put(398, 399, EASTERN);
+    // OH
+    put(430, 459, EASTERN);
+
+    // AL, MS
+    put(350, 369, CENTRAL);
+    put(386, 397, CENTRAL);
+    // IA, WI, MN
+    put(500, 567, CENTRAL);
+    // IL, MO
+    put(600, 658, CENTRAL);
+    // LA, AR, OK
+    put(700, 749, CENTRAL);
+
+    // MT
+    put(590, 599, MOUNTAIN);
+    // CO, WY
+    put(800, 831, MOUNTAIN);
+    // UT
+    put(840, 847, MOUNTAIN);
+    // NM
+    put(870, 884, MOUNTAIN);
+
+    // CA
+    put(900, 961, PACIFIC);
+    // WA
+    put(980, 994, PACIFIC);
+
+    put(967, 968, HAWAII);
+  }
+
+  private static void put(int firstPrefix, int lastPrefix, ZoneId zoneId) {
+    for (int prefix = firstPrefix; prefix <= lastPrefix; prefix++) {
+      zoneIdByZipPrefix[prefix] = zoneId;
+    }
+  }
+
+  /**
+   * @param postalCode a five digit or ZIP+4 code
+   * @return the timezone for the whole ZIP prefix, or empty if it isn't known or spans timezones
+   */
+  public static Optional<ZoneId> getZoneIdByZipCode(String postalCode) {
+    if (postalCode == null) {
+      return Optional.empty();
+    }
+    String zip = postalCode.trim();
+    if (zip.length() < 5 || !Character.isDigit(zip.charAt(0))) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(zoneIdByZipPrefix[Integer.parseInt(zip.substring(0, 3))]);
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -42,7 +42,7 @@ import static gov.cdc.usds.simplereport.db.model.PersonUtils.SUBSTANCE_ABUSE_TRE
 import static gov.cdc.usds.simplereport.db.model.PersonUtils.WORK_ENVIRONMENT_LITERAL;
 import static gov.cdc.usds.simplereport.db.model.PersonUtils.WORK_ENVIRONMENT_SNOMED;
 import static gov.cdc.usds.simplereport.db.model.PersonUtils.getGenderIdentityAbbreviationMap;
-import static gov.cdc.usds.simplereport.utils.DateTimeUtils.TIMEZONE_SUFFIX_REGEX;
+import static gov.cdc.usds.simplereport.utils.DateTimeUtils.hasTimezoneSubstring;
 import static gov.cdc.usds.simplereport.utils.DateTimeUtils.validTimeZoneIdMap;
 
 import com.fasterxml.jackson.databind.MappingIterator;
@@ -69,23 +69,24 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
 
 public class CsvValidatorUtils {
 
-  private static final String ZIP_CODE_REGEX = "^[0-9]{5}(?:-[0-9]{4})?$";
-
-  /// 000-000-0000
-  private static final String PHONE_NUMBER_REGEX = "^[1-9]\\d{2}-\\d{3}-\\d{4}$";
+  // Patterns are compiled once rather than on every String.matches call, since every cell of
+  // every uploaded row goes through these. Fixed-width formats (ZIP codes, phone numbers, SNOMED
+  // codes) are checked character by character instead.
 
   // MM/DD/YYYY OR M/D/YYYY
   // Month and day values of 0 or 00 are invalid, but format of 01 to 09 is still allowed.
   // Months are limited to values between 1 and 12
   // Days are limited to values between 1 and 31
-  private static final String DATE_REGEX =
-      "^(0{0,1}[1-9]|1[0-2])\\/(0{0,1}[1-9]|1\\d|2\\d|3[01])\\/\\d{4}$";
+  private static final Pattern DATE_PATTERN =
+      Pattern.compile("^(0{0,1}[1-9]|1[0-2])\\/(0{0,1}[1-9]|1\\d|2\\d|3[01])\\/\\d{4}$");
 
   /**
    * Validates MM/DD/YYYY HH:mm, MM/DD/YYYY H:mm, M/D/YYYY HH:mm OR M/D/YYYY H:mm
@@ -94,14 +95,18 @@ public class CsvValidatorUtils {
    *
    * @see gov.cdc.usds.simplereport.utils.DateTimeUtils
    */
-  private static final String DATE_TIME_REGEX =
-      "^(0{0,1}[1-9]|1[0-2])\\/(0{0,1}[1-9]|1\\d|2\\d|3[01])\\/\\d{4}( ([0-1]?[0-9]|2[0-3]):[0-5][0-9]( \\S+)?)?$";
-
-  private static final String LOINC_CODE_REGEX = "([0-9]{5})-[0-9]";
-  private static final String EMAIL_REGEX = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
-  private static final String SNOMED_REGEX = "(^[0-9]{9}$)|(^[0-9]{15}$)";
-  private static final String CLIA_REGEX = "^[A-Za-z0-9]{2}[Dd][A-Za-z0-9]{7}$";
-  private static final String ALPHABET_REGEX = "^[a-zA-Z\\s]+$";
+  private static final Pattern DATE_TIME_PATTERN =
+      Pattern.compile(
+          "^(0{0,1}[1-9]|1[0-2])\\/(0{0,1}[1-9]|1\\d|2\\d|3[01])\\/\\d{4}("
+              + " ([0-1]?[0-9]|2[0-3]):[0-5][0-9]( \\S+)?)?$");
+
+  private static final Pattern LOINC_CODE_PATTERN = Pattern.compile("([0-9]{5})-[0-9]");
+  private static final Pattern EMAIL_PATTERN =
+      Pattern.compile("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+  private static final Pattern CLIA_PATTERN = Pattern.compile("^[A-Za-z0-9]{2}[Dd][A-Za-z0-9]{7}$");
+  private static final Pattern ALPHABET_PATTERN = Pattern.compile("^[a-zA-Z\\s]+$");
+  private static final List<FeedbackMessage> NO_ERRORS = Collections.emptyList();
+  private static final Set<String> AVAILABLE_ZONE_IDS = ZoneId.getAvailableZoneIds();
   private static final Set<String> VALID_STATE_CODES =
       Stream.concat(
               STATE_CODES.stream().map(String::toLowerCase),
@@ -265,23 +270,22 @@ public class CsvValidatorUtils {
   }
 
   public static List<FeedbackMessage> validateTestPerformedCode(ValueOrError input) {
-    return validateRegex(input, LOINC_CODE_REGEX);
+    return validateFormat(input, LOINC_CODE_PATTERN.asMatchPredicate());
   }
 
   public static List<FeedbackMessage> validateSpecimenType(
       ValueOrError input, Map<String, String> specimenNameSNOMEDMap) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = parseString(input.getValue());
 
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
 
-    boolean nonSNOMEDValue = value.matches(ALPHABET_REGEX);
+    boolean nonSNOMEDValue = ALPHABET_PATTERN.matcher(value).matches();
 
     if (nonSNOMEDValue) {
       if (!specimenNameSNOMEDMap.containsKey(value.toLowerCase())) {
-        errors.add(
+        return List.of(
             FeedbackMessage.builder()
                 .scope(ITEM_SCOPE)
                 .message(getInvalidValueErrorMessage(input.getValue(), input.getHeader()))
@@ -292,11 +296,11 @@ public class CsvValidatorUtils {
                 .build());
       }
 
-      return errors;
+      return NO_ERRORS;
     }
 
-    if (!value.matches(SNOMED_REGEX)) {
-      errors.add(
+    if (!isSnomedCode(value)) {
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .message(getInvalidValueErrorMessage(input.getValue(), input.getHeader()))
@@ -307,7 +311,7 @@ public class CsvValidatorUtils {
               .build());
     }
 
-    return errors;
+    return NO_ERRORS;
   }
 
   public static List<FeedbackMessage> validateResidence(ValueOrError input) {
@@ -376,11 +380,11 @@ public class CsvValidatorUtils {
   }
 
   public static List<FeedbackMessage> validateZipCode(ValueOrError input) {
-    return validateRegex(input, ZIP_CODE_REGEX);
+    return validateFormat(input, CsvValidatorUtils::isZipCode);
   }
 
   public static List<FeedbackMessage> validatePhoneNumber(ValueOrError input) {
-    return validateRegex(input, PHONE_NUMBER_REGEX);
+    return validateFormat(input, CsvValidatorUtils::isPhoneNumber);
   }
 
   public static List<FeedbackMessage> validatePhoneNumberType(ValueOrError input) {
@@ -392,19 +396,18 @@ public class CsvValidatorUtils {
   }
 
   public static List<FeedbackMessage> validateClia(ValueOrError input) {
-    return validateRegex(input, CLIA_REGEX);
+    return validateFormat(input, CLIA_PATTERN.asMatchPredicate());
   }
 
   public static List<FeedbackMessage> validateFlexibleDate(ValueOrError input) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = parseString(input.getValue());
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
     try {
       PAST_DATE_FLEXIBLE_FORMATTER.parse(input.getValue());
     } catch (DateTimeParseException e) {
-      errors.add(
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .fieldHeader(input.getHeader())
@@ -414,30 +417,27 @@ public class CsvValidatorUtils {
               .fieldRequired(input.isRequired())
               .build());
     }
-    return errors;
+    return NO_ERRORS;
   }
 
   public static List<FeedbackMessage> validateDateFormat(ValueOrError input) {
-    return validateRegex(input, DATE_REGEX);
+    return validateFormat(input, DATE_PATTERN.asMatchPredicate());
   }
 
   public static List<FeedbackMessage> validateDateTime(ValueOrError input) {
-    List<FeedbackMessage> errors = new ArrayList<>(validateRegex(input, DATE_TIME_REGEX));
-    if (input.getValue() != null
-        && errors.isEmpty()
-        && input.getValue().matches(TIMEZONE_SUFFIX_REGEX)) {
-      errors.addAll(validateDateTimeZoneCode(input));
+    List<FeedbackMessage> errors = validateFormat(input, DATE_TIME_PATTERN.asMatchPredicate());
+    if (input.getValue() != null && errors.isEmpty() && hasTimezoneSubstring(input.getValue())) {
+      return validateDateTimeZoneCode(input);
     }
     return errors;
   }
 
   public static List<FeedbackMessage> validateDateTimeZoneCode(ValueOrError input) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = input.getValue();
     String timezoneCode = value.substring(value.lastIndexOf(' ')).trim();
-    if (!ZoneId.getAvailableZoneIds().contains(timezoneCode)
+    if (!AVAILABLE_ZONE_IDS.contains(timezoneCode)
         && !validTimeZoneIdMap.containsKey(timezoneCode.toUpperCase())) {
-      errors.add(
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .fieldHeader(input.getHeader())
@@ -446,11 +446,11 @@ public class CsvValidatorUtils {
               .fieldRequired(false)
               .build());
     }
-    return errors;
+    return NO_ERRORS;
   }
 
   public static List<FeedbackMessage> validateEmail(ValueOrError input) {
-    return validateRegex(input, EMAIL_REGEX);
+    return validateFormat(input, EMAIL_PATTERN.asMatchPredicate());
   }
 
   public static Map<String, String> getNextRow(MappingIterator<Map<String, String>> valueIterator)
@@ -595,16 +595,15 @@ public class CsvValidatorUtils {
 
   private static List<FeedbackMessage> validateSpecificValueOrSNOMED(
       ValueOrError input, Set<String> acceptableValues) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = parseString(input.getValue());
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
-    boolean nonSNOMEDValue = value.matches(ALPHABET_REGEX);
+    boolean nonSNOMEDValue = ALPHABET_PATTERN.matcher(value).matches();
     if (nonSNOMEDValue) {
       return validateInSet(input, acceptableValues);
     }
-    return errors;
+    return NO_ERRORS;
   }
 
   public static Set<String> extractSubstringsGenderOfSexualPartners(String value) {
@@ -617,14 +616,13 @@ public class CsvValidatorUtils {
   }
 
   public static List<FeedbackMessage> validateGendersOfSexualPartners(ValueOrError input) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = parseString(input.getValue());
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
     Set<String> genders = extractSubstringsGenderOfSexualPartners(value);
     if (!getGenderIdentityAbbreviationMap().keySet().containsAll(genders)) {
-      errors.add(
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .fieldHeader(input.getHeader())
@@ -634,7 +632,7 @@ public class CsvValidatorUtils {
               .fieldRequired(input.isRequired())
               .build());
     }
-    return errors;
+    return NO_ERRORS;
   }
 
   public static List<FeedbackMessage> validatePositiveHIVRequiredAOEFields(
@@ -673,14 +671,14 @@ public class CsvValidatorUtils {
     return errors;
   }
 
-  private static List<FeedbackMessage> validateRegex(ValueOrError input, String regex) {
-    List<FeedbackMessage> errors = new ArrayList<>();
+  private static List<FeedbackMessage> validateFormat(
+      ValueOrError input, Predicate<String> isValidFormat) {
     String value = parseString(input.getValue());
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
-    if (!value.matches(regex)) {
-      errors.add(
+    if (!isValidFormat.test(value)) {
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .fieldHeader(input.getHeader())
@@ -690,18 +688,17 @@ public class CsvValidatorUtils {
               .fieldRequired(input.isRequired())
               .build());
     }
-    return errors;
+    return NO_ERRORS;
   }
 
   private static List<FeedbackMessage> validateInSet(
       ValueOrError input, Set<String> acceptableValues) {
-    List<FeedbackMessage> errors = new ArrayList<>();
     String value = parseString(input.getValue());
     if (value == null) {
-      return errors;
+      return NO_ERRORS;
     }
     if (!acceptableValues.contains(value.toLowerCase())) {
-      errors.add(
+      return List.of(
           FeedbackMessage.builder()
               .scope(ITEM_SCOPE)
               .fieldHeader(input.getHeader())
@@ -711,7 +708,40 @@ public class CsvValidatorUtils {
               .fieldRequired(input.isRequired())
               .build());
     }
-    return errors;
+    return NO_ERRORS;
+  }
+
+  /** 00000 or 00000-0000 */
+  private static boolean isZipCode(String value) {
+    return (value.length() == 5 || (value.length() == 10 && value.charAt(5) == '-'))
+        && isDigits(value, 0, 5)
+        && isDigits(value, 6, value.length());
+  }
+
+  /** 000-000-0000, where the area code can't start with 0 */
+  private static boolean isPhoneNumber(String value) {
+    return value.length() == 12
+        && value.charAt(0) != '0'
+        && isDigits(value, 0, 3)
+        && value.charAt(3) == '-'
+        && isDigits(value, 4, 7)
+        && value.charAt(7) == '-'
+        && isDigits(value, 8, 12);
+  }
+
+  /** 9 or 15 digits */
+  private static boolean isSnomedCode(String value) {
+    return (value.length() == 9 || value.length() == 15) && isDigits(value, 0, value.length());
+  }
+
+  private static boolean isDigits(String value, int beginIndex, int endIndex) {
+    for (int i = beginIndex; i < endIndex; i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
   }
 
   private static String parseString(String value) {
@@ -730,7 +760,7 @@ public class CsvValidatorUtils {
 
     public ValueOrError(String value, String header, boolean required) {
       this.value = value;
-      this.error = Collections.emptyList();
+      this.error = NO_ERRORS;
       this.header = header;
       this.required = required;
     }
@@ -0,0 +1,67 @@
+package gov.cdc.usds.simplereport.validators;
+
+import static gov.cdc.usds.simplereport.utils.AsyncLoggingUtils.withMDC;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool shared by every {@link FileValidator} for validating chunks of rows in parallel. With a
+ * parallelism of 1 there is no pool and files are validated on the uploading thread, as before.
+ */
+@Component
+public class FileValidationExecutor {
+  private final ThreadPoolExecutor executor;
+  @Getter private final int chunkSize;
+  @Getter private final int maxChunksInFlightPerFile;
+
+  public FileValidationExecutor(
+      @Value("${simple-report.bulk-upload.validation.parallelism:1}") int parallelism,
+      @Value("${simple-report.bulk-upload.validation.chunk-size:500}") int chunkSize,
+      MeterRegistry meterRegistry) {
+    this.chunkSize = chunkSize;
+    this.maxChunksInFlightPerFile = 2 * parallelism;
+    if (parallelism <= 1) {
+      this.executor = null;
+      return;
+    }
+    // once the queue is full the uploading thread validates the chunk itself
+    this.executor =
+        new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(4 * parallelism),
+            new CustomizableThreadFactory("file-validation-"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    new ExecutorServiceMetrics(executor, "file-validation", Tags.empty()).bindTo(meterRegistry);
+  }
+
+  public boolean isParallel() {
+    return executor != null;
+  }
+
+  <T> CompletableFuture<T> submit(Supplier<T> validation) {
+    return CompletableFuture.supplyAsync(withMDC(validation), executor);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
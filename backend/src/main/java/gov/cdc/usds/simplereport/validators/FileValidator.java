@@ -9,23 +9,54 @@ import gov.cdc.usds.simplereport.api.model.filerow.FileRow;
 import gov.cdc.usds.simplereport.db.model.auxiliary.ResultUploadErrorSource;
 import gov.cdc.usds.simplereport.service.model.reportstream.FeedbackMessage;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FileValidator<T extends FileRow> {
   private final Function<Map<String, String>, T> fileRowConstructor;
+  private final FileValidationExecutor validationExecutor;
 
   public FileValidator(Function<Map<String, String>, T> fileRowConstructor) {
+    this(fileRowConstructor, null);
+  }
+
+  /**
+   * @param validationExecutor when it's parallel, rows are validated in chunks on its pool
+   */
+  public FileValidator(
+      Function<Map<String, String>, T> fileRowConstructor,
+      FileValidationExecutor validationExecutor) {
     this.fileRowConstructor = fileRowConstructor;
+    this.validationExecutor = validationExecutor;
   }
 
   public List<FeedbackMessage> validate(InputStream csvStream) {
+    return validate(csvStream, (row, fileRow) -> {});
+  }
+
+  /**
+   * Validates the csv in a single pass, handing each parsed row to {@code validRowConsumer} as soon
+   * as it has been validated. Rows are only handed off while the file is still error free, since
+   * callers throw away anything they've built from the file once an error has been found.
+   *
+   * <p>Rows are always parsed on the calling thread. With a parallel {@link
+   * FileValidationExecutor}, they're then validated in chunks on its pool, and the results are
+   * merged back in file order on the calling thread, so the errors returned and the rows handed to
+   * {@code validRowConsumer} are exactly the same as when validating one row at a time.
+   */
+  public List<FeedbackMessage> validate(
+      InputStream csvStream, BiConsumer<Map<String, String>, T> validRowConsumer) {
     final MappingIterator<Map<String, String>> valueIterator = getIteratorForCsv(csvStream);
     var mapOfErrors = new HashMap<String, FeedbackMessage>();
 
@@ -39,46 +70,31 @@ public class FileValidator<T extends FileRow> {
       mergeErrors(mapOfErrors, new ArrayList<>(List.of(feedback)));
     }
 
-    var headerValidated = false;
+    var results = new ValidationResults(mapOfErrors, validRowConsumer);
+    boolean parallel = validationExecutor != null && validationExecutor.isParallel();
+    Deque<CompletableFuture<List<ValidatedRow<T>>>> chunksInFlight = new ArrayDeque<>();
+    List<ParsedRow> chunk = new ArrayList<>();
+
     while (valueIterator.hasNext()) {
-      final Map<String, String> row;
-      final var finalCurrentRow = valueIterator.getCurrentLocation().getLineNr();
-      try {
-        row = getNextRow(valueIterator);
-      } catch (CsvProcessingException ex) {
-        log.error("Unable to parse csv.", ex);
-        var rowNumber = ex.getLineNumber();
-        if (ex.getMessage().contains("Not enough column values") && valueIterator.hasNext()) {
-          rowNumber--;
-        }
-        var feedback =
-            FeedbackMessage.builder()
-                .scope(CsvValidatorUtils.ITEM_SCOPE)
-                .message(
-                    "File has the incorrect number of columns or empty rows. Please make sure all columns match the data template, and delete any empty rows.")
-                .indices(new ArrayList<>(List.of(rowNumber)))
-                .source(ResultUploadErrorSource.SIMPLE_REPORT)
-                .build();
-        mergeErrors(mapOfErrors, new ArrayList<>(List.of(feedback)));
+      var parsedRow = parseNextRow(valueIterator);
+      if (!parallel) {
+        results.add(validateRow(parsedRow));
         continue;
       }
-      var currentRowErrors = new ArrayList<FeedbackMessage>();
-
-      var fileRow = fileRowConstructor.apply(row);
-
-      if (!headerValidated) {
-        var errors = CsvValidatorUtils.hasMissingRequiredHeaders(row, fileRow);
-        mergeErrors(mapOfErrors, new ArrayList<>(errors));
-        headerValidated = true;
+      chunk.add(parsedRow);
+      if (chunk.size() >= validationExecutor.getChunkSize()) {
+        if (chunksInFlight.size() >= validationExecutor.getMaxChunksInFlightPerFile()) {
+          results.addAll(joinChunk(chunksInFlight.removeFirst()));
+        }
+        chunksInFlight.addLast(submitChunk(chunk));
+        chunk = new ArrayList<>();
       }
-
-      currentRowErrors.addAll(fileRow.validateRequiredFields());
-      currentRowErrors.addAll(fileRow.validateIndividualValues());
-
-      currentRowErrors.forEach(
-          error -> error.setIndices(new ArrayList<>(List.of(finalCurrentRow))));
-
-      mergeErrors(mapOfErrors, currentRowErrors);
+    }
+    if (!chunk.isEmpty()) {
+      chunksInFlight.addLast(submitChunk(chunk));
+    }
+    while (!chunksInFlight.isEmpty()) {
+      results.addAll(joinChunk(chunksInFlight.removeFirst()));
     }
 
     var errors = new ArrayList<>(mapOfErrors.values());
@@ -94,6 +110,60 @@ public class FileValidator<T extends FileRow> {
     return errors;
   }
 
+  private ParsedRow parseNextRow(MappingIterator<Map<String, String>> valueIterator) {
+    final var currentRow = valueIterator.getCurrentLocation().getLineNr();
+    try {
+      return new ParsedRow(currentRow, getNextRow(valueIterator), null);
+    } catch (CsvProcessingException ex) {
+      log.error("Unable to parse csv.", ex);
+      var rowNumber = ex.getLineNumber();
+      if (ex.getMessage().contains("Not enough column values") && valueIterator.hasNext()) {
+        rowNumber--;
+      }
+      var feedback =
+          FeedbackMessage.builder()
+              .scope(CsvValidatorUtils.ITEM_SCOPE)
+              .message(
+                  "File has the incorrect number of columns or empty rows. Please make sure all columns match the data template, and delete any empty rows.")
+              .indices(new ArrayList<>(List.of(rowNumber)))
+              .source(ResultUploadErrorSource.SIMPLE_REPORT)
+              .build();
+      return new ParsedRow(currentRow, null, feedback);
+    }
+  }
+
+  private ValidatedRow<T> validateRow(ParsedRow parsedRow) {
+    if (parsedRow.row() == null) {
+      return new ValidatedRow<>(null, null, new ArrayList<>(List.of(parsedRow.parseError())));
+    }
+    var currentRowErrors = new ArrayList<FeedbackMessage>();
+
+    var fileRow = fileRowConstructor.apply(parsedRow.row());
+
+    currentRowErrors.addAll(fileRow.validateRequiredFields());
+    currentRowErrors.addAll(fileRow.validateIndividualValues());
+
+    currentRowErrors.forEach(
+        error -> error.setIndices(new ArrayList<>(List.of(parsedRow.lineNumber()))));
+
+    return new ValidatedRow<>(parsedRow.row(), fileRow, currentRowErrors);
+  }
+
+  private CompletableFuture<List<ValidatedRow<T>>> submitChunk(List<ParsedRow> chunk) {
+    return validationExecutor.submit(() -> chunk.stream().map(this::validateRow).toList());
+  }
+
+  private List<ValidatedRow<T>> joinChunk(CompletableFuture<List<ValidatedRow<T>>> validatedChunk) {
+    try {
+      return validatedChunk.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
   private void mergeErrors(
       HashMap<String, FeedbackMessage> mapOfErrors, ArrayList<FeedbackMessage> currentRowErrors) {
     currentRowErrors.forEach(
@@ -106,4 +176,48 @@ public class FileValidator<T extends FileRow> {
                   return e1;
                 }));
   }
+
+  /** A csv row, or the error from failing to parse it. */
+  private record ParsedRow(int lineNumber, Map<String, String> row, FeedbackMessage parseError) {}
+
+  private record ValidatedRow<T>(
+      Map<String, String> row, T fileRow, ArrayList<FeedbackMessage> errors) {}
+
+  /** Merges validated rows into the file's errors, one row at a time and in file order. */
+  private class ValidationResults {
+    private final HashMap<String, FeedbackMessage> mapOfErrors;
+    private final BiConsumer<Map<String, String>, T> validRowConsumer;
+    private boolean headerValidated = false;
+
+    private ValidationResults(
+        HashMap<String, FeedbackMessage> mapOfErrors,
+        BiConsumer<Map<String, String>, T> validRowConsumer) {
+      this.mapOfErrors = mapOfErrors;
+      this.validRowConsumer = validRowConsumer;
+    }
+
+    private void addAll(List<ValidatedRow<T>> validatedRows) {
+      validatedRows.forEach(this::add);
+    }
+
+    private void add(ValidatedRow<T> validatedRow) {
+      if (validatedRow.row() == null) {
+        mergeErrors(mapOfErrors, validatedRow.errors());
+        return;
+      }
+
+      if (!headerValidated) {
+        var errors =
+            CsvValidatorUtils.hasMissingRequiredHeaders(validatedRow.row(), validatedRow.fileRow());
+        mergeErrors(mapOfErrors, new ArrayList<>(errors));
+        headerValidated = true;
+      }
+
+      if (mapOfErrors.isEmpty() && validatedRow.errors().isEmpty()) {
+        validRowConsumer.accept(validatedRow.row(), validatedRow.fileRow());
+      }
+
+      mergeErrors(mapOfErrors, validatedRow.errors());
+    }
+  }
 }
@@ -10,7 +10,10 @@ import gov.cdc.usds.simplereport.config.simplereport.DemoUserConfiguration;
 import gov.cdc.usds.simplereport.idp.repository.DemoOktaRepository;
 import gov.cdc.usds.simplereport.service.AddressValidationService;
 import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
+import gov.cdc.usds.simplereport.service.model.UnvalidatedAddress;
 import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.util.Collection;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
@@ -72,6 +75,14 @@ public abstract class BaseAuthenticatedFullStackTest extends BaseFullStackTest {
     when(addressValidationService.getValidatedAddress(any())).thenReturn(getAddress());
     when(addressValidationService.getValidatedAddress(any(), any(), any(), any(), any()))
         .thenReturn(getAddress());
+    when(addressValidationService.getValidatedAddresses(any()))
+        .thenAnswer(
+            invocation -> {
+              Collection<UnvalidatedAddress> addresses = invocation.getArgument(0);
+              return addresses.stream()
+                  .distinct()
+                  .collect(Collectors.toMap(Function.identity(), address -> getAddress()));
+            });
     TestUserIdentities.withStandardUser(organizationInitializingService::initAll);
     useOrgUser();
     assertNull(
@@ -3,10 +3,12 @@ package gov.cdc.usds.simplereport.api;
 import static gov.cdc.usds.simplereport.api.uploads.FileUploadController.TEXT_CSV_CONTENT_TYPE;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.PATIENT_UPLOAD;
 import static gov.cdc.usds.simplereport.config.WebConfiguration.RESULT_UPLOAD;
+import static gov.cdc.usds.simplereport.config.WebConfiguration.RESULT_UPLOAD_JOB;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -18,10 +20,13 @@ import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
 import gov.cdc.usds.simplereport.api.uploads.PatientBulkUploadResponse;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.TestResultUpload;
+import gov.cdc.usds.simplereport.db.model.UploadJob;
 import gov.cdc.usds.simplereport.db.model.auxiliary.Pipeline;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.UploadStatus;
 import gov.cdc.usds.simplereport.service.PatientBulkUploadService;
 import gov.cdc.usds.simplereport.service.TestResultUploadService;
+import gov.cdc.usds.simplereport.service.UploadJobService;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -39,6 +44,7 @@ class FileUploadControllerTest extends BaseFullStackTest {
   @Autowired private MockMvc mockMvc;
   @MockBean private PatientBulkUploadService patientBulkUploadService;
   @MockBean private TestResultUploadService testResultUploadService;
+  @MockBean private UploadJobService uploadJobService;
 
   @Test
   void patientsUploadTest_happy() throws Exception {
@@ -186,6 +192,26 @@ class FileUploadControllerTest extends BaseFullStackTest {
         .andReturn();
   }
 
+  @Test
+  void resultsUploadJobTest_returnsJobWithoutWaitingForProcessing() throws Exception {
+    UUID jobId = UUID.randomUUID();
+    UploadJob job = mock(UploadJob.class);
+    when(job.getInternalId()).thenReturn(jobId);
+    when(job.getStatus()).thenReturn(UploadJobStatus.QUEUED);
+    when(uploadJobService.submitResultsUpload(any(InputStream.class))).thenReturn(job);
+
+    MockMultipartFile file =
+        new MockMultipartFile(
+            "file", "results.csv", TEXT_CSV_CONTENT_TYPE, "csvContent".getBytes());
+
+    mockMvc
+        .perform(multipart(RESULT_UPLOAD_JOB).file(file))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.jobId", Matchers.is(jobId.toString())))
+        .andExpect(jsonPath("$.status", Matchers.is("QUEUED")));
+    verifyNoInteractions(testResultUploadService);
+  }
+
   @Test
   void resultsUploadTest_IOException() throws Exception {
     MockMultipartFile mock = mock(MockMultipartFile.class);
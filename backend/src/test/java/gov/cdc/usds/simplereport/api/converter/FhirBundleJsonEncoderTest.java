@@ -0,0 +1,139 @@
+package gov.cdc.usds.simplereport.api.converter;
+
+import static gov.cdc.usds.simplereport.test_util.JsonTestUtils.assertJsonNodesEqual;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeType;
+import org.hl7.fhir.r4.model.Location;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Quantity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FhirBundleJsonEncoderTest {
+  private final FhirContext ctx = FhirContext.forR4();
+  private final IParser parser = ctx.newJsonParser();
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final FhirBundleJsonEncoder encoder = new FhirBundleJsonEncoder(ctx);
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "fhir/bundle.json",
+        "fhir/bundle-integration-testing.json",
+        "fhir/bundles-upload-integration-testing.ndjson",
+        "fhir/condition-agnostic-bundles-upload-integration-testing.ndjson",
+        "fhir/condition-agnostic-intentionally-absent-name.ndjson",
+        "testResultUpload/fhir-for-csv-with-comments.ndjson",
+        "testResultUpload/fhir-for-csv-with-flu-only.ndjson",
+        "testResultUpload/fhir-for-csv-with-specimenType-loinc.ndjson",
+        "testResultUpload/test-results-upload-valid-as-fhir.json",
+        "testResultUpload/test-results-upload-valid-as-fhir.ndjson"
+      })
+  void encodeToString_goldenBundles_sameAsHapi(String path) throws IOException {
+    List<JsonNode> expectedBundles = readBundles(path);
+    assertThat(expectedBundles).isNotEmpty();
+
+    for (JsonNode expected : expectedBundles) {
+      Bundle bundle = parser.parseResource(Bundle.class, expected.toString());
+      assertThat(encoder.supports(bundle)).isTrue();
+
+      String encoded = encoder.encodeToString(bundle);
+
+      assertThat(encoded).isEqualTo(parser.encodeResourceToString(bundle));
+      assertJsonNodesEqual(expected, mapper.readTree(encoded));
+    }
+  }
+
+  @Test
+  void encode_toStream_sameAsHapi() throws IOException {
+    Bundle bundle =
+        parser.parseResource(Bundle.class, readBundles("fhir/bundle.json").get(0).toString());
+    var out = new ByteArrayOutputStream();
+
+    encoder.encode(bundle, out);
+
+    assertThat(out.toString(StandardCharsets.UTF_8))
+        .isEqualTo(parser.encodeResourceToString(bundle));
+  }
+
+  @Test
+  void encodeToString_unknownResource_encodedByHapi() throws IOException {
+    Bundle bundle =
+        parser.parseResource(Bundle.class, readBundles("fhir/bundle.json").get(0).toString());
+    bundle.addEntry().setFullUrl("Location/1").setResource(new Location().setName("Lab"));
+
+    assertThat(encoder.supports(bundle)).isFalse();
+    assertThat(encoder.encodeToString(bundle)).isEqualTo(parser.encodeResourceToString(bundle));
+    assertThatThrownBy(() -> encoder.encode(bundle, new ByteArrayOutputStream()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void encodeToString_unknownValueType_encodedByHapi() throws IOException {
+    Bundle bundle =
+        parser.parseResource(Bundle.class, readBundles("fhir/bundle.json").get(0).toString());
+    var observation =
+        bundle.getEntry().stream()
+            .map(Bundle.BundleEntryComponent::getResource)
+            .filter(Observation.class::isInstance)
+            .map(Observation.class::cast)
+            .findFirst()
+            .orElseThrow();
+    observation.setValue(new Quantity(12.50).setUnit("mg"));
+
+    assertThat(encoder.supports(bundle)).isTrue();
+    assertThat(encoder.encodeToString(bundle)).isEqualTo(parser.encodeResourceToString(bundle));
+  }
+
+  @Test
+  void encodeToString_primitiveWithExtensionOrId_encodedByHapi() throws IOException {
+    Bundle bundle =
+        parser.parseResource(Bundle.class, readBundles("fhir/bundle.json").get(0).toString());
+    var patient =
+        bundle.getEntry().stream()
+            .map(Bundle.BundleEntryComponent::getResource)
+            .filter(Patient.class::isInstance)
+            .map(Patient.class::cast)
+            .findFirst()
+            .orElseThrow();
+    patient
+        .getBirthDateElement()
+        .addExtension(
+            "http://hl7.org/fhir/StructureDefinition/data-absent-reason", new CodeType("masked"));
+    patient.getGenderElement().setId("gender");
+
+    String encoded = encoder.encodeToString(bundle);
+
+    assertThat(encoded)
+        .isEqualTo(parser.encodeResourceToString(bundle))
+        .contains("\"_birthDate\"")
+        .contains("\"_gender\"");
+  }
+
+  /** The golden files hold one or more bundles, not always one per line. */
+  private List<JsonNode> readBundles(String path) throws IOException {
+    List<JsonNode> bundles = new ArrayList<>();
+    try (InputStream stream =
+            Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream(path));
+        var values = mapper.readerFor(JsonNode.class).<JsonNode>readValues(stream)) {
+      values.forEachRemaining(bundles::add);
+    }
+    return bundles;
+  }
+}
@@ -0,0 +1,78 @@
+package gov.cdc.usds.simplereport.api.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TestQueueEventStreamTest {
+  private final ExecutorService senders = Executors.newSingleThreadExecutor();
+  private final SseEmitter emitter = mock(SseEmitter.class);
+
+  @AfterEach
+  void cleanup() {
+    senders.shutdownNow();
+  }
+
+  @Test
+  void sendVersion_clientStalled_doesNotWaitAndSendsOnlyNewestVersion() throws Exception {
+    var stream = new TestQueueEventStream(emitter, senders);
+    var writeStarted = new CountDownLatch(1);
+    var clientReading = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              writeStarted.countDown();
+              clientReading.await();
+              return null;
+            })
+        .doNothing()
+        .when(emitter)
+        .send(any(SseEmitter.SseEventBuilder.class));
+
+    stream.sendVersion(1);
+    assertThat(writeStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    // none of these wait for the stuck write
+    stream.sendVersion(3);
+    stream.sendVersion(2);
+    stream.sendHeartbeat();
+    clientReading.countDown();
+
+    var events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+    verify(emitter, timeout(10_000).times(3)).send(events.capture());
+    List<String> sent = events.getAllValues().stream().map(this::text).toList();
+    assertThat(sent.get(0)).contains("id:1\n");
+    assertThat(sent.get(1)).contains("id:3\n");
+    assertThat(sent.get(2)).contains(":heartbeat\n");
+  }
+
+  @Test
+  void sendFirstVersion_sentRightAway() throws Exception {
+    var stream = new TestQueueEventStream(emitter, senders);
+
+    stream.sendFirstVersion(7);
+
+    var event = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+    verify(emitter).send(event.capture());
+    assertThat(text(event.getValue()))
+        .isEqualTo("event:" + TestQueueEventsController.QUEUE_CHANGED_EVENT + "\nid:7\ndata:7\n\n");
+  }
+
+  private String text(SseEmitter.SseEventBuilder event) {
+    return event.build().stream()
+        .map(part -> part.getData().toString())
+        .collect(Collectors.joining());
+  }
+}
@@ -0,0 +1,92 @@
+package gov.cdc.usds.simplereport.api.queue;
+
+import static gov.cdc.usds.simplereport.config.WebConfiguration.TEST_QUEUE_EVENTS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import gov.cdc.usds.simplereport.api.BaseAuthenticatedFullStackTest;
+import gov.cdc.usds.simplereport.service.TestQueueChangeListener;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+class TestQueueEventsControllerTest extends BaseAuthenticatedFullStackTest {
+
+  @Autowired private MockMvc mockMvc;
+  @MockBean private TestQueueChangeListener changeListener;
+
+  private final Runnable unsubscribe = mock(Runnable.class);
+  private UUID facilityId;
+
+  @BeforeEach
+  void setup() {
+    AtomicReference<UUID> facility = new AtomicReference<>();
+    TestUserIdentities.withStandardUser(
+        () ->
+            facility.set(
+                _orgService
+                    .getFacilities(_orgService.getCurrentOrganization())
+                    .get(0)
+                    .getInternalId()));
+    facilityId = facility.get();
+    when(changeListener.subscribe(any(), any())).thenReturn(unsubscribe);
+  }
+
+  @Test
+  void streamQueueEvents_facilityInAnotherOrg_forbiddenAndNotSubscribed() throws Exception {
+    useOutsideOrgAdmin();
+
+    mockMvc.perform(streamRequest()).andExpect(status().isForbidden());
+
+    verifyNoInteractions(changeListener);
+  }
+
+  @Test
+  void streamQueueEvents_firstEventIsCurrentVersion() throws Exception {
+    useOrgAdmin();
+
+    MvcResult result =
+        mockMvc.perform(streamRequest()).andExpect(request().asyncStarted()).andReturn();
+
+    // nothing has been queued yet
+    assertThat(result.getResponse().getContentAsString())
+        .startsWith("event:" + TestQueueEventsController.QUEUE_CHANGED_EVENT + "\nid:0\ndata:0\n");
+    verify(changeListener).subscribe(eq(facilityId), any());
+    verify(unsubscribe, never()).run();
+  }
+
+  @Test
+  void streamQueueEvents_streamCompleted_unsubscribed() throws Exception {
+    useOrgAdmin();
+    MvcResult result =
+        mockMvc.perform(streamRequest()).andExpect(request().asyncStarted()).andReturn();
+
+    result.getRequest().getAsyncContext().complete();
+
+    verify(unsubscribe).run();
+  }
+
+  private MockHttpServletRequestBuilder streamRequest() {
+    return get(TEST_QUEUE_EVENTS)
+        .param("facilityId", facilityId.toString())
+        .accept(MediaType.TEXT_EVENT_STREAM)
+        .headers(headers -> headers.setBearerAuth(getBearerAuth()));
+  }
+}
@@ -26,7 +26,7 @@ class ResultResolverTest {
     // WHEN
     when(resultService.getOrganizationResults(null, null, null, null, null, null, 0, 20))
         .thenReturn(Page.empty());
-    sut.resultsPage(null, null, null, null, null, null, null, 0, 20);
+    sut.resultsPage(null, null, null, null, null, null, null, 0, 20, null);
 
     // THEN
     verify(resultService, times(1))
@@ -45,7 +45,7 @@ class ResultResolverTest {
     // WHEN
     when(resultService.getFacilityResults(facilityId, null, null, null, null, null, null, 0, 20))
         .thenReturn(Page.empty());
-    sut.resultsPage(facilityId, null, null, null, null, null, null, 0, 20);
+    sut.resultsPage(facilityId, null, null, null, null, null, null, 0, 20, null);
 
     // THEN
     verify(resultService, times(1))
@@ -0,0 +1,83 @@
+package gov.cdc.usds.simplereport.config;
+
+import static gov.cdc.usds.simplereport.config.CachingConfig.ADDRESS_TIMEZONE_LOOKUP_MAP;
+import static gov.cdc.usds.simplereport.config.CachingConfig.SUPPORTED_DISEASE_ID_MAP;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.cdc.usds.simplereport.config.CacheProperties.CacheSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+class CachingConfigTest {
+
+  @Test
+  void applicationYaml_hasSpecForEveryCache() throws IOException {
+    var environment = new StandardEnvironment();
+    new YamlPropertySourceLoader()
+        .load("application", new ClassPathResource("application.yaml"))
+        .forEach(source -> environment.getPropertySources().addLast(source));
+
+    CacheProperties properties =
+        new Binder(ConfigurationPropertySources.get(environment))
+            .bind("simple-report.caches", CacheProperties.class)
+            .get();
+
+    CachingConfig.CACHE_NAMES.forEach(
+        name -> assertThat(properties.getSpec(name)).isNotSameAs(CacheSpec.DEFAULT));
+    assertThat(properties.getSpec(ADDRESS_TIMEZONE_LOOKUP_MAP))
+        .isEqualTo(new CacheSpec(50000L, Duration.ofDays(30)));
+  }
+
+  @Test
+  void cacheManager_buildsBoundedCaffeineCacheForEveryName() {
+    var cacheManager =
+        (SimpleCacheManager) new CachingConfig().cacheManager(new CacheProperties(null));
+    cacheManager.afterPropertiesSet();
+
+    assertThat(cacheManager.getCacheNames())
+        .containsExactlyInAnyOrderElementsOf(CachingConfig.CACHE_NAMES);
+    var cache = (CaffeineCache) cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP);
+    assertThat(cache.getNativeCache().policy().eviction())
+        .hasValueSatisfying(eviction -> assertThat(eviction.getMaximum()).isEqualTo(1000L));
+    assertThat(cache.getNativeCache().policy().isRecordingStats()).isTrue();
+  }
+
+  @Test
+  void cacheLoadMetrics_publishesLoadCountAndTimeForEveryCache() {
+    var cacheManager =
+        (SimpleCacheManager) new CachingConfig().cacheManager(new CacheProperties(null));
+    cacheManager.afterPropertiesSet();
+    var meterRegistry = new SimpleMeterRegistry();
+    new CachingConfig().cacheLoadMetrics(cacheManager).bindTo(meterRegistry);
+
+    var cache = cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP);
+    cache.get("key", () -> "value");
+    cache.get("key", () -> "other value");
+
+    assertThat(
+            meterRegistry
+                .get("cache.load")
+                .tags("cache", ADDRESS_TIMEZONE_LOOKUP_MAP, "result", "success")
+                .functionCounter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get("cache.load.duration")
+                .tag("cache", ADDRESS_TIMEZONE_LOOKUP_MAP)
+                .timeGauge()
+                .value())
+        .isPositive();
+    assertThat(meterRegistry.find("cache.load").tag("cache", SUPPORTED_DISEASE_ID_MAP).meters())
+        .hasSize(2);
+  }
+}
@@ -22,8 +22,8 @@ import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import jakarta.persistence.PersistenceException;
 import java.time.LocalDate;
 import java.util.List;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 class TestOrderRepositoryTest extends BaseRepositoryTest {
@@ -158,7 +158,8 @@ class TestOrderRepositoryTest extends BaseRepositoryTest {
             () -> {
               flush();
             });
-    assertEquals(PSQLException.class, caught.getCause().getClass());
+    assertEquals(ConstraintViolationException.class, caught.getClass());
+    assertEquals("23505", ((ConstraintViolationException) caught).getSQLState());
   }
 
   @Test
@@ -12,9 +12,9 @@ import gov.cdc.usds.simplereport.db.model.TextMessageSent;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import jakarta.persistence.PersistenceException;
 import java.util.stream.StreamSupport;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 class TextMessageSentRepositoryTest extends BaseRepositoryTest {
@@ -62,6 +62,7 @@ class TextMessageSentRepositoryTest extends BaseRepositoryTest {
               flush();
             });
 
-    assertEquals(PSQLException.class, caught.getCause().getClass());
+    assertEquals(ConstraintViolationException.class, caught.getClass());
+    assertEquals("23505", ((ConstraintViolationException) caught).getSQLState());
   }
 }
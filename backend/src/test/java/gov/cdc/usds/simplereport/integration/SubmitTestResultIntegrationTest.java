@@ -11,6 +11,7 @@ import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.auxiliary.MultiplexResultInput;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.service.TestEventReportOutboxDispatcher;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -23,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import reactor.core.publisher.Mono;
@@ -34,6 +36,8 @@ class SubmitTestResultIntegrationTest extends BaseGraphqlTest {
   @MockBean(name = "mockClient")
   QueueAsyncClient queueAsyncClient;
 
+  @Autowired TestEventReportOutboxDispatcher outboxDispatcher;
+
   @Captor ArgumentCaptor<String> fhirMessageCaptor;
 
   @Test
@@ -54,6 +58,7 @@ class SubmitTestResultIntegrationTest extends BaseGraphqlTest {
 
     addPatientToQueue(facility, patient);
     submitTestResult(facility, patient);
+    outboxDispatcher.dispatchPendingReports();
 
     verify(queueAsyncClient).sendMessage(fhirMessageCaptor.capture());
     String queuedFhirMessage = maskUUIDs(fhirMessageCaptor.getValue());
@@ -1,23 +1,37 @@
 package gov.cdc.usds.simplereport.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
 import com.smartystreets.api.us_street.Metadata;
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.service.errors.InvalidAddressException;
 import gov.cdc.usds.simplereport.service.model.TimezoneInfo;
+import gov.cdc.usds.simplereport.service.model.UnvalidatedAddress;
 import java.io.IOException;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -103,6 +117,162 @@ class AddressValidationServiceTest {
     assertThrows(InvalidAddressException.class, () -> s.getTimezoneInfoByLookup(lookup));
   }
 
+  @Test
+  void getZoneIdsByAddress_sendsLookupsInBatches()
+      throws SmartyException, IOException, InterruptedException {
+    Client client = mock(Client.class);
+    List<Integer> batchSizes = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              Batch batch = invocation.getArgument(0);
+              batchSizes.add(batch.size());
+              for (Lookup lookup : batch.getAllLookups()) {
+                ArrayList<Candidate> results = new ArrayList<>();
+                if (!lookup.getStreet().startsWith("0 ")) {
+                  results.add(getMockTimeZoneInfoResult());
+                }
+                lookup.setResult(results);
+              }
+              return null;
+            })
+        .when(client)
+        .send(isA(Batch.class));
+    s = new AddressValidationService(client);
+
+    List<StreetAddress> addresses =
+        IntStream.range(0, 150)
+            .mapToObj(i -> new StreetAddress(i + " Main St", null, "Austin", "TX", "78701", null))
+            .toList();
+    Map<StreetAddress, ZoneId> zoneIds = s.getZoneIdsByAddress(addresses);
+
+    assertThat(batchSizes).containsExactly(100, 50);
+    assertThat(zoneIds).hasSize(150).containsEntry(addresses.get(0), null);
+    assertThat(zoneIds.get(addresses.get(149))).isEqualTo(ZoneId.of("US/Central"));
+    verify(client, never()).send(isA(Lookup.class));
+  }
+
+  @Test
+  void getZoneIdsByAddress_leavesOutInvalidStates()
+      throws SmartyException, IOException, InterruptedException {
+    Client client = standInClient(new ArrayList<>(), () -> {});
+    s = new AddressValidationService(client);
+    StreetAddress valid = new StreetAddress("1 Main St", null, "Austin", "TX", "78701", null);
+
+    Map<StreetAddress, ZoneId> zoneIds =
+        s.getZoneIdsByAddress(
+            List.of(valid, new StreetAddress("1 Main St", null, "Nowhere", "ZZ", "00000", null)));
+
+    assertThat(zoneIds).containsOnlyKeys(valid);
+  }
+
+  @Test
+  void getZoneIdsByAddress_failedBatch_throws()
+      throws SmartyException, IOException, InterruptedException {
+    Client client = mock(Client.class);
+    doThrow(new SmartyException("unavailable")).when(client).send(isA(Batch.class));
+    s = new AddressValidationService(client);
+
+    List<StreetAddress> addresses =
+        List.of(new StreetAddress("1 Main St", null, "Austin", "TX", "78701", null));
+
+    assertThrows(IllegalGraphqlArgumentException.class, () -> s.getZoneIdsByAddress(addresses));
+  }
+
+  @Test
+  void getValidatedAddresses_looksUpEachDistinctAddressOnceInBatches()
+      throws SmartyException, IOException, InterruptedException {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    Client client = standInClient(batchSizes, () -> {});
+    s = new AddressValidationService(client);
+
+    List<UnvalidatedAddress> addresses =
+        IntStream.range(0, 250)
+            .mapToObj(
+                i -> new UnvalidatedAddress((i % 120) + " Main St", null, "Austin", "TX", "78701"))
+            .toList();
+    Map<UnvalidatedAddress, StreetAddress> validated = s.getValidatedAddresses(addresses);
+
+    assertThat(batchSizes).containsExactly(100, 20);
+    assertThat(validated).hasSize(120);
+    assertThat(validated.get(addresses.get(0)).getCounty()).isEmpty();
+    StreetAddress address = validated.get(addresses.get(119));
+    assertThat(address.getStreetOne()).isEqualTo("119 Main St");
+    assertThat(address.getCounty()).isEqualTo("Travis");
+    verify(client, never()).send(isA(Lookup.class));
+  }
+
+  @Test
+  void getValidatedAddresses_sendsBatchesConcurrently()
+      throws SmartyException, IOException, InterruptedException {
+    CountDownLatch allBatchesSent = new CountDownLatch(3);
+    Client client =
+        standInClient(
+            new ArrayList<>(),
+            () -> {
+              // every batch waits for the others, so this only finishes if they overlap
+              allBatchesSent.countDown();
+              allBatchesSent.await(10, TimeUnit.SECONDS);
+            });
+    s = new AddressValidationService(client, 3);
+
+    List<UnvalidatedAddress> addresses =
+        IntStream.range(1, 301)
+            .mapToObj(i -> new UnvalidatedAddress(i + " Main St", null, "Austin", "TX", "78701"))
+            .toList();
+    Map<UnvalidatedAddress, StreetAddress> validated = s.getValidatedAddresses(addresses);
+
+    assertThat(allBatchesSent.getCount()).isZero();
+    assertThat(validated).hasSize(300);
+    s.shutdown();
+  }
+
+  @Test
+  void getValidatedAddresses_failedBatch_throws()
+      throws SmartyException, IOException, InterruptedException {
+    Client client = mock(Client.class);
+    doThrow(new SmartyException("unavailable")).when(client).send(isA(Batch.class));
+    s = new AddressValidationService(client);
+
+    List<UnvalidatedAddress> addresses =
+        List.of(new UnvalidatedAddress("1 Main St", null, "Austin", "TX", "78701"));
+
+    assertThrows(IllegalGraphqlArgumentException.class, () -> s.getValidatedAddresses(addresses));
+  }
+
+  /**
+   * Answers batches the way SmartyStreets would: addresses on "0 ..." streets have no match, and
+   * everything else is in Travis county.
+   */
+  private Client standInClient(List<Integer> batchSizes, BatchHook beforeAnswering)
+      throws SmartyException, IOException, InterruptedException {
+    Client client = mock(Client.class);
+    doAnswer(
+            invocation -> {
+              Batch batch = invocation.getArgument(0);
+              batchSizes.add(batch.size());
+              beforeAnswering.run();
+              for (Lookup lookup : batch.getAllLookups()) {
+                ArrayList<Candidate> results = new ArrayList<>();
+                if (!lookup.getStreet().startsWith("0 ")) {
+                  Metadata metadata = mock(Metadata.class);
+                  when(metadata.getCountyName()).thenReturn("Travis");
+                  Candidate result = mock(Candidate.class);
+                  when(result.getMetadata()).thenReturn(metadata);
+                  results.add(result);
+                }
+                lookup.setResult(results);
+              }
+              return null;
+            })
+        .when(client)
+        .send(isA(Batch.class));
+    return client;
+  }
+
+  private interface BatchHook {
+    void run() throws InterruptedException;
+  }
+
   private Candidate getMockTimeZoneInfoResult() {
     Metadata metadata = mock(Metadata.class);
     when(metadata.getTimeZone()).thenReturn("Central");
@@ -0,0 +1,92 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.db.repository.ApiUserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class ApiUserLastSeenTrackerTest extends BaseServiceTest<ApiUserLastSeenTracker> {
+
+  @Autowired private ApiUserRepository _apiUserRepo;
+
+  @BeforeEach
+  void drainSightingsFromSetup() {
+    _service.flush();
+  }
+
+  @Test
+  void recordSeen_neverSeen_writtenOnFlush() {
+    ApiUser user = saveUser("never-seen@example.com", null);
+
+    _service.recordSeen(user);
+
+    assertThat(_apiUserRepo.findById(user.getInternalId()).get().getLastSeen()).isNull();
+    assertThat(_service.flush()).isEqualTo(1);
+    assertThat(_apiUserRepo.findById(user.getInternalId()).get().getLastSeen())
+        .isCloseTo(new Date(), Duration.ofMinutes(2).toMillis());
+  }
+
+  @Test
+  void recordSeen_seenWithinMinimumChange_notWritten() {
+    Date recently = Date.from(Instant.now().minus(1, ChronoUnit.MINUTES));
+    ApiUser user = saveUser("recently-seen@example.com", recently);
+
+    _service.recordSeen(user);
+
+    assertThat(_service.isPending(user.getInternalId())).isFalse();
+    assertThat(_service.flush()).isZero();
+  }
+
+  @Test
+  void recordSeen_manyRequests_coalescedIntoOneWritePerUser() {
+    Date longAgo = Date.from(Instant.now().minus(1, ChronoUnit.DAYS));
+    List<ApiUser> users =
+        IntStream.range(0, 5)
+            .mapToObj(i -> saveUser("user" + i + "@example.com", longAgo))
+            .toList();
+
+    for (int request = 0; request < 20; request++) {
+      users.forEach(_service::recordSeen);
+    }
+
+    assertThat(_service.flush()).isEqualTo(users.size());
+    assertThat(_service.flush()).isZero();
+    users.forEach(
+        u ->
+            assertThat(_apiUserRepo.findById(u.getInternalId()).get().getLastSeen())
+                .isAfter(longAgo));
+  }
+
+  @Test
+  void flush_newerValueStored_notMovedBack() {
+    Date longAgo = Date.from(Instant.now().minus(1, ChronoUnit.DAYS));
+    ApiUser user = saveUser("two-instances@example.com", longAgo);
+    _service.recordSeen(user);
+    Date later = Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+    _apiUserRepo.updateLastSeen(List.of(user.getInternalId()), later);
+
+    assertThat(_service.flush()).isZero();
+    assertThat(_apiUserRepo.findById(user.getInternalId()).get().getLastSeen())
+        .hasSameTimeAs(later);
+  }
+
+  private ApiUser saveUser(String email, Date lastSeen) {
+    ApiUser user =
+        _apiUserRepo.save(new ApiUser(email, new PersonName("Lastly", null, "Seen", null)));
+    if (lastSeen != null) {
+      _apiUserRepo.updateLastSeen(List.of(user.getInternalId()), lastSeen);
+      user = _apiUserRepo.findById(user.getInternalId()).get();
+    }
+    return user;
+  }
+}
@@ -4,8 +4,10 @@ import static gov.cdc.usds.simplereport.api.model.errors.PrivilegeUpdateFacility
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -55,6 +57,7 @@ class ApiUserServiceTest extends BaseServiceTest<ApiUserService> {
   @Autowired OrganizationService _organizationService;
   @Autowired FacilityRepository facilityRepository;
   @Autowired private TestDataFactory _dataFactory;
+  @Autowired private CurrentPrincipalCache _currentPrincipalCache;
 
   Set<UUID> emptySet = Collections.emptySet();
 
@@ -281,6 +284,31 @@ class ApiUserServiceTest extends BaseServiceTest<ApiUserService> {
     assertEquals("A user with this email address already exists.", caught.getMessage());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getCurrentUserInfo_recentlyResolved_loadedByIdWithoutUpdate() {
+    ApiUser first = _service.getCurrentUserInfo().getWrapped();
+    reset(_apiUserRepo);
+
+    ApiUser second = _service.getCurrentUserInfo().getWrapped();
+
+    assertEquals(first.getInternalId(), second.getInternalId());
+    verify(_apiUserRepo, never()).findByLoginEmail(anyString());
+    verify(_apiUserRepo, never()).save(any(ApiUser.class));
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void setIsDeleted_evictsRecentlyResolvedUser() {
+    initSampleData();
+    ApiUser orgUser = _apiUserRepo.findByLoginEmail("nobody@example.com").get();
+    _currentPrincipalCache.putApiUserId(orgUser.getLoginEmail(), orgUser.getInternalId());
+
+    _service.setIsDeleted(orgUser.getInternalId(), true);
+
+    assertThat(_currentPrincipalCache.getApiUserId(orgUser.getLoginEmail())).isEmpty();
+  }
+
   @Test
   @WithSimpleReportSiteAdminUser
   void getAllUsersByOrganization_success() {
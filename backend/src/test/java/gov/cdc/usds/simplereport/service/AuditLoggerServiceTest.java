@@ -0,0 +1,116 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cdc.usds.simplereport.db.model.ConsoleApiAuditEvent;
+import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AuditLoggerServiceTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final CountDownLatch released = new CountDownLatch(1);
+  private final List<String> written = new CopyOnWriteArrayList<>();
+  private SimpleMeterRegistry meterRegistry;
+  private Logger jsonLogger;
+  private AuditLoggerService service;
+
+  @BeforeEach
+  void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    LoggerContext loggerContext = new LoggerContext();
+    AppenderBase<ILoggingEvent> appender =
+        new AppenderBase<>() {
+          @Override
+          protected void append(ILoggingEvent event) {
+            // only the background writer is held up
+            if (Thread.currentThread().getName().startsWith("audit-log-")) {
+              try {
+                released.await(10, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            }
+            written.add(event.getFormattedMessage());
+          }
+        };
+    appender.setContext(loggerContext);
+    appender.start();
+    jsonLogger = loggerContext.getLogger("audit-test");
+    jsonLogger.addAppender(appender);
+  }
+
+  @AfterEach
+  void stop() throws InterruptedException {
+    released.countDown();
+    service.shutdown();
+  }
+
+  @Test
+  void logEvent_writtenInBackgroundAsJson() throws Exception {
+    service = new AuditLoggerService(objectMapper, jsonLogger, 10, 5, meterRegistry);
+    released.countDown();
+
+    service.logEvent(restEvent("request-1"));
+    service.logEvent(restEvent("request-2"));
+
+    assertThat(service.awaitWritten(Duration.ofSeconds(5))).isTrue();
+    assertThat(written).hasSize(2);
+    JsonNode first = objectMapper.readTree(written.get(0));
+    assertThat(first.get("type").asText()).isEqualTo("auditLog");
+    assertThat(first.get("requestId").asText()).isEqualTo("request-1");
+    assertThat(first.get("responseCode").asInt()).isEqualTo(200);
+    assertThat(first.get("httpRequestDetails").get("requestUri").asText())
+        .isEqualTo("/pxp/link/verify");
+    assertThat(meterRegistry.get("simplereport.audit.overflow").counter().count()).isZero();
+  }
+
+  @Test
+  void logEvent_queueFull_writtenOnCallingThread() throws Exception {
+    service = new AuditLoggerService(objectMapper, jsonLogger, 1, 5, meterRegistry);
+
+    for (int i = 0; i < 10; i++) {
+      service.logEvent(restEvent("request-" + i));
+    }
+
+    // the writer is stuck on the first event, so at most one more batch fits in the queue
+    double overflow = meterRegistry.get("simplereport.audit.overflow").counter().count();
+    assertThat(overflow).isGreaterThanOrEqualTo(7);
+    assertThat(written).hasSize((int) overflow);
+    released.countDown();
+    assertThat(service.awaitWritten(Duration.ofSeconds(5))).isTrue();
+    assertThat(written).hasSize(10);
+    assertThat(meterRegistry.get("simplereport.audit.backlog").gauge().value()).isZero();
+  }
+
+  @Test
+  void logEvent_afterShutdown_stillWritten() throws Exception {
+    service = new AuditLoggerService(objectMapper, jsonLogger, 10, 5, meterRegistry);
+    released.countDown();
+    service.shutdown();
+
+    service.logEvent(restEvent("request-1"));
+
+    assertThat(written).hasSize(1);
+  }
+
+  private static ConsoleApiAuditEvent restEvent(String requestId) {
+    HttpRequestDetails details =
+        new HttpRequestDetails(
+            "localhost", "127.0.0.1", List.of(), "https", "simplereport.gov", "/pxp/link/verify");
+    return new ConsoleApiAuditEvent(requestId, details, 200, null, null, null);
+  }
+}
@@ -13,6 +13,7 @@ import ca.uhn.fhir.context.FhirContext;
 import com.azure.storage.queue.QueueAsyncClient;
 import gov.cdc.usds.simplereport.api.converter.FhirConverter;
 import gov.cdc.usds.simplereport.db.model.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneType;
 import java.util.List;
 import java.util.UUID;
@@ -39,24 +40,7 @@ class AzureStorageQueueFhirReportingServiceTest {
         new AzureStorageQueueFhirReportingService(context, client, gitProperties, fhirConverter);
 
     var multiplexTestEvent = createMultiplexTestEvent();
-    ReflectionTestUtils.setField(multiplexTestEvent, "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(multiplexTestEvent.getPatient(), "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(
-        multiplexTestEvent.getPatient(),
-        "phoneNumbers",
-        List.of(new PhoneNumber(PhoneType.LANDLINE, "7735551234")));
-    ReflectionTestUtils.setField(
-        multiplexTestEvent.getProviderData(), "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(multiplexTestEvent.getFacility(), "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(
-        multiplexTestEvent.getSpecimenType(), "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(
-        multiplexTestEvent.getDeviceType(), "internalId", UUID.randomUUID());
-    ReflectionTestUtils.setField(
-        multiplexTestEvent.getTestOrder(), "internalId", UUID.randomUUID());
-    multiplexTestEvent
-        .getResults()
-        .forEach(result -> ReflectionTestUtils.setField(result, "internalId", UUID.randomUUID()));
+    setIds(multiplexTestEvent);
 
     when(client.sendMessage(anyString())).thenReturn(Mono.create(MonoSink::success));
     service.reportAsync(multiplexTestEvent);
@@ -72,6 +56,34 @@ class AzureStorageQueueFhirReportingServiceTest {
         new AzureStorageQueueFhirReportingService(context, client, gitProperties, fhirConverter);
 
     var multiplexTestEvent = createCovidTestEvent();
+    setIds(multiplexTestEvent);
+
+    when(client.sendMessage(anyString())).thenReturn(Mono.create(MonoSink::success));
+    service.reportAsync(multiplexTestEvent);
+    verify(context, times(1)).newJsonParser();
+    verify(client, times(1)).sendMessage(anyString());
+  }
+
+  @Test
+  void reportAsync_reusesParserAndEncodesOnEncodeThreads() {
+    var context = spy(FhirContext.class);
+    var client = mock(QueueAsyncClient.class);
+    when(client.sendMessage(anyString())).thenReturn(Mono.create(MonoSink::success));
+    var service =
+        new AzureStorageQueueFhirReportingService(
+            context, new QueueMessageSender(client), gitProperties, fhirConverter, 1);
+
+    var covidTestEvent = createCovidTestEvent();
+    setIds(covidTestEvent);
+    service.reportAsync(covidTestEvent).join();
+    service.reportAsync(covidTestEvent).join();
+    service.shutdown();
+
+    verify(context, times(1)).newJsonParser();
+    verify(client, times(2)).sendMessage(anyString());
+  }
+
+  private static void setIds(TestEvent multiplexTestEvent) {
     ReflectionTestUtils.setField(multiplexTestEvent, "internalId", UUID.randomUUID());
     ReflectionTestUtils.setField(multiplexTestEvent.getPatient(), "internalId", UUID.randomUUID());
     ReflectionTestUtils.setField(
@@ -90,10 +102,5 @@ class AzureStorageQueueFhirReportingServiceTest {
     multiplexTestEvent
         .getResults()
         .forEach(result -> ReflectionTestUtils.setField(result, "internalId", UUID.randomUUID()));
-
-    when(client.sendMessage(anyString())).thenReturn(Mono.create(MonoSink::success));
-    service.reportAsync(multiplexTestEvent);
-    verify(context, times(1)).newJsonParser();
-    verify(client, times(1)).sendMessage(anyString());
   }
 }
@@ -0,0 +1,143 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.service.CurrentPrincipalCache.CachedOrganizationRoles;
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class CurrentPrincipalCacheTest extends BaseServiceTest<CurrentPrincipalCache> {
+
+  private static final UUID FACILITY_A = UUID.randomUUID();
+  private static final UUID FACILITY_B = UUID.randomUUID();
+
+  @Autowired private OrganizationService _orgService;
+  @Autowired private AuthorizationService _authService;
+  @Autowired private TestDataFactory _dataFactory;
+
+  @Test
+  void claimsHash_sameClaimsInAnyOrder_sameHash() {
+    var first =
+        List.of(
+            claims("ORG_A", Set.of(FACILITY_A, FACILITY_B), OrganizationRole.USER),
+            claims("ORG_B", Set.of(), OrganizationRole.ADMIN));
+    var second =
+        List.of(
+            claims("ORG_B", Set.of(), OrganizationRole.ADMIN),
+            claims("ORG_A", Set.of(FACILITY_B, FACILITY_A), OrganizationRole.USER));
+
+    assertThat(CurrentPrincipalCache.claimsHash(first))
+        .isEqualTo(CurrentPrincipalCache.claimsHash(second));
+  }
+
+  @Test
+  void claimsHash_differentRolesOrFacilities_differentHash() {
+    var user = List.of(claims("ORG_A", Set.of(FACILITY_A), OrganizationRole.USER));
+    var admin = List.of(claims("ORG_A", Set.of(FACILITY_A), OrganizationRole.ADMIN));
+    var otherFacility = List.of(claims("ORG_A", Set.of(FACILITY_B), OrganizationRole.USER));
+
+    assertThat(CurrentPrincipalCache.claimsHash(user))
+        .isNotEqualTo(CurrentPrincipalCache.claimsHash(admin))
+        .isNotEqualTo(CurrentPrincipalCache.claimsHash(otherFacility));
+  }
+
+  @Test
+  void getCurrentOrganizationRoles_laterRequest_reusesResolvedOrganization() {
+    initSampleData();
+
+    OrganizationRoles first = inNewRequest(() -> _orgService.getCurrentOrganizationRoles()).get();
+    Optional<CachedOrganizationRoles> cached =
+        _service.getOrganizationRoles(
+            TestUserIdentities.STANDARD_USER, _authService.findAllOrganizationRoles());
+    OrganizationRoles second = inNewRequest(() -> _orgService.getCurrentOrganizationRoles()).get();
+
+    assertThat(cached)
+        .contains(
+            new CachedOrganizationRoles(
+                first.getOrganization().getInternalId(), facilityIds(first.getFacilities())));
+    assertThat(second.getOrganization()).isEqualTo(first.getOrganization());
+    assertThat(facilityIds(second.getFacilities())).isEqualTo(facilityIds(first.getFacilities()));
+    assertThat(second.getGrantedRoles()).isEqualTo(first.getGrantedRoles());
+  }
+
+  @Test
+  void getCurrentOrganizationRoles_cachedOrganizationGone_resolvedAgain() {
+    initSampleData();
+    var claims = _authService.findAllOrganizationRoles();
+    _service.putOrganizationRoles(
+        TestUserIdentities.STANDARD_USER,
+        claims,
+        new CachedOrganizationRoles(UUID.randomUUID(), Set.of()));
+
+    OrganizationRoles roles = inNewRequest(() -> _orgService.getCurrentOrganizationRoles()).get();
+
+    assertThat(roles.getOrganization()).isEqualTo(_orgService.getCurrentOrganizationNoCache());
+  }
+
+  @Test
+  void facilitySaved_organizationRolesEvicted() {
+    Organization org = _dataFactory.saveValidOrganization();
+    var claims = _authService.findAllOrganizationRoles();
+    _service.putOrganizationRoles(
+        TestUserIdentities.STANDARD_USER,
+        claims,
+        new CachedOrganizationRoles(org.getInternalId(), Set.of()));
+
+    _dataFactory.createValidFacility(org, "Brand New Site");
+
+    assertThat(_service.getOrganizationRoles(TestUserIdentities.STANDARD_USER, claims)).isEmpty();
+  }
+
+  @Test
+  void evictUser_dropsOnlyThatUsersEntries() {
+    var claims = List.of(claims("ORG_A", Set.of(FACILITY_A), OrganizationRole.USER));
+    var roles = new CachedOrganizationRoles(UUID.randomUUID(), Set.of(FACILITY_A));
+    _service.putApiUserId("one@example.com", UUID.randomUUID());
+    _service.putApiUserId("two@example.com", UUID.randomUUID());
+    _service.putOrganizationRoles("one@example.com", claims, roles);
+    _service.putOrganizationRoles("two@example.com", claims, roles);
+
+    _service.evictUser("one@example.com");
+
+    assertThat(_service.getApiUserId("one@example.com")).isEmpty();
+    assertThat(_service.getOrganizationRoles("one@example.com", claims)).isEmpty();
+    assertThat(_service.getApiUserId("two@example.com")).isPresent();
+    assertThat(_service.getOrganizationRoles("two@example.com", claims)).contains(roles);
+  }
+
+  private static OrganizationRoleClaims claims(
+      String externalId, Set<UUID> facilities, OrganizationRole role) {
+    return new OrganizationRoleClaims(
+        externalId, facilities, Set.of(OrganizationRole.NO_ACCESS, role));
+  }
+
+  private static Set<UUID> facilityIds(Set<Facility> facilities) {
+    return facilities.stream().map(Facility::getInternalId).collect(Collectors.toSet());
+  }
+
+  private static <T> T inNewRequest(Supplier<T> work) {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    try {
+      return work.get();
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+}
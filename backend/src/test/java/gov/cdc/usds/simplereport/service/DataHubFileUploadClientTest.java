@@ -0,0 +1,98 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+class DataHubFileUploadClientTest {
+  private static final String RESPONSE =
+      "{\"id\":\"" + UUID.randomUUID() + "\",\"overallStatus\":\"Received\",\"reportItemCount\":2}";
+
+  private MockRestServiceServer server;
+  private DataHubFileUploadClient client;
+  private Path file;
+
+  @BeforeEach
+  void setup() throws IOException {
+    var restTemplate = new RestTemplate();
+    server = MockRestServiceServer.bindTo(restTemplate).build();
+    client =
+        new DataHubFileUploadClient(
+            restTemplate,
+            "http://datahub",
+            "api-key",
+            "2021-09-21",
+            "simple_report.csvuploader",
+            "simple_report.fullelr");
+    file = Files.createTempFile("upload-", ".tmp");
+    Files.writeString(file, "a\nb");
+  }
+
+  @AfterEach
+  void cleanup() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void uploadCSV_sendsFileWithDataHubHeaders() {
+    server
+        .expect(requestTo("http://datahub/api/reports?processing=async"))
+        .andExpect(method(HttpMethod.POST))
+        .andExpect(header("Content-Type", "text/csv"))
+        .andExpect(header("Content-Length", "3"))
+        .andExpect(header("client", "simple_report.csvuploader"))
+        .andExpect(header("x-api-version", "2021-09-21"))
+        .andExpect(header("x-functions-key", "api-key"))
+        .andExpect(content().string("a\nb"))
+        .andRespond(withSuccess(RESPONSE, MediaType.APPLICATION_JSON));
+
+    var response = client.uploadCSV(file);
+
+    assertThat(response.getReportItemCount()).isEqualTo(2);
+    server.verify();
+  }
+
+  @Test
+  void uploadFhir_gzipped_sendsContentEncodingAndAuthorization() {
+    server
+        .expect(requestTo("http://datahub/api/waters"))
+        .andExpect(header("Content-Type", "application/fhir+ndjson"))
+        .andExpect(header("Content-Encoding", "gzip"))
+        .andExpect(header("Authorization", "Bearer token"))
+        .andExpect(header("client", "simple_report.fullelr"))
+        .andExpect(content().string("a\nb"))
+        .andRespond(withSuccess(RESPONSE, MediaType.APPLICATION_JSON));
+
+    client.uploadFhir(file, true, "Bearer token");
+
+    server.verify();
+  }
+
+  @Test
+  void uploadFhir_notGzipped_noContentEncoding() {
+    server
+        .expect(requestTo("http://datahub/api/waters"))
+        .andExpect(headerDoesNotExist("Content-Encoding"))
+        .andRespond(withSuccess(RESPONSE, MediaType.APPLICATION_JSON));
+
+    client.uploadFhir(file, false, "Bearer token");
+
+    server.verify();
+  }
+}
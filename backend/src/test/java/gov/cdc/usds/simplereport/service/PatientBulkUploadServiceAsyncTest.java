@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -28,6 +29,7 @@ import gov.cdc.usds.simplereport.validators.CsvValidatorUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.HashSet;
@@ -57,6 +59,7 @@ class PatientBulkUploadServiceAsyncTest extends BaseAuthenticatedFullStackTest {
 
   @SpyBean PersonService _personService;
   @Autowired PhoneNumberRepository phoneNumberRepository;
+  @Autowired AddressValidationService addressValidationService;
 
   @MockBean private EmailService _emailService;
   @SpyBean private PersonRepository personRepository;
@@ -352,6 +355,61 @@ class PatientBulkUploadServiceAsyncTest extends BaseAuthenticatedFullStackTest {
     assertThat(fetchDatabasePatients()).hasSize(17);
   }
 
+  @Test
+  void existingPatients_checkedOncePerChunk()
+      throws IOException, ExecutionException, InterruptedException {
+    // GIVEN
+    this._service.savePatients(loadCsv("patientBulkUpload/valid.csv").readAllBytes(), null).get();
+    byte[] content = loadCsv("patientBulkUpload/slightlyLargeFile.csv").readAllBytes();
+    reset(_personService);
+
+    // WHEN
+    this._service.savePatients(content, firstFacilityId).get();
+    this._service.savePatients(content, firstFacilityId).get();
+
+    // THEN
+    verify(_personService, times(4)).findDuplicatePatients(any(), any(), any());
+    verify(_personService, never()).isDuplicatePatient(any(), any(), any(), any(), any());
+    assertThat(fetchDatabasePatients()).hasSize(18);
+  }
+
+  @Test
+  void roster_savedWithAuditFields() throws ExecutionException, InterruptedException {
+    // GIVEN
+    int rosterSize = 5;
+    StringBuilder csv =
+        new StringBuilder(
+            "last_name,first_name,date_of_birth,biological_sex,race,ethnicity,street,city,state,"
+                + "zip_code,phone_number,phone_number_type,employed_in_healthcare,"
+                + "resident_congregate_setting,role\n");
+    for (int i = 0; i < rosterSize; i++) {
+      csv.append("Roster,Patient")
+          .append(i)
+          .append(",11/3/80,Female,white,not hispanic or latino,1234 Main Street,Anchorage,AK,")
+          .append("99501,410-867-5309,mobile,No,No,Staff\n");
+    }
+    byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+    // WHEN
+    this._service.savePatients(content, firstFacilityId).get();
+
+    // THEN
+    // every row shares one address, which is only validated once
+    verify(addressValidationService, times(1)).getValidatedAddresses(any());
+    verify(addressValidationService, never())
+        .getValidatedAddress(any(), any(), any(), any(), any());
+    List<Person> saved = personRepository.findAll();
+    assertThat(saved).hasSize(rosterSize);
+    assertThat(saved)
+        .allSatisfy(
+            person -> {
+              assertThat(person.getCreatedAt()).isNotNull();
+              assertThat(person.getUpdatedAt()).isNotNull();
+              assertThat(person.getCreatedBy().getLoginEmail()).isEqualTo("bobbity@example.com");
+              assertThat(person.getUpdatedBy().getLoginEmail()).isEqualTo("bobbity@example.com");
+            });
+  }
+
   @Test
   void invalidData_throwsExceptionAndTriggersErrorEmail() throws IOException {
     // GIVEN
@@ -21,6 +21,7 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.PhoneType;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
 import gov.cdc.usds.simplereport.db.repository.PatientRegistrationLinkRepository;
+import gov.cdc.usds.simplereport.service.model.PatientMatchKey;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
@@ -34,6 +35,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -1569,6 +1571,65 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     assertTrue(result);
   }
 
+  @Test
+  @WithSimpleReportStandardUser
+  void findDuplicatePatients_matchesSameAsIsDuplicatePatient() {
+    Organization org = _orgService.getCurrentOrganization();
+    Facility facility1 = _orgService.getFacilities(org).get(0);
+    Facility facility2 = _orgService.getFacilities(org).get(1);
+    Person inFacility =
+        _dataFactory.createMinimalPerson(org, facility1, new PersonName("John", null, "Doe", null));
+    _dataFactory.createMinimalPerson(org, null, AMOS);
+    LocalDate birthDate = inFacility.getBirthDate();
+
+    PatientMatchKey doe = PatientMatchKey.of("JOHN", "doe", birthDate);
+    PatientMatchKey amos = PatientMatchKey.of("amos", "QUINT", birthDate);
+    List<PatientMatchKey> keys =
+        List.of(
+            doe,
+            amos,
+            // each field matches some patient, but not all of them the same one
+            PatientMatchKey.of("John", "Quint", birthDate),
+            PatientMatchKey.of("John", "Doe", birthDate.minusDays(1)));
+
+    assertThat(_service.findDuplicatePatients(keys, org, Optional.empty()))
+        .containsExactlyInAnyOrder(doe, amos);
+    assertThat(_service.findDuplicatePatients(keys, org, Optional.of(facility1)))
+        .containsExactlyInAnyOrder(doe, amos);
+    Set<PatientMatchKey> inFacility2 =
+        _service.findDuplicatePatients(keys, org, Optional.of(facility2));
+    assertThat(inFacility2).containsExactly(amos);
+    for (PatientMatchKey key : keys) {
+      assertEquals(
+          _service.isDuplicatePatient(
+              key.firstName(), key.lastName(), key.birthDate(), org, Optional.of(facility2)),
+          inFacility2.contains(key));
+    }
+  }
+
+  @Test
+  @WithSimpleReportStandardUser
+  void findDuplicatePatients_moreKeysThanOneQueryCanBind_checksEveryKey() {
+    Organization org = _orgService.getCurrentOrganization();
+    Person doe =
+        _dataFactory.createMinimalPerson(org, null, new PersonName("John", null, "Doe", null));
+    _dataFactory.createMinimalPerson(org, null, AMOS);
+    LocalDate birthDate = doe.getBirthDate();
+    PatientMatchKey doeKey = PatientMatchKey.of("John", "Doe", birthDate);
+    PatientMatchKey amosKey = PatientMatchKey.of("Amos", "Quint", birthDate);
+
+    // more keys than fit in Postgres' 32767 bind parameters at three per key
+    List<PatientMatchKey> keys = new ArrayList<>();
+    keys.add(amosKey);
+    for (int i = 0; i < 11000; i++) {
+      keys.add(PatientMatchKey.of("Nobody", "Number" + i, birthDate));
+    }
+    keys.add(doeKey);
+
+    assertThat(_service.findDuplicatePatients(keys, org, Optional.empty()))
+        .containsExactlyInAnyOrder(doeKey, amosKey);
+  }
+
   private void makedata(boolean extraPatients, boolean isCurrentOrg) {
     _org = setOrg(isCurrentOrg);
     makeFacilities(_org);
@@ -0,0 +1,77 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.azure.storage.queue.QueueAsyncClient;
+import com.azure.storage.queue.models.SendMessageResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class QueueMessageSenderTest {
+  private QueueAsyncClient client;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setup() {
+    client = mock(QueueAsyncClient.class);
+    when(client.getQueueName()).thenReturn("fhir-data-publishing");
+    when(client.sendMessage(anyString())).thenReturn(Mono.just(new SendMessageResult()));
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void send_sentStraightAway() {
+    var sender = new QueueMessageSender(client, meterRegistry);
+
+    sender.send("one").join();
+    sender.send("two").join();
+
+    verify(client).sendMessage("one");
+    verify(client).sendMessage("two");
+    assertThat(
+            meterRegistry
+                .get(QueueMessageSender.METRIC_NAME + ".send")
+                .tags("queue", "fhir-data-publishing", "outcome", "success")
+                .timer()
+                .count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  void send_failure_onlyFailsThatMessage() {
+    when(client.sendMessage("bad")).thenReturn(Mono.error(new IllegalStateException("rejected")));
+    var sender = new QueueMessageSender(client, meterRegistry);
+
+    var bad = sender.send("bad");
+    var good = sender.send("good");
+
+    good.join();
+    var thrown = assertThrows(CompletionException.class, bad::join);
+    assertThat(thrown).hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(
+            meterRegistry
+                .get(QueueMessageSender.METRIC_NAME + ".send")
+                .tags("outcome", "failure")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void send_clientThrows_failsThatMessage() {
+    when(client.sendMessage("bad")).thenThrow(new IllegalArgumentException("too large"));
+    var sender = new QueueMessageSender(client, meterRegistry);
+
+    var thrown = assertThrows(CompletionException.class, sender.send("bad")::join);
+
+    assertThat(thrown).hasCauseInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,155 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.service.model.reportstream.TokenResponse;
+import gov.cdc.usds.simplereport.utils.DateGenerator;
+import gov.cdc.usds.simplereport.utils.TokenAuthentication;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReportStreamTokenManagerTest {
+  private static final Instant NOW = Instant.parse("2024-01-01T12:00:00Z");
+
+  private DataHubClient dataHubClient;
+  private DateGenerator dateGenerator;
+  private SimpleMeterRegistry meterRegistry;
+  private ReportStreamTokenManager sut;
+
+  @BeforeEach
+  void setup() {
+    dataHubClient = mock(DataHubClient.class);
+    dateGenerator = mock(DateGenerator.class);
+    meterRegistry = new SimpleMeterRegistry();
+    var tokenAuth = mock(TokenAuthentication.class);
+    when(tokenAuth.createRSAJWT(any(), any(), any(), any())).thenReturn("signedJwt");
+    when(dateGenerator.newDate()).thenReturn(Date.from(NOW));
+    sut =
+        new ReportStreamTokenManager(
+            dataHubClient,
+            tokenAuth,
+            dateGenerator,
+            "http://localhost:9561",
+            "simple_report.csvuploader",
+            "signing-key",
+            "simple_report.*.report",
+            Duration.ofMinutes(5),
+            Duration.ofMinutes(1),
+            meterRegistry);
+  }
+
+  @Test
+  void getAccessToken_reusesTokenUntilItIsDueForRefresh() {
+    when(dataHubClient.fetchAccessToken(anyString())).thenReturn(token("first", null));
+
+    assertThat(sut.getAccessToken()).isEqualTo("first");
+    assertThat(sut.getAccessToken()).isEqualTo("first");
+
+    verify(dataHubClient, times(1))
+        .fetchAccessToken(
+            "scope=simple_report.*.report&grant_type=client_credentials&client_assertion_type=urn:ietf:params:oauth:client-assertion-type:jwt-bearer&client_assertion=signedJwt");
+    assertThat(requests("hit")).isEqualTo(1);
+    assertThat(requests("miss")).isEqualTo(1);
+    assertThat(meterRegistry.get(ReportStreamTokenManager.METRIC_NAME + ".fetch").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void getAccessToken_nearExpiry_returnsCurrentTokenAndRefreshesInBackground() {
+    when(dataHubClient.fetchAccessToken(anyString()))
+        .thenReturn(token("first", 300L), token("second", 300L));
+    sut.getAccessToken();
+
+    // 30s margin and 60s refresh-ahead: due for refresh after 210s, unusable after 270s
+    when(dateGenerator.newDate()).thenReturn(Date.from(NOW.plusSeconds(240)));
+
+    assertThat(sut.getAccessToken()).isEqualTo("first");
+    verify(dataHubClient, timeout(5000).times(2)).fetchAccessToken(anyString());
+    assertThat(sut.getAccessToken()).isEqualTo("second");
+  }
+
+  @Test
+  void getAccessToken_expired_waitsForNewToken() {
+    when(dataHubClient.fetchAccessToken(anyString()))
+        .thenReturn(token("first", 60L), token("second", 60L));
+    sut.getAccessToken();
+
+    when(dateGenerator.newDate()).thenReturn(Date.from(NOW.plusSeconds(30)));
+
+    assertThat(sut.getAccessToken()).isEqualTo("second");
+    assertThat(requests("miss")).isEqualTo(2);
+  }
+
+  @Test
+  void getAccessToken_shortLivedToken_stillReused() {
+    when(dataHubClient.fetchAccessToken(anyString())).thenReturn(token("first", 10L));
+
+    // margin and refresh-ahead are both longer than the token lasts, so they're cut down to fit
+    assertThat(sut.getAccessToken()).isEqualTo("first");
+    when(dateGenerator.newDate()).thenReturn(Date.from(NOW.plusSeconds(2)));
+    assertThat(sut.getAccessToken()).isEqualTo("first");
+
+    verify(dataHubClient, times(1)).fetchAccessToken(anyString());
+    assertThat(requests("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void getAccessToken_concurrentCallers_fetchOnce() {
+    var fetchStarted = new CountDownLatch(1);
+    var releaseFetch = new CountDownLatch(1);
+    when(dataHubClient.fetchAccessToken(anyString()))
+        .thenAnswer(
+            invocation -> {
+              fetchStarted.countDown();
+              releaseFetch.await();
+              return token("shared", null);
+            });
+    var executor = Executors.newFixedThreadPool(4);
+
+    var callers =
+        IntStream.range(0, 4)
+            .mapToObj(i -> CompletableFuture.supplyAsync(sut::getAccessToken, executor))
+            .toList();
+    try {
+      fetchStarted.await();
+      releaseFetch.countDown();
+
+      assertThat(callers).allSatisfy(caller -> assertThat(caller.join()).isEqualTo("shared"));
+      verify(dataHubClient, times(1)).fetchAccessToken(anyString());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private double requests(String result) {
+    return meterRegistry
+        .get(ReportStreamTokenManager.METRIC_NAME + ".requests")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static TokenResponse token(String accessToken, Long expiresIn) {
+    var response = new TokenResponse();
+    response.setAccessToken(accessToken);
+    response.setExpiresIn(expiresIn);
+    return response;
+  }
+}
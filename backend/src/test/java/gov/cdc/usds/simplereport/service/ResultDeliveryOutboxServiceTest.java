@@ -0,0 +1,241 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Email;
+import com.twilio.exception.ApiException;
+import com.twilio.type.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry;
+import gov.cdc.usds.simplereport.db.model.ResultDeliveryOutboxEntry.Channel;
+import gov.cdc.usds.simplereport.db.model.TextMessageSent;
+import gov.cdc.usds.simplereport.db.model.TextMessageStatus;
+import gov.cdc.usds.simplereport.db.repository.PatientLinkRepository;
+import gov.cdc.usds.simplereport.db.repository.ResultDeliveryOutboxRepository;
+import gov.cdc.usds.simplereport.db.repository.TextMessageSentRepository;
+import gov.cdc.usds.simplereport.db.repository.TextMessageStatusRepository;
+import gov.cdc.usds.simplereport.service.email.EmailProvider;
+import gov.cdc.usds.simplereport.service.sms.SmsProviderWrapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true"})
+class ResultDeliveryOutboxServiceTest extends BaseServiceTest<ResultDeliveryOutboxService> {
+
+  @Autowired private ResultDeliveryOutboxRepository _outboxRepository;
+  @Autowired private ResultDeliveryOutboxDispatcher _outboxDispatcher;
+  @Autowired private PatientLinkRepository _patientLinkRepository;
+  @Autowired private TextMessageSentRepository _textMessageSentRepository;
+  @Autowired private TextMessageStatusRepository _textMessageStatusRepository;
+  @Autowired private StandInSmsProvider _smsProvider;
+  @Autowired private StandInEmailProvider _emailProvider;
+
+  private PatientLink patientLink;
+
+  /** Local stand-ins for Twilio and SendGrid that record what they were asked to send. */
+  @TestConfiguration
+  static class StandInProviders {
+    @Bean
+    @Primary
+    StandInSmsProvider standInSmsProvider() {
+      return new StandInSmsProvider();
+    }
+
+    @Bean
+    @Primary
+    StandInEmailProvider standInEmailProvider() {
+      return new StandInEmailProvider();
+    }
+  }
+
+  static class StandInSmsProvider implements SmsProviderWrapper {
+    final List<String> sentTo = new CopyOnWriteArrayList<>();
+    final List<String> messages = new CopyOnWriteArrayList<>();
+    final AtomicInteger failuresLeft = new AtomicInteger();
+    volatile Integer failureStatus;
+
+    @Override
+    public String send(PhoneNumber to, String message) {
+      if (failuresLeft.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+        throw new ApiException("stand-in failure", null, null, failureStatus, null);
+      }
+      sentTo.add(to.getEndpoint());
+      messages.add(message);
+      return "SM" + UUID.randomUUID();
+    }
+
+    void failNext(int times, int status) {
+      failureStatus = status;
+      failuresLeft.set(times);
+    }
+
+    void reset() {
+      sentTo.clear();
+      messages.clear();
+      failuresLeft.set(0);
+    }
+  }
+
+  static class StandInEmailProvider implements EmailProvider {
+    final List<String> sentTo = new CopyOnWriteArrayList<>();
+    final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @Override
+    public String send(Mail mail) throws IOException {
+      if (failuresLeft.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+        throw new IOException("stand-in failure");
+      }
+      mail.getPersonalization()
+          .forEach(p -> p.getTos().stream().map(Email::getEmail).forEach(sentTo::add));
+      return "";
+    }
+
+    void reset() {
+      sentTo.clear();
+      failuresLeft.set(0);
+    }
+  }
+
+  @BeforeEach
+  void setup() {
+    _smsProvider.reset();
+    _emailProvider.reset();
+    var org = _dataFactory.saveValidOrganization();
+    var facility = _dataFactory.createValidFacility(org);
+    var person = _dataFactory.createFullPerson(org);
+    var order = _dataFactory.createTestOrder(person, facility);
+    var link = _dataFactory.createPatientLink(order);
+    patientLink = _patientLinkRepository.findById(link.getInternalId()).orElseThrow();
+  }
+
+  @Test
+  void enqueue_smsAndEmail_queuedPerRecipient() {
+    assertThat(_service.enqueueSms(patientLink)).isTrue();
+    assertThat(_service.enqueueEmail(patientLink)).isTrue();
+
+    assertThat(findEntries())
+        .extracting(ResultDeliveryOutboxEntry::getChannel, ResultDeliveryOutboxEntry::getRecipient)
+        .containsExactlyInAnyOrder(
+            tuple(Channel.SMS, "+12021234567"),
+            tuple(Channel.EMAIL, "fred@astaire.com"));
+    // nothing is sent until the dispatcher runs
+    assertThat(_smsProvider.sentTo).isEmpty();
+    assertThat(_emailProvider.sentTo).isEmpty();
+  }
+
+  @Test
+  void dispatchPendingDeliveries_sendsAndRecordsTexts() {
+    _service.enqueueSms(patientLink);
+    _service.enqueueEmail(patientLink);
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isEqualTo(2);
+
+    assertThat(_smsProvider.sentTo).containsExactly("+12021234567");
+    assertThat(_smsProvider.messages.get(0)).contains(patientLink.getInternalId().toString());
+    assertThat(_emailProvider.sentTo).containsExactly("fred@astaire.com");
+    assertThat(findEntries()).isEmpty();
+    assertThat(_textMessageSentRepository.findAll())
+        .extracting(TextMessageSent::getTwilioMessageId)
+        .singleElement()
+        .asString()
+        .startsWith("SM");
+  }
+
+  @Test
+  void dispatchPendingDeliveries_sentTextAttributedToRequester() {
+    _service.enqueueSms(patientLink);
+    var requestedBy = findEntries().get(0).getRequestedBy().getInternalId();
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isEqualTo(1);
+
+    assertThat(_textMessageSentRepository.findAll())
+        .extracting(sent -> sent.getCreatedBy().getInternalId())
+        .containsExactly(requestedBy);
+  }
+
+  @Test
+  void dispatchPendingDeliveries_providerBusy_retriedUntilSent() {
+    _smsProvider.failNext(1, 503);
+    _service.enqueueSms(patientLink);
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isZero();
+    var entries = findEntries();
+    assertThat(entries).hasSize(1);
+    assertThat(entries.get(0).getAttempts()).isEqualTo(1);
+    assertThat(entries.get(0).getLastError()).isEqualTo("stand-in failure");
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isEqualTo(1);
+    assertThat(_smsProvider.sentTo).containsExactly("+12021234567");
+    assertThat(findEntries()).isEmpty();
+  }
+
+  @Test
+  void dispatchPendingDeliveries_keepsFailing_givenUpAfterMaxAttempts() {
+    _smsProvider.failNext(10, 503);
+    _service.enqueueSms(patientLink);
+
+    // the test profile allows three attempts, with no backoff
+    for (int attempt = 1; attempt <= 3; attempt++) {
+      assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isZero();
+    }
+
+    assertThat(findEntries()).isEmpty();
+    assertThat(_smsProvider.sentTo).isEmpty();
+    assertThat(_textMessageStatusRepository.findAll())
+        .extracting(TextMessageStatus::getStatus)
+        .containsExactly(ResultDeliveryOutboxService.GIVEN_UP_STATUS);
+  }
+
+  @Test
+  void dispatchPendingDeliveries_numberRejected_givenUpAtOnce() {
+    _smsProvider.failNext(1, 400);
+    _service.enqueueSms(patientLink);
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isZero();
+
+    assertThat(findEntries()).isEmpty();
+    assertThat(_textMessageStatusRepository.findAll())
+        .extracting(TextMessageStatus::getStatus)
+        .containsExactly(ResultDeliveryOutboxService.GIVEN_UP_STATUS);
+  }
+
+  @Test
+  void dispatchPendingDeliveries_emailFails_retried() {
+    _emailProvider.failuresLeft.set(1);
+    _service.enqueueEmail(patientLink);
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isZero();
+    assertThat(findEntries()).hasSize(1);
+
+    assertThat(_outboxDispatcher.dispatchPendingDeliveries()).isEqualTo(1);
+    assertThat(_emailProvider.sentTo).containsExactly("fred@astaire.com");
+  }
+
+  @Test
+  void claimDueEntries_claimedEntriesNotClaimedAgain() {
+    _service.enqueueSms(patientLink);
+
+    assertThat(_service.claimDueEntries(10)).hasSize(1);
+    assertThat(_service.claimDueEntries(10)).isEmpty();
+    assertThat(_smsProvider.sentTo).isEmpty();
+  }
+
+  private List<ResultDeliveryOutboxEntry> findEntries() {
+    var entries = new ArrayList<ResultDeliveryOutboxEntry>();
+    _outboxRepository.findAll().forEach(entries::add);
+    return entries;
+  }
+}
@@ -17,14 +17,18 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import gov.cdc.usds.simplereport.db.repository.ResultRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
 import gov.cdc.usds.simplereport.test_util.DbTruncator;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -242,6 +246,28 @@ class ResultServiceTest extends BaseServiceTest<ResultService> {
       assertEquals(SECOND_TEST_DATE, res.get(1).getTestEvent().getDateTested());
       assertEquals(SECOND_TEST_DATE, res.get(2).getTestEvent().getDateTested());
     }
+
+    @Test
+    @SliceTestConfiguration.WithSimpleReportOrgAdminUser
+    void getOrganizationResultsAfter_walksSameRowsAsOffsetPaging() {
+      var expected =
+          _service.getOrganizationResults(null, null, null, null, null, null, 0, 10).toList();
+
+      List<UUID> walked = new ArrayList<>();
+      ResultsCursor after = null;
+      CursorPage<Result> page;
+      do {
+        page = _service.getOrganizationResultsAfter(null, null, null, null, null, null, after, 2);
+        page.getContent().forEach(r -> walked.add(r.getInternalId()));
+        after = page.getEndCursor() == null ? null : ResultsCursor.decode(page.getEndCursor());
+      } while (page.getHasNextPage());
+
+      // newest test first; results of the same test are listed together
+      assertEquals(THIRD_TEST_DATE, expected.get(0).getTestEvent().getDateTested());
+      assertEquals(FIRST_TEST_DATE, expected.get(6).getTestEvent().getDateTested());
+      assertEquals(expected.stream().map(Result::getInternalId).toList(), walked);
+      assertEquals(7, page.getTotalElements());
+    }
   }
 
   @Test
@@ -1,27 +1,39 @@
 package gov.cdc.usds.simplereport.service;
 
+import static gov.cdc.usds.simplereport.config.CachingConfig.ADDRESS_TIMEZONE_LOOKUP_MAP;
+import static gov.cdc.usds.simplereport.config.CachingConfig.ADDRESS_TIMEZONE_MISSES;
 import static gov.cdc.usds.simplereport.service.ResultsUploaderCachingService.getKey;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import gov.cdc.usds.simplereport.api.model.CreateDeviceType;
 import gov.cdc.usds.simplereport.api.model.CreateSpecimenType;
 import gov.cdc.usds.simplereport.api.model.SupportedDiseaseTestPerformedInput;
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.SpecimenType;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.service.model.DeviceSpecimenLookupIndex;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 
 @SliceTestConfiguration.WithSimpleReportSiteAdminUser
 class ResultsUploaderCachingServiceTest extends BaseServiceTest<ResultsUploaderCachingService> {
@@ -30,6 +42,8 @@ class ResultsUploaderCachingServiceTest extends BaseServiceTest<ResultsUploaderC
   @Autowired private DeviceTypeService deviceTypeService;
   @Autowired private DiseaseService diseaseService;
   @Autowired private ResultsUploaderCachingService sut;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private CacheManager cacheManager;
   private final Random random = new Random();
 
   @Test
@@ -80,15 +94,153 @@ class ResultsUploaderCachingServiceTest extends BaseServiceTest<ResultsUploaderC
         .contains(getKey("GenBody COVID-19 Ag", "97097-0"));
   }
 
+  @Test
+  void lookupIndex_keepsVersionWhenNothingChanged() {
+    createDeviceType("Unchanged Device", List.of("11111-1"), List.of(), List.of());
+    DeviceSpecimenLookupIndex index = sut.getLookupIndex();
+
+    sut.refreshLookupIndex();
+
+    assertThat(sut.getLookupIndex()).isSameAs(index);
+  }
+
+  @Test
+  void lookupIndex_isReplacedAfterDeviceIsCreated() {
+    DeviceSpecimenLookupIndex index = sut.getLookupIndex();
+
+    createDeviceType("Brand New Device", List.of("22222-2"), List.of(), List.of());
+
+    DeviceSpecimenLookupIndex updated = sut.getLookupIndex();
+    assertThat(updated.version()).isGreaterThan(index.version());
+    assertThat(updated.devicesByModelAndTestPerformedCode())
+        .containsKey(getKey("Brand New Device", "22222-2"));
+    assertThat(index.devicesByModelAndTestPerformedCode())
+        .doesNotContainKey(getKey("Brand New Device", "22222-2"));
+  }
+
   @Test
   void addressValidation_cachesIdenticalAddresses() {
-    var address = new StreetAddress("123 Main St", null, "Buffalo", "New York", "14202", "Erie");
+    // Texas ZIP codes span two timezones, so these always need an address lookup
+    var address = new StreetAddress("123 Main St", null, "Austin", "TX", "78701", "Travis");
     sut.getZoneIdByAddress(address);
     sut.getZoneIdByAddress(address);
     sut.getZoneIdByAddress(address);
     verify(addressValidationService, times(1)).getZoneIdByAddress(any());
   }
 
+  @Test
+  void addressValidation_cachesAddressesDifferingOnlyByCaseAndSpacing() {
+    when(addressValidationService.getZoneIdByAddress(any())).thenReturn(ZoneId.of("US/Central"));
+    var address = new StreetAddress("456 Congress Ave", null, "Austin", "TX", "78701", null);
+    var sameAddress =
+        new StreetAddress("456  congress ave ", null, "AUSTIN", "tx", "78701-1234", null);
+
+    assertThat(sut.getZoneIdByAddress(address)).isEqualTo(ZoneId.of("US/Central"));
+    assertThat(sut.getZoneIdByAddress(sameAddress)).isEqualTo(ZoneId.of("US/Central"));
+    verify(addressValidationService, times(1)).getZoneIdByAddress(any());
+  }
+
+  @Test
+  void addressValidation_usesZipCodeWithoutLookup() {
+    var address = new StreetAddress("789 Main St", null, "Buffalo", "NY", "14202", "Erie");
+
+    assertThat(sut.getZoneIdByAddress(address)).isEqualTo(ZoneId.of("US/Eastern"));
+    verify(addressValidationService, never()).getZoneIdByAddress(any());
+  }
+
+  @Test
+  void prefetchZoneIdsByAddress_looksUpUncachedAddressesInOneBatch() {
+    var buffalo = new StreetAddress("1 Niagara St", null, "Buffalo", "NY", "14202", null);
+    var austin = new StreetAddress("1 Lamar Blvd", null, "Austin", "TX", "78701", null);
+    var elPaso = new StreetAddress("1 Mesa St", null, "El Paso", "TX", "79901", null);
+    var unknown = new StreetAddress("1 Nowhere Rd", null, "Austin", "TX", "78701", null);
+    when(addressValidationService.getZoneIdsByAddress(any()))
+        .thenReturn(
+            Map.of(
+                austin, ZoneId.of("US/Central"),
+                elPaso, ZoneId.of("US/Mountain")));
+
+    sut.prefetchZoneIdsByAddress(List.of(buffalo, austin, elPaso, austin, unknown));
+
+    ArgumentCaptor<Collection<StreetAddress>> lookedUp = ArgumentCaptor.forClass(Collection.class);
+    verify(addressValidationService).getZoneIdsByAddress(lookedUp.capture());
+    assertThat(lookedUp.getValue()).containsExactly(austin, elPaso, unknown);
+    assertThat(sut.getZoneIdByAddress(buffalo)).isEqualTo(ZoneId.of("US/Eastern"));
+    assertThat(sut.getZoneIdByAddress(austin)).isEqualTo(ZoneId.of("US/Central"));
+    assertThat(sut.getZoneIdByAddress(elPaso)).isEqualTo(ZoneId.of("US/Mountain"));
+    verify(addressValidationService, never()).getZoneIdByAddress(any());
+
+    // addresses missing from the batch response fall back to a single lookup
+    sut.getZoneIdByAddress(unknown);
+    verify(addressValidationService).getZoneIdByAddress(unknown);
+  }
+
+  @Test
+  void prefetchZoneIdsByAddress_batchLookupFails_fallsBackToSingleLookups() {
+    var address = new StreetAddress("1 Outage Ln", null, "Austin", "TX", "78701", null);
+    when(addressValidationService.getZoneIdsByAddress(any()))
+        .thenThrow(new IllegalGraphqlArgumentException("unavailable"));
+    when(addressValidationService.getZoneIdByAddress(address)).thenReturn(ZoneId.of("US/Central"));
+
+    sut.prefetchZoneIdsByAddress(List.of(address));
+
+    assertThat(sut.getZoneIdByAddress(address)).isEqualTo(ZoneId.of("US/Central"));
+    verify(addressValidationService).getZoneIdByAddress(address);
+  }
+
+  @Test
+  void addressValidation_failedLookupOnlyRememberedBriefly() {
+    var address = new StreetAddress("1 Outage Ln", null, "Austin", "TX", "78701", null);
+    when(addressValidationService.getZoneIdByAddress(address))
+        .thenReturn(null)
+        .thenReturn(ZoneId.of("US/Central"));
+
+    assertThat(sut.getZoneIdByAddress(address)).isNull();
+    assertThat(sut.getZoneIdByAddress(address)).isNull();
+    verify(addressValidationService, times(1)).getZoneIdByAddress(address);
+    String key = ResultsUploaderCachingService.getAddressKey(address);
+    assertThat(cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP).get(key)).isNull();
+
+    // once the miss expires the address is looked up again, and a timezone is kept for long
+    cacheManager.getCache(ADDRESS_TIMEZONE_MISSES).evict(key);
+    assertThat(sut.getZoneIdByAddress(address)).isEqualTo(ZoneId.of("US/Central"));
+    assertThat(cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP).get(key).get())
+        .isEqualTo(ZoneId.of("US/Central"));
+  }
+
+  @Test
+  void prefetchZoneIdsByAddress_unmatchedAddressesOnlyRememberedBriefly() {
+    var unmatched = new StreetAddress("1 Unmatched Rd", null, "Austin", "TX", "78701", null);
+    var zoneIds = new HashMap<StreetAddress, ZoneId>();
+    zoneIds.put(unmatched, null);
+    when(addressValidationService.getZoneIdsByAddress(any())).thenReturn(zoneIds);
+
+    sut.prefetchZoneIdsByAddress(List.of(unmatched));
+
+    String key = ResultsUploaderCachingService.getAddressKey(unmatched);
+    assertThat(cacheManager.getCache(ADDRESS_TIMEZONE_LOOKUP_MAP).get(key)).isNull();
+    assertThat(sut.getZoneIdByAddress(unmatched)).isNull();
+    verify(addressValidationService, never()).getZoneIdByAddress(any());
+  }
+
+  @Test
+  void addressValidation_publishesCacheMetrics() {
+    var address = new StreetAddress("1 Metrics Way", null, "Austin", "TX", "78701", null);
+    sut.getZoneIdByAddress(address);
+    sut.getZoneIdByAddress(address);
+
+    assertThat(
+            meterRegistry
+                .get("cache.gets")
+                .tags("cache", ADDRESS_TIMEZONE_LOOKUP_MAP, "result", "hit")
+                .functionCounter()
+                .count())
+        .isPositive();
+    assertThat(
+            meterRegistry.get("cache.evictions").tag("cache", ADDRESS_TIMEZONE_LOOKUP_MAP).meter())
+        .isNotNull();
+  }
+
   protected void createDeviceType(
       String model,
       List<String> covidTestPerformedCodes,
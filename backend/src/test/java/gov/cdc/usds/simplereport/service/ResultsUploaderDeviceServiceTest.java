@@ -24,7 +24,6 @@ class ResultsUploaderDeviceServiceTest extends BaseServiceTest<ResultsUploaderCa
   @Autowired private DeviceTypeService deviceTypeService;
   @Autowired private DiseaseService diseaseService;
   @Autowired private ResultsUploaderDeviceService deviceService;
-  @Autowired private ResultsUploaderCachingService cachingService;
 
   @Autowired @MockBean private FeatureFlagsConfig featureFlagsConfig;
 
@@ -147,8 +146,6 @@ class ResultsUploaderDeviceServiceTest extends BaseServiceTest<ResultsUploaderCa
                 .testLength(1)
                 .build());
 
-    // flush the cache after we make a new device
-    cachingService.cacheModelAndTestPerformedCodeToDeviceMap();
     return createdDeviceType;
   }
 }
@@ -0,0 +1,151 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestEventReportOutboxEntry;
+import gov.cdc.usds.simplereport.db.model.TestEventReportOutboxEntry.Destination;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.db.repository.TestEventReportOutboxRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+class TestEventReportOutboxServiceTest extends BaseServiceTest<TestEventReportOutboxService> {
+
+  @Autowired private TestEventReportOutboxRepository _outboxRepository;
+  @Autowired private TestEventReportOutboxDispatcher _outboxDispatcher;
+
+  @MockBean(name = "csvQueueReportingService")
+  TestEventReportingService csvQueueReportingService;
+
+  @MockBean(name = "fhirQueueReportingService")
+  TestEventReportingService fhirQueueReportingService;
+
+  private TestEvent testEvent;
+
+  @BeforeEach
+  void setup() {
+    var org = _dataFactory.saveValidOrganization();
+    var facility = _dataFactory.createValidFacility(org);
+    var person = _dataFactory.createFullPerson(org);
+    testEvent = _dataFactory.createTestEvent(person, facility, TestResult.POSITIVE);
+    when(csvQueueReportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(fhirQueueReportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+  }
+
+  @Test
+  void enqueue_covidResult_queuedForBothDestinations() {
+    _service.enqueue(testEvent);
+
+    assertThat(findEntries())
+        .extracting(TestEventReportOutboxEntry::getDestination)
+        .containsExactlyInAnyOrder(Destination.CSV_QUEUE, Destination.FHIR_QUEUE);
+  }
+
+  @Test
+  void dispatchPendingReports_sendsAndRemovesEntries() {
+    _service.enqueue(testEvent);
+
+    assertThat(_outboxDispatcher.dispatchPendingReports()).isEqualTo(2);
+
+    verify(csvQueueReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
+    assertThat(findEntries()).isEmpty();
+  }
+
+  @Test
+  void dispatchPendingReports_failedSend_keptForRetryWithBackoff() {
+    when(fhirQueueReportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("queue unavailable")));
+    _service.enqueue(testEvent);
+    var beforeDispatch = new Date();
+
+    assertThat(_outboxDispatcher.dispatchPendingReports()).isEqualTo(1);
+
+    var entries = findEntries();
+    assertThat(entries).hasSize(1);
+    var failed = entries.get(0);
+    assertThat(failed.getDestination()).isEqualTo(Destination.FHIR_QUEUE);
+    assertThat(failed.getAttempts()).isEqualTo(1);
+    assertThat(failed.getLastError()).isEqualTo("queue unavailable");
+    assertThat(failed.getNextAttemptAt()).isAfter(beforeDispatch);
+
+    // not due yet, so the next dispatch leaves it alone
+    assertThat(_outboxDispatcher.dispatchPendingReports()).isZero();
+    assertThat(findEntries()).hasSize(1);
+  }
+
+  @Test
+  void claimDueEntries_claimedEntriesNotClaimedAgain() {
+    _service.enqueue(testEvent);
+
+    assertThat(_service.claimDueEntries(10)).hasSize(2);
+    assertThat(_service.claimDueEntries(10)).isEmpty();
+    verify(fhirQueueReportingService, never()).reportAsync(any());
+  }
+
+  @Test
+  void dispatchPendingReports_messageCannotBeBuilt_keptForRetry() {
+    when(fhirQueueReportingService.reportAsync(any()))
+        .thenThrow(new IllegalArgumentException("bad bundle"));
+    _service.enqueue(testEvent);
+
+    assertThat(_outboxDispatcher.dispatchPendingReports()).isEqualTo(1);
+
+    assertThat(findEntries())
+        .singleElement()
+        .satisfies(entry -> assertThat(entry.getLastError()).isEqualTo("bad bundle"));
+  }
+
+  @Test
+  void recordOutcome_keepsFailing_givenUpAndNoLongerClaimed() {
+    _service.enqueue(testEvent);
+    var entryIds = _service.claimDueEntries(10);
+    var failure = new IllegalStateException("queue unavailable");
+
+    // the test profile allows three attempts
+    for (int attempt = 1; attempt <= 3; attempt++) {
+      entryIds.forEach(id -> assertThat(_service.recordOutcome(id, failure)).isFalse());
+    }
+
+    var entries = findEntries();
+    assertThat(entries)
+        .hasSize(2)
+        .allSatisfy(
+            entry -> {
+              assertThat(entry.getAttempts()).isEqualTo(3);
+              assertThat(entry.getGivenUpAt()).isNotNull();
+            });
+    // even once they would otherwise be due, given-up entries stay where they are
+    entries.forEach(entry -> entry.setNextAttemptAt(new Date(0)));
+    _outboxRepository.saveAll(entries);
+    assertThat(_service.claimDueEntries(10)).isEmpty();
+  }
+
+  @Test
+  void getRetryBackoff_doublesUpToMaximum() {
+    assertThat(_service.getRetryBackoff(1)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(_service.getRetryBackoff(2)).isEqualTo(Duration.ofMinutes(1));
+    assertThat(_service.getRetryBackoff(4)).isEqualTo(Duration.ofMinutes(4));
+    assertThat(_service.getRetryBackoff(100)).isEqualTo(Duration.ofHours(1));
+  }
+
+  private List<TestEventReportOutboxEntry> findEntries() {
+    var entries = new ArrayList<TestEventReportOutboxEntry>();
+    _outboxRepository.findAll().forEach(entries::add);
+    return entries;
+  }
+}
@@ -0,0 +1,149 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.cdc.usds.simplereport.service.datasource.DatasourceProxyBeanPostProcessor;
+import gov.cdc.usds.simplereport.service.datasource.QueryCaptureService;
+import gov.cdc.usds.simplereport.service.datasource.QueryCaptureService.CapturedQuery;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that result list searches can use the test_event indexes on effective test date, by
+ * explaining the queries the searches actually send. Each is compared with the same query using the
+ * OR form of the date filter the searches used to have, which can't use the indexes for the date
+ * range. Sequential scans are turned off so the (nearly empty) test tables don't hide which indexes
+ * are usable.
+ */
+@Slf4j
+@Import(DatasourceProxyBeanPostProcessor.class)
+@WithSimpleReportOrgAdminUser
+class TestEventSearchIndexTest extends BaseServiceTest<TestOrderService> {
+
+  private static final String ORG_INDEX = "ix__test_event__org_id-coal_test_date-id";
+  // the dashboard index on (facility, effective date, correction status)
+  private static final String FACILITY_INDEX =
+      "ix__test_event__fac_id-coal_test_date-test-corr_status";
+  private static final Date START = Date.from(Instant.parse("2023-01-01T00:00:00Z"));
+  private static final Date END = Date.from(Instant.parse("2023-12-31T23:59:59Z"));
+  private static final Pattern EFFECTIVE_DATE_COMPARISON =
+      Pattern.compile(
+          "coalesce\\((\\w+)\\.date_tested_backdate,\\s*\\1\\.created_at\\)\\s*([<>]=?)\\s*\\?");
+
+  @Autowired private JdbcTemplate jdbc;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private OrganizationService organizationService;
+
+  @Test
+  void organizationSearch_effectiveDateFilter_usesIndexForDateRange() {
+    CapturedQuery search =
+        searchQuery(
+            () ->
+                _service.getOrganizationTestEventsResultsAfter(
+                    null, null, null, START, END, null, 20));
+
+    String before = explain(withOrDateFilter(search));
+    String after = explain(search);
+
+    assertThat(indexConditions(before)).doesNotContain("COALESCE");
+    assertThat(after).contains(ORG_INDEX);
+    assertThat(indexConditions(after)).contains("COALESCE").contains("organization_id");
+  }
+
+  @Test
+  void facilitySearch_effectiveDateFilter_usesIndexForDateRange() {
+    UUID facilityId =
+        _dataFactory
+            .createValidFacility(organizationService.getCurrentOrganization())
+            .getInternalId();
+    CapturedQuery search =
+        searchQuery(
+            () ->
+                _service.getFacilityTestEventsResultsAfter(
+                    facilityId, null, null, null, START, END, null, 20));
+
+    String before = explain(withOrDateFilter(search));
+    String after = explain(search);
+
+    assertThat(indexConditions(before)).doesNotContain("COALESCE");
+    assertThat(after).contains(FACILITY_INDEX);
+    assertThat(indexConditions(after)).contains("COALESCE").contains("facility_id");
+  }
+
+  /** The query that fetches the page of test events, out of everything the search ran. */
+  private static CapturedQuery searchQuery(Runnable search) {
+    return QueryCaptureService.capture(search).stream()
+        .filter(query -> query.sql().contains("test_event"))
+        .filter(query -> query.sql().contains("coalesce("))
+        .filter(query -> query.sql().contains("order by"))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  /**
+   * The same query with each effective date comparison written the way the searches used to:
+   * {@code (backdate is not null and backdate >= ?) or (backdate is null and created_at >= ?)}.
+   */
+  private static CapturedQuery withOrDateFilter(CapturedQuery query) {
+    String sql = query.sql();
+    List<Object> parameters = new ArrayList<>(Arrays.asList(query.parameters()));
+    StringBuilder rewritten = new StringBuilder();
+    Matcher comparison = EFFECTIVE_DATE_COMPARISON.matcher(sql);
+    int duplicated = 0;
+    while (comparison.find()) {
+      // the OR form compares against the same value twice, so its parameter is bound twice
+      int parameter =
+          (int) sql.substring(0, comparison.start()).chars().filter(c -> c == '?').count();
+      parameters.add(parameter + duplicated, parameters.get(parameter + duplicated));
+      duplicated++;
+      String backdate = comparison.group(1) + ".date_tested_backdate";
+      String createdAt = comparison.group(1) + ".created_at";
+      String operator = comparison.group(2);
+      comparison.appendReplacement(
+          rewritten,
+          Matcher.quoteReplacement(
+              String.format(
+                  "((%1$s is not null and %1$s %3$s ?) or (%1$s is null and %2$s %3$s ?))",
+                  backdate, createdAt, operator)));
+    }
+    comparison.appendTail(rewritten);
+    assertThat(duplicated).as("effective date comparisons in %s", sql).isEqualTo(2);
+    return new CapturedQuery(rewritten.toString(), parameters.toArray());
+  }
+
+  private String explain(CapturedQuery query) {
+    String plan =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                  jdbc.execute("SET LOCAL enable_seqscan = off");
+                  return String.join(
+                      "\n",
+                      jdbc.queryForList(
+                          "EXPLAIN " + query.sql(), String.class, query.parameters()));
+                });
+    log.info("Plan for {}\n{}", query.sql(), plan);
+    return plan;
+  }
+
+  private static String indexConditions(String plan) {
+    return plan.lines()
+        .filter(line -> line.contains("Index Cond"))
+        .collect(Collectors.joining("\n"));
+  }
+}
@@ -11,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -46,6 +47,9 @@ import gov.cdc.usds.simplereport.db.repository.ResultRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
 import gov.cdc.usds.simplereport.service.datasource.QueryCountService;
+import gov.cdc.usds.simplereport.service.model.CursorPage;
+import gov.cdc.usds.simplereport.service.model.ResultsCursor;
+import gov.cdc.usds.simplereport.service.model.TestQueueChanges;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
@@ -59,6 +63,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -66,6 +71,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
@@ -90,7 +96,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
   @Autowired private ResultRepository _resultRepository;
   @Autowired private TestDataFactory _dataFactory;
   @SpyBean private PatientLinkService patientLinkService;
-  @MockBean private TestResultsDeliveryService testResultsDeliveryService;
+  @MockBean private ResultDeliveryOutboxService resultDeliveryOutbox;
 
   @MockBean(name = "csvQueueReportingService")
   TestEventReportingService testEventReportingService;
@@ -99,6 +105,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
   TestEventReportingService fhirQueueReportingService;
 
   @SpyBean ReportTestEventToRSEventListener reportTestEventToRSEventListener;
+  @Autowired private TestEventReportOutboxDispatcher _outboxDispatcher;
 
   @Captor ArgumentCaptor<TestEvent> testEventArgumentCaptor;
 
@@ -120,6 +127,10 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
   @BeforeEach
   void setupData() {
     initSampleData();
+    when(testEventReportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+    when(fhirQueueReportingService.reportAsync(any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
   }
 
   @Test
@@ -188,8 +199,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     verify(patientLinkService).createPatientLink(any());
 
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(testEventArgumentCaptor.capture());
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(testEventArgumentCaptor.capture());
+    verify(fhirQueueReportingService).reportAsync(any());
     TestEvent sentEvent = testEventArgumentCaptor.getValue();
     TestResult testResult = sentEvent.getCovidTestResult().get();
     assertThat(sentEvent.getPatient().getInternalId()).isEqualTo(patient.getInternalId());
@@ -243,8 +255,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         p.getInternalId(),
         null);
 
-    verify(testEventReportingService).report(any());
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
 
     List<TestEvent> testEvents =
         _testEventRepository.findAllByPatientAndFacilities(p, List.of(facility));
@@ -270,8 +283,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertThat(testEvents).hasSize(2);
     assertThat(testEvents.get(0).getPatientHasPriorTests()).isFalse();
     assertThat(testEvents.get(1).getPatientHasPriorTests()).isTrue();
-    verify(testEventReportingService, times(2)).report(any());
-    verify(fhirQueueReportingService, times(2)).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService, times(2)).reportAsync(any());
+    verify(fhirQueueReportingService, times(2)).reportAsync(any());
   }
 
   @Test
@@ -288,6 +302,71 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, queue.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getQueueChanges_sinceVersion_returnsOnlyChanges() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    UUID facilityId = facility.getInternalId();
+    Person first = _dataFactory.createFullPerson(org);
+    Person second = _dataFactory.createFullPerson(org);
+
+    TestQueueChanges<TestOrder> initial = _service.getQueueChanges(facilityId, null);
+    assertTrue(initial.getComplete());
+    assertTrue(initial.getChanged().isEmpty());
+
+    TestOrder firstOrder =
+        _service.addPatientToQueue(facilityId, first, "", "", Collections.emptyMap(), null, false);
+    TestOrder secondOrder =
+        _service.addPatientToQueue(facilityId, second, "", "", Collections.emptyMap(), null, false);
+
+    TestQueueChanges<TestOrder> added =
+        _service.getQueueChanges(facilityId, Long.valueOf(initial.getVersion()));
+    assertTrue(added.getModified());
+    assertFalse(added.getComplete());
+    assertThat(added.getChanged())
+        .extracting(TestOrder::getInternalId)
+        .containsExactly(firstOrder.getInternalId(), secondOrder.getInternalId());
+    assertTrue(added.getRemovedIds().isEmpty());
+
+    TestQueueChanges<TestOrder> unchanged =
+        _service.getQueueChanges(facilityId, Long.valueOf(added.getVersion()));
+    assertFalse(unchanged.getModified());
+    assertEquals(added.getVersion(), unchanged.getVersion());
+
+    _service.removePatientFromQueue(first.getInternalId());
+
+    TestQueueChanges<TestOrder> removed =
+        _service.getQueueChanges(facilityId, Long.valueOf(added.getVersion()));
+    assertTrue(removed.getChanged().isEmpty());
+    assertEquals(List.of(firstOrder.getInternalId()), removed.getRemovedIds());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getQueueChanges_patientArchived_reportedAsRemoved() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    UUID facilityId = facility.getInternalId();
+    Person patient = _dataFactory.createFullPerson(org);
+    TestOrder order =
+        _service.addPatientToQueue(
+            facilityId, patient, "", "", Collections.emptyMap(), null, false);
+    long version = Long.parseLong(_service.getQueueChanges(facilityId, null).getVersion());
+
+    _personService.setIsDeleted(patient.getInternalId(), true, null);
+
+    TestQueueChanges<TestOrder> changes = _service.getQueueChanges(facilityId, version);
+    assertTrue(changes.getChanged().isEmpty());
+    assertEquals(List.of(order.getInternalId()), changes.getRemovedIds());
+
+    // a version this server never handed out gets the whole queue
+    TestQueueChanges<TestOrder> unknownVersion =
+        _service.getQueueChanges(facilityId, version + 100);
+    assertTrue(unknownVersion.getComplete());
+    assertTrue(unknownVersion.getChanged().isEmpty());
+  }
+
   @Test
   @WithSimpleReportStandardAllFacilitiesUser
   void addPatientToQueue_standardUserAllFacilities_ok() {
@@ -435,12 +514,13 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     _service.addMultiplexResult(
         defaultDeviceType, defaultSpecimenType, positiveCovidResult, p.getInternalId(), null);
 
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueSms(any(PatientLink.class));
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
-    verify(testEventReportingService).report(any());
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
   }
 
   @Test
@@ -491,8 +571,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
-    verify(testEventReportingService).report(any());
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
   }
 
   @Test
@@ -593,6 +674,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
                 deviceId, specimenId, positiveCovidOnlyResult, patientOneId, null));
 
     // make sure the nothing was sent to storage queue
+    _outboxDispatcher.dispatchPendingReports();
     verifyNoInteractions(testEventReportingService);
 
     TestUserIdentities.setFacilityAuthorities(facility1);
@@ -602,8 +684,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, queue.size());
 
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(any());
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
 
     List<MultiplexResultInput> negativeCovidResult = makeCovidOnlyResult(TestResult.NEGATIVE);
 
@@ -614,8 +697,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, queue.size());
 
     // make sure the second event is sent to storage queue
-    verify(testEventReportingService, times(2)).report(any());
-    verify(fhirQueueReportingService, times(2)).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService, times(2)).reportAsync(any());
+    verify(fhirQueueReportingService, times(2)).reportAsync(any());
   }
 
   @Test
@@ -645,7 +729,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         p.getInternalId(),
         null);
 
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueSms(any(PatientLink.class));
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
@@ -772,8 +856,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     DeviceType deviceType = _dataFactory.getGenericDevice();
     SpecimenType specimenType = _dataFactory.getGenericSpecimen();
     facility.setDefaultDeviceTypeSpecimenType(deviceType, specimenType);
-    when(testResultsDeliveryService.smsTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.smsTestResults(any(UUID.class))).thenReturn(true);
+    when(resultDeliveryOutbox.enqueueSms(any(PatientLink.class))).thenReturn(true);
 
     // WHEN
     List<MultiplexResultInput> positiveCovidOnlyResult = makeCovidOnlyResult(TestResult.POSITIVE);
@@ -788,7 +871,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     // THEN
     assertTrue(res.getDeliverySuccess());
     ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
-    verify(testResultsDeliveryService).smsTestResults(patientLinkCaptor.capture());
+    verify(resultDeliveryOutbox).enqueueSms(patientLinkCaptor.capture());
     assertThat(patientLinkCaptor.getValue().getTestOrder().getPatient().getInternalId())
         .isEqualTo(patient.getInternalId());
   }
@@ -816,8 +899,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     SpecimenType specimenType = _dataFactory.getGenericSpecimen();
     facility.setDefaultDeviceTypeSpecimenType(deviceType, specimenType);
 
-    when(testResultsDeliveryService.smsTestResults(any(PatientLink.class))).thenReturn(false);
-    when(testResultsDeliveryService.smsTestResults(any(UUID.class))).thenReturn(false);
+    when(resultDeliveryOutbox.enqueueSms(any(PatientLink.class))).thenReturn(false);
 
     // WHEN
     List<MultiplexResultInput> positiveCovidOnlyResult = makeCovidOnlyResult(TestResult.POSITIVE);
@@ -830,7 +912,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             null);
 
     // THEN
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueSms(any(PatientLink.class));
     assertFalse(res.getDeliverySuccess());
   }
 
@@ -857,8 +939,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     SpecimenType specimenType = _dataFactory.getGenericSpecimen();
     facility.setDefaultDeviceTypeSpecimenType(deviceType, specimenType);
 
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(true);
+    when(resultDeliveryOutbox.enqueueEmail(any(PatientLink.class))).thenReturn(true);
 
     // WHEN
     List<MultiplexResultInput> positiveCovidOnlyResult = makeCovidOnlyResult(TestResult.POSITIVE);
@@ -873,7 +954,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     // THEN
     assertTrue(res.getDeliverySuccess());
     ArgumentCaptor<PatientLink> patientLinkCaptor = ArgumentCaptor.forClass(PatientLink.class);
-    verify(testResultsDeliveryService).emailTestResults(patientLinkCaptor.capture());
+    verify(resultDeliveryOutbox).enqueueEmail(patientLinkCaptor.capture());
     assertThat(patientLinkCaptor.getValue().getTestOrder().getPatient().getInternalId())
         .isEqualTo(patient.getInternalId());
   }
@@ -901,8 +982,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     SpecimenType specimenType = _dataFactory.getGenericSpecimen();
     facility.setDefaultDeviceTypeSpecimenType(deviceType, specimenType);
 
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(false);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(false);
+    when(resultDeliveryOutbox.enqueueEmail(any(PatientLink.class))).thenReturn(false);
 
     // WHEN
     List<MultiplexResultInput> positiveCovidOnlyResult = makeCovidOnlyResult(TestResult.POSITIVE);
@@ -915,7 +995,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             null);
 
     // THEN
-    verify(testResultsDeliveryService).emailTestResults(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueEmail(any(PatientLink.class));
     assertFalse(res.getDeliverySuccess());
   }
 
@@ -941,8 +1021,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     DeviceType deviceType = _dataFactory.getGenericDevice();
     SpecimenType specimenType = _dataFactory.getGenericSpecimen();
     facility.setDefaultDeviceTypeSpecimenType(deviceType, specimenType);
-    when(testResultsDeliveryService.emailTestResults(any(PatientLink.class))).thenReturn(true);
-    when(testResultsDeliveryService.emailTestResults(any(UUID.class))).thenReturn(true);
+    when(resultDeliveryOutbox.enqueueEmail(any(PatientLink.class))).thenReturn(true);
 
     // WHEN
     List<MultiplexResultInput> positiveCovidOnlyResult = makeCovidOnlyResult(TestResult.POSITIVE);
@@ -956,8 +1035,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             null);
 
     // THEN
-    verify(testResultsDeliveryService).emailTestResults(any(PatientLink.class));
-    verify(testResultsDeliveryService).smsTestResults(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueEmail(any(PatientLink.class));
+    verify(resultDeliveryOutbox).enqueueSms(any(PatientLink.class));
     assertTrue(res.getDeliverySuccess());
   }
 
@@ -996,9 +1075,10 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     // THEN
     assertTrue(res.getDeliverySuccess());
-    verifyNoInteractions(testResultsDeliveryService);
-    verify(testEventReportingService).report(any());
-    verify(fhirQueueReportingService).report(any());
+    verifyNoInteractions(resultDeliveryOutbox);
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(any());
+    verify(fhirQueueReportingService).reportAsync(any());
   }
 
   @Test
@@ -1530,8 +1610,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     // make sure the corrected event is sent to storage queue, which gets picked up to be delivered
     // to report stream
-    verify(testEventReportingService).report(deleteMarkerEvent);
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(sameTestEvent(deleteMarkerEvent));
+    verify(fhirQueueReportingService).reportAsync(any());
   }
 
   @Test
@@ -1595,7 +1676,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, testEventCount);
 
     // Does not report to ReportStream
-    verify(testEventReportingService, times(0)).report(e);
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService, times(0)).reportAsync(sameTestEvent(e));
   }
 
   @Test
@@ -1873,7 +1955,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
             .getFacilityTestEventsResults(_site.getInternalId(), null, null, null, null, null, 3, 5)
             .toList();
 
-    Collections.reverse(testEvents);
+    // results are listed newest test first
+    testEvents.sort(Comparator.comparing(TestEvent::getDateTested).reversed());
 
     assertTestResultsList(results_page0, testEvents.subList(0, 5));
     assertTestResultsList(results_page1, testEvents.subList(5, 10));
@@ -1881,6 +1964,44 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, results_page3.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getTestEventsResultsAfter_cursorPagination() {
+    List<TestEvent> testEvents = makedata();
+    testEvents.sort(Comparator.comparing(TestEvent::getDateTested).reversed());
+
+    CursorPage<TestEvent> page0 =
+        _service.getFacilityTestEventsResultsAfter(
+            _site.getInternalId(), null, null, null, null, null, null, 5);
+    CursorPage<TestEvent> page1 =
+        _service.getFacilityTestEventsResultsAfter(
+            _site.getInternalId(),
+            null,
+            null,
+            null,
+            null,
+            null,
+            ResultsCursor.decode(page0.getEndCursor()),
+            5);
+    CursorPage<TestEvent> page2 =
+        _service.getFacilityTestEventsResultsAfter(
+            _site.getInternalId(),
+            null,
+            null,
+            null,
+            null,
+            null,
+            ResultsCursor.decode(page1.getEndCursor()),
+            5);
+
+    assertTestResultsList(page0.getContent(), testEvents.subList(0, 5));
+    assertTestResultsList(page1.getContent(), testEvents.subList(5, 10));
+    assertTestResultsList(page2.getContent(), testEvents.subList(10, 11));
+    assertTrue(page1.getHasNextPage());
+    assertFalse(page2.getHasNextPage());
+    assertEquals(11, page2.getTotalElements());
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getTestEventsResults_filtering() {
@@ -1971,7 +2092,8 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
                 10)
             .toList();
 
-    Collections.reverse(testEvents);
+    // results are listed newest test first
+    testEvents.sort(Comparator.comparing(TestEvent::getDateTested).reversed());
 
     assertTestResultsList(
         positives,
@@ -2218,6 +2340,7 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertThrows(AccessDeniedException.class, () -> _service.getTestResult(testEventId));
 
     // make sure the corrected event is not sent to storage queue
+    _outboxDispatcher.dispatchPendingReports();
     verifyNoInteractions(testEventReportingService);
     verifyNoInteractions(fhirQueueReportingService);
 
@@ -2227,8 +2350,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         facility.getInternalId(), null, null, null, null, null, 0, 10);
     _service.getTestResult(_e.getInternalId()).getTestOrder();
     // make sure the corrected event is sent to storage queue
-    verify(testEventReportingService).report(correctedTestEvent);
-    verify(fhirQueueReportingService).report(any());
+    _outboxDispatcher.dispatchPendingReports();
+    verify(testEventReportingService).reportAsync(sameTestEvent(correctedTestEvent));
+    verify(fhirQueueReportingService).reportAsync(any());
   }
 
   @Test
@@ -2294,8 +2418,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
         null);
 
     // THEN
+    _outboxDispatcher.dispatchPendingReports();
     verify(reportTestEventToRSEventListener, times(1)).handleEvent(any());
-    verify(testEventReportingService, times(1)).report(any());
+    verify(testEventReportingService, times(1)).reportAsync(any());
   }
 
   @Test
@@ -2321,8 +2446,14 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
 
     // THEN
     // Invoked once when result is added, invoked again when marked as error
+    _outboxDispatcher.dispatchPendingReports();
     verify(reportTestEventToRSEventListener, times(2)).handleEvent(any());
-    verify(testEventReportingService, times(2)).report(any());
+    verify(testEventReportingService, times(2)).reportAsync(any());
+  }
+
+  // reported events are reloaded from the outbox, so they are a different instance of the entity
+  private static TestEvent sameTestEvent(TestEvent expected) {
+    return argThat(sent -> sent.getInternalId().equals(expected.getInternalId()));
   }
 
   private List<TestEvent> makeAdminData() {
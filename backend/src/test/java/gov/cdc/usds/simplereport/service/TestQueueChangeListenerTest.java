@@ -0,0 +1,102 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+    properties = {
+      "simple-report.test-queue-events.enabled=true",
+      "simple-report.test-queue-events.poll-interval=PT0.1S"
+    })
+class TestQueueChangeListenerTest extends BaseServiceTest<TestQueueChangeListener> {
+
+  @Autowired private TestOrderService _testOrderService;
+  @Autowired private OrganizationService _organizationService;
+  @Autowired private DataSource _dataSource;
+  @Autowired private TestOrderRepository _testOrderRepository;
+
+  private Facility facility;
+  private Facility otherFacility;
+  private Person patient;
+
+  @BeforeEach
+  void setup() throws InterruptedException {
+    Organization org = _organizationService.getCurrentOrganization();
+    facility = _dataFactory.createValidFacility(org);
+    otherFacility = _dataFactory.createValidFacility(org, "Other Facility");
+    patient = _dataFactory.createFullPerson(org);
+    awaitListening(_service, true);
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void subscribe_queueChanges_subscriberToldNewVersion() throws InterruptedException {
+    BlockingQueue<Long> versions = new LinkedBlockingQueue<>();
+    BlockingQueue<Long> otherVersions = new LinkedBlockingQueue<>();
+    _service.subscribe(facility.getInternalId(), versions::add);
+    _service.subscribe(otherFacility.getInternalId(), otherVersions::add);
+
+    _testOrderService.addPatientToQueue(
+        facility.getInternalId(), patient, "", "", Collections.emptyMap(), null, false);
+
+    assertThat(versions.poll(10, TimeUnit.SECONDS)).isEqualTo(1L);
+    _testOrderService.removePatientFromQueue(patient.getInternalId());
+    assertThat(versions.poll(10, TimeUnit.SECONDS)).isEqualTo(2L);
+    assertThat(otherVersions).isEmpty();
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void subscribe_afterUnsubscribing_subscriberNotTold() throws InterruptedException {
+    BlockingQueue<Long> versions = new LinkedBlockingQueue<>();
+    BlockingQueue<Long> stillSubscribed = new LinkedBlockingQueue<>();
+    Runnable unsubscribe = _service.subscribe(facility.getInternalId(), versions::add);
+    _service.subscribe(facility.getInternalId(), stillSubscribed::add);
+
+    unsubscribe.run();
+    _testOrderService.addPatientToQueue(
+        facility.getInternalId(), patient, "", "", Collections.emptyMap(), null, false);
+
+    // once the remaining subscriber has heard, the other would have too
+    assertThat(stillSubscribed.poll(10, TimeUnit.SECONDS)).isEqualTo(1L);
+    assertThat(versions.poll(200, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  void stop_whileWaitingForNotifications_stopsListening() throws InterruptedException {
+    // a wait far longer than the test, so only dropping the connection can end it
+    var listener =
+        new TestQueueChangeListener(
+            _dataSource, _testOrderRepository, true, Duration.ofHours(1), Duration.ofSeconds(1));
+    listener.start();
+    awaitListening(listener, true);
+
+    listener.stop();
+
+    awaitListening(listener, false);
+  }
+
+  private static void awaitListening(TestQueueChangeListener listener, boolean listening)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (listener.isListening() != listening && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertThat(listener.isListening()).isEqualTo(listening);
+  }
+}
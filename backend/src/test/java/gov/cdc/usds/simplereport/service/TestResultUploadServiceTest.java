@@ -9,12 +9,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.MappingIterator;
@@ -42,14 +46,20 @@ import gov.cdc.usds.simplereport.service.model.reportstream.UploadResponse;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import gov.cdc.usds.simplereport.utils.BulkUploadResultsToFhir;
+import gov.cdc.usds.simplereport.utils.DateGenerator;
 import gov.cdc.usds.simplereport.utils.TokenAuthentication;
 import gov.cdc.usds.simplereport.validators.FileValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -59,6 +69,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
@@ -86,6 +98,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
   @Captor private ArgumentCaptor<UUID> reportIdCaptor;
   @Captor private ArgumentCaptor<String> accessTokenCaptor;
   @Mock private DataHubClient dataHubMock;
+  @Mock private DataHubFileUploadClient fileUploadMock;
   @Mock private TestResultUploadRepository repoMock;
   @Mock private ResultUploadErrorRepository errorRepoMock;
   @Mock private UploadDiseaseDetailsRepository uploadDiseaseDetailsRepository;
@@ -101,6 +114,20 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
   public void init() {
     initSampleData();
     ReflectionTestUtils.setField(sut, "processingModeCodeValue", "P");
+    ReflectionTestUtils.setField(
+        sut,
+        "reportStreamTokenManager",
+        new ReportStreamTokenManager(
+            dataHubMock,
+            tokenAuthMock,
+            new DateGenerator(),
+            "http://localhost:9561",
+            "simple_report.csvuploader",
+            "signing-key",
+            "simple_report.*.report",
+            Duration.ofMinutes(5),
+            Duration.ofMinutes(1),
+            new SimpleMeterRegistry()));
   }
 
   @Test
@@ -222,7 +249,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     when(resultsUploaderCachingServiceMock.getCovidEquipmentModelAndTestPerformedCodeSet())
         .thenReturn(Set.of(ResultsUploaderCachingService.getKey("ID NOW", "94534-5")));
 
-    when(csvFileValidatorMock.validate(any())).thenReturn(Collections.emptyList());
+    when(csvFileValidatorMock.validate(any(), any())).thenReturn(Collections.emptyList());
     when(dataHubMock.uploadCSV(any())).thenReturn(response);
     when(repoMock.save(any())).thenReturn(result);
 
@@ -231,6 +258,18 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     assertEquals(UploadStatus.PENDING, output.get(0).getStatus());
   }
 
+  @Test
+  void processResultCSV_prefetchesProviderTimezonesCollectedDuringValidation() {
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid.csv");
+    setup_validatorAcceptsEveryRow();
+
+    sut.processResultCSV(input);
+
+    verify(resultsUploaderCachingServiceMock)
+        .prefetchZoneIdsByAddress(
+            Set.of(new StreetAddress("400 Main Street", "", "Birmingham", "AL", "35228", null)));
+  }
+
   @Test
   void mockResponse_returnsGatewayTimeout() {
     InputStream input = loadCsv("testResultUpload/test-results-upload-valid.csv");
@@ -248,7 +287,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
         Request.create(Request.HttpMethod.POST, "", new HashMap<>(), null, new RequestTemplate());
     FeignException reportStreamResponse =
         new FeignException.GatewayTimeout(responseBody, req, null, new HashMap<>());
-    when(csvFileValidatorMock.validate(any())).thenReturn(Collections.emptyList());
+    when(csvFileValidatorMock.validate(any(), any())).thenReturn(Collections.emptyList());
     when(dataHubMock.uploadCSV(any())).thenThrow(reportStreamResponse);
     when(resultsUploaderCachingServiceMock.getCovidEquipmentModelAndTestPerformedCodeSet())
         .thenReturn(Set.of(ResultsUploaderCachingService.getKey("ID NOW", "94534-5")));
@@ -275,7 +314,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     UUID reportId = UUID.randomUUID();
 
     // GIVEN
-    when(csvFileValidatorMock.validate(any())).thenReturn(Collections.emptyList());
+    when(csvFileValidatorMock.validate(any(), any())).thenReturn(Collections.emptyList());
     when(orgServiceMock.getCurrentOrganization()).thenReturn(factory.saveValidOrganization());
     var testResultUpload =
         factory.createTestResultUpload(
@@ -317,7 +356,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
   void uploadService_getUploadSubmission_fileInvalidData() {
     // GIVEN
     InputStream invalidInput = new ByteArrayInputStream("invalid".getBytes());
-    when(csvFileValidatorMock.validate(any()))
+    when(csvFileValidatorMock.validate(any(), any()))
         .thenReturn(List.of(FeedbackMessage.builder().message("my lovely error message").build()));
     when(orgServiceMock.getCurrentOrganization()).thenReturn(factory.saveValidOrganization());
 
@@ -456,7 +495,9 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     sut.processResultCSV(input);
 
     verify(dataHubMock).uploadCSV(fileContentCaptor.capture());
-    verify(dataHubMock).uploadFhir(stringCaptor.capture(), stringCaptor.capture());
+    verify(dataHubMock).uploadFhir(fileContentCaptor.capture(), stringCaptor.capture());
+    assertThat(new String(fileContentCaptor.getValue(), StandardCharsets.UTF_8))
+        .isEqualTo("a\nb\nc");
   }
 
   @Test
@@ -509,7 +550,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
 
     // then
     verify(dataHubMock).uploadCSV(fileContentCaptor.capture());
-    verify(dataHubMock).uploadFhir(stringCaptor.capture(), stringCaptor.capture());
+    verify(dataHubMock).uploadFhir(any(), stringCaptor.capture());
 
     assertEquals(UploadStatus.PENDING, output.get(0).getStatus());
     assertEquals(output.get(0).getReportId(), csvReportId);
@@ -576,7 +617,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
 
     // then
     verify(dataHubMock).uploadCSV(fileContentCaptor.capture());
-    verify(dataHubMock).uploadFhir(stringCaptor.capture(), stringCaptor.capture());
+    verify(dataHubMock).uploadFhir(any(), stringCaptor.capture());
 
     verify(repoMock, Mockito.times(1)).save(any());
     assertEquals(UploadStatus.PENDING, output.get(0).getStatus());
@@ -877,7 +918,7 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     when(tokenAuthMock.createRSAJWT(anyString(), anyString(), any(Date.class), anyString()))
         .thenReturn("fake-rs-sender-token");
     when(orgServiceMock.getCurrentOrganization()).thenReturn(factory.saveValidOrganization());
-    when(dataHubMock.uploadFhir(anyString(), anyString())).thenReturn(response);
+    when(dataHubMock.uploadFhir(any(), anyString())).thenReturn(response);
     when(resultsUploaderCachingServiceMock.getSpecimenTypeNameToSNOMEDMap())
         .thenReturn(Map.of("nasal swab", "000111222"));
     when(resultsUploaderCachingServiceMock.getCovidEquipmentModelAndTestPerformedCodeSet())
@@ -889,7 +930,142 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
 
     // THEN
     verify(dataHubMock, never()).uploadCSV(any());
-    verify(dataHubMock, times(1)).uploadFhir(anyString(), anyString());
+    verify(dataHubMock, times(1)).uploadFhir(any(), anyString());
+  }
+
+  @Test
+  @SliceTestConfiguration.WithSimpleReportStandardUser
+  void uploadService_processCsv_streaming_submitsSameContentToBothPipelines() throws IOException {
+    // GIVEN
+    List<String> csvBodies = new ArrayList<>();
+    List<String> fhirBodies = new ArrayList<>();
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv");
+    setup_streamingTestResultsUpload();
+    // the spooled files are gone once the upload is done, so read them as they are sent
+    when(fileUploadMock.uploadCSV(any()))
+        .thenAnswer(
+            invocation -> {
+              csvBodies.add(Files.readString(invocation.<Path>getArgument(0)));
+              return buildUploadResponse();
+            });
+    when(fileUploadMock.uploadFhir(any(), eq(false), anyString()))
+        .thenAnswer(
+            invocation -> {
+              fhirBodies.add(Files.readString(invocation.<Path>getArgument(0)));
+              return buildUploadResponse();
+            });
+
+    // WHEN
+    var output = sut.processResultCSV(input);
+
+    // THEN
+    assertThat(output).hasSize(2);
+    var expectedStream =
+        loadCsv(
+            "testResultUpload/test-results-upload-valid-with-escaped-commas-expected-transform.csv");
+    assertThat(csvBodies).containsExactly(new String(expectedStream.readAllBytes()));
+    assertThat(fhirBodies).containsExactly("a\nb\nc");
+    // spooled uploads are streamed from disk rather than sent as byte arrays
+    verify(dataHubMock, never()).uploadCSV(any());
+    verify(dataHubMock, never()).uploadFhir(any(), anyString());
+  }
+
+  @Test
+  @SliceTestConfiguration.WithSimpleReportStandardUser
+  void uploadService_processCsv_streaming_doesNotSubmitInvalidFile() {
+    // GIVEN
+    ReflectionTestUtils.setField(sut, "streamingUploadEnabled", true);
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid.csv");
+    when(orgServiceMock.getCurrentOrganization()).thenReturn(factory.saveValidOrganization());
+    when(csvFileValidatorMock.validate(any(), any()))
+        .thenReturn(List.of(FeedbackMessage.builder().message("bad row").build()));
+
+    // WHEN
+    var output = sut.processResultCSV(input);
+
+    // THEN
+    assertThat(output).hasSize(1);
+    assertThat(output.get(0).getStatus()).isEqualTo(FAILURE);
+    verify(errorRepoMock).saveAll(any());
+    verifyNoInteractions(fileUploadMock);
+  }
+
+  @Test
+  @SliceTestConfiguration.WithSimpleReportStandardUser
+  void uploadService_processCsv_streaming_splitsFhirIntoGzippedReports() throws IOException {
+    // GIVEN
+    ReflectionTestUtils.setField(sut, "fhirBundlesPerReport", 2);
+    ReflectionTestUtils.setField(sut, "gzipFhirUploads", true);
+    List<byte[]> fhirBodies = Collections.synchronizedList(new ArrayList<>());
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv");
+    setup_streamingTestResultsUpload();
+    when(fileUploadMock.uploadFhir(any(), eq(true), anyString()))
+        .thenAnswer(
+            invocation -> {
+              fhirBodies.add(Files.readAllBytes(invocation.<Path>getArgument(0)));
+              return buildUploadResponse();
+            });
+
+    // WHEN
+    var output = sut.processResultCSV(input);
+
+    // THEN
+    assertThat(output).hasSize(3);
+    verify(fileUploadMock, never()).uploadFhir(any(), eq(false), anyString());
+    var reports = new ArrayList<String>();
+    for (byte[] body : fhirBodies) {
+      try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+        reports.add(new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+    assertThat(reports).containsExactlyInAnyOrder("a\nb", "c");
+  }
+
+  @Test
+  @SliceTestConfiguration.WithSimpleReportStandardUser
+  void uploadService_processCsv_streaming_chunkedReportsSavedUnderOwnSubmissionIds() {
+    // GIVEN
+    ReflectionTestUtils.setField(sut, "fhirBundlesPerReport", 2);
+    ArgumentCaptor<TestResultUpload> uploadCaptor = ArgumentCaptor.forClass(TestResultUpload.class);
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv");
+    setup_streamingTestResultsUpload();
+
+    // WHEN
+    sut.processResultCSV(input);
+
+    // THEN
+    verify(repoMock, times(3)).save(uploadCaptor.capture());
+    var covidUpload =
+        uploadCaptor.getAllValues().stream()
+            .filter(upload -> upload.getDestination() == Pipeline.COVID)
+            .findFirst()
+            .orElseThrow();
+    var submissionId = covidUpload.getSubmissionId();
+    assertThat(
+            uploadCaptor.getAllValues().stream()
+                .filter(upload -> upload.getDestination() == Pipeline.UNIVERSAL)
+                .map(TestResultUpload::getSubmissionId))
+        .containsExactlyInAnyOrder(
+            submissionId, TestResultUploadService.chunkSubmissionId(submissionId, 1));
+  }
+
+  @Test
+  @SliceTestConfiguration.WithSimpleReportStandardUser
+  void uploadService_processCsv_streaming_reportsProgress() {
+    // GIVEN
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv");
+    setup_streamingTestResultsUpload();
+    var progress = mock(UploadProgressListener.class);
+
+    // WHEN
+    sut.processResultCSV(input, progress);
+
+    // THEN
+    verify(progress, times(3)).rowValidated();
+    verify(progress, times(3)).rowsConverted(1);
+    // "a\nb\nc" to the universal pipeline, and the transformed csv to the covid pipeline
+    verify(progress).bytesSubmitted(5);
+    verify(progress, times(2)).bytesSubmitted(anyLong());
   }
 
   @NotNull
@@ -913,6 +1089,41 @@ class TestResultUploadServiceTest extends BaseServiceTest<TestResultUploadServic
     when(repoMock.save(any())).thenReturn(mock(TestResultUpload.class));
   }
 
+  void setup_streamingTestResultsUpload() {
+    ReflectionTestUtils.setField(sut, "streamingUploadEnabled", true);
+    UploadResponse response = buildUploadResponse();
+    var tokenResponse = new TokenResponse();
+    tokenResponse.setAccessToken("fake-rs-access-token");
+    setup_validatorAcceptsEveryRow();
+    when(bulkUploadFhirConverterMock.convertToSerializedFhirBundle(any(), any(), any()))
+        .thenReturn("a", "b", "c");
+    when(dataHubMock.fetchAccessToken(anyString())).thenReturn(tokenResponse);
+    when(tokenAuthMock.createRSAJWT(anyString(), anyString(), any(Date.class), anyString()))
+        .thenReturn("fake-rs-sender-token");
+    when(orgServiceMock.getCurrentOrganization()).thenReturn(factory.saveValidOrganization());
+    when(fileUploadMock.uploadCSV(any())).thenReturn(response);
+    when(fileUploadMock.uploadFhir(any(), anyBoolean(), anyString())).thenReturn(response);
+    when(resultsUploaderCachingServiceMock.getSpecimenTypeNameToSNOMEDMap())
+        .thenReturn(Map.of("nasal swab", "000111222"));
+    when(resultsUploaderCachingServiceMock.getCovidEquipmentModelAndTestPerformedCodeSet())
+        .thenReturn(Set.of(ResultsUploaderCachingService.getKey("ID NOW", "94534-5")));
+    when(repoMock.save(any())).thenReturn(mock(TestResultUpload.class));
+  }
+
+  void setup_validatorAcceptsEveryRow() {
+    when(csvFileValidatorMock.validate(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              BiConsumer<Map<String, String>, TestResultRow> consumer = invocation.getArgument(1);
+              var valueIterator = getIteratorForCsv(invocation.<InputStream>getArgument(0));
+              while (valueIterator.hasNext()) {
+                var row = getNextRow(valueIterator);
+                consumer.accept(row, new TestResultRow(row));
+              }
+              return List.of();
+            });
+  }
+
   @NotNull
   private static TestResultRow getRowFromUpload(DataHubClient dataHubMock) {
     ArgumentCaptor<byte[]> fileContentCaptor = ArgumentCaptor.forClass(byte[].class);
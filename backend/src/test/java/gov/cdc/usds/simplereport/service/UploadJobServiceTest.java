@@ -0,0 +1,186 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.api.model.errors.CsvProcessingException;
+import gov.cdc.usds.simplereport.db.model.TestResultUpload;
+import gov.cdc.usds.simplereport.db.model.UploadJob;
+import gov.cdc.usds.simplereport.db.model.auxiliary.Pipeline;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobResult;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadJobType;
+import gov.cdc.usds.simplereport.db.model.auxiliary.UploadStatus;
+import gov.cdc.usds.simplereport.db.repository.UploadJobRepository;
+import gov.cdc.usds.simplereport.service.errors.InvalidBulkTestResultUploadException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {"simple-report.upload-jobs.progress-interval=PT0S"})
+class UploadJobServiceTest extends BaseServiceTest<UploadJobService> {
+  private static final byte[] CSV = "header\nrow1\nrow2\n".getBytes(StandardCharsets.UTF_8);
+
+  @MockBean private TestResultUploadService _testResultUploadService;
+  @Autowired private UploadJobRepository _uploadJobRepository;
+  @Autowired private OrganizationService _organizationService;
+
+  @BeforeEach
+  void setup() {
+    initSampleData();
+  }
+
+  @Test
+  void submitResultsUpload_processedInBackgroundAsUploader() throws InterruptedException {
+    var reportId = UUID.randomUUID();
+    var workerAuthentication = new AtomicReference<Authentication>();
+    when(_testResultUploadService.processResultCSV(
+            any(InputStream.class), any(UploadProgressListener.class)))
+        .thenAnswer(
+            invocation -> {
+              workerAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+              UploadProgressListener progress = invocation.getArgument(1);
+              progress.rowValidated();
+              progress.rowValidated();
+              progress.rowsConverted(2);
+              progress.bytesSubmitted(42);
+              return List.of(
+                  TestResultUpload.builder()
+                      .reportId(reportId)
+                      .status(UploadStatus.PENDING)
+                      .recordsCount(2)
+                      .destination(Pipeline.UNIVERSAL)
+                      .build());
+            });
+
+    var submitted = _service.submitResultsUpload(new ByteArrayInputStream(CSV));
+
+    assertThat(submitted.getFileSize()).isEqualTo(CSV.length);
+    var job = awaitJob(submitted.getInternalId(), j -> j.getStatus() == UploadJobStatus.COMPLETE);
+    assertThat(job.getFileContent()).isNull();
+    assertThat(job.getRowsValidated()).isEqualTo(2);
+    assertThat(job.getRowsConverted()).isEqualTo(2);
+    assertThat(job.getBytesSubmitted()).isEqualTo(42);
+    assertThat(job.getResults())
+        .extracting(UploadJobResult::reportId, UploadJobResult::status)
+        .containsExactly(tuple(reportId, UploadStatus.PENDING));
+    assertThat(workerAuthentication.get().getName())
+        .isEqualTo(SecurityContextHolder.getContext().getAuthentication().getName());
+  }
+
+  @Test
+  void submitResultsUpload_progressVisibleWhileRunning() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    when(_testResultUploadService.processResultCSV(
+            any(InputStream.class), any(UploadProgressListener.class)))
+        .thenAnswer(
+            invocation -> {
+              UploadProgressListener progress = invocation.getArgument(1);
+              progress.rowValidated();
+              release.await(10, TimeUnit.SECONDS);
+              return List.of();
+            });
+
+    var submitted = _service.submitResultsUpload(new ByteArrayInputStream(CSV));
+
+    var running =
+        awaitJob(
+            submitted.getInternalId(),
+            j -> j.getStatus() == UploadJobStatus.PROCESSING && j.getRowsValidated() == 1);
+    assertThat(running.getFileContent()).isNull();
+    release.countDown();
+    awaitJob(submitted.getInternalId(), j -> j.getStatus() == UploadJobStatus.COMPLETE);
+  }
+
+  @Test
+  void submitConditionAgnosticResultsUpload_processingFails_jobFailed()
+      throws InterruptedException {
+    when(_testResultUploadService.processConditionAgnosticResultCSV(
+            any(InputStream.class), any(UploadProgressListener.class)))
+        .thenThrow(new CsvProcessingException("Unable to read csv"));
+
+    var submitted = _service.submitConditionAgnosticResultsUpload(new ByteArrayInputStream(CSV));
+
+    var job = awaitJob(submitted.getInternalId(), j -> j.getStatus() == UploadJobStatus.FAILED);
+    assertThat(job.getFailureMessage()).isEqualTo("Unable to read csv");
+    assertThat(job.getResults()).isNull();
+  }
+
+  @Test
+  void failAbandonedJobs_leaseRunOut_jobFailed() {
+    var abandoned =
+        _uploadJobRepository.save(
+            new UploadJob(
+                _organizationService.getCurrentOrganization(),
+                UploadJobType.RESULTS,
+                CSV,
+                new Date(System.currentTimeMillis() - 1000)));
+
+    _service.failAbandonedJobs();
+
+    var job = _service.getUploadJob(abandoned.getInternalId());
+    assertThat(job.getStatus()).isEqualTo(UploadJobStatus.FAILED);
+    assertThat(job.getFailureMessage()).isEqualTo(UploadJobService.INTERRUPTED_MESSAGE);
+    assertThat(job.getFileContent()).isNull();
+  }
+
+  @Test
+  void failAbandonedJobs_leaseRenewedWhileRunning_jobLeftAlone() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    when(_testResultUploadService.processResultCSV(
+            any(InputStream.class), any(UploadProgressListener.class)))
+        .thenAnswer(
+            invocation -> {
+              release.await(10, TimeUnit.SECONDS);
+              return List.of();
+            });
+    var submitted = _service.submitResultsUpload(new ByteArrayInputStream(CSV));
+    awaitJob(submitted.getInternalId(), j -> j.getStatus() == UploadJobStatus.PROCESSING);
+    _uploadJobRepository.renewLeases(
+        Set.of(submitted.getInternalId()), new Date(System.currentTimeMillis() - 1000));
+
+    _service.renewLeases();
+    _service.failAbandonedJobs();
+
+    assertThat(_service.getUploadJob(submitted.getInternalId()).getStatus())
+        .isEqualTo(UploadJobStatus.PROCESSING);
+    release.countDown();
+    awaitJob(submitted.getInternalId(), j -> j.getStatus() == UploadJobStatus.COMPLETE);
+  }
+
+  @Test
+  void getUploadJob_unknownId_throws() {
+    var id = UUID.randomUUID();
+
+    assertThrows(InvalidBulkTestResultUploadException.class, () -> _service.getUploadJob(id));
+  }
+
+  private UploadJob awaitJob(UUID id, Predicate<UploadJob> condition) throws InterruptedException {
+    for (int attempt = 0; attempt < 200; attempt++) {
+      var job = _service.getUploadJob(id);
+      if (condition.test(job)) {
+        return job;
+      }
+      Thread.sleep(50);
+    }
+    throw new AssertionError("Upload job " + id + " never reached the expected state");
+  }
+}
@@ -12,7 +12,10 @@ public class DatasourceProxyBeanPostProcessor implements BeanPostProcessor {
   @Override
   public Object postProcessAfterInitialization(Object bean, String beanName) {
     if (bean instanceof DataSource dataSource) {
-      return ProxyDataSourceBuilder.create(dataSource).countQuery(QUERY_COUNT_HOLDER).build();
+      return ProxyDataSourceBuilder.create(dataSource)
+          .countQuery(QUERY_COUNT_HOLDER)
+          .listener(QueryCaptureService.LISTENER)
+          .build();
     }
     return bean;
   }
@@ -0,0 +1,68 @@
+package gov.cdc.usds.simplereport.service.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Records the SQL the current thread runs, with its parameters, for tests that need to look at
+ * the queries the application actually sends, such as to check their plans.
+ */
+@UtilityClass
+public class QueryCaptureService {
+  private static final ThreadLocal<List<CapturedQuery>> CAPTURED = new ThreadLocal<>();
+
+  static final QueryExecutionListener LISTENER =
+      new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+          // only completed queries are recorded
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+          List<CapturedQuery> captured = CAPTURED.get();
+          if (captured != null) {
+            queryInfoList.forEach(query -> captured.addAll(CapturedQuery.of(query)));
+          }
+        }
+      };
+
+  /** Runs {@code work}, and returns every query it ran on this thread, in order. */
+  public static List<CapturedQuery> capture(Runnable work) {
+    List<CapturedQuery> captured = new ArrayList<>();
+    CAPTURED.set(captured);
+    try {
+      work.run();
+    } finally {
+      CAPTURED.remove();
+    }
+    return captured;
+  }
+
+  /** A query as sent, with its parameters in order; one per batch entry for batched statements. */
+  public record CapturedQuery(String sql, Object[] parameters) {
+    private static List<CapturedQuery> of(QueryInfo query) {
+      if (query.getParametersList().isEmpty()) {
+        return List.of(new CapturedQuery(query.getQuery(), new Object[0]));
+      }
+      return query.getParametersList().stream()
+          .map(operations -> new CapturedQuery(query.getQuery(), parameters(operations)))
+          .toList();
+    }
+
+    private static Object[] parameters(List<ParameterSetOperation> operations) {
+      Object[] parameters = new Object[operations.size()];
+      for (ParameterSetOperation operation : operations) {
+        Object[] args = operation.getArgs();
+        // args are the parameter's (1-based) index, then its value
+        parameters[(Integer) args[0] - 1] = args[1];
+      }
+      return parameters;
+    }
+  }
+}
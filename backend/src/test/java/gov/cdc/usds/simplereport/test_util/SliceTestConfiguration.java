@@ -9,6 +9,7 @@ import gov.cdc.usds.simplereport.api.heathcheck.BackendAndDatabaseHealthIndicato
 import gov.cdc.usds.simplereport.api.pxp.CurrentPatientContextHolder;
 import gov.cdc.usds.simplereport.config.AuditingConfig;
 import gov.cdc.usds.simplereport.config.AuthorizationProperties;
+import gov.cdc.usds.simplereport.config.CachingConfig;
 import gov.cdc.usds.simplereport.config.InitialSetupProperties;
 import gov.cdc.usds.simplereport.config.SendGridDisabledConfiguration;
 import gov.cdc.usds.simplereport.config.authorization.DemoAuthenticationConfiguration;
@@ -17,9 +18,11 @@ import gov.cdc.usds.simplereport.config.simplereport.DemoUserConfiguration;
 import gov.cdc.usds.simplereport.config.simplereport.DemoUserConfiguration.DemoUser;
 import gov.cdc.usds.simplereport.db.repository.BaseRepositoryTest;
 import gov.cdc.usds.simplereport.idp.repository.DemoOktaRepository;
+import gov.cdc.usds.simplereport.service.ApiUserLastSeenTracker;
 import gov.cdc.usds.simplereport.service.ApiUserService;
 import gov.cdc.usds.simplereport.service.AuthorizationService;
 import gov.cdc.usds.simplereport.service.BaseServiceTest;
+import gov.cdc.usds.simplereport.service.CurrentPrincipalCache;
 import gov.cdc.usds.simplereport.service.DiseaseCacheService;
 import gov.cdc.usds.simplereport.service.DiseaseService;
 import gov.cdc.usds.simplereport.service.LoggedInAuthorizationService;
@@ -27,6 +30,7 @@ import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
 import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.PatientSelfRegistrationLinkService;
 import gov.cdc.usds.simplereport.service.ResultService;
+import gov.cdc.usds.simplereport.service.ResultsCursorPager;
 import gov.cdc.usds.simplereport.service.TenantDataAccessService;
 import gov.cdc.usds.simplereport.service.email.EmailService;
 import gov.cdc.usds.simplereport.service.model.IdentitySupplier;
@@ -91,9 +95,13 @@ import org.springframework.security.test.context.support.WithMockUser;
   OrganizationExtractor.class,
   OrganizationService.class,
   ApiUserService.class,
+  ApiUserLastSeenTracker.class,
   DiseaseService.class,
   DiseaseCacheService.class,
+  CachingConfig.class,
+  CurrentPrincipalCache.class,
   ResultService.class,
+  ResultsCursorPager.class,
   OrganizationInitializingService.class,
   CurrentPatientContextHolder.class,
   CurrentAccountRequestContextHolder.class,
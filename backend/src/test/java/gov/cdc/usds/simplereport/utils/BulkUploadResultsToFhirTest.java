@@ -2,6 +2,7 @@ package gov.cdc.usds.simplereport.utils;
 
 import static gov.cdc.usds.simplereport.test_util.JsonTestUtils.assertJsonNodesEqual;
 import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getIteratorForCsv;
+import static gov.cdc.usds.simplereport.validators.CsvValidatorUtils.getNextRow;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -15,9 +16,11 @@ import ca.uhn.fhir.parser.IParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartystreets.api.exceptions.SmartyException;
 import gov.cdc.usds.simplereport.api.converter.FhirConverter;
+import gov.cdc.usds.simplereport.api.model.filerow.TestResultRow;
 import gov.cdc.usds.simplereport.db.model.auxiliary.FHIRBundleRecord;
 import gov.cdc.usds.simplereport.service.ResultsUploaderCachingService;
 import gov.cdc.usds.simplereport.test_util.TestDataBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -57,6 +60,8 @@ public class BulkUploadResultsToFhirTest {
   final IParser parser = ctx.newJsonParser();
   private final UUIDGenerator uuidGenerator = new UUIDGenerator();
   private final DateGenerator dateGenerator = new DateGenerator();
+  private static final FhirConversionExecutor conversionExecutor =
+      new FhirConversionExecutor(4, 100, new SimpleMeterRegistry());
   BulkUploadResultsToFhir sut;
 
   @BeforeAll
@@ -96,7 +101,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             uuidGenerator,
             dateGenerator,
-            fhirConverter);
+            fhirConverter,
+            conversionExecutor);
   }
 
   @Test
@@ -297,7 +303,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             mockedUUIDGenerator,
             mockedDateGenerator,
-            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator));
+            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator),
+            conversionExecutor);
 
     InputStream csvStream = loadCsv("testResultUpload/test-results-upload-valid.csv");
 
@@ -337,7 +344,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             mockedUUIDGenerator,
             mockedDateGenerator,
-            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator));
+            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator),
+            conversionExecutor);
 
     InputStream csvStream =
         loadCsv("testResultUpload/test-results-upload-valid-with-specimenType-loinc.csv");
@@ -375,7 +383,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             mockedUUIDGenerator,
             mockedDateGenerator,
-            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator));
+            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator),
+            conversionExecutor);
 
     InputStream csvStream = loadCsv("testResultUpload/test-results-upload-valid-with-comments.csv");
 
@@ -410,7 +419,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             mockedUUIDGenerator,
             mockedDateGenerator,
-            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator));
+            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator),
+            conversionExecutor);
 
     InputStream csvStream = loadCsv("testResultUpload/test-results-upload-valid-flu-only.csv");
 
@@ -445,7 +455,8 @@ public class BulkUploadResultsToFhirTest {
             gitProperties,
             mockedUUIDGenerator,
             mockedDateGenerator,
-            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator));
+            new FhirConverter(mockedUUIDGenerator, mockedDateGenerator),
+            conversionExecutor);
 
     InputStream csvStream =
         loadCsv("testResultUpload/test-results-upload-valid-different-results.csv");
@@ -483,6 +494,41 @@ public class BulkUploadResultsToFhirTest {
             + " milliseconds.");
   }
 
+  @Test
+  void convertRows_resourceMemoPerUpload_sameBundles() {
+    var fixedUUIDGenerator = mock(UUIDGenerator.class);
+    when(fixedUUIDGenerator.randomUUID())
+        .thenReturn(UUID.fromString("5db534ea-5e97-4861-ba18-d74acc46db15"));
+    var fixedDateGenerator = mock(DateGenerator.class);
+    when(fixedDateGenerator.newDate())
+        .thenReturn(Date.from(Instant.parse("2023-05-24T19:33:06.472Z")));
+    sut =
+        new BulkUploadResultsToFhir(
+            resultsUploaderCachingService,
+            gitProperties,
+            fixedUUIDGenerator,
+            fixedDateGenerator,
+            new FhirConverter(fixedUUIDGenerator, fixedDateGenerator),
+            conversionExecutor);
+    var orgId = UUID.fromString("12345000-0000-0000-0000-000000000000");
+    List<TestResultRow> rows = new ArrayList<>();
+    var valueIterator =
+        getIteratorForCsv(loadCsv("testResultUpload/test-results-upload-valid-5000-rows.csv"));
+    while (valueIterator.hasNext() && rows.size() < 100) {
+      rows.add(new TestResultRow(getNextRow(valueIterator)));
+    }
+
+    var memo = sut.newResourceMemo();
+    List<String> rebuilt = new ArrayList<>(rows.size());
+    List<String> memoized = new ArrayList<>(rows.size());
+    for (TestResultRow row : rows) {
+      rebuilt.add(sut.convertToSerializedFhirBundle(row, orgId, sut.newResourceMemo()));
+      memoized.add(sut.convertToSerializedFhirBundle(row, orgId, memo));
+    }
+
+    assertThat(memoized).isEqualTo(rebuilt);
+  }
+
   @Test
   void convertExistingCsv_populatesBlankFields() {
     InputStream input = loadCsv("testResultUpload/test-results-upload-valid-blank-dates.csv");
@@ -0,0 +1,101 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FhirConversionExecutorTest {
+  private SimpleMeterRegistry meterRegistry;
+  private FhirConversionExecutor sut;
+
+  @BeforeEach
+  void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    sut = new FhirConversionExecutor(2, 3, meterRegistry);
+  }
+
+  @AfterEach
+  void teardown() {
+    sut.shutdown();
+  }
+
+  @Test
+  void join_returnsResultsInSubmissionOrder() {
+    FhirConversionExecutor.Batch<Integer> batch = sut.newBatch();
+
+    IntStream.range(0, 50)
+        .forEach(
+            i ->
+                batch.submit(
+                    () -> {
+                      sleep(50 - i);
+                      return i;
+                    }));
+
+    assertThat(batch.join()).isEqualTo(IntStream.range(0, 50).boxed().toList());
+  }
+
+  @Test
+  void submit_neverHasMoreThanPoolSizePlusQueueCapacityPending() {
+    FhirConversionExecutor.Batch<Integer> batch = sut.newBatch();
+    var pending = new AtomicInteger();
+    var maxPending = new AtomicInteger();
+
+    IntStream.range(0, 50)
+        .forEach(
+            i -> {
+              maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+              batch.submit(
+                  () -> {
+                    sleep(2);
+                    pending.decrementAndGet();
+                    return i;
+                  });
+            });
+    batch.join();
+
+    assertThat(maxPending.get()).isLessThanOrEqualTo(2 + 3 + 1);
+  }
+
+  @Test
+  void join_rethrowsConversionFailure() {
+    FhirConversionExecutor.Batch<Integer> batch = sut.newBatch();
+    batch.submit(() -> 1);
+    batch.submit(
+        () -> {
+          throw new IllegalStateException("bad row");
+        });
+
+    var thrown = assertThrows(CompletionException.class, batch::join);
+    assertThat(thrown).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void submit_recordsConversionTimeAndPoolMetrics() {
+    FhirConversionExecutor.Batch<Integer> batch = sut.newBatch();
+    IntStream.range(0, 10).forEach(i -> batch.submit(() -> i));
+    List<Integer> results = batch.join();
+
+    assertThat(results).hasSize(10);
+    assertThat(meterRegistry.get(FhirConversionExecutor.METRIC_NAME + ".row").timer().count())
+        .isEqualTo(10);
+    assertThat(meterRegistry.get("executor.queued").tag("name", "fhir-conversion").gauge())
+        .isNotNull();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
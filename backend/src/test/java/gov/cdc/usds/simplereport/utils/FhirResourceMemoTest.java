@@ -0,0 +1,123 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static gov.cdc.usds.simplereport.api.converter.FhirConstants.DEFAULT_COUNTRY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import gov.cdc.usds.simplereport.api.converter.FhirConverter;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import org.hl7.fhir.r4.model.Device;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.junit.jupiter.api.Test;
+
+class FhirResourceMemoTest {
+  private final IParser parser = FhirContext.forR4().newJsonParser();
+  private final FhirConverter fhirConverter =
+      spy(new FhirConverter(new UUIDGenerator(), new DateGenerator()));
+  private final FhirResourceMemo memo = new FhirResourceMemo(fhirConverter);
+
+  @Test
+  void organization_sameValues_builtOnceWithEachId() {
+    Organization first =
+        memo.organization(
+            "org-1", "My Lab", "12D4567890", "(248) 555 1234", null, labAddress(), DEFAULT_COUNTRY);
+    Organization second =
+        memo.organization(
+            "org-2", "My Lab", "12D4567890", "(248) 555 1234", null, labAddress(), DEFAULT_COUNTRY);
+
+    verify(fhirConverter, times(1))
+        .convertToOrganization(any(), any(), any(), any(), any(), any(), any());
+    assertThat(second).isNotSameAs(first);
+    assertThat(first.getIdElement().getIdPart()).isEqualTo("org-1");
+    assertThat(second.getIdElement().getIdPart()).isEqualTo("org-2");
+    assertThat(parser.encodeResourceToString(second))
+        .isEqualTo(
+            parser.encodeResourceToString(
+                fhirConverter.convertToOrganization(
+                    "org-2",
+                    "My Lab",
+                    "12D4567890",
+                    "(248) 555 1234",
+                    null,
+                    labAddress(),
+                    DEFAULT_COUNTRY)));
+  }
+
+  @Test
+  void organization_differentValues_builtSeparately() {
+    Organization lab =
+        memo.organization(
+            "org-1", "My Lab", "12D4567890", "(248) 555 1234", null, labAddress(), DEFAULT_COUNTRY);
+    Organization otherLab =
+        memo.organization(
+            "org-1",
+            "Other Lab",
+            "12D4567890",
+            "(248) 555 1234",
+            null,
+            labAddress(),
+            DEFAULT_COUNTRY);
+
+    verify(fhirConverter, times(2))
+        .convertToOrganization(any(), any(), any(), any(), any(), any(), any());
+    assertThat(lab.getName()).isEqualTo("My Lab");
+    assertThat(otherLab.getName()).isEqualTo("Other Lab");
+  }
+
+  @Test
+  void practitioner_sameValues_matchesFreshlyBuilt() {
+    PersonName name = new PersonName("Fred", null, "Flintstone", null);
+    Practitioner first =
+        memo.practitioner(
+            "1013012657", name, "(248) 555 1234", labAddress(), DEFAULT_COUNTRY, "1013012657");
+    first.addName().setText("changed after the fact");
+    Practitioner second =
+        memo.practitioner(
+            "1013012657", name, "(248) 555 1234", labAddress(), DEFAULT_COUNTRY, "1013012657");
+
+    verify(fhirConverter, times(1)).convertToPractitioner(any(), any(), any(), any(), any(), any());
+    assertThat(parser.encodeResourceToString(second))
+        .isEqualTo(
+            parser.encodeResourceToString(
+                fhirConverter.convertToPractitioner(
+                    "1013012657",
+                    name,
+                    "(248) 555 1234",
+                    labAddress(),
+                    DEFAULT_COUNTRY,
+                    "1013012657")));
+  }
+
+  @Test
+  void device_sameModel_reusedAcrossIds() {
+    Device first = memo.device("Abbott", "ID NOW", "device-1", "uid", "uidType");
+    Device second = memo.device("Abbott", "ID NOW", "device-2", "uid", "uidType");
+
+    verify(fhirConverter, times(1)).convertToDevice(any(), any(), any(), any(), any());
+    assertThat(first.getIdElement().getIdPart()).isEqualTo("device-1");
+    assertThat(second.getIdElement().getIdPart()).isEqualTo("device-2");
+    assertThat(second.getDeviceNameFirstRep().getName()).isEqualTo("ID NOW");
+  }
+
+  @Test
+  void device_manyDistinctValues_stopsRemembering() {
+    int distinct = FhirResourceMemo.MAX_ENTRIES_PER_TYPE + 10;
+    for (int i = 0; i < distinct; i++) {
+      Device device = memo.device("Abbott", "model " + i, "device-" + i, null, null);
+      assertThat(device.getDeviceNameFirstRep().getName()).isEqualTo("model " + i);
+    }
+
+    assertThat(memo.size()).isEqualTo(FhirResourceMemo.MAX_ENTRIES_PER_TYPE);
+  }
+
+  private static StreetAddress labAddress() {
+    return new StreetAddress("736 Jackson PI NW", null, "Washington", "DC", "20503", null);
+  }
+}
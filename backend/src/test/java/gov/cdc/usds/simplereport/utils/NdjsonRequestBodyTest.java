@@ -0,0 +1,33 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class NdjsonRequestBodyTest {
+
+  @Test
+  void fromLines_joinsLinesWithNewlines() {
+    byte[] body = NdjsonRequestBody.fromLines(List.of("{\"a\":1}", "{\"b\":\"é\"}"), false);
+
+    assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}\n{\"b\":\"é\"}");
+  }
+
+  @Test
+  void fromLines_gzip_roundTrips() throws IOException {
+    byte[] body = NdjsonRequestBody.fromLines(List.of("one", "two"), true);
+
+    assertThat(gunzip(body)).isEqualTo("one\ntwo");
+  }
+
+  private static String gunzip(byte[] body) throws IOException {
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
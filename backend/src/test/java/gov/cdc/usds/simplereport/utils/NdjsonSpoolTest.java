@@ -0,0 +1,54 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class NdjsonSpoolTest {
+
+  @Test
+  void finish_matchesRequestBodyFromLines() throws IOException {
+    try (var spool = new NdjsonSpool()) {
+      spool.append("one");
+      spool.append("two");
+      spool.append("three");
+
+      assertThat(Files.readAllBytes(spool.finish(false)))
+          .isEqualTo(NdjsonRequestBody.fromLines(List.of("one", "two", "three"), false));
+    }
+  }
+
+  @Test
+  void finish_gzip_roundTrips() throws IOException {
+    try (var spool = new NdjsonSpool()) {
+      spool.append("one");
+      spool.append("two");
+
+      Path gzipped = spool.finish(true);
+
+      try (var gzip = new GZIPInputStream(Files.newInputStream(gzipped))) {
+        assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("one\ntwo");
+      }
+    }
+  }
+
+  @Test
+  void close_removesSpooledFiles() {
+    Path plain;
+    Path gzipped;
+    try (var spool = new NdjsonSpool()) {
+      spool.append("one");
+      plain = spool.finish(false);
+      gzipped = spool.finish(true);
+    }
+
+    assertThat(plain).doesNotExist();
+    assertThat(gzipped).doesNotExist();
+  }
+}
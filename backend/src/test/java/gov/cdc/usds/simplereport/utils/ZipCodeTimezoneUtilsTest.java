@@ -0,0 +1,45 @@
+package gov.cdc.usds.simplereport.utils;
+
+import static gov.cdc.usds.simplereport.utils.ZipCodeTimezoneUtils.getZoneIdByZipCode;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneId;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ZipCodeTimezoneUtilsTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "20500, US/Eastern",
+    "14202-1234, US/Eastern",
+    "60601, US/Central",
+    "80202, US/Mountain",
+    "94103, US/Pacific",
+    "96813, US/Hawaii"
+  })
+  void getZoneIdByZipCode_singleTimezonePrefix(String zipCode, String zoneId) {
+    assertThat(getZoneIdByZipCode(zipCode)).contains(ZoneId.of(zoneId));
+  }
+
+  @ParameterizedTest
+  @NullAndEmptySource
+  @ValueSource(
+      strings = {
+        // Texas, Florida, Tennessee, Indiana and Alaska all span more than one timezone
+        "78701",
+        "32501",
+        "37201",
+        "46201",
+        "99501",
+        // not ZIP codes
+        "123",
+        "ABCDE",
+        "1A345"
+      })
+  void getZoneIdByZipCode_unknownOrAmbiguous(String zipCode) {
+    assertThat(getZoneIdByZipCode(zipCode)).isEmpty();
+  }
+}
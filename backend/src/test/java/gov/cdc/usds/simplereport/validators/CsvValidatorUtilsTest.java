@@ -48,6 +48,15 @@ class CsvValidatorUtilsTest {
     assertThat(validateZipCode(residence)).hasSize(1);
   }
 
+  @Test
+  void zipCodeFormats() {
+    assertThat(validateZipCode(new ValueOrError("21037-1234", "zip_code"))).isEmpty();
+    assertThat(validateZipCode(new ValueOrError(" 21037 ", "zip_code"))).isEmpty();
+    assertThat(validateZipCode(new ValueOrError("21037-123", "zip_code"))).hasSize(1);
+    assertThat(validateZipCode(new ValueOrError("21037 1234", "zip_code"))).hasSize(1);
+    assertThat(validateZipCode(new ValueOrError("2103a", "zip_code"))).hasSize(1);
+  }
+
   @Test
   void validPhoneNumber() {
     ValueOrError phoneNumber = new ValueOrError("410-956-1222", "phoneNumber");
@@ -60,6 +69,12 @@ class CsvValidatorUtilsTest {
     assertThat(validatePhoneNumber(phoneNumber)).hasSize(1);
   }
 
+  @Test
+  void phoneNumberAreaCodeCannotStartWithZero() {
+    assertThat(validatePhoneNumber(new ValueOrError("010-956-1222", "phoneNumber"))).hasSize(1);
+    assertThat(validatePhoneNumber(new ValueOrError("410-956-122a", "phoneNumber"))).hasSize(1);
+  }
+
   // validateInSet
   @Test
   void validEthnicity() {
@@ -173,6 +188,12 @@ class CsvValidatorUtilsTest {
         .hasSize(1);
   }
 
+  @Test
+  void validLongSpecimenSNOMED() {
+    var specimenType = new ValueOrError("012345678901234", "specimen_type");
+    assertThat(validateSpecimenType(specimenType, Map.of())).isEmpty();
+  }
+
   @Test
   void validDateFormat() {
     var validDates = new ArrayList<ValueOrError>();
@@ -9,8 +9,10 @@ import gov.cdc.usds.simplereport.config.FeatureFlagsConfig;
 import gov.cdc.usds.simplereport.service.ResultsUploaderCachingService;
 import gov.cdc.usds.simplereport.service.model.reportstream.FeedbackMessage;
 import gov.cdc.usds.simplereport.test_util.TestDataBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
@@ -301,6 +303,95 @@ class FileValidatorTest {
     assertThat(errors).isEmpty();
   }
 
+  @Test
+  void testResults_validFile_handsEveryRowToConsumer() {
+    // GIVEN
+    InputStream input = loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv");
+    List<String> accessionNumbers = new ArrayList<>();
+    // WHEN
+    List<FeedbackMessage> errors =
+        testResultFileValidator.validate(
+            input,
+            (row, fileRow) -> {
+              assertThat(row)
+                  .containsEntry("accession_number", fileRow.getAccessionNumber().getValue());
+              accessionNumbers.add(fileRow.getAccessionNumber().getValue());
+            });
+    // THEN
+    assertThat(errors).isEmpty();
+    assertThat(accessionNumbers).hasSize(3);
+  }
+
+  @Test
+  void testResults_invalidFile_doesNotHandRowsToConsumer() {
+    // GIVEN
+    InputStream input = loadCsv("testResultUpload/test-results-upload-invalid-values.csv");
+    List<TestResultRow> validRows = new ArrayList<>();
+    // WHEN
+    List<FeedbackMessage> errors =
+        testResultFileValidator.validate(input, (row, fileRow) -> validRows.add(fileRow));
+    // THEN
+    assertThat(errors).isNotEmpty();
+    assertThat(validRows).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "patientBulkUpload/malformed.csv",
+        "patientBulkUpload/invalidValuesAndMissingFieldsInMultipleRows.csv",
+        "patientBulkUpload/emptyRow.csv"
+      })
+  void patientBulkUpload_parallelValidation_matchesSequential(String csvFile) {
+    var parallelValidator =
+        new FileValidator<>(
+            PatientUploadRow::new, new FileValidationExecutor(3, 2, new SimpleMeterRegistry()));
+
+    List<FeedbackMessage> expected = patientBulkUploadFileValidator.validate(loadCsv(csvFile));
+    List<FeedbackMessage> actual = parallelValidator.validate(loadCsv(csvFile));
+
+    assertThat(actual).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "testResultUpload/test-results-upload-invalid-values.csv",
+        "testResultUpload/test-results-upload-valid-5000-rows.csv"
+      })
+  void testResults_parallelValidation_matchesSequential(String csvFile) {
+    var parallelValidator =
+        new FileValidator<>(
+            row -> new TestResultRow(row, resultsUploaderCachingService, featureFlagsConfig),
+            new FileValidationExecutor(4, 7, new SimpleMeterRegistry()));
+
+    List<FeedbackMessage> expected = testResultFileValidator.validate(loadCsv(csvFile));
+    List<FeedbackMessage> actual = parallelValidator.validate(loadCsv(csvFile));
+
+    assertThat(actual).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+  }
+
+  @Test
+  void testResults_parallelValidation_handsRowsToConsumerInFileOrder() {
+    var parallelValidator =
+        new FileValidator<>(
+            row -> new TestResultRow(row, resultsUploaderCachingService, featureFlagsConfig),
+            new FileValidationExecutor(2, 1, new SimpleMeterRegistry()));
+    List<String> accessionNumbers = new ArrayList<>();
+
+    List<FeedbackMessage> errors =
+        parallelValidator.validate(
+            loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv"),
+            (row, fileRow) -> accessionNumbers.add(fileRow.getAccessionNumber().getValue()));
+
+    List<String> expected = new ArrayList<>();
+    testResultFileValidator.validate(
+        loadCsv("testResultUpload/test-results-upload-valid-with-flu-results.csv"),
+        (row, fileRow) -> expected.add(fileRow.getAccessionNumber().getValue()));
+    assertThat(errors).isEmpty();
+    assertThat(accessionNumbers).hasSize(3).isEqualTo(expected);
+  }
+
   @Test
   void testResultsFile_invalidHeaders() {
     // GIVEN
@@ -130,7 +130,7 @@ const TestCardForm = ({
 
   /**
    * When backend sends an updated test order, update the form state
-   * see refetch function and periodic polling on TestQueue useGetFacilityQueueQuery
+   * see refreshQueue and periodic polling for queue changes on TestQueue
    */
   useEffect(() => {
     // don't update if there are unsaved dirty changes or if still awaiting saved edits
@@ -145,7 +145,7 @@ const TestCardForm = ({
 
   /**
    * When backend sends an updated devices map, update the form state
-   * see refetch function and periodic polling on TestQueue useGetFacilityQueueQuery
+   * see useGetFacilityQueueQuery on TestQueue
    */
   useEffect(() => {
     // don't update if not done saving changes
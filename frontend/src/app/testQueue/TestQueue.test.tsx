@@ -11,6 +11,7 @@ import { Provider } from "react-redux";
 import configureStore, { MockStoreEnhanced } from "redux-mock-store";
 
 import {
+  GetFacilityQueueChangesDocument,
   GetFacilityQueueDocument,
   RemovePatientFromQueueDocument,
 } from "../../generated/graphql";
@@ -405,15 +406,21 @@ const mocks = [
   },
   {
     request: {
-      query: GetFacilityQueueDocument,
+      query: GetFacilityQueueChangesDocument,
       variables: {
         facilityId: "a1",
+        sinceVersion: undefined,
       },
     },
     result: {
       data: {
-        ...result.data,
-        queue: result.data.queue.slice(1),
+        queueChanges: {
+          version: "3",
+          modified: true,
+          complete: true,
+          changed: result.data.queue.slice(1),
+          removedIds: [],
+        },
       },
     },
   },
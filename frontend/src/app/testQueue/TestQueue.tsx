@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from "react";
+import React, { useCallback, useEffect, useRef, useState } from "react";
 import { CSSTransition, TransitionGroup } from "react-transition-group";
 import { useLocation } from "react-router-dom";
 
@@ -12,6 +12,7 @@ import {
 } from "../../config/constants";
 import {
   useGetFacilityQueueQuery,
+  useGetFacilityQueueChangesLazyQuery,
   GetFacilityQueueQuery,
   useAddPatientToQueueMutation,
   useRemovePatientFromQueueMutation,
@@ -26,6 +27,8 @@ import "./TestQueue.scss";
 import { TestCard } from "./TestCard/TestCard";
 import { ALERT_CONTENT, QUEUE_NOTIFICATION_TYPES } from "./constants";
 import { DevicesMap } from "./TestCardForm/types";
+import { isNewerVersion, mergeQueueChanges, Queue } from "./queueChanges";
+import { listenForQueueChanges } from "./queueEvents";
 
 const pollInterval = 10_000;
 
@@ -74,13 +77,21 @@ interface Props {
 }
 
 const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
-  const { data, loading, error, refetch, startPolling, stopPolling } =
-    useGetFacilityQueueQuery({
-      fetchPolicy: "no-cache",
-      variables: {
-        facilityId: activeFacilityId,
-      },
-    });
+  const { data, loading, error } = useGetFacilityQueueQuery({
+    fetchPolicy: "no-cache",
+    variables: {
+      facilityId: activeFacilityId,
+    },
+  });
+  const [getQueueChanges] = useGetFacilityQueueChangesLazyQuery({
+    fetchPolicy: "no-cache",
+  });
+  // the queue as of the last changes fetched; until then, the queue as loaded
+  const [changedQueue, setChangedQueue] = useState<Queue>();
+  // the server's version of changedQueue. Without one the server sends the
+  // whole queue, so the first refresh replaces the queue as loaded
+  const queueVersion = useRef<string>();
+  const queueEventsConnected = useRef(false);
   const appInsights = getAppInsights();
   const [addPatientToQueueMutation] = useAddPatientToQueueMutation();
   const [removePatientFromQueueMutation] = useRemovePatientFromQueueMutation();
@@ -114,11 +125,48 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
     }
   }, [location.state]);
 
+  const refreshQueue = useCallback(async () => {
+    const { data: changes } = await getQueueChanges({
+      variables: {
+        facilityId: activeFacilityId,
+        sinceVersion: queueVersion.current,
+      },
+    });
+    const queueChanges = changes?.queueChanges;
+    // a slow response can arrive after a newer one, so skip older versions
+    if (
+      queueChanges &&
+      (queueChanges.complete ||
+        isNewerVersion(queueChanges.version, queueVersion.current))
+    ) {
+      queueVersion.current = queueChanges.version;
+      setChangedQueue((current) => mergeQueueChanges(current, queueChanges));
+    }
+  }, [activeFacilityId, getQueueChanges]);
+
+  useEffect(() => {
+    // the server announces each new version, starting with the current one
+    return listenForQueueChanges(activeFacilityId, {
+      onVersion: (version) => {
+        if (isNewerVersion(version, queueVersion.current)) {
+          refreshQueue();
+        }
+      },
+      onConnectionChange: (connected) => {
+        queueEventsConnected.current = connected;
+      },
+    });
+  }, [activeFacilityId, refreshQueue]);
+
   useEffect(() => {
-    // Start polling on creation, stop on component teardown
-    startPolling(pollInterval);
-    return stopPolling;
-  }, [startPolling, stopPolling]);
+    // Poll while the event stream is down, stop on component teardown
+    const interval = setInterval(() => {
+      if (!queueEventsConnected.current) {
+        refreshQueue();
+      }
+    }, pollInterval);
+    return () => clearInterval(interval);
+  }, [refreshQueue]);
 
   if (error) {
     throw error;
@@ -138,6 +186,7 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
   }
 
   const facility = data.facility;
+  const queue = changedQueue ?? data.queue;
 
   if (!facility) {
     return <p>Facility not found</p>;
@@ -174,7 +223,7 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
         },
       });
       showPatientAddedToQueueAlert(patient);
-      await refetch();
+      await refreshQueue();
     } catch (err: any) {
       setStartTestPatientId(null);
       throw err;
@@ -191,13 +240,12 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
       },
     });
     setStartTestPatientId(null);
-    await refetch();
+    await refreshQueue();
   };
 
   let shouldRenderQueue =
-    data &&
-    data.queue &&
-    data.queue.length > 0 &&
+    queue &&
+    queue.length > 0 &&
     facility &&
     facility.deviceTypes &&
     facility.deviceTypes.length > 0;
@@ -222,7 +270,7 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
               testOrder={testOrder}
               devicesMap={devicesMap}
               facility={facility}
-              refetchQueue={refetch}
+              refetchQueue={refreshQueue}
               removePatientFromQueue={removePatientFromQueue}
               startTestPatientId={startTestPatientId}
               setStartTestPatientId={setStartTestPatientId}
@@ -254,8 +302,8 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
     );
   };
 
-  const patientsInQueue: string[] = data?.queue
-    ? data?.queue
+  const patientsInQueue: string[] = queue
+    ? queue
         .map((q) => q?.patient.internalId)
         .filter((element): element is string => !!element)
     : [];
@@ -266,7 +314,7 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
         <h1 className="font-sans-lg">Conduct tests</h1>
         <div className="position-relative">
           <AddToQueueSearch
-            refetchQueue={refetch}
+            refetchQueue={refreshQueue}
             facilityId={activeFacilityId}
             patientsInQueue={patientsInQueue}
             startTestPatientId={startTestPatientId}
@@ -275,7 +323,7 @@ const TestQueue: React.FC<Props> = ({ activeFacilityId }) => {
             addPatientToQueue={addPatientToQueue}
           />
         </div>
-        <ul className={"test-card-list"}>{createQueueItems(data.queue)}</ul>
+        <ul className={"test-card-list"}>{createQueueItems(queue)}</ul>
       </div>
     </div>
   );
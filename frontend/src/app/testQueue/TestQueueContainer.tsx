@@ -11,7 +11,8 @@ const TestQueueContainer = () => {
   return !activeFacilityId ? (
     <div>"No facility selected"</div>
   ) : (
-    <TestQueue activeFacilityId={activeFacilityId} />
+    // a new queue for each facility, so changes to one aren't merged into another
+    <TestQueue key={activeFacilityId} activeFacilityId={activeFacilityId} />
   );
 };
 
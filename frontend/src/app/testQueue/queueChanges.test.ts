@@ -0,0 +1,62 @@
+import { isNewerVersion, mergeQueueChanges, Queue } from "./queueChanges";
+
+type TestOrder = NonNullable<NonNullable<Queue>[number]>;
+
+const testOrder = (internalId: string, symptoms = "{}") =>
+  ({ internalId, symptoms } as TestOrder);
+
+describe("mergeQueueChanges", () => {
+  const queue = [testOrder("a"), testOrder("b"), testOrder("c")];
+
+  it("replaces the queue with a complete one", () => {
+    const merged = mergeQueueChanges(queue, {
+      version: "5",
+      modified: true,
+      complete: true,
+      changed: [testOrder("d")],
+      removedIds: [],
+    });
+
+    expect(merged).toEqual([testOrder("d")]);
+  });
+
+  it("keeps the same queue if nothing changed", () => {
+    const merged = mergeQueueChanges(queue, {
+      version: "5",
+      modified: false,
+      complete: false,
+      changed: [],
+      removedIds: [],
+    });
+
+    expect(merged).toBe(queue);
+  });
+
+  it("updates changed orders in place, adds new ones and drops removed ones", () => {
+    const updated = testOrder("b", '{"fever":"true"}');
+
+    const merged = mergeQueueChanges(queue, {
+      version: "5",
+      modified: true,
+      complete: false,
+      changed: [updated, testOrder("d")],
+      removedIds: ["a"],
+    });
+
+    expect(merged).toEqual([updated, testOrder("c"), testOrder("d")]);
+    // unchanged orders are the same objects, so their cards don't reset
+    expect(merged?.[1]).toBe(queue[2]);
+  });
+});
+
+describe("isNewerVersion", () => {
+  it("is newer than no version", () => {
+    expect(isNewerVersion("1", undefined)).toBe(true);
+  });
+
+  it("compares versions as numbers", () => {
+    expect(isNewerVersion("10", "9")).toBe(true);
+    expect(isNewerVersion("9", "10")).toBe(false);
+    expect(isNewerVersion("9", "9")).toBe(false);
+  });
+});
@@ -0,0 +1,43 @@
+import {
+  GetFacilityQueueChangesQuery,
+  GetFacilityQueueQuery,
+} from "../../generated/graphql";
+
+export type Queue = GetFacilityQueueQuery["queue"];
+export type QueueChanges = GetFacilityQueueChangesQuery["queueChanges"];
+
+/**
+ * Applies what changed in the queue since the client's last version to its
+ * copy of the queue. Changed orders replace the ones with the same id, new
+ * ones go at the end (the queue is in the order tests were started), and
+ * removed ones are dropped.
+ */
+export const mergeQueueChanges = (
+  queue: Queue,
+  changes: QueueChanges
+): Queue => {
+  if (changes.complete) {
+    return changes.changed;
+  }
+  if (!changes.modified) {
+    return queue;
+  }
+  const removedIds = new Set(changes.removedIds);
+  const changedById = new Map(
+    changes.changed.map((testOrder) => [testOrder.internalId, testOrder])
+  );
+  const merged: NonNullable<Queue> = [];
+  (queue ?? []).forEach((testOrder) => {
+    if (testOrder && !removedIds.has(testOrder.internalId)) {
+      merged.push(changedById.get(testOrder.internalId) ?? testOrder);
+      changedById.delete(testOrder.internalId);
+    }
+  });
+  return [...merged, ...Array.from(changedById.values())];
+};
+
+/** Whether a queue version is newer than the one the client has, if any. */
+export const isNewerVersion = (
+  version: string,
+  currentVersion: string | undefined
+) => currentVersion === undefined || Number(version) > Number(currentVersion);
@@ -0,0 +1,62 @@
+import fetchMock from "jest-fetch-mock";
+import { waitFor } from "@testing-library/react";
+
+import {
+  eventStreamParser,
+  listenForQueueChanges,
+  QUEUE_CHANGED_EVENT,
+} from "./queueEvents";
+
+describe("eventStreamParser", () => {
+  it("calls back with each complete event, skipping comments", () => {
+    const onEvent = jest.fn();
+    const parse = eventStreamParser(onEvent);
+
+    parse(`event:${QUEUE_CHANGED_EVENT}\nid:1\nda`);
+    expect(onEvent).not.toHaveBeenCalled();
+    parse("ta:1\n\n:heartbeat\n\n");
+    parse(`event: ${QUEUE_CHANGED_EVENT}\r\ndata: 2\r\n\r\n`);
+
+    expect(onEvent.mock.calls).toEqual([
+      [QUEUE_CHANGED_EVENT, "1"],
+      [QUEUE_CHANGED_EVENT, "2"],
+    ]);
+  });
+
+  it("names events without an event field message", () => {
+    const onEvent = jest.fn();
+
+    eventStreamParser(onEvent)("data:hello\n\n");
+
+    expect(onEvent).toHaveBeenCalledWith("message", "hello");
+  });
+});
+
+describe("listenForQueueChanges", () => {
+  beforeEach(() => {
+    fetchMock.resetMocks();
+    localStorage.setItem("access_token", "access-token-123");
+  });
+
+  it("opens the stream with the access token", async () => {
+    fetchMock.mockResponseOnce("", { status: 401 });
+    const onConnectionChange = jest.fn();
+
+    const stop = listenForQueueChanges("a1", {
+      onVersion: jest.fn(),
+      onConnectionChange,
+    });
+    // the request failed, so the caller polls until it reconnects
+    await waitFor(() => expect(onConnectionChange).toHaveBeenCalledWith(false));
+    stop();
+
+    expect(fetchMock).toHaveBeenCalledTimes(1);
+    const [url, init] = fetchMock.mock.calls[0];
+    expect(url).toContain("/queue/events?facilityId=a1");
+    expect(init?.headers).toMatchObject({
+      Accept: "text/event-stream",
+      Authorization: "Bearer access-token-123",
+    });
+    expect(onConnectionChange).not.toHaveBeenCalledWith(true);
+  });
+});
@@ -0,0 +1,122 @@
+import FetchClient from "../utils/api";
+import { getAppInsightsHeaders } from "../TelemetryService";
+
+const api = new FetchClient();
+
+export const QUEUE_CHANGED_EVENT = "queue-changed";
+const reconnectDelay = 5_000;
+
+interface QueueEventHandlers {
+  onVersion: (version: string) => void;
+  onConnectionChange: (connected: boolean) => void;
+}
+
+/**
+ * Parses a text/event-stream a chunk at a time, calling onEvent with the name
+ * and data of each complete event. Comments, like the server's heartbeats, are
+ * skipped.
+ */
+export const eventStreamParser = (
+  onEvent: (name: string, data: string) => void
+) => {
+  let buffer = "";
+  let name = "";
+  let data: string[] = [];
+  return (chunk: string) => {
+    buffer += chunk;
+    const lines = buffer.split("\n");
+    buffer = lines.pop() ?? "";
+    lines.forEach((rawLine) => {
+      const line = rawLine.endsWith("\r") ? rawLine.slice(0, -1) : rawLine;
+      if (line === "") {
+        // a blank line ends the event
+        if (data.length > 0) {
+          onEvent(name || "message", data.join("\n"));
+        }
+        name = "";
+        data = [];
+        return;
+      }
+      if (line.startsWith(":")) {
+        return;
+      }
+      const colon = line.indexOf(":");
+      const field = colon === -1 ? line : line.slice(0, colon);
+      const value = colon === -1 ? "" : line.slice(colon + 1).replace(/^ /, "");
+      if (field === "event") {
+        name = value;
+      } else if (field === "data") {
+        data.push(value);
+      }
+    });
+  };
+};
+
+const readQueueEvents = async (
+  facilityId: string,
+  { onVersion, onConnectionChange }: QueueEventHandlers,
+  signal: AbortSignal
+) => {
+  const response = await fetch(
+    api.getURL(`/queue/events?facilityId=${encodeURIComponent(facilityId)}`),
+    {
+      method: "GET",
+      mode: "cors",
+      headers: {
+        Accept: "text/event-stream",
+        "Access-Control-Request-Headers": "Authorization",
+        Authorization: `Bearer ${localStorage.getItem("access_token")}`,
+        ...getAppInsightsHeaders(),
+      },
+      signal,
+    }
+  );
+  if (!response.ok || !response.body?.getReader) {
+    throw new Error(`Test queue events request failed: ${response.status}`);
+  }
+  onConnectionChange(true);
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  const parse = eventStreamParser((name, data) => {
+    if (name === QUEUE_CHANGED_EVENT) {
+      onVersion(data);
+    }
+  });
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      return;
+    }
+    parse(decoder.decode(value, { stream: true }));
+  }
+};
+
+/**
+ * Listens for the server-sent events announcing changes to a facility's test
+ * queue, calling onVersion with each version announced. The browser's
+ * EventSource can't send the Authorization header the API needs, so the stream
+ * is read with fetch instead. The stream is reopened whenever it ends or
+ * fails, and onConnectionChange says whether it is open, so the caller can
+ * poll in the meantime.
+ *
+ * @returns a function that stops listening
+ */
+export const listenForQueueChanges = (
+  facilityId: string,
+  handlers: QueueEventHandlers
+) => {
+  const controller = new AbortController();
+  const listen = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        await readQueueEvents(facilityId, handlers, controller.signal);
+      } catch {
+        // reconnected below, unless we've stopped listening
+      }
+      handlers.onConnectionChange(false);
+      await new Promise((resolve) => setTimeout(resolve, reconnectDelay));
+    }
+  };
+  listen();
+  return () => controller.abort();
+};
@@ -732,6 +732,7 @@ export type Query = {
   patientsCount?: Maybe<Scalars["Int"]["output"]>;
   pendingOrganizations: Array<PendingOrganization>;
   queue?: Maybe<Array<Maybe<TestOrder>>>;
+  queueChanges: TestQueueChanges;
   resultsPage?: Maybe<ResultsPage>;
   specimenType?: Maybe<Array<Maybe<SpecimenType>>>;
   specimenTypes: Array<SpecimenType>;
@@ -825,6 +826,11 @@ export type QueryQueueArgs = {
   facilityId: Scalars["ID"]["input"];
 };
 
+export type QueryQueueChangesArgs = {
+  facilityId: Scalars["ID"]["input"];
+  sinceVersion?: InputMaybe<Scalars["String"]["input"]>;
+};
+
 export type QueryResultsPageArgs = {
   disease?: InputMaybe<Scalars["String"]["input"]>;
   endDate?: InputMaybe<Scalars["DateTime"]["input"]>;
@@ -999,6 +1005,15 @@ export type TestOrder = {
   syphilisHistory?: Maybe<Scalars["String"]["output"]>;
 };
 
+export type TestQueueChanges = {
+  __typename?: "TestQueueChanges";
+  changed: Array<TestOrder>;
+  complete: Scalars["Boolean"]["output"];
+  modified: Scalars["Boolean"]["output"];
+  removedIds: Array<Scalars["ID"]["output"]>;
+  version: Scalars["String"]["output"];
+};
+
 export type TestResult = {
   __typename?: "TestResult";
   correctionStatus?: Maybe<Scalars["String"]["output"]>;
@@ -2341,6 +2356,73 @@ export type GetFacilityQueueQuery = {
   } | null;
 };
 
+export type GetFacilityQueueChangesQueryVariables = Exact<{
+  facilityId: Scalars["ID"]["input"];
+  sinceVersion?: InputMaybe<Scalars["String"]["input"]>;
+}>;
+
+export type GetFacilityQueueChangesQuery = {
+  __typename?: "Query";
+  queueChanges: {
+    __typename?: "TestQueueChanges";
+    version: string;
+    modified: boolean;
+    complete: boolean;
+    removedIds: Array<string>;
+    changed: Array<{
+      __typename?: "TestOrder";
+      internalId: string;
+      pregnancy?: string | null;
+      syphilisHistory?: string | null;
+      dateAdded: string;
+      symptoms?: string | null;
+      symptomOnset?: any | null;
+      noSymptoms?: boolean | null;
+      genderOfSexualPartners?: Array<string | null> | null;
+      dateTested?: any | null;
+      correctionStatus?: string | null;
+      reasonForCorrection?: string | null;
+      deviceType: {
+        __typename?: "DeviceType";
+        internalId: string;
+        name: string;
+        model: string;
+        testLength: number;
+      };
+      specimenType: {
+        __typename?: "SpecimenType";
+        internalId: string;
+        name: string;
+        typeCode: string;
+      };
+      patient: {
+        __typename?: "Patient";
+        internalId: string;
+        telephone?: string | null;
+        birthDate?: any | null;
+        firstName?: string | null;
+        middleName?: string | null;
+        lastName?: string | null;
+        gender?: string | null;
+        testResultDelivery?: TestResultDeliveryPreference | null;
+        preferredLanguage?: string | null;
+        email?: string | null;
+        emails?: Array<string | null> | null;
+        phoneNumbers?: Array<{
+          __typename?: "PhoneNumber";
+          type?: PhoneType | null;
+          number?: string | null;
+        } | null> | null;
+      };
+      results: Array<{
+        __typename?: "MultiplexResult";
+        testResult: string;
+        disease: { __typename?: "SupportedDisease"; name: string };
+      }>;
+    }>;
+  };
+};
+
 export type GetTestResultForResendingEmailsQueryVariables = Exact<{
   id: Scalars["ID"]["input"];
 }>;
@@ -7553,6 +7635,134 @@ export type GetFacilityQueueQueryResult = Apollo.QueryResult<
   GetFacilityQueueQuery,
   GetFacilityQueueQueryVariables
 >;
+export const GetFacilityQueueChangesDocument = gql`
+  query GetFacilityQueueChanges($facilityId: ID!, $sinceVersion: String) {
+    queueChanges(facilityId: $facilityId, sinceVersion: $sinceVersion) {
+      version
+      modified
+      complete
+      changed {
+        internalId
+        pregnancy
+        syphilisHistory
+        dateAdded
+        symptoms
+        symptomOnset
+        noSymptoms
+        genderOfSexualPartners
+        deviceType {
+          internalId
+          name
+          model
+          testLength
+        }
+        specimenType {
+          internalId
+          name
+          typeCode
+        }
+        patient {
+          internalId
+          telephone
+          birthDate
+          firstName
+          middleName
+          lastName
+          gender
+          testResultDelivery
+          preferredLanguage
+          email
+          emails
+          phoneNumbers {
+            type
+            number
+          }
+        }
+        results {
+          disease {
+            name
+          }
+          testResult
+        }
+        dateTested
+        correctionStatus
+        reasonForCorrection
+      }
+      removedIds
+    }
+  }
+`;
+
+/**
+ * __useGetFacilityQueueChangesQuery__
+ *
+ * To run a query within a React component, call `useGetFacilityQueueChangesQuery` and pass it any options that fit your needs.
+ * When your component renders, `useGetFacilityQueueChangesQuery` returns an object from Apollo Client that contains loading, error, and data properties
+ * you can use to render your UI.
+ *
+ * @param baseOptions options that will be passed into the query, supported options are listed on: https://www.apollographql.com/docs/react/api/react-hooks/#options;
+ *
+ * @example
+ * const { data, loading, error } = useGetFacilityQueueChangesQuery({
+ *   variables: {
+ *      facilityId: // value for 'facilityId'
+ *      sinceVersion: // value for 'sinceVersion'
+ *   },
+ * });
+ */
+export function useGetFacilityQueueChangesQuery(
+  baseOptions: Apollo.QueryHookOptions<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  > &
+    (
+      | { variables: GetFacilityQueueChangesQueryVariables; skip?: boolean }
+      | { skip: boolean }
+    )
+) {
+  const options = { ...defaultOptions, ...baseOptions };
+  return Apollo.useQuery<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  >(GetFacilityQueueChangesDocument, options);
+}
+export function useGetFacilityQueueChangesLazyQuery(
+  baseOptions?: Apollo.LazyQueryHookOptions<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  >
+) {
+  const options = { ...defaultOptions, ...baseOptions };
+  return Apollo.useLazyQuery<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  >(GetFacilityQueueChangesDocument, options);
+}
+export function useGetFacilityQueueChangesSuspenseQuery(
+  baseOptions?: Apollo.SuspenseQueryHookOptions<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  >
+) {
+  const options = { ...defaultOptions, ...baseOptions };
+  return Apollo.useSuspenseQuery<
+    GetFacilityQueueChangesQuery,
+    GetFacilityQueueChangesQueryVariables
+  >(GetFacilityQueueChangesDocument, options);
+}
+export type GetFacilityQueueChangesQueryHookResult = ReturnType<
+  typeof useGetFacilityQueueChangesQuery
+>;
+export type GetFacilityQueueChangesLazyQueryHookResult = ReturnType<
+  typeof useGetFacilityQueueChangesLazyQuery
+>;
+export type GetFacilityQueueChangesSuspenseQueryHookResult = ReturnType<
+  typeof useGetFacilityQueueChangesSuspenseQuery
+>;
+export type GetFacilityQueueChangesQueryResult = Apollo.QueryResult<
+  GetFacilityQueueChangesQuery,
+  GetFacilityQueueChangesQueryVariables
+>;
 export const GetTestResultForResendingEmailsDocument = gql`
   query getTestResultForResendingEmails($id: ID!) {
     testResult(id: $id) {